@@ -0,0 +1,40 @@
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Generates a secret for a client-credentials client and prints the
+ * properties that register it. The secret goes to the client only; the
+ * service stores its HMAC-SHA256 under client-credentials.hash-key (or
+ * jwt.secret when that is empty). Single-file source program:
+ *
+ * <pre>
+ * java scripts/NewServiceClient.java CLIENT_ID HASH_KEY [SCOPE...]
+ * </pre>
+ */
+public class NewServiceClient {
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: java scripts/NewServiceClient.java CLIENT_ID HASH_KEY [SCOPE...]");
+            System.exit(2);
+        }
+        String clientId = args[0];
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        String secret = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(args[1].getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String hash = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(mac.doFinal(secret.getBytes(StandardCharsets.UTF_8)));
+
+        System.out.println("# client secret (hand to the client, not stored): " + secret);
+        System.out.println("client-credentials.clients." + clientId + ".secret-hash=" + hash);
+        if (args.length > 2) {
+            System.out.println("client-credentials.clients." + clientId + ".scopes="
+                    + String.join(",", java.util.Arrays.copyOfRange(args, 2, args.length)));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+import java.io.BufferedReader;
+import java.io.FileWriter;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Accepts SMTP on localhost and appends each message body to a file, so
+ * scripts can read the OTPs the service sends. Single-file source program:
+ *
+ * <pre>
+ * java scripts/SmtpSink.java PORT MAIL_FILE
+ * </pre>
+ */
+public class SmtpSink {
+    public static void main(String[] args) throws Exception {
+        int port = Integer.parseInt(args[0]);
+        String mailFile = args[1];
+        try (ServerSocket server = new ServerSocket(port)) {
+            while (true) {
+                try (Socket socket = server.accept()) {
+                    session(socket, mailFile);
+                } catch (Exception e) {
+                    System.err.println("SMTP session failed: " + e);
+                }
+            }
+        }
+    }
+
+    private static void session(Socket socket, String mailFile) throws Exception {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        reply(out, "220 localhost sink");
+        String line;
+        while ((line = in.readLine()) != null) {
+            String command = line.toUpperCase();
+            if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                reply(out, "250 localhost");
+            } else if (command.startsWith("DATA")) {
+                reply(out, "354 end with .");
+                try (Writer mail = new FileWriter(mailFile, StandardCharsets.UTF_8, true)) {
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        mail.write(line + "\n");
+                    }
+                }
+                reply(out, "250 queued");
+            } else if (command.startsWith("QUIT")) {
+                reply(out, "221 bye");
+                return;
+            } else {
+                reply(out, "250 ok");
+            }
+        }
+    }
+
+    private static void reply(PrintWriter out, String line) {
+        out.print(line + "\r\n");
+        out.flush();
+    }
+}
@@ -0,0 +1,172 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Open-loop load for fault-soak.sh: starts requests at a fixed rate whether
+ * or not earlier ones finished, and measures each from its scheduled start,
+ * so time spent queued behind a stalled dependency shows up in the tail
+ * instead of silently lowering the offered load. The mix is 70% login of
+ * the seeded bench user and 30% register of a fresh address (BCrypt, an
+ * otp_codes row and an SMTP send).
+ *
+ * Usage: java scripts/SoakLoad.java BASE_URL RATE_PER_SEC SECONDS MAX_IN_FLIGHT CSV_OUT
+ *
+ * Prints one line per second (by scheduled start) and a summary per
+ * operation; the CSV holds the per-second series.
+ */
+public class SoakLoad {
+    private static final String[] OPS = {"login", "register"};
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private static final String RUN = Long.toString(System.currentTimeMillis(), 36);
+    private static final AtomicLong REGISTRATIONS = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        String base = args[0];
+        int rate = Integer.parseInt(args[1]);
+        int seconds = Integer.parseInt(args[2]);
+        int maxInFlight = Integer.parseInt(args[3]);
+        Path csv = Path.of(args[4]);
+
+        long total = (long) rate * seconds;
+        long[][] latencies = new long[OPS.length][(int) total];
+        int[] counts = new int[OPS.length];
+        int[] errors = new int[OPS.length];
+        Second[] series = new Second[seconds + 1];
+        for (int i = 0; i < series.length; i++) {
+            series[i] = new Second();
+        }
+        AtomicInteger inFlight = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(maxInFlight);
+
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long scheduled = start + i * periodNanos;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            int op = ThreadLocalRandom.current().nextInt(10) < 7 ? 0 : 1;
+            Second second = series[(int) ((scheduled - start) / 1_000_000_000L)];
+            second.inFlight = Math.max(second.inFlight, inFlight.incrementAndGet());
+            workers.execute(() -> {
+                boolean ok = call(base, op);
+                long micros = (System.nanoTime() - scheduled) / 1000;
+                inFlight.decrementAndGet();
+                synchronized (latencies) {
+                    latencies[op][counts[op]++] = micros;
+                    if (!ok) {
+                        errors[op]++;
+                    }
+                    second.record(micros, ok);
+                }
+            });
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(120, TimeUnit.SECONDS)) {
+            System.err.println("Requests still outstanding after 120 s; they are left out");
+            workers.shutdownNow();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        synchronized (latencies) {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv))) {
+                out.println("second,completed,errors,p50_ms,p99_ms,max_ms,max_in_flight");
+                System.out.printf("%6s %9s %6s %9s %9s %9s %9s%n",
+                        "second", "completed", "errors", "p50_ms", "p99_ms", "max_ms", "in_flight");
+                for (int s = 0; s < seconds; s++) {
+                    Second second = series[s];
+                    long[] sorted = second.sorted();
+                    String line = String.format(Locale.ROOT, "%d,%d,%d,%.1f,%.1f,%.1f,%d", s, sorted.length,
+                            second.errors, pct(sorted, 0.5), pct(sorted, 0.99), pct(sorted, 1), second.inFlight);
+                    out.println(line);
+                    String[] f = line.split(",");
+                    System.out.printf("%6s %9s %6s %9s %9s %9s %9s%n", (Object[]) f);
+                }
+            }
+            System.out.println();
+            for (int op = 0; op < OPS.length; op++) {
+                long[] sorted = Arrays.copyOf(latencies[op], counts[op]);
+                Arrays.sort(sorted);
+                System.out.printf(Locale.ROOT,
+                        "summary op=%s requests=%d errors=%d throughput=%.1f p50_ms=%.1f p99_ms=%.1f p999_ms=%.1f max_ms=%.1f%n",
+                        OPS[op], counts[op], errors[op], counts[op] / elapsed,
+                        pct(sorted, 0.5), pct(sorted, 0.99), pct(sorted, 0.999), pct(sorted, 1));
+            }
+        }
+    }
+
+    private static boolean call(String base, int op) {
+        String path;
+        String body;
+        if (op == 0) {
+            path = "/api/auth/login";
+            body = "{\"email\":\"bench@example.com\",\"password\":\"bench-password\"}";
+        } else {
+            String user = "soak" + RUN + REGISTRATIONS.incrementAndGet();
+            path = "/api/auth/register";
+            body = "{\"username\":\"" + user + "\",\"email\":\"" + user + "@example.com\",\"password\":\"Soak-Test-1\"}";
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            int status = CLIENT.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            return status / 100 == 2;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static double pct(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1000.0;
+    }
+
+    private static final class Second {
+        final List<Long> latencies = new ArrayList<>();
+        int errors;
+        volatile int inFlight;
+
+        void record(long micros, boolean ok) {
+            latencies.add(micros);
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        long[] sorted() {
+            long[] result = latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+#!/usr/bin/env bash
+#
+# Soaks the service under degraded dependencies and reports throughput,
+# p99/p99.9 latency, and request thread and connection pool saturation
+# over time, for each scenario:
+#
+#   baseline    no faults
+#   slow-smtp   SMTP sends take ~800 ms (exponential), 1% hang for 10 s
+#   flaky-smtp  SMTP sends take ~150 ms and 10% fail
+#   slow-pool   4-connection pool; each checkout holds the connection
+#               ~40 ms longer, 1% for 3 s, with a 2 s acquire timeout
+#   otp-locks   statements on otp_codes wait ~100 ms, 2% for 5 s (lock
+#               waits); 1% time out
+#
+# Usage: scripts/fault-soak.sh [seconds] [rate] [scenario...]
+#   e.g. scripts/fault-soak.sh 60 10 baseline slow-smtp
+#
+# Pick a rate the baseline sustains on the machine (every request is a
+# BCrypt hash); above it every scenario only measures the backlog. Each run
+# starts with SOAK_WARMUP_SECONDS (15) of unmeasured load at the same rate.
+#
+# Everything runs locally: in-memory H2 with the embedded shard schema and
+# scripts/SmtpSink.java for mail. Faults are injected by the
+# fault-injection.* wrappers around the JavaMailSender and the datasource,
+# which live under src/test: the service runs from the test classpath as
+# com.example.auth.fault.FaultSoakApplication, never from the packaged jar.
+# Per-scenario output goes to target/fault-soak/<scenario>/: load.csv
+# (per-second latency), saturation.log (per-second threads, pool and
+# injected faults) and app.log.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+SECONDS_PER_RUN=${1:-60}
+RATE=${2:-10}
+if (( $# > 2 )); then
+  SCENARIOS=("${@:3}")
+else
+  SCENARIOS=(baseline slow-smtp flaky-smtp slow-pool otp-locks)
+fi
+PORT=${SOAK_PORT:-18083}
+SMTP_PORT=${SOAK_SMTP_PORT:-12526}
+MAX_IN_FLIGHT=${SOAK_MAX_IN_FLIGHT:-400}
+WARMUP_SECONDS=${SOAK_WARMUP_SECONDS:-15}
+WORK=target/fault-soak
+BASE="http://localhost:$PORT"
+
+APP_ARGS=(
+  --server.port="$PORT"
+  --spring.datasource.url="jdbc:h2:mem:soak;DB_CLOSE_DELAY=-1"
+  --spring.datasource.driver-class-name=org.h2.Driver
+  --spring.datasource.username=sa
+  --spring.datasource.password=
+  --spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect
+  --spring.jpa.show-sql=false
+  --spring.sql.init.schema-locations=classpath:db/sharding/h2-shard-schema.sql
+  --spring.flyway.enabled=false
+  --spring.sql.init.mode=always
+  --spring.sql.init.data-locations=file:scripts/startup-benchmark-seed.sql
+  --spring.mail.host=localhost
+  --spring.mail.port="$SMTP_PORT"
+  --spring.mail.properties.mail.smtp.auth=false
+  --spring.mail.properties.mail.smtp.starttls.enable=false
+  --jwt.expiration=86400000
+  --jwt.refresh-expiration=604800000
+  --audit.enabled=false
+  --logging.level.root=WARN
+  --logging.level.com.example.auth=WARN
+  --logging.level.com.example.auth.fault.SaturationSampler=INFO
+)
+
+scenario_args() {
+  case $1 in
+    baseline) ;;
+    slow-smtp) echo --fault-injection.smtp.distribution=EXPONENTIAL --fault-injection.smtp.latency-ms=800 \
+                    --fault-injection.smtp.stall-rate=0.01 --fault-injection.smtp.stall-ms=10000 ;;
+    flaky-smtp) echo --fault-injection.smtp.distribution=UNIFORM --fault-injection.smtp.latency-ms=150 \
+                     --fault-injection.smtp.error-rate=0.1 ;;
+    slow-pool) echo --spring.datasource.hikari.maximum-pool-size=4 --spring.datasource.hikari.connection-timeout=2000 \
+                    --fault-injection.connection.distribution=EXPONENTIAL --fault-injection.connection.latency-ms=40 \
+                    --fault-injection.connection.stall-rate=0.01 --fault-injection.connection.stall-ms=3000 ;;
+    otp-locks) echo --fault-injection.statement.sql-contains=otp_codes \
+                    --fault-injection.statement.distribution=EXPONENTIAL --fault-injection.statement.latency-ms=100 \
+                    --fault-injection.statement.stall-rate=0.02 --fault-injection.statement.stall-ms=5000 \
+                    --fault-injection.statement.error-rate=0.01 ;;
+    *) echo "Unknown scenario: $1" >&2; return 1 ;;
+  esac
+}
+
+mvn -B -q test-compile dependency:build-classpath \
+  -Dmdep.includeScope=test -Dmdep.outputFile=target/soak.classpath
+CLASSPATH_ARG="target/test-classes:target/classes:$(cat target/soak.classpath)"
+
+PIDS=()
+cleanup() { for pid in "${PIDS[@]}"; do kill "$pid" 2>/dev/null || true; done; }
+trap cleanup EXIT
+
+mkdir -p "$WORK"
+java scripts/SmtpSink.java "$SMTP_PORT" "$WORK/mail.log" > "$WORK/smtp.log" 2>&1 &
+PIDS+=($!)
+
+SUMMARY=()
+for scenario in "${SCENARIOS[@]}"; do
+  extra=$(scenario_args "$scenario")
+  dir="$WORK/$scenario"
+  mkdir -p "$dir"
+  echo "== $scenario: ${RATE}/s for ${SECONDS_PER_RUN}s"
+  # shellcheck disable=SC2086
+  java -cp "$CLASSPATH_ARG" com.example.auth.fault.FaultSoakApplication "${APP_ARGS[@]}" $extra > "$dir/app.log" 2>&1 &
+  app=$!
+  PIDS+=("$app")
+  until curl -s -o /dev/null "$BASE/api/auth/login"; do
+    kill -0 "$app" 2>/dev/null || { echo "Service exited, see $dir/app.log" >&2; exit 1; }
+    sleep 0.2
+  done
+
+  # Unmeasured warm-up so the JIT and the pools settle before the run
+  java scripts/SoakLoad.java "$BASE" "$RATE" "$WARMUP_SECONDS" "$MAX_IN_FLIGHT" "$dir/warmup.csv" > /dev/null
+  skip=$(grep -c 'saturation ' "$dir/app.log" || true)
+  java scripts/SoakLoad.java "$BASE" "$RATE" "$SECONDS_PER_RUN" "$MAX_IN_FLIGHT" "$dir/load.csv" | tee "$dir/load.txt"
+
+  kill "$app"
+  wait "$app" 2>/dev/null || true
+  grep -o 'saturation .*' "$dir/app.log" | tail -n +"$((skip + 1))" > "$dir/saturation.log" || true
+  echo
+  echo "saturation over time (per second):"
+  sed 's/^saturation //' "$dir/saturation.log"
+  echo
+
+  peaks=$(awk '{
+      for (i = 2; i <= NF; i++) { split($i, kv, "="); v[kv[1]] = kv[2] }
+      if (v["http_busy"] > busy) busy = v["http_busy"]
+      if (v["pool_waiting"] > waiting) waiting = v["pool_waiting"]
+    } END { printf "%d %d", busy, waiting }' "$dir/saturation.log")
+  while read -r line; do
+    SUMMARY+=("$scenario $line $peaks")
+  done < <(sed -n 's/^summary //p' "$dir/load.txt")
+done
+
+echo "== summary (latency from scheduled start, peak busy request threads and pool waiters)"
+printf '%-11s %-9s %8s %7s %10s %9s %9s %9s %9s %9s %8s\n' scenario op requests errors req_per_s \
+  p50_ms p99_ms p999_ms max_ms http_busy pool_wait
+for row in "${SUMMARY[@]}"; do
+  read -r scenario op requests errors throughput p50 p99 p999 max busy waiting <<< "$row"
+  printf '%-11s %-9s %8s %7s %10s %9s %9s %9s %9s %9s %8s\n' "$scenario" "${op#op=}" "${requests#*=}" \
+    "${errors#*=}" "${throughput#*=}" "${p50#*=}" "${p99#*=}" "${p999#*=}" "${max#*=}" "$busy" "$waiting"
+done
@@ -0,0 +1,48 @@
+#!/usr/bin/env bash
+#
+# Starts a JFR recording of a running auth service with the JDK's default
+# profile plus the bundled jfr/auth-service.jfc, which enables the
+# com.example.auth.* events (token verification, login and registration
+# stages, password encoding, email sends, OTP cleanup).
+#
+# Usage: scripts/jfr-record.sh <pid> [duration]
+#   e.g. scripts/jfr-record.sh 4242 60s
+#
+# With a duration the recording stops by itself and is written to
+# target/jfr/auth-<pid>.jfr. Without one it keeps the last hour in a
+# continuous recording named "auth"; dump it when needed with
+#   jcmd <pid> JFR.dump name=auth filename=auth.jfr
+# Then, for example:
+#   jfr print --events 'com.example.auth.*' auth.jfr
+#   jfr summary auth.jfr
+#
+# The same settings work from the start, without jcmd:
+#   java -XX:StartFlightRecording:settings=default,settings=auth-service.jfc,maxage=1h -jar ...
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+PID=${1:?usage: scripts/jfr-record.sh <pid> [duration]}
+DURATION=${2:-}
+JAR=target/auth-service-1.0.0.jar
+OUT=target/jfr
+
+mkdir -p "$OUT"
+SETTINGS="$(pwd)/$OUT/auth-service.jfc"
+if [[ -f src/main/resources/jfr/auth-service.jfc ]]; then
+  cp src/main/resources/jfr/auth-service.jfc "$SETTINGS"
+else
+  unzip -p "$JAR" BOOT-INF/classes/jfr/auth-service.jfc > "$SETTINGS"
+fi
+
+if [[ -n "$DURATION" ]]; then
+  FILE="$(pwd)/$OUT/auth-$PID.jfr"
+  jcmd "$PID" JFR.start name=auth settings=default settings="$SETTINGS" \
+    duration="$DURATION" filename="$FILE"
+  echo "Recording for $DURATION to $FILE"
+else
+  jcmd "$PID" JFR.start name=auth settings=default settings="$SETTINGS" \
+    disk=true maxage=1h
+  echo "Continuous recording 'auth' started; dump with: jcmd $PID JFR.dump name=auth filename=auth.jfr"
+fi
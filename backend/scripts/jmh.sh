@@ -0,0 +1,17 @@
+#!/usr/bin/env bash
+#
+# Runs the JMH microbenchmarks under src/test (classes named *Benchmark)
+# against the test classpath. Arguments go to JMH: a benchmark name regex,
+# then options such as -prof gc for allocations per operation.
+#
+# Usage: scripts/jmh.sh [regex] [jmh options]
+#   e.g. scripts/jmh.sh TokenCodecBenchmark -prof gc
+#        scripts/jmh.sh -l                       (list benchmarks)
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+mvn -B -q test-compile dependency:build-classpath \
+  -Dmdep.includeScope=test -Dmdep.outputFile=target/jmh.classpath
+exec java -cp "target/test-classes:target/classes:$(cat target/jmh.classpath)" org.openjdk.jmh.Main "$@"
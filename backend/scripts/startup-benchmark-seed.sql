@@ -0,0 +1,3 @@
+-- Verified account used by startup-benchmark.sh; the password is "bench-password"
+INSERT INTO users (username, email, email_lookup, password, role, is_verified, created_at)
+VALUES ('bench', 'bench@example.com', 'bench@example.com', '$2a$10$7qusHgrcCAUOkfJyESZBWenzXmfuI1DwAhXDnd6dlrzIeRbHvyTpW', 'USER', TRUE, CURRENT_TIMESTAMP);
@@ -0,0 +1,124 @@
+#!/usr/bin/env bash
+#
+# Measures time from process start to the first successful POST /api/auth/login
+# and the resident set size at that moment, for each build variant:
+#
+#   jvm     plain executable jar            mvn package
+#   aot     jar with Spring AOT code        mvn -Paot package
+#   cds     aot + AppCDS archive            mvn -Paot package
+#   native  GraalVM native image            mvn -Pnative native:compile
+#
+# Usage: scripts/startup-benchmark.sh [runs] [variant...]
+#   e.g. scripts/startup-benchmark.sh 5 jvm aot cds
+#
+# Each run uses a fresh in-memory H2 database with the embedded shard schema
+# and one verified user (the seed runs before Hibernate, which AOT requires),
+# so no MySQL/SMTP is needed and results are comparable between machines.
+# Build the jar for the variant first; jvm/aot/cds all use target/*.jar, so
+# build with -Paot to measure aot/cds and without it for jvm.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+shift || true
+VARIANTS=("${@:-jvm}")
+PORT=${BENCH_PORT:-18080}
+JAR=target/auth-service-1.0.0.jar
+NATIVE=target/auth-service
+WORK=target/startup-benchmark
+
+APP_ARGS=(
+  --server.port="$PORT"
+  --spring.datasource.url="jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1"
+  --spring.datasource.driver-class-name=org.h2.Driver
+  --spring.datasource.username=sa
+  --spring.datasource.password=
+  --spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect
+  --spring.jpa.show-sql=false
+  --spring.sql.init.schema-locations=classpath:db/sharding/h2-shard-schema.sql
+  --spring.flyway.enabled=false
+  --spring.sql.init.mode=always
+  --spring.sql.init.data-locations=file:scripts/startup-benchmark-seed.sql
+  --jwt.expiration=86400000
+  --jwt.refresh-expiration=604800000
+  --audit.enabled=false
+  --logging.level.root=WARN
+)
+LOGIN='{"email":"bench@example.com","password":"bench-password"}'
+
+now_ms() { date +%s%3N; }
+
+rss_kb() { awk '/^VmRSS:/ { print $2 }' "/proc/$1/status"; }
+
+# Extracts the fat jar to a flat classpath of plain jars; CDS cannot archive
+# classes loaded from nested jars or from non-empty directories.
+prepare_exploded() {
+  rm -rf "$WORK/exploded"
+  mkdir -p "$WORK/exploded"
+  (cd "$WORK/exploded" && jar -xf "../../../$JAR")
+  jar -cf "$WORK/exploded/application.jar" -C "$WORK/exploded/BOOT-INF/classes" .
+  CLASSPATH_EXPLODED="$WORK/exploded/application.jar"
+  while read -r entry; do
+    entry=${entry#- \"}
+    CLASSPATH_EXPLODED+=":$WORK/exploded/${entry%\"}"
+  done < "$WORK/exploded/BOOT-INF/classpath.idx"
+}
+
+command_for() {
+  case "$1" in
+    jvm)    CMD=(java -jar "$JAR") ;;
+    aot)    CMD=(java -Dspring.aot.enabled=true -jar "$JAR") ;;
+    cds)    CMD=(java -Dspring.aot.enabled=true -XX:SharedArchiveFile="$WORK/app.jsa"
+                 -cp "$CLASSPATH_EXPLODED" com.example.auth.AuthApplication) ;;
+    native) CMD=("$NATIVE") ;;
+    *) echo "unknown variant: $1" >&2; exit 2 ;;
+  esac
+}
+
+# Training run: start the context, exit after refresh and dump the archive
+train_cds() {
+  prepare_exploded
+  java -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+       -XX:ArchiveClassesAtExit="$WORK/app.jsa" \
+       -cp "$CLASSPATH_EXPLODED" com.example.auth.AuthApplication "${APP_ARGS[@]}" \
+       > "$WORK/cds-training.log" 2>&1 || true
+  [[ -f "$WORK/app.jsa" ]] || { echo "CDS training failed, see $WORK/cds-training.log" >&2; exit 1; }
+}
+
+run_once() {
+  local start pid elapsed rss
+  start=$(now_ms)
+  "${CMD[@]}" "${APP_ARGS[@]}" > "$WORK/$1.log" 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null -H 'Content-Type: application/json' -d "$LOGIN" \
+        "http://localhost:$PORT/api/auth/login"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "$1 exited before serving a login, see $WORK/$1.log" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  elapsed=$(( $(now_ms) - start ))
+  rss=$(rss_kb "$pid")
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "$elapsed $rss"
+}
+
+median() { sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'; }
+
+mkdir -p "$WORK"
+printf '%-8s %8s %18s %10s\n' variant runs first_login_ms rss_mb
+for variant in "${VARIANTS[@]}"; do
+  [[ $variant == cds ]] && train_cds
+  command_for "$variant"
+  results=()
+  for ((i = 0; i < RUNS; i++)); do
+    results+=("$(run_once "$variant")")
+  done
+  ms=$(printf '%s\n' "${results[@]}" | cut -d' ' -f1 | median)
+  kb=$(printf '%s\n' "${results[@]}" | cut -d' ' -f2 | median)
+  printf '%-8s %8d %18d %10d\n' "$variant" "$RUNS" "$ms" $((kb / 1024))
+done
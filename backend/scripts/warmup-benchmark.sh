@@ -0,0 +1,97 @@
+#!/usr/bin/env bash
+#
+# Cold-versus-warm latency of the first requests a fresh instance serves.
+# For each mode the service is started, polled until GET
+# /api/health/readiness answers 200, and then sent REQUESTS sequential
+# logins followed by REQUESTS GET /api/users/me with the issued token:
+#
+#   cold   warmup.enabled=false: ready as soon as the context is up
+#   warm   warmup.enabled=true: ready after the JIT warm-up runner
+#
+# Usage: scripts/warmup-benchmark.sh [runs] [requests]   (after mvn package)
+#
+# Reports time to ready and, per endpoint, the first request and the
+# p50/p90/p99/max of the first REQUESTS, as measured by curl. Uses the same
+# in-memory H2 database and seeded account as startup-benchmark.sh.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-3}
+REQUESTS=${2:-100}
+PORT=${BENCH_PORT:-18084}
+JAR=target/auth-service-1.0.0.jar
+WORK=target/warmup-benchmark
+BASE="http://localhost:$PORT"
+LOGIN='{"email":"bench@example.com","password":"bench-password"}'
+
+APP_ARGS=(
+  --server.port="$PORT"
+  --spring.datasource.url="jdbc:h2:mem:warmup;DB_CLOSE_DELAY=-1"
+  --spring.datasource.driver-class-name=org.h2.Driver
+  --spring.datasource.username=sa
+  --spring.datasource.password=
+  --spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect
+  --spring.jpa.show-sql=false
+  --spring.sql.init.schema-locations=classpath:db/sharding/h2-shard-schema.sql
+  --spring.flyway.enabled=false
+  --spring.sql.init.mode=always
+  --spring.sql.init.data-locations=file:scripts/startup-benchmark-seed.sql
+  --jwt.expiration=86400000
+  --jwt.refresh-expiration=604800000
+  --audit.enabled=false
+  --logging.level.root=WARN
+  --logging.level.com.example.auth=WARN
+  --logging.level.com.example.auth.warmup=INFO
+)
+
+now_ms() { date +%s%3N; }
+
+# stats FILE: first p50 p90 p99 max, in ms
+stats() {
+  local first
+  first=$(head -1 "$1")
+  sort -n "$1" | awk -v first="$first" '{ v[NR] = $1 } END {
+    printf "%8.1f %8.1f %8.1f %8.1f %8.1f", first, v[int(NR * 0.5 + 0.5)], v[int(NR * 0.9 + 0.5)],
+      v[int(NR * 0.99 + 0.5)], v[NR] }'
+}
+
+APP_PID=
+cleanup() { [[ -n $APP_PID ]] && kill "$APP_PID" 2>/dev/null || true; }
+trap cleanup EXIT
+
+mkdir -p "$WORK"
+printf '%-5s %3s %9s  %-5s %8s %8s %8s %8s %8s\n' mode run ready_ms path first_ms p50_ms p90_ms p99_ms max_ms
+for run in $(seq 1 "$RUNS"); do
+  for mode in cold warm; do
+    enabled=false
+    [[ $mode == warm ]] && enabled=true
+    start=$(now_ms)
+    java -jar "$JAR" "${APP_ARGS[@]}" --warmup.enabled="$enabled" > "$WORK/$mode-$run.log" 2>&1 &
+    APP_PID=$!
+    until [[ $(curl -s -o /dev/null -w '%{http_code}' "$BASE/api/health/readiness") == 200 ]]; do
+      kill -0 "$APP_PID" 2>/dev/null || { echo "Service exited, see $WORK/$mode-$run.log" >&2; exit 1; }
+      sleep 0.05
+    done
+    ready=$(( $(now_ms) - start ))
+
+    : > "$WORK/login.txt"
+    : > "$WORK/me.txt"
+    for _ in $(seq 1 "$REQUESTS"); do
+      curl -s -o "$WORK/body" -w '%{time_total}\n' -H 'Content-Type: application/json' -d "$LOGIN" \
+        "$BASE/api/auth/login" | awk '{ print $1 * 1000 }' >> "$WORK/login.txt"
+    done
+    token=$(sed -n 's/.*"accessToken":"\([^"]*\)".*/\1/p' "$WORK/body")
+    for _ in $(seq 1 "$REQUESTS"); do
+      curl -s -o /dev/null -w '%{time_total}\n' -H "Authorization: Bearer $token" \
+        "$BASE/api/users/me" | awk '{ print $1 * 1000 }' >> "$WORK/me.txt"
+    done
+
+    printf '%-5s %3s %9s  %-5s %s\n' "$mode" "$run" "$ready" login "$(stats "$WORK/login.txt")"
+    printf '%-5s %3s %9s  %-5s %s\n' "$mode" "$run" "$ready" me "$(stats "$WORK/me.txt")"
+    kill "$APP_PID"
+    wait "$APP_PID" 2>/dev/null || true
+    APP_PID=
+  done
+done
@@ -0,0 +1,7 @@
+package com.example.auth.audit;
+
+/**
+ * One audit record: when it happened, what happened and to which account.
+ */
+public record AuditEvent(long timestamp, AuditEventType type, String subject) {
+}
@@ -0,0 +1,23 @@
+package com.example.auth.audit;
+
+/**
+ * Security event types. The ordinal is written to disk, so only append.
+ */
+public enum AuditEventType {
+    REGISTRATION_REQUESTED,
+    REGISTRATION_COMPLETED,
+    OTP_ISSUED,
+    OTP_VERIFIED,
+    OTP_REJECTED,
+    LOGIN_SUCCESS,
+    LOGIN_FAILURE,
+    PASSWORD_RESET_REQUESTED,
+    PASSWORD_RESET_COMPLETED,
+    PASSWORD_RESET_FORCED;
+
+    private static final AuditEventType[] VALUES = values();
+
+    static AuditEventType fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.auth.audit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Security audit trail. Request threads call {@link #record}, which only
+ * publishes into a lock-free ring; a single background thread appends the
+ * events to memory-mapped segment files. If the ring is full the event is
+ * dropped and counted rather than blocking the request.
+ */
+@Component
+@Slf4j
+public class AuditLog {
+    @Value("${audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.directory:audit}")
+    private String directory;
+
+    @Value("${audit.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${audit.ring-capacity:65536}")
+    private int ringCapacity;
+
+    @Value("${audit.retention-days:365}")
+    private int retentionDays;
+
+    private AuditRingBuffer ring;
+    private AuditSegmentWriter segmentWriter;
+    private Thread writerThread;
+    private volatile boolean running;
+    private final AtomicLong dropped = new AtomicLong();
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            log.info("Audit log disabled");
+            return;
+        }
+        ring = new AuditRingBuffer(ringCapacity);
+        segmentWriter = new AuditSegmentWriter(Path.of(directory), segmentSizeMb * 1024 * 1024,
+                Duration.ofDays(retentionDays));
+        running = true;
+        writerThread = new Thread(this::writeLoop, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Audit log writing to {} (ring capacity {})", Path.of(directory).toAbsolutePath(), ring.capacity());
+    }
+
+    public void record(AuditEventType type, String subject) {
+        if (ring != null && !ring.offer(System.currentTimeMillis(), type, subject)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public Path getDirectory() {
+        return Path.of(directory);
+    }
+
+    private void writeLoop() {
+        long lastForce = System.nanoTime();
+        long reportedDrops = 0;
+        while (running) {
+            try {
+                int drained = ring.drain(segmentWriter::append);
+                if (drained == 0) {
+                    if (System.nanoTime() - lastForce > TimeUnit.SECONDS.toNanos(1)) {
+                        segmentWriter.force();
+                        lastForce = System.nanoTime();
+                        long drops = dropped.get();
+                        if (drops != reportedDrops) {
+                            log.warn("Audit ring full, {} events dropped so far", drops);
+                            reportedDrops = drops;
+                        }
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            } catch (RuntimeException e) {
+                log.error("Audit writer failed, retrying", e);
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+        ring.drain(segmentWriter::append);
+        segmentWriter.close();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.auth.audit;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Time-range scans over audit segments. Only segments that can overlap the
+ * range are opened, using the start time encoded in each file name.
+ *
+ * Also usable offline against a copied audit directory:
+ * <pre>
+ *   java -cp auth-service.jar -Dloader.main=com.example.auth.audit.AuditLogReader \
+ *        org.springframework.boot.loader.launch.PropertiesLauncher \
+ *        ./audit 2024-01-01T00:00:00Z 2024-01-02T00:00:00Z [TYPE]
+ * </pre>
+ */
+public final class AuditLogReader {
+    // Events are timestamped on the request thread, slightly before the writer rotates
+    private static final long ROTATION_SLACK_MILLIS = 60_000;
+
+    private final Path directory;
+
+    public AuditLogReader(Path directory) {
+        this.directory = directory;
+    }
+
+    public List<AuditEvent> query(long fromMillis, long toMillis, Predicate<AuditEvent> filter, int limit)
+            throws IOException {
+        List<AuditEvent> results = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return results;
+        }
+        List<String> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.map(p -> p.getFileName().toString())
+                    .filter(AuditSegmentFormat::isSegment)
+                    .sorted()
+                    .toList();
+        }
+        for (int i = 0; i < segments.size() && results.size() < limit; i++) {
+            long start = AuditSegmentFormat.startOf(segments.get(i));
+            long nextStart = i + 1 < segments.size()
+                    ? AuditSegmentFormat.startOf(segments.get(i + 1)) : Long.MAX_VALUE;
+            if (start - ROTATION_SLACK_MILLIS > toMillis || nextStart < fromMillis) {
+                continue;
+            }
+            scan(directory.resolve(segments.get(i)), fromMillis, toMillis, filter, limit, results);
+        }
+        return results;
+    }
+
+    private void scan(Path file, long fromMillis, long toMillis, Predicate<AuditEvent> filter,
+                      int limit, List<AuditEvent> results) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < AuditSegmentFormat.HEADER_SIZE
+                || buffer.getInt() != AuditSegmentFormat.MAGIC) {
+            return;
+        }
+        int version = buffer.getInt();
+        if (version != AuditSegmentFormat.VERSION && version != AuditSegmentFormat.UNPADDED_VERSION) {
+            return;
+        }
+        // Version 1 records are unaligned, but no such segment is still being written
+        boolean live = version == AuditSegmentFormat.VERSION;
+        byte[] subject = new byte[AuditSegmentFormat.MAX_SUBJECT_BYTES];
+        while (buffer.remaining() >= 4 && results.size() < limit) {
+            int start = buffer.position();
+            int length = live ? (int) AuditSegmentFormat.LENGTH.getAcquire(buffer, start) : buffer.getInt(start);
+            // Zero ends the data written so far
+            if (length < AuditSegmentFormat.RECORD_OVERHEAD - 4 || length > buffer.remaining() - 4) {
+                return;
+            }
+            buffer.position(start + 4);
+            long timestamp = buffer.getLong();
+            int type = buffer.get();
+            int subjectLength = buffer.getShort();
+            buffer.get(subject, 0, subjectLength);
+            buffer.position(start + 4 + length);
+            if (timestamp < fromMillis || timestamp > toMillis) {
+                continue;
+            }
+            AuditEvent event = new AuditEvent(timestamp, AuditEventType.fromOrdinal(type),
+                    new String(subject, 0, subjectLength, StandardCharsets.UTF_8));
+            if (filter.test(event)) {
+                results.add(event);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: AuditLogReader <directory> <from ISO-8601> <to ISO-8601> [TYPE]");
+            System.exit(1);
+        }
+        AuditEventType type = args.length > 3 ? AuditEventType.valueOf(args[3]) : null;
+        List<AuditEvent> events = new AuditLogReader(Path.of(args[0])).query(
+                Instant.parse(args[1]).toEpochMilli(),
+                Instant.parse(args[2]).toEpochMilli(),
+                e -> type == null || e.type() == type,
+                Integer.MAX_VALUE);
+        for (AuditEvent event : events) {
+            System.out.println(Instant.ofEpochMilli(event.timestamp()) + " " + event.type() + " " + event.subject());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.auth.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free ring with many producers and a single consumer.
+ *
+ * Each slot carries a sequence number: a producer claims a position with a
+ * CAS on the tail, fills the slot and then publishes it by advancing the
+ * slot's sequence. When the ring is full {@link #offer} fails immediately,
+ * so request threads never wait on the writer.
+ */
+final class AuditRingBuffer {
+    private final int mask;
+    private final int capacity;
+    private final AtomicLongArray sequences;
+    private final long[] timestamps;
+    private final byte[] types;
+    private final String[] subjects;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // consumer thread only
+
+    AuditRingBuffer(int requestedCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, requestedCapacity) - 1) << 1;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.timestamps = new long[capacity];
+        this.types = new byte[capacity];
+        this.subjects = new String[capacity];
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(long timestamp, AuditEventType type, String subject) {
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+        timestamps[index] = timestamp;
+        types[index] = (byte) type.ordinal();
+        subjects[index] = subject;
+        sequences.setRelease(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Hands every published event to the sink in order and frees its slot.
+     * Must only be called from the consumer thread.
+     */
+    int drain(Sink sink) {
+        int drained = 0;
+        while (true) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                return drained;
+            }
+            sink.accept(timestamps[index], types[index], subjects[index]);
+            subjects[index] = null;
+            sequences.setRelease(index, head + capacity);
+            head++;
+            drained++;
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    @FunctionalInterface
+    interface Sink {
+        void accept(long timestamp, byte type, String subject);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.auth.audit;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * On-disk layout of a segment file ({@code audit-<startMillis>.seg}):
+ * <pre>
+ *   header:  int magic, int version
+ *   record:  int length (bytes that follow, 0 = end of data)
+ *            long timestampMillis
+ *            byte type
+ *            short subjectLength, subjectLength bytes of UTF-8
+ *            zero padding up to the next multiple of 4
+ * </pre>
+ * Segments are pre-sized and zero-filled, so a reader stops at the first
+ * zero length even if the writer died mid-segment. The writer fills in a
+ * record's body before it stores the length, with release semantics, and
+ * readers load the length with acquire semantics; so a reader of the live
+ * segment sees either a whole record or the zero that ends the data. Each
+ * length is 4-byte aligned, as those ordered accesses require. Version 1
+ * segments, written before records were padded, are still read.
+ */
+final class AuditSegmentFormat {
+    static final int MAGIC = 0x41554431; // "AUD1"
+    static final int VERSION = 2;
+    static final int UNPADDED_VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_OVERHEAD = 4 + 8 + 1 + 2;
+    static final int MAX_SUBJECT_BYTES = 1024;
+    static final String PREFIX = "audit-";
+    static final String SUFFIX = ".seg";
+    // Ordered access to a record's length; the mapped buffers are big-endian
+    static final VarHandle LENGTH = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private AuditSegmentFormat() {
+    }
+
+    /**
+     * @return the length field of a record whose subject takes {@code subjectLength} bytes
+     */
+    static int lengthOf(int subjectLength) {
+        return ((RECORD_OVERHEAD + subjectLength + 3) & ~3) - 4;
+    }
+
+    static String fileName(long startMillis) {
+        return String.format("%s%013d%s", PREFIX, startMillis, SUFFIX);
+    }
+
+    static long startOf(String fileName) {
+        return Long.parseLong(fileName.substring(PREFIX.length(), fileName.length() - SUFFIX.length()));
+    }
+
+    static boolean isSegment(String fileName) {
+        return fileName.startsWith(PREFIX) && fileName.endsWith(SUFFIX);
+    }
+}
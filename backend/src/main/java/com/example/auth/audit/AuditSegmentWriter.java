@@ -0,0 +1,127 @@
+package com.example.auth.audit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+/**
+ * Appends records to memory-mapped segment files and rotates to a new file
+ * when the current one is full. Not thread-safe: used only by the audit
+ * writer thread.
+ */
+@Slf4j
+final class AuditSegmentWriter implements AutoCloseable {
+    private final Path directory;
+    private final int segmentSize;
+    private final Duration retention;
+    private MappedByteBuffer current;
+    private long lastTimestamp;
+
+    AuditSegmentWriter(Path directory, int segmentSize, Duration retention) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.retention = retention;
+    }
+
+    void append(long timestamp, byte type, String subject) {
+        byte[] subjectBytes = subject == null ? new byte[0] : subject.getBytes(StandardCharsets.UTF_8);
+        int subjectLength = truncatedLength(subjectBytes);
+        int length = AuditSegmentFormat.lengthOf(subjectLength);
+
+        // Keep 4 bytes free for the zero terminator
+        if (current == null || current.remaining() < length + 8) {
+            rotate(timestamp);
+        }
+        // The body goes in first and the length last, so the live segment's readers never see half a record
+        int start = current.position();
+        current.position(start + 4)
+                .putLong(timestamp)
+                .put(type)
+                .putShort((short) subjectLength)
+                .put(subjectBytes, 0, subjectLength);
+        AuditSegmentFormat.LENGTH.setRelease(current, start, length);
+        current.position(start + 4 + length);
+        lastTimestamp = timestamp;
+    }
+
+    /**
+     * Cuts an over-long subject back to a character boundary, so it still decodes.
+     */
+    static int truncatedLength(byte[] utf8) {
+        if (utf8.length <= AuditSegmentFormat.MAX_SUBJECT_BYTES) {
+            return utf8.length;
+        }
+        int length = AuditSegmentFormat.MAX_SUBJECT_BYTES;
+        // Continuation bytes look like 10xxxxxx; back off until the cut falls before a lead byte
+        while (length > 0 && (utf8[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        return length;
+    }
+
+    /**
+     * Flushes dirty pages to disk. Called by the writer thread when idle,
+     * never from the request path.
+     */
+    void force() {
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    private void rotate(long timestamp) {
+        force();
+        try {
+            // Segment names must increase even if clocks step backwards
+            long start = Math.max(timestamp, lastTimestamp + 1);
+            Path file = directory.resolve(AuditSegmentFormat.fileName(start));
+            while (Files.exists(file)) {
+                file = directory.resolve(AuditSegmentFormat.fileName(++start));
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                current = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            }
+            current.putInt(AuditSegmentFormat.MAGIC).putInt(AuditSegmentFormat.VERSION);
+            log.info("Audit log rotated to {}", file.getFileName());
+            purgeExpired(timestamp);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open audit segment", e);
+        }
+    }
+
+    private void purgeExpired(long now) throws IOException {
+        if (retention == null || retention.isZero()) {
+            return;
+        }
+        long cutoff = now - retention.toMillis();
+        try (Stream<Path> files = Files.list(directory)) {
+            var segments = files
+                    .map(p -> p.getFileName().toString())
+                    .filter(AuditSegmentFormat::isSegment)
+                    .sorted()
+                    .toList();
+            // A segment may be dropped once the one after it starts before the cutoff
+            for (int i = 0; i + 1 < segments.size(); i++) {
+                if (AuditSegmentFormat.startOf(segments.get(i + 1)) < cutoff) {
+                    Files.deleteIfExists(directory.resolve(segments.get(i)));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+        current = null;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.auth.breach;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Tells whether a password appears in the breached-password corpus. The
+ * check is a SHA-1 and a lookup in the memory-mapped index, a few
+ * microseconds, so it runs during request validation before any BCrypt
+ * work. Without {@code breached-passwords.index-path} nothing is rejected.
+ */
+@Component
+@Slf4j
+public class BreachedPasswordChecker {
+    // Longer passwords fall back to a one-off buffer; the corpus has very few of them
+    private static final int MAX_POOLED_PASSWORD_CHARS = 256;
+
+    private static final ThreadLocal<Hasher> HASHER = ThreadLocal.withInitial(Hasher::new);
+
+    @Value("${breached-passwords.index-path:}")
+    private String indexPath;
+
+    private BreachedPasswordIndex index;
+
+    @PostConstruct
+    void open() throws IOException {
+        if (indexPath == null || indexPath.isBlank()) {
+            log.info("Breached-password check disabled (no breached-passwords.index-path)");
+            return;
+        }
+        index = BreachedPasswordIndex.open(Path.of(indexPath));
+        log.info("Breached-password index {} loaded with {} hashes", indexPath, index.size());
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (index != null) {
+            index.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return index != null;
+    }
+
+    public boolean isBreached(String password) {
+        if (index == null || password == null) {
+            return false;
+        }
+        return index.contains(HASHER.get().sha1(password));
+    }
+
+    /**
+     * Per-thread SHA-1 state. Encodes UTF-8 by hand into a reused buffer so
+     * a check allocates nothing for ordinary passwords.
+     */
+    static final class Hasher {
+        private final MessageDigest digest;
+        private final byte[] utf8 = new byte[MAX_POOLED_PASSWORD_CHARS * 3];
+        private final byte[] hash = new byte[BreachedPasswordFormat.HASH_SIZE];
+
+        Hasher() {
+            try {
+                digest = MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-1 not available", e);
+            }
+        }
+
+        byte[] sha1(String password) {
+            byte[] buffer = password.length() <= MAX_POOLED_PASSWORD_CHARS
+                    ? utf8 : new byte[password.length() * 3];
+            int length = encode(password, buffer);
+            digest.update(buffer, 0, length);
+            try {
+                digest.digest(hash, 0, hash.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            return hash;
+        }
+
+        // Same bytes as String.getBytes(UTF_8), including '?' for unpaired surrogates
+        static int encode(String s, byte[] out) {
+            int n = 0;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    out[n++] = (byte) c;
+                } else if (c < 0x800) {
+                    out[n++] = (byte) (0xC0 | (c >> 6));
+                    out[n++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                        int cp = Character.toCodePoint(c, s.charAt(++i));
+                        out[n++] = (byte) (0xF0 | (cp >> 18));
+                        out[n++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                        out[n++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                        out[n++] = (byte) (0x80 | (cp & 0x3F));
+                    } else {
+                        out[n++] = '?';
+                    }
+                } else {
+                    out[n++] = (byte) (0xE0 | (c >> 12));
+                    out[n++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    out[n++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            return n;
+        }
+    }
+}
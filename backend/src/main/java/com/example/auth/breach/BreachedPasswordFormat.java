@@ -0,0 +1,33 @@
+package com.example.auth.breach;
+
+/**
+ * Layout of a breached-password index file:
+ * <pre>
+ *   header:  int magic, int version, int prefixBits, int reserved, long entryCount
+ *   table:   (2^prefixBits + 1) longs; entry i is the index of the first hash
+ *            whose top prefixBits bits equal i, the last one is entryCount
+ *   entries: entryCount SHA-1 hashes, 20 bytes each, sorted unsigned, no duplicates
+ * </pre>
+ * A lookup reads two table slots and binary-searches one bucket, which at
+ * 2^20 buckets and a billion hashes is about ten probes.
+ */
+final class BreachedPasswordFormat {
+    static final int MAGIC = 0x42505831; // "BPX1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+    static final int HASH_SIZE = 20;
+    static final int DEFAULT_PREFIX_BITS = 20;
+    // Bucket indexes are taken from the top three bytes of a hash
+    static final int MAX_PREFIX_BITS = 24;
+
+    private BreachedPasswordFormat() {
+    }
+
+    static long tableSize(int prefixBits) {
+        return ((1L << prefixBits) + 1) * Long.BYTES;
+    }
+
+    static long dataStart(int prefixBits) {
+        return HEADER_SIZE + tableSize(prefixBits);
+    }
+}
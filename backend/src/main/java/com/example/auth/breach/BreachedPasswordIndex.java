@@ -0,0 +1,143 @@
+package com.example.auth.breach;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of an index written by {@link BreachedPasswordIndexBuilder}.
+ * The file is memory-mapped, so it costs no heap and the OS keeps the hot
+ * pages cached; files above 2 GB are mapped in chunks. {@link #contains}
+ * does not allocate and is safe to call from any number of threads.
+ */
+public final class BreachedPasswordIndex implements AutoCloseable {
+    // Whole entries per mapping, keeping each mapping under the 2 GB limit
+    private static final long CHUNK_ENTRIES = (1L << 30) / BreachedPasswordFormat.HASH_SIZE;
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final FileChannel channel;
+    private final int prefixBits;
+    private final long entryCount;
+    private final MappedByteBuffer table;
+    private final MappedByteBuffer[] chunks;
+
+    private BreachedPasswordIndex(FileChannel channel, int prefixBits, long entryCount,
+                                  MappedByteBuffer table, MappedByteBuffer[] chunks) {
+        this.channel = channel;
+        this.prefixBits = prefixBits;
+        this.entryCount = entryCount;
+        this.table = table;
+        this.chunks = chunks;
+    }
+
+    public static BreachedPasswordIndex open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() < BreachedPasswordFormat.HEADER_SIZE) {
+                throw new IOException(path + " is not a breached-password index");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BreachedPasswordFormat.HEADER_SIZE);
+            if (header.getInt(0) != BreachedPasswordFormat.MAGIC || header.getInt(4) != BreachedPasswordFormat.VERSION) {
+                throw new IOException(path + " is not a breached-password index");
+            }
+            int prefixBits = header.getInt(8);
+            long entryCount = header.getLong(16);
+            if (prefixBits < 1 || prefixBits > BreachedPasswordFormat.MAX_PREFIX_BITS) {
+                throw new IOException(path + " has an invalid prefix length " + prefixBits);
+            }
+            long dataStart = BreachedPasswordFormat.dataStart(prefixBits);
+            // Compared as a quotient so a huge entry count can't overflow into a match
+            long dataSize = channel.size() - dataStart;
+            if (entryCount < 0 || dataSize < 0 || dataSize % BreachedPasswordFormat.HASH_SIZE != 0
+                    || dataSize / BreachedPasswordFormat.HASH_SIZE != entryCount) {
+                throw new IOException(path + " is truncated or has trailing data");
+            }
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY,
+                    BreachedPasswordFormat.HEADER_SIZE, BreachedPasswordFormat.tableSize(prefixBits));
+            checkTable(path, table, entryCount);
+            int chunkCount = (int) ((entryCount + CHUNK_ENTRIES - 1) / CHUNK_ENTRIES);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                long first = i * CHUNK_ENTRIES;
+                long entries = Math.min(CHUNK_ENTRIES, entryCount - first);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        dataStart + first * BreachedPasswordFormat.HASH_SIZE,
+                        entries * BreachedPasswordFormat.HASH_SIZE);
+            }
+            return new BreachedPasswordIndex(channel, prefixBits, entryCount, table, chunks);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Bucket starts must run from 0 to the entry count without going back,
+     * or a lookup could search outside the data.
+     */
+    private static void checkTable(Path path, MappedByteBuffer table, long entryCount) throws IOException {
+        long previous = 0;
+        for (int offset = 0; offset < table.capacity(); offset += Long.BYTES) {
+            long first = table.getLong(offset);
+            if (first < previous || first > entryCount || (offset == 0 && first != 0)) {
+                throw new IOException(path + " has a corrupt bucket table");
+            }
+            previous = first;
+        }
+        if (previous != entryCount) {
+            throw new IOException(path + " has a corrupt bucket table");
+        }
+    }
+
+    public long size() {
+        return entryCount;
+    }
+
+    /**
+     * Whether the index holds this SHA-1 digest (the first 20 bytes of {@code sha1}).
+     */
+    public boolean contains(byte[] sha1) {
+        long hi = (long) LONG.get(sha1, 0);
+        long mid = (long) LONG.get(sha1, 8);
+        int lo = (int) INT.get(sha1, 16);
+        int bucket = (int) (hi >>> (64 - prefixBits));
+        long low = table.getLong(bucket * Long.BYTES);
+        long high = table.getLong((bucket + 1) * Long.BYTES) - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            int cmp = compareEntry(middle, hi, mid, lo);
+            if (cmp < 0) {
+                low = middle + 1;
+            } else if (cmp > 0) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int compareEntry(long entry, long hi, long mid, int lo) {
+        MappedByteBuffer chunk = chunks[(int) (entry / CHUNK_ENTRIES)];
+        int position = (int) (entry % CHUNK_ENTRIES) * BreachedPasswordFormat.HASH_SIZE;
+        int cmp = Long.compareUnsigned(chunk.getLong(position), hi);
+        if (cmp == 0) {
+            cmp = Long.compareUnsigned(chunk.getLong(position + 8), mid);
+        }
+        if (cmp == 0) {
+            cmp = Integer.compareUnsigned(chunk.getInt(position + 16), lo);
+        }
+        return cmp;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
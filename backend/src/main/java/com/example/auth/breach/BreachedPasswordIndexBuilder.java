@@ -0,0 +1,195 @@
+package com.example.auth.breach;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Offline tool turning a corpus of SHA-1 hashes into an index file for
+ * {@link BreachedPasswordIndex}. Input lines are 40 hex digits, optionally
+ * followed by ":count" (the Have I Been Pwned download format); order does
+ * not matter and duplicates are dropped.
+ *
+ * <p>Two passes over the disk, never the whole corpus in memory: hashes are
+ * first spilled into 256 files by their first byte, then each spill file
+ * (about 80 MB for a billion hashes) is sorted in memory and appended.
+ *
+ * <pre>
+ * java -Xmx2g -cp auth-service.jar -Dloader.main=com.example.auth.breach.BreachedPasswordIndexBuilder \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher \
+ *     pwned-passwords-sha1.txt breached-passwords.idx [prefixBits] [spillDirectory]
+ * </pre>
+ */
+public final class BreachedPasswordIndexBuilder {
+    private static final int SPILLS = 256;
+    private static final int HASH_SIZE = BreachedPasswordFormat.HASH_SIZE;
+
+    private BreachedPasswordIndexBuilder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BreachedPasswordIndexBuilder <sha1-corpus> <index-file> [prefixBits] [spillDirectory]");
+            System.exit(1);
+        }
+        Path input = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+        int prefixBits = args.length > 2 ? Integer.parseInt(args[2]) : BreachedPasswordFormat.DEFAULT_PREFIX_BITS;
+        Path spillDirectory = args.length > 3 ? Path.of(args[3]) : output.toAbsolutePath().getParent();
+
+        long start = System.currentTimeMillis();
+        long written = build(input, output, prefixBits, spillDirectory);
+        System.out.printf("Indexed %,d unique hashes into %s in %d s%n",
+                written, output, (System.currentTimeMillis() - start) / 1000);
+    }
+
+    /**
+     * Builds the index for {@code input} at {@code output}, spilling into a
+     * temporary directory under {@code spillDirectory}.
+     *
+     * @return the number of unique hashes indexed
+     */
+    static long build(Path input, Path output, int prefixBits, Path spillDirectory) throws IOException {
+        if (prefixBits < 8 || prefixBits > BreachedPasswordFormat.MAX_PREFIX_BITS) {
+            throw new IllegalArgumentException("prefixBits must be between 8 and " + BreachedPasswordFormat.MAX_PREFIX_BITS);
+        }
+        Path spills = Files.createTempDirectory(spillDirectory, "breach-spill");
+        try {
+            spill(input, spills);
+            return merge(spills, output, prefixBits);
+        } finally {
+            try (var files = Files.list(spills)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(spills);
+        }
+    }
+
+    private static long spill(Path input, Path spills) throws IOException {
+        OutputStream[] outputs = new OutputStream[SPILLS];
+        for (int i = 0; i < SPILLS; i++) {
+            outputs[i] = new BufferedOutputStream(Files.newOutputStream(spillFile(spills, i)), 64 * 1024);
+        }
+        byte[] hash = new byte[HASH_SIZE];
+        long count = 0;
+        long skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!parseHash(line, hash)) {
+                    skipped++;
+                    continue;
+                }
+                outputs[hash[0] & 0xFF].write(hash);
+                count++;
+            }
+        } finally {
+            for (OutputStream output : outputs) {
+                output.close();
+            }
+        }
+        if (skipped > 0) {
+            System.err.printf("Skipped %,d malformed lines%n", skipped);
+        }
+        return count;
+    }
+
+    private static long merge(Path spills, Path output, int prefixBits) throws IOException {
+        long[] bucketCounts = new long[1 << prefixBits];
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(BreachedPasswordFormat.dataStart(prefixBits));
+            OutputStream entries = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 20);
+            for (int i = 0; i < SPILLS; i++) {
+                byte[] records = readAll(spillFile(spills, i));
+                Files.delete(spillFile(spills, i));
+                Integer[] order = sortedOrder(records);
+                int previous = -1;
+                for (Integer record : order) {
+                    int offset = record * HASH_SIZE;
+                    if (previous >= 0 && Arrays.equals(records, previous, previous + HASH_SIZE,
+                            records, offset, offset + HASH_SIZE)) {
+                        continue;
+                    }
+                    entries.write(records, offset, HASH_SIZE);
+                    bucketCounts[bucketOf(records, offset, prefixBits)]++;
+                    previous = offset;
+                    written++;
+                }
+            }
+            entries.flush();
+
+            ByteBuffer header = ByteBuffer.allocate((int) BreachedPasswordFormat.dataStart(prefixBits));
+            header.putInt(BreachedPasswordFormat.MAGIC)
+                    .putInt(BreachedPasswordFormat.VERSION)
+                    .putInt(prefixBits)
+                    .putInt(0)
+                    .putLong(written);
+            long first = 0;
+            for (long bucketCount : bucketCounts) {
+                header.putLong(first);
+                first += bucketCount;
+            }
+            header.putLong(first);
+            header.flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        return written;
+    }
+
+    private static Integer[] sortedOrder(byte[] records) {
+        Integer[] order = new Integer[records.length / HASH_SIZE];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(
+                records, a * HASH_SIZE, a * HASH_SIZE + HASH_SIZE,
+                records, b * HASH_SIZE, b * HASH_SIZE + HASH_SIZE));
+        return order;
+    }
+
+    private static int bucketOf(byte[] records, int offset, int prefixBits) {
+        int top = ((records[offset] & 0xFF) << 16) | ((records[offset + 1] & 0xFF) << 8) | (records[offset + 2] & 0xFF);
+        return top >>> (24 - prefixBits);
+    }
+
+    private static byte[] readAll(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static boolean parseHash(String line, byte[] hash) {
+        if (line.length() < 40 || (line.length() > 40 && line.charAt(40) != ':')) {
+            return false;
+        }
+        for (int i = 0; i < HASH_SIZE; i++) {
+            int high = Character.digit(line.charAt(2 * i), 16);
+            int low = Character.digit(line.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            hash[i] = (byte) ((high << 4) | low);
+        }
+        return true;
+    }
+
+    private static Path spillFile(Path spills, int index) {
+        return spills.resolve(String.format("spill-%03d.bin", index));
+    }
+}
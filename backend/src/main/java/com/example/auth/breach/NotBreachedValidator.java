@@ -0,0 +1,15 @@
+package com.example.auth.breach;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class NotBreachedValidator implements ConstraintValidator<NotBreached, String> {
+    private final BreachedPasswordChecker breachedPasswordChecker;
+
+    @Override
+    public boolean isValid(String value, ConstraintValidatorContext context) {
+        return !breachedPasswordChecker.isBreached(value);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.auth.campaign;
+
+import com.example.auth.entity.Role;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row of reset_campaigns. Campaigns are read and written with plain JDBC
+ * by {@link ResetCampaignStore}, on the global shard.
+ *
+ * @param createdBefore for {@link Selector#QUERY}: only users created
+ *                      before this, never later than the campaign itself,
+ *                      so accounts registered afterwards are not swept in
+ */
+public record ResetCampaign(long id, String name, Status status, Selector selector, Role targetRole,
+                            LocalDateTime createdBefore, int unmatchedEmails, boolean invalidatePasswords,
+                            int emailsPerSecond, int codeValidityMinutes, String createdBy,
+                            LocalDateTime createdAt, LocalDateTime startedAt, LocalDateTime finishedAt) {
+
+    public enum Status {
+        // Targets are being written to reset_campaign_deliveries
+        SELECTING,
+        DISPATCHING,
+        PAUSED,
+        COMPLETED,
+        CANCELLED;
+
+        public boolean isActive() {
+            return this == SELECTING || this == DISPATCHING;
+        }
+    }
+
+    public enum Selector {
+        // Explicit emails, resolved when the campaign is created
+        LIST,
+        // Users matching role and createdBefore, selected in the background
+        QUERY
+    }
+
+    public enum DeliveryStatus {
+        QUEUED,
+        SENT,
+        FAILED,
+        // The user was deleted, or moved to another shard, before the send
+        SKIPPED
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.auth.campaign;
+
+import com.example.auth.audit.AuditEventType;
+import com.example.auth.audit.AuditLog;
+import com.example.auth.campaign.ResetCampaign.DeliveryStatus;
+import com.example.auth.campaign.ResetCampaign.Selector;
+import com.example.auth.campaign.ResetCampaign.Status;
+import com.example.auth.campaign.ResetCampaignStore.Delivery;
+import com.example.auth.entity.OtpCode;
+import com.example.auth.entity.OtpType;
+import com.example.auth.entity.User;
+import com.example.auth.service.EmailService;
+import com.example.auth.service.OtpService;
+import com.example.auth.sharding.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends the queued deliveries of running campaigns from a single
+ * background thread, so a campaign never competes with request threads
+ * for the mail server and never blocks the {@code @Scheduled} jobs.
+ *
+ * <p>Each batch of queued deliveries gets its reset codes in one store
+ * round trip; the emails then go out in chunks, each chunk over one SMTP
+ * connection, paced to the campaign's {@code emails_per_second} across
+ * all instances (only the lease holder sends). Every chunk is marked SENT
+ * or FAILED as soon as it is out, which is the checkpoint a taken-over
+ * campaign resumes from; a chunk interrupted between send and mark is
+ * sent again. Codes that were not delivered are discarded, so they do not
+ * hold back a later "Forgot password".
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ResetCampaignDispatcher {
+    private static final long PROGRESS_LOG_INTERVAL_NANOS = 60_000_000_000L;
+
+    private final ResetCampaignService campaignService;
+    private final ResetCampaignStore store;
+    private final ShardRouter shardRouter;
+    private final OtpService otpService;
+    private final EmailService emailService;
+    private final AuditLog auditLog;
+
+    @Value("${reset-campaign.dispatcher-enabled:true}")
+    private boolean enabled;
+
+    @Value("${reset-campaign.poll-interval-ms:5000}")
+    private long pollIntervalMs;
+
+    @Value("${reset-campaign.dispatch-batch-size:200}")
+    private int batchSize;
+
+    @Value("${reset-campaign.send-chunk-size:20}")
+    private int chunkSize;
+
+    private Thread thread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || thread != null) {
+            return;
+        }
+        thread = new Thread(this::run, "reset-campaign-dispatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                for (ResetCampaign campaign : store.findActive()) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    work(campaign);
+                }
+            } catch (Exception e) {
+                log.error("Error dispatching reset campaigns", e);
+            }
+            if (!sleep(pollIntervalMs)) {
+                return;
+            }
+        }
+    }
+
+    // Package-private so tests can run a pass without the background thread
+    void work(ResetCampaign campaign) {
+        String owner = campaignService.instanceId();
+        if (!store.acquireLease(campaign.id(), owner, campaignService.leaseUntil())) {
+            return;
+        }
+        try {
+            if (campaign.status() == Status.SELECTING) {
+                if (campaign.selector() == Selector.LIST) {
+                    // Its creator stopped while resolving the list; what it selected is incomplete
+                    store.transition(campaign.id(), List.of(Status.SELECTING), Status.CANCELLED);
+                    log.warn("reset_campaign_cancelled id={}: list selection was interrupted", campaign.id());
+                    return;
+                }
+                boolean selected = campaignService.selectQueried(campaign, () ->
+                        store.renewLease(campaign.id(), owner, Status.SELECTING, campaignService.leaseUntil()));
+                if (!selected || !store.transition(campaign.id(), List.of(Status.SELECTING), Status.DISPATCHING)) {
+                    return;
+                }
+            }
+            dispatch(campaign, owner);
+        } finally {
+            store.releaseLease(campaign.id(), owner);
+        }
+    }
+
+    private void dispatch(ResetCampaign campaign, String owner) {
+        store.markStarted(campaign.id());
+        long start = System.nanoTime();
+        AtomicBoolean stopped = new AtomicBoolean();
+        AtomicLong sent = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong lastProgressLog = new AtomicLong(start);
+        shardRouter.forEachShard(() -> {
+            while (!stopped.get()) {
+                List<Delivery> batch = store.nextQueued(campaign.id(), batchSize);
+                if (batch.isEmpty()) {
+                    return;
+                }
+                if (!sendBatch(campaign, owner, batch, sent, failed)) {
+                    stopped.set(true);
+                }
+                if (System.nanoTime() - lastProgressLog.get() > PROGRESS_LOG_INTERVAL_NANOS) {
+                    lastProgressLog.set(System.nanoTime());
+                    log.info("reset_campaign_progress id={} sent={} failed={}", campaign.id(), sent.get(), failed.get());
+                }
+            }
+        });
+        if (stopped.get()) {
+            log.info("reset_campaign_stopped id={} sent={} failed={}", campaign.id(), sent.get(), failed.get());
+            return;
+        }
+        AtomicBoolean queued = new AtomicBoolean();
+        shardRouter.forEachShard(() -> queued.compareAndSet(false, store.hasQueued(campaign.id())));
+        if (!queued.get() && store.transition(campaign.id(), List.of(Status.DISPATCHING), Status.COMPLETED)) {
+            long durationMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            log.info("reset_campaign_completed id={} sent={} failed={} duration_ms={} per_second={}",
+                    campaign.id(), sent.get(), failed.get(), durationMs, sent.get() * 1000 / durationMs);
+        }
+    }
+
+    /**
+     * Issues the batch's codes and sends them chunk by chunk.
+     *
+     * @return false when the campaign has to stop: paused, cancelled or
+     *         the lease lost
+     */
+    private boolean sendBatch(ResetCampaign campaign, String owner, List<Delivery> batch,
+                              AtomicLong sent, AtomicLong failed) {
+        List<Long> gone = new ArrayList<>();
+        List<Delivery> deliveries = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+        for (Delivery delivery : batch) {
+            if (delivery.email() == null) {
+                gone.add(delivery.id());
+                continue;
+            }
+            User user = new User();
+            user.setId(delivery.userId());
+            user.setEmail(delivery.email());
+            deliveries.add(delivery);
+            users.add(user);
+        }
+        store.mark(gone, DeliveryStatus.SKIPPED, false);
+        List<OtpCode> otps = otpService.createOtps(users, OtpType.RESET_PASSWORD,
+                Duration.ofMinutes(campaign.codeValidityMinutes()));
+
+        int chunk = Math.max(1, Math.min(chunkSize, campaign.emailsPerSecond()));
+        // Codes from here on were never handed to the mail server
+        int unsent = 0;
+        try {
+            for (int from = 0; from < otps.size(); from += chunk) {
+                int to = Math.min(from + chunk, otps.size());
+                if (!store.renewLease(campaign.id(), owner, Status.DISPATCHING, campaignService.leaseUntil())) {
+                    return false;
+                }
+                long chunkStart = System.nanoTime();
+                List<String> recipients = users.subList(from, to).stream().map(User::getEmail).toList();
+                Set<Integer> undelivered = emailService.sendForcedResetEmails(recipients,
+                        otps.subList(from, to).stream().map(OtpCode::getOtpCode).toList(), campaign.codeValidityMinutes());
+                unsent = to;
+                markChunk(campaign, deliveries.subList(from, to), users.subList(from, to), otps.subList(from, to),
+                        undelivered, sent, failed);
+
+                // Pace to emails_per_second: the chunk takes at least its share of a second
+                long remainingNanos = (to - from) * 1_000_000_000L / campaign.emailsPerSecond()
+                        - (System.nanoTime() - chunkStart);
+                if (remainingNanos > 0 && !sleep(remainingNanos / 1_000_000)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            // Stopped, interrupted or failed: the rest of the batch stays queued and gets new codes
+            if (unsent < otps.size()) {
+                otpService.discardOtps(otps.subList(unsent, otps.size()));
+            }
+        }
+    }
+
+    /**
+     * Checkpoints a chunk that went to the mail server; {@code undelivered}
+     * holds indexes into the chunk.
+     */
+    private void markChunk(ResetCampaign campaign, List<Delivery> deliveries, List<User> users, List<OtpCode> otps,
+                           Set<Integer> undelivered, AtomicLong sent, AtomicLong failed) {
+        List<Long> delivered = new ArrayList<>();
+        List<Long> rejected = new ArrayList<>();
+        List<OtpCode> discarded = new ArrayList<>();
+        for (int i = 0; i < deliveries.size(); i++) {
+            if (undelivered.contains(i)) {
+                rejected.add(deliveries.get(i).id());
+                discarded.add(otps.get(i));
+            } else {
+                delivered.add(deliveries.get(i).id());
+                auditLog.record(AuditEventType.PASSWORD_RESET_FORCED, users.get(i).getEmail());
+            }
+        }
+        store.mark(delivered, DeliveryStatus.SENT, true);
+        store.mark(rejected, DeliveryStatus.FAILED, true);
+        otpService.discardOtps(discarded);
+        sent.addAndGet(delivered.size());
+        failed.addAndGet(rejected.size());
+        campaignService.recordSent(campaign.id(), delivered.size());
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.example.auth.campaign;
+
+import com.example.auth.campaign.ResetCampaign.DeliveryStatus;
+import com.example.auth.campaign.ResetCampaign.Selector;
+import com.example.auth.campaign.ResetCampaign.Status;
+import com.example.auth.dto.ResetCampaignRequest;
+import com.example.auth.dto.ResetCampaignResponse;
+import com.example.auth.entity.EmailLookup;
+import com.example.auth.exception.AuthException;
+import com.example.auth.exception.ErrorCode;
+import com.example.auth.service.EmailLookupBackfill;
+import com.example.auth.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Forced password-reset campaigns: a password-reset code for every
+ * targeted user, sent at a fixed rate by {@link ResetCampaignDispatcher}
+ * instead of one {@code forgotPassword} call per user.
+ *
+ * <p>Targets go to reset_campaign_deliveries in batches, one transaction
+ * per batch, on the shard of each user. An email list is resolved while
+ * the campaign is created; a query is selected in the background and
+ * resumes after the last user id written if it is interrupted. With
+ * {@code invalidatePasswords} the same transaction replaces the users'
+ * password hashes with a hash of a random secret that is thrown away.
+ * Access tokens already issued stay valid until they expire.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResetCampaignService {
+    private static final List<Status> RUNNING = List.of(Status.SELECTING, Status.DISPATCHING);
+    private static final int RECENT_LIMIT = 50;
+
+    private final ResetCampaignStore store;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final EmailLookupBackfill emailLookupBackfill;
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName() + "/"
+            + UUID.randomUUID().toString().substring(0, 8);
+    private final Map<Long, SendRate> sendRates = new ConcurrentHashMap<>();
+
+    @Value("${reset-campaign.emails-per-second:20}")
+    private int defaultEmailsPerSecond;
+
+    @Value("${reset-campaign.max-emails-per-second:200}")
+    private int maxEmailsPerSecond;
+
+    @Value("${reset-campaign.code-validity-minutes:60}")
+    private int defaultCodeValidityMinutes;
+
+    @Value("${reset-campaign.max-listed-emails:100000}")
+    private int maxListedEmails;
+
+    @Value("${reset-campaign.select-batch-size:500}")
+    private int selectBatchSize;
+
+    @Value("${reset-campaign.lease-seconds:60}")
+    private long leaseSeconds;
+
+    public ResetCampaignResponse create(ResetCampaignRequest request, String createdBy) {
+        boolean listed = request.getEmails() != null && !request.getEmails().isEmpty();
+        boolean queried = request.isAllUsers() || request.getRole() != null || request.getCreatedBefore() != null;
+        if (listed == queried) {
+            throw new AuthException(ErrorCode.INVALID_CAMPAIGN,
+                    "Give either emails or a query (role, createdBefore or allUsers), not both");
+        }
+        if (listed && request.getEmails().size() > maxListedEmails) {
+            throw new AuthException(ErrorCode.BATCH_TOO_LARGE,
+                    "At most " + maxListedEmails + " emails per campaign; use a query or several campaigns");
+        }
+        int emailsPerSecond = request.getEmailsPerSecond() != null ? request.getEmailsPerSecond() : defaultEmailsPerSecond;
+        if (emailsPerSecond > maxEmailsPerSecond) {
+            throw new AuthException(ErrorCode.INVALID_CAMPAIGN,
+                    "At most " + maxEmailsPerSecond + " emails per second");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime createdBefore = null;
+        if (queried) {
+            createdBefore = request.getCreatedBefore() != null && request.getCreatedBefore().isBefore(now)
+                    ? request.getCreatedBefore() : now;
+        }
+        ResetCampaign campaign = new ResetCampaign(0, request.getName(), Status.SELECTING,
+                listed ? Selector.LIST : Selector.QUERY, request.getRole(), createdBefore, 0,
+                request.isInvalidatePasswords(), emailsPerSecond,
+                request.getCodeValidityMinutes() != null ? request.getCodeValidityMinutes() : defaultCodeValidityMinutes,
+                createdBy, now, null, null);
+        long id = store.insert(campaign, instanceId, leaseUntil());
+        log.info("reset_campaign_created id={} name={} selector={} by={}", id, campaign.name(), campaign.selector(),
+                createdBy);
+
+        if (listed) {
+            selectListed(id, campaign.invalidatePasswords(), request.getEmails());
+        } else {
+            // Selected by the dispatcher, which takes the campaign once this lease is released
+            store.releaseLease(id, instanceId);
+        }
+        return get(id);
+    }
+
+    public ResetCampaignResponse get(long id) {
+        return toResponse(find(id));
+    }
+
+    public List<ResetCampaignResponse> list() {
+        return store.findRecent(RECENT_LIMIT).stream().map(this::toResponse).toList();
+    }
+
+    /**
+     * Stops selecting and sending after the current chunk. Codes already
+     * issued for the unsent part of the batch are discarded.
+     */
+    public ResetCampaignResponse pause(long id) {
+        transition(id, RUNNING, Status.PAUSED);
+        log.info("reset_campaign_paused id={}", id);
+        return get(id);
+    }
+
+    public ResetCampaignResponse resume(long id) {
+        ResetCampaign campaign = find(id);
+        // A query picks up selection where it stopped; a list was selected when created
+        Status next = campaign.selector() == Selector.QUERY ? Status.SELECTING : Status.DISPATCHING;
+        transition(id, List.of(Status.PAUSED), next);
+        log.info("reset_campaign_resumed id={}", id);
+        return get(id);
+    }
+
+    /**
+     * Ends the campaign for good; queued deliveries are never sent.
+     */
+    public ResetCampaignResponse cancel(long id) {
+        transition(id, List.of(Status.SELECTING, Status.DISPATCHING, Status.PAUSED), Status.CANCELLED);
+        log.info("reset_campaign_cancelled id={}", id);
+        return get(id);
+    }
+
+    /**
+     * Queues failed deliveries again, reopening a completed campaign.
+     */
+    public ResetCampaignResponse retryFailed(long id) {
+        ResetCampaign campaign = find(id);
+        if (campaign.status() == Status.CANCELLED || campaign.status() == Status.SELECTING) {
+            throw new AuthException(ErrorCode.CAMPAIGN_STATE_CONFLICT, "Campaign is " + campaign.status());
+        }
+        long requeued = 0;
+        for (long count : perShard(() -> store.requeueFailed(id))) {
+            requeued += count;
+        }
+        if (campaign.status() == Status.COMPLETED) {
+            store.transition(id, List.of(Status.COMPLETED), Status.DISPATCHING);
+        }
+        log.info("reset_campaign_retry id={} requeued={}", id, requeued);
+        return get(id);
+    }
+
+    /**
+     * Background selection for {@link Selector#QUERY}, shard by shard in
+     * user id order, resuming after the last user already selected.
+     *
+     * @param keepGoing renews the lease; false stops the selection
+     * @return whether every shard was selected to the end
+     */
+    boolean selectQueried(ResetCampaign campaign, BooleanSupplier keepGoing) {
+        String passwordHash = campaign.invalidatePasswords() ? unusablePasswordHash() : null;
+        AtomicBoolean finished = new AtomicBoolean(true);
+        AtomicLong selected = new AtomicLong();
+        shardRouter.forEachShard(() -> {
+            if (!finished.get()) {
+                return;
+            }
+            long after = store.lastSelectedUserId(campaign.id());
+            List<Long> batch;
+            do {
+                if (!keepGoing.getAsBoolean()) {
+                    finished.set(false);
+                    return;
+                }
+                batch = store.selectUserIds(after, campaign.createdBefore(), campaign.targetRole(), selectBatchSize);
+                if (!batch.isEmpty()) {
+                    enqueue(campaign.id(), batch, passwordHash);
+                    selected.addAndGet(batch.size());
+                    after = batch.get(batch.size() - 1);
+                }
+            } while (batch.size() == selectBatchSize);
+        });
+        log.info("reset_campaign_selection id={} selected={} finished={}", campaign.id(), selected.get(), finished.get());
+        return finished.get();
+    }
+
+    String instanceId() {
+        return instanceId;
+    }
+
+    LocalDateTime leaseUntil() {
+        return LocalDateTime.now().plusSeconds(leaseSeconds);
+    }
+
+    void recordSent(long campaignId, int count) {
+        sendRates.computeIfAbsent(campaignId, id -> new SendRate(System::currentTimeMillis)).record(count);
+    }
+
+    private void selectListed(long id, boolean invalidatePasswords, List<String> emails) {
+        String passwordHash = invalidatePasswords ? unusablePasswordHash() : null;
+        boolean legacyFallback = emailLookupBackfill.legacyFallback();
+        // Canonical email -> as given, grouped by owning shard
+        Map<String, Map<String, String>> byShard = new LinkedHashMap<>();
+        for (String email : emails) {
+            byShard.computeIfAbsent(String.valueOf(shardRouter.shardFor(email)), shard -> new LinkedHashMap<>())
+                    .putIfAbsent(EmailLookup.of(email), email.strip());
+        }
+        int distinct = byShard.values().stream().mapToInt(Map::size).sum();
+        long matched = 0;
+        try {
+            for (Map<String, String> shardEmails : byShard.values()) {
+                String anyEmail = shardEmails.values().iterator().next();
+                try (var shard = shardRouter.bindEmail(anyEmail)) {
+                    List<String> lookups = new ArrayList<>(shardEmails.keySet());
+                    for (int from = 0; from < lookups.size(); from += selectBatchSize) {
+                        List<String> chunk = lookups.subList(from, Math.min(from + selectBatchSize, lookups.size()));
+                        List<String> raw = legacyFallback ? chunk.stream().map(shardEmails::get).toList() : List.of();
+                        // A legacy row can match both by lookup and by raw email
+                        List<Long> userIds = List.copyOf(new LinkedHashSet<>(store.findUserIds(chunk, raw)));
+                        if (!userIds.isEmpty()) {
+                            enqueue(id, userIds, passwordHash);
+                            matched += userIds.size();
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            store.transition(id, List.of(Status.SELECTING), Status.CANCELLED);
+            store.releaseLease(id, instanceId);
+            log.error("reset_campaign_cancelled id={}: selection failed after {} of {} emails{}", id, matched, distinct,
+                    invalidatePasswords ? ", whose passwords were already replaced" : "", e);
+            throw e;
+        }
+        store.setUnmatchedEmails(id, (int) Math.max(0, distinct - matched));
+        store.transition(id, List.of(Status.SELECTING), Status.DISPATCHING);
+        store.releaseLease(id, instanceId);
+        log.info("reset_campaign_selection id={} selected={} unmatched={}", id, matched, distinct - matched);
+    }
+
+    private void enqueue(long campaignId, List<Long> userIds, String passwordHash) {
+        transactionTemplate.executeWithoutResult(status -> {
+            store.enqueue(campaignId, userIds);
+            if (passwordHash != null) {
+                store.replacePasswords(userIds, passwordHash);
+            }
+        });
+    }
+
+    // One BCrypt hash per selection run: the secret behind it is never kept
+    private String unusablePasswordHash() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return passwordEncoder.encode(Base64.getEncoder().encodeToString(secret));
+    }
+
+    private ResetCampaign find(long id) {
+        return store.find(id).orElseThrow(() ->
+                new AuthException(ErrorCode.CAMPAIGN_NOT_FOUND, "Campaign not found"));
+    }
+
+    private void transition(long id, List<Status> from, Status to) {
+        if (!store.transition(id, from, to)) {
+            throw new AuthException(ErrorCode.CAMPAIGN_STATE_CONFLICT, "Campaign is " + find(id).status());
+        }
+    }
+
+    private <T> List<T> perShard(Supplier<T> task) {
+        List<T> results = new ArrayList<>();
+        shardRouter.forEachShard(() -> results.add(task.get()));
+        return results;
+    }
+
+    private ResetCampaignResponse toResponse(ResetCampaign campaign) {
+        Map<DeliveryStatus, Long> counts = new EnumMap<>(DeliveryStatus.class);
+        for (Map<DeliveryStatus, Long> shardCounts : perShard(() -> store.countByStatus(campaign.id()))) {
+            shardCounts.forEach((status, count) -> counts.merge(status, count, Long::sum));
+        }
+        long queued = counts.getOrDefault(DeliveryStatus.QUEUED, 0L);
+        long sent = counts.getOrDefault(DeliveryStatus.SENT, 0L);
+        long failed = counts.getOrDefault(DeliveryStatus.FAILED, 0L);
+        long skipped = counts.getOrDefault(DeliveryStatus.SKIPPED, 0L);
+        long targets = queued + sent + failed + skipped;
+
+        Double averageRate = null;
+        if (campaign.startedAt() != null && sent > 0) {
+            LocalDateTime end = campaign.finishedAt() != null ? campaign.finishedAt() : LocalDateTime.now();
+            double seconds = Math.max(1, Duration.between(campaign.startedAt(), end).toMillis()) / 1000.0;
+            averageRate = round(sent / seconds);
+        }
+        SendRate sendRate = sendRates.get(campaign.id());
+        Double currentRate = sendRate != null && campaign.status() == Status.DISPATCHING ? round(sendRate.perSecond()) : null;
+        Double rate = currentRate != null && currentRate > 0 ? currentRate : averageRate;
+        Long remaining = campaign.status().isActive() && rate != null && rate > 0 ? Math.round(queued / rate) : null;
+
+        return new ResetCampaignResponse(campaign.id(), campaign.name(), campaign.status().name(),
+                campaign.selector().name(), campaign.targetRole(), campaign.createdBefore(),
+                campaign.invalidatePasswords(), campaign.emailsPerSecond(), campaign.codeValidityMinutes(),
+                campaign.createdBy(), campaign.createdAt(), campaign.startedAt(), campaign.finishedAt(),
+                campaign.unmatchedEmails(), targets, queued, sent, failed, skipped,
+                targets > 0 ? round(100.0 * (targets - queued) / targets) : null,
+                averageRate, currentRate, remaining);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    /**
+     * Sends over the last minute, in per-second slots. A campaign that
+     * started sending less than a minute ago is averaged over the seconds
+     * since its first send.
+     */
+    static final class SendRate {
+        private static final int SECONDS = 60;
+
+        private final Deque<long[]> slots = new ArrayDeque<>();
+        private final LongSupplier clock;
+
+        SendRate(LongSupplier clock) {
+            this.clock = clock;
+        }
+
+        synchronized void record(int count) {
+            long second = clock.getAsLong() / 1000;
+            long[] last = slots.peekLast();
+            if (last != null && last[0] == second) {
+                last[1] += count;
+            } else {
+                slots.addLast(new long[]{second, count});
+            }
+            expire(second);
+        }
+
+        synchronized double perSecond() {
+            long second = clock.getAsLong() / 1000;
+            expire(second);
+            if (slots.isEmpty()) {
+                return 0;
+            }
+            long sum = 0;
+            for (long[] slot : slots) {
+                sum += slot[1];
+            }
+            return (double) sum / Math.min(SECONDS, second - slots.peekFirst()[0] + 1);
+        }
+
+        private void expire(long second) {
+            while (!slots.isEmpty() && slots.peekFirst()[0] <= second - SECONDS) {
+                slots.removeFirst();
+            }
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.auth.campaign;
+
+import com.example.auth.campaign.ResetCampaign.DeliveryStatus;
+import com.example.auth.campaign.ResetCampaign.Selector;
+import com.example.auth.campaign.ResetCampaign.Status;
+import com.example.auth.entity.Role;
+import com.example.auth.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * JDBC access to reset_campaigns and reset_campaign_deliveries. Campaign
+ * methods bind the global shard themselves; delivery methods run against
+ * whatever shard the caller has bound.
+ *
+ * <p>Only the holder of a campaign's lease selects or dispatches it. The
+ * lease is renewed with every batch and lapses on its own if the holder
+ * dies, after which any instance may take the campaign over.
+ */
+@Component
+@RequiredArgsConstructor
+class ResetCampaignStore {
+    private static final String CAMPAIGN_COLUMNS = "id, name, status, selector, target_role, created_before, "
+            + "unmatched_emails, invalidate_passwords, emails_per_second, code_validity_minutes, created_by, "
+            + "created_at, started_at, finished_at";
+
+    private static final RowMapper<ResetCampaign> CAMPAIGN = (rs, i) -> new ResetCampaign(
+            rs.getLong("id"),
+            rs.getString("name"),
+            Status.valueOf(rs.getString("status")),
+            Selector.valueOf(rs.getString("selector")),
+            rs.getString("target_role") != null ? Role.valueOf(rs.getString("target_role")) : null,
+            toLocal(rs.getTimestamp("created_before")),
+            rs.getInt("unmatched_emails"),
+            rs.getBoolean("invalidate_passwords"),
+            rs.getInt("emails_per_second"),
+            rs.getInt("code_validity_minutes"),
+            rs.getString("created_by"),
+            toLocal(rs.getTimestamp("created_at")),
+            toLocal(rs.getTimestamp("started_at")),
+            toLocal(rs.getTimestamp("finished_at")));
+
+    private final DataSource dataSource;
+    private final ShardRouter shardRouter;
+
+    /**
+     * Inserts the campaign already leased to {@code leaseOwner}, so no
+     * dispatcher touches it before its creator has finished with it.
+     */
+    long insert(ResetCampaign campaign, String leaseOwner, LocalDateTime leaseUntil) {
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        try (var scope = shardRouter.bindGlobal()) {
+            jdbc().update(connection -> {
+                PreparedStatement statement = connection.prepareStatement("INSERT INTO reset_campaigns "
+                        + "(name, status, selector, target_role, created_before, unmatched_emails, "
+                        + "invalidate_passwords, emails_per_second, code_validity_minutes, created_by, created_at, "
+                        + "lease_owner, lease_until) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", new String[]{"id"});
+                statement.setString(1, campaign.name());
+                statement.setString(2, campaign.status().name());
+                statement.setString(3, campaign.selector().name());
+                statement.setString(4, campaign.targetRole() != null ? campaign.targetRole().name() : null);
+                statement.setTimestamp(5, toTimestamp(campaign.createdBefore()));
+                statement.setInt(6, campaign.unmatchedEmails());
+                statement.setBoolean(7, campaign.invalidatePasswords());
+                statement.setInt(8, campaign.emailsPerSecond());
+                statement.setInt(9, campaign.codeValidityMinutes());
+                statement.setString(10, campaign.createdBy());
+                statement.setTimestamp(11, toTimestamp(campaign.createdAt()));
+                statement.setString(12, leaseOwner);
+                statement.setTimestamp(13, toTimestamp(leaseUntil));
+                return statement;
+            }, keys);
+        }
+        return keys.getKey().longValue();
+    }
+
+    Optional<ResetCampaign> find(long id) {
+        try (var scope = shardRouter.bindGlobal()) {
+            return jdbc().query("SELECT " + CAMPAIGN_COLUMNS + " FROM reset_campaigns WHERE id = ?", CAMPAIGN, id)
+                    .stream().findFirst();
+        }
+    }
+
+    List<ResetCampaign> findRecent(int limit) {
+        try (var scope = shardRouter.bindGlobal()) {
+            return jdbc().query("SELECT " + CAMPAIGN_COLUMNS + " FROM reset_campaigns ORDER BY id DESC LIMIT ?",
+                    CAMPAIGN, limit);
+        }
+    }
+
+    List<ResetCampaign> findActive() {
+        try (var scope = shardRouter.bindGlobal()) {
+            return jdbc().query("SELECT " + CAMPAIGN_COLUMNS + " FROM reset_campaigns WHERE status IN (?, ?) ORDER BY id",
+                    CAMPAIGN, Status.SELECTING.name(), Status.DISPATCHING.name());
+        }
+    }
+
+    /**
+     * Sets finished_at when {@code to} ends the campaign and clears it
+     * otherwise.
+     *
+     * @return whether the status was one of {@code from} and is now {@code to}
+     */
+    boolean transition(long id, Collection<Status> from, Status to) {
+        boolean finished = to == Status.COMPLETED || to == Status.CANCELLED;
+        List<Object> args = new ArrayList<>();
+        args.add(to.name());
+        args.add(finished ? toTimestamp(LocalDateTime.now()) : null);
+        args.add(id);
+        from.forEach(status -> args.add(status.name()));
+        try (var scope = shardRouter.bindGlobal()) {
+            return jdbc().update("UPDATE reset_campaigns SET status = ?, finished_at = ? WHERE id = ?"
+                    + " AND status IN (" + placeholders(from.size()) + ")", args.toArray()) == 1;
+        }
+    }
+
+    void markStarted(long id) {
+        try (var scope = shardRouter.bindGlobal()) {
+            jdbc().update("UPDATE reset_campaigns SET started_at = ? WHERE id = ? AND started_at IS NULL",
+                    toTimestamp(LocalDateTime.now()), id);
+        }
+    }
+
+    void setUnmatchedEmails(long id, int unmatched) {
+        try (var scope = shardRouter.bindGlobal()) {
+            jdbc().update("UPDATE reset_campaigns SET unmatched_emails = ? WHERE id = ?", unmatched, id);
+        }
+    }
+
+    boolean acquireLease(long id, String owner, LocalDateTime until) {
+        LocalDateTime now = LocalDateTime.now();
+        try (var scope = shardRouter.bindGlobal()) {
+            return jdbc().update("UPDATE reset_campaigns SET lease_owner = ?, lease_until = ? WHERE id = ?"
+                            + " AND status IN (?, ?) AND (lease_owner IS NULL OR lease_owner = ? OR lease_until < ?)",
+                    owner, toTimestamp(until), id, Status.SELECTING.name(), Status.DISPATCHING.name(), owner,
+                    toTimestamp(now)) == 1;
+        }
+    }
+
+    /**
+     * Extends the lease as long as the campaign is still in {@code status};
+     * false means stop: it was paused or cancelled, or the lease was lost.
+     */
+    boolean renewLease(long id, String owner, Status status, LocalDateTime until) {
+        try (var scope = shardRouter.bindGlobal()) {
+            return jdbc().update("UPDATE reset_campaigns SET lease_until = ? WHERE id = ? AND lease_owner = ?"
+                    + " AND status = ?", toTimestamp(until), id, owner, status.name()) == 1;
+        }
+    }
+
+    void releaseLease(long id, String owner) {
+        try (var scope = shardRouter.bindGlobal()) {
+            jdbc().update("UPDATE reset_campaigns SET lease_owner = NULL, lease_until = NULL"
+                    + " WHERE id = ? AND lease_owner = ?", id, owner);
+        }
+    }
+
+    // Deliveries, on the bound shard
+
+    /**
+     * Selection checkpoint: targets are selected in user id order and
+     * written in the same transaction that selected them.
+     */
+    long lastSelectedUserId(long campaignId) {
+        Long last = jdbc().queryForObject(
+                "SELECT MAX(user_id) FROM reset_campaign_deliveries WHERE campaign_id = ?", Long.class, campaignId);
+        return last != null ? last : 0;
+    }
+
+    void enqueue(long campaignId, List<Long> userIds) {
+        Timestamp now = toTimestamp(LocalDateTime.now());
+        jdbc().batchUpdate("INSERT INTO reset_campaign_deliveries (campaign_id, user_id, status, attempts, updated_at)"
+                        + " VALUES (?, ?, ?, 0, ?)",
+                userIds.stream().map(userId -> new Object[]{campaignId, userId, DeliveryStatus.QUEUED.name(), now})
+                        .toList());
+    }
+
+    /**
+     * The next queued deliveries with the user's current email; the email is
+     * null when the user is no longer on this shard.
+     */
+    List<Delivery> nextQueued(long campaignId, int limit) {
+        return jdbc().query("SELECT d.id, d.user_id, u.email FROM reset_campaign_deliveries d"
+                        + " LEFT JOIN users u ON u.id = d.user_id"
+                        + " WHERE d.campaign_id = ? AND d.status = ? ORDER BY d.id LIMIT ?",
+                (rs, i) -> new Delivery(rs.getLong(1), rs.getLong(2), rs.getString(3)),
+                campaignId, DeliveryStatus.QUEUED.name(), limit);
+    }
+
+    void mark(List<Long> deliveryIds, DeliveryStatus status, boolean attempted) {
+        if (deliveryIds.isEmpty()) {
+            return;
+        }
+        Timestamp now = toTimestamp(LocalDateTime.now());
+        jdbc().batchUpdate("UPDATE reset_campaign_deliveries SET status = ?, attempts = attempts + ?, updated_at = ?"
+                        + " WHERE id = ?",
+                deliveryIds.stream().map(id -> new Object[]{status.name(), attempted ? 1 : 0, now, id}).toList());
+    }
+
+    int requeueFailed(long campaignId) {
+        return jdbc().update("UPDATE reset_campaign_deliveries SET status = ?, updated_at = ?"
+                        + " WHERE campaign_id = ? AND status = ?",
+                DeliveryStatus.QUEUED.name(), toTimestamp(LocalDateTime.now()), campaignId,
+                DeliveryStatus.FAILED.name());
+    }
+
+    boolean hasQueued(long campaignId) {
+        return !jdbc().queryForList("SELECT id FROM reset_campaign_deliveries WHERE campaign_id = ? AND status = ?"
+                + " ORDER BY id LIMIT 1", Long.class, campaignId, DeliveryStatus.QUEUED.name()).isEmpty();
+    }
+
+    Map<DeliveryStatus, Long> countByStatus(long campaignId) {
+        Map<DeliveryStatus, Long> counts = new EnumMap<>(DeliveryStatus.class);
+        jdbc().query("SELECT status, COUNT(*) FROM reset_campaign_deliveries WHERE campaign_id = ? GROUP BY status",
+                rs -> {
+                    counts.merge(DeliveryStatus.valueOf(rs.getString(1)), rs.getLong(2), Long::sum);
+                }, campaignId);
+        return counts;
+    }
+
+    // Users, on the bound shard
+
+    List<Long> selectUserIds(long afterUserId, LocalDateTime createdBefore, Role role, int limit) {
+        String roleFilter = role != null ? " AND role = ?" : "";
+        Object[] args = role != null
+                ? new Object[]{afterUserId, toTimestamp(createdBefore), role.name(), limit}
+                : new Object[]{afterUserId, toTimestamp(createdBefore), limit};
+        return jdbc().queryForList("SELECT id FROM users WHERE id > ? AND created_at < ?" + roleFilter
+                + " ORDER BY id LIMIT ?", Long.class, args);
+    }
+
+    /**
+     * Ids of the users with these canonical emails; {@code rawEmails}, when
+     * not empty, also matches rows the email lookup backfill has not reached.
+     */
+    List<Long> findUserIds(List<String> emailLookups, List<String> rawEmails) {
+        String sql = "SELECT id FROM users WHERE email_lookup IN (" + placeholders(emailLookups.size()) + ")";
+        List<Object> args = new ArrayList<>(emailLookups);
+        if (!rawEmails.isEmpty()) {
+            sql += " OR email IN (" + placeholders(rawEmails.size()) + ")";
+            args.addAll(rawEmails);
+        }
+        return jdbc().queryForList(sql, Long.class, args.toArray());
+    }
+
+    /**
+     * Replaces the password hash, so the old password stops working, and
+     * bumps profile_version as every other user write does.
+     */
+    void replacePasswords(List<Long> userIds, String passwordHash) {
+        jdbc().batchUpdate("UPDATE users SET password = ?, profile_version = profile_version + 1 WHERE id = ?",
+                userIds.stream().map(id -> new Object[]{passwordHash, id}).toList());
+    }
+
+    private JdbcTemplate jdbc() {
+        return new JdbcTemplate(dataSource);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+
+    private static LocalDateTime toLocal(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    record Delivery(long id, long userId, String email) {
+    }
+}
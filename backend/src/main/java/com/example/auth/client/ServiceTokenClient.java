@@ -0,0 +1,168 @@
+package com.example.auth.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Client side of the client-credentials grant for batch jobs and other
+ * services: fetches a token from {@code POST /api/auth/token} once and hands
+ * out the cached copy until it is due for renewal, instead of logging in per
+ * run or per unit of work. Thread-safe; share one instance per client id.
+ *
+ * <p>A token is renewed once {@code refreshAhead} of its lifetime has
+ * passed. While it is still valid, one caller renews it and the others keep
+ * using the current token; a failed renewal is logged and retried on the
+ * next call. Only once the token has actually expired do callers wait for
+ * (and see failures of) the request.
+ *
+ * <pre>
+ * ServiceTokenClient tokens = new ServiceTokenClient(URI.create("https://auth.internal"),
+ *         "nightly-export", secret, "users:read");
+ * request.header("Authorization", tokens.authorizationHeader());
+ * </pre>
+ */
+@Slf4j
+public class ServiceTokenClient {
+    private static final double DEFAULT_REFRESH_AHEAD = 0.8;
+    // Treat tokens as expired a little early, for clock skew and time in flight
+    private static final long EXPIRY_MARGIN_NANOS = Duration.ofSeconds(5).toNanos();
+
+    private final HttpClient http;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI tokenUri;
+    private final String basicCredentials;
+    private final String form;
+    private final double refreshAhead;
+    private final ReentrantLock renewal = new ReentrantLock();
+    private final LongSupplier nanoClock;
+    private volatile CachedToken cached;
+
+    public ServiceTokenClient(URI baseUri, String clientId, String clientSecret, String scope) {
+        this(HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build(),
+                baseUri, clientId, clientSecret, scope, DEFAULT_REFRESH_AHEAD);
+    }
+
+    /**
+     * @param scope        space-separated scopes, or null for all of the client's scopes
+     * @param refreshAhead fraction of the token lifetime after which it is renewed, in (0, 1]
+     */
+    public ServiceTokenClient(HttpClient http, URI baseUri, String clientId, String clientSecret, String scope,
+                              double refreshAhead) {
+        this(http, baseUri, clientId, clientSecret, scope, refreshAhead, System::nanoTime);
+    }
+
+    ServiceTokenClient(HttpClient http, URI baseUri, String clientId, String clientSecret, String scope,
+                       double refreshAhead, LongSupplier nanoClock) {
+        if (refreshAhead <= 0 || refreshAhead > 1) {
+            throw new IllegalArgumentException("refreshAhead must be in (0, 1]");
+        }
+        this.http = http;
+        this.tokenUri = baseUri.resolve("/api/auth/token");
+        this.basicCredentials = "Basic " + Base64.getEncoder().encodeToString(
+                (clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+        this.form = "grant_type=client_credentials"
+                + (scope != null ? "&scope=" + URLEncoder.encode(scope, StandardCharsets.UTF_8) : "");
+        this.refreshAhead = refreshAhead;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns a valid access token, from the cache when possible.
+     */
+    public String token() throws IOException {
+        CachedToken current = cached;
+        long now = nanoClock.getAsLong();
+        if (current != null && now - current.refreshAt() < 0) {
+            return current.value();
+        }
+        if (current != null && now - current.expiresAt() < 0) {
+            if (!renewal.tryLock()) {
+                return current.value();
+            }
+            try {
+                // Not re-read from the field: invalidate() may have cleared it meanwhile
+                return cached == current ? renew().value() : current.value();
+            } catch (IOException e) {
+                log.warn("Service token renewal failed, using the current token until it expires: {}", e.toString());
+                return current.value();
+            } finally {
+                renewal.unlock();
+            }
+        }
+        renewal.lock();
+        try {
+            current = cached;
+            if (current != null && nanoClock.getAsLong() - current.expiresAt() < 0) {
+                return current.value();
+            }
+            return renew().value();
+        } finally {
+            renewal.unlock();
+        }
+    }
+
+    public String authorizationHeader() throws IOException {
+        return "Bearer " + token();
+    }
+
+    /**
+     * Drops the cached token, for example after the resource server rejected
+     * it with 401; the next {@link #token()} fetches a new one.
+     */
+    public void invalidate() {
+        cached = null;
+    }
+
+    private CachedToken renew() throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(tokenUri)
+                .timeout(Duration.ofSeconds(10))
+                .header("Authorization", basicCredentials)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        long requestedAt = nanoClock.getAsLong();
+        HttpResponse<byte[]> response;
+        try {
+            response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching a service token");
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("Token endpoint answered " + response.statusCode() + ": "
+                    + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        JsonNode body = objectMapper.readTree(response.body());
+        String value = body.path("access_token").asText(null);
+        long expiresIn = body.path("expires_in").asLong(0);
+        if (value == null || expiresIn <= 0) {
+            throw new IOException("Token endpoint answered without access_token or expires_in");
+        }
+        // Lifetimes are counted from before the request, so they never run past the server's
+        long lifetime = Duration.ofSeconds(expiresIn).toNanos();
+        CachedToken token = new CachedToken(value,
+                requestedAt + (long) (lifetime * refreshAhead),
+                requestedAt + Math.max(0, lifetime - EXPIRY_MARGIN_NANOS));
+        cached = token;
+        log.debug("Fetched service token valid for {} s", expiresIn);
+        return token;
+    }
+
+    // refreshAt and expiresAt are nanoClock values, System.nanoTime() outside tests
+    private record CachedToken(String value, long refreshAt, long expiresAt) {
+    }
+}
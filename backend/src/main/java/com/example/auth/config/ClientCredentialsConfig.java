@@ -0,0 +1,9 @@
+package com.example.auth.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ClientCredentialsProperties.class)
+public class ClientCredentialsConfig {
+}
@@ -0,0 +1,38 @@
+package com.example.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service clients for the client-credentials grant, bound from the
+ * {@code client-credentials.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "client-credentials")
+public class ClientCredentialsProperties {
+    // client id -> registration
+    private Map<String, Client> clients = new LinkedHashMap<>();
+
+    // HMAC-SHA256 key the secret hashes are computed with; empty means jwt.secret
+    private String hashKey = "";
+
+    // Lifetime of issued service tokens
+    private long tokenTtlSeconds = 900;
+
+    @Data
+    public static class Client {
+        // Base64URL HMAC-SHA256 of the secret under hash-key; the secret itself is never stored
+        private String secretHash;
+
+        // Scopes the client may request; a request without scope gets all of them
+        private List<String> scopes = new ArrayList<>();
+
+        // Role claim of the client's tokens
+        private String role = "SERVICE";
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adaptive per-route concurrency limits, bound from the
+ * {@code concurrency-limit.*} properties. Endpoints are keyed
+ * "METHOD /pattern" with the controller's mapping pattern, as in the
+ * connection metrics; requests that match no group share the
+ * {@code default} group.
+ */
+@Data
+@ConfigurationProperties(prefix = "concurrency-limit")
+public class ConcurrencyLimitProperties {
+    private boolean enabled = true;
+
+    // Path prefixes that are never limited, such as the health probes
+    private List<String> exemptPaths = new ArrayList<>(List.of("/api/health/"));
+
+    // Latency is averaged over windows of at least this long and min-window-samples requests
+    private long windowMs = 250;
+    private int minWindowSamples = 10;
+
+    // How far the window latency may rise over the long-term baseline before the limit shrinks
+    private double rttTolerance = 1.5;
+
+    // Weight of each window's target limit in the new limit
+    private double smoothing = 0.2;
+
+    // Multiplicative decrease applied after a window with server errors
+    private double backoffRatio = 0.9;
+
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    @Data
+    public static class Group {
+        // "METHOD /pattern" keys served by this group
+        private List<String> endpoints = new ArrayList<>();
+
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.auth.config;
+
+import com.example.auth.metrics.ConnectionMetrics;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Attaches {@link ConnectionMetrics} to the auto-configured Hikari pool.
+ * Shard pools are built by {@link ShardingConfig}, which attaches it itself.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ConnectionMetricsConfig {
+
+    @Bean
+    static BeanPostProcessor hikariMetricsPostProcessor(ObjectProvider<ConnectionMetrics> connectionMetrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari && hikari.getMetricsTrackerFactory() == null) {
+                    hikari.setMetricsTrackerFactory(connectionMetrics.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
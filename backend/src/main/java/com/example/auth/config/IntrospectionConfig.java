@@ -0,0 +1,9 @@
+package com.example.auth.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(IntrospectionProperties.class)
+public class IntrospectionConfig {
+}
@@ -0,0 +1,22 @@
+package com.example.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Token introspection for downstream services, bound from the
+ * {@code introspection.*} properties. Callers are registered under
+ * {@link ClientCredentialsProperties} with the {@code introspect} scope.
+ */
+@Data
+@ConfigurationProperties(prefix = "introspection")
+public class IntrospectionProperties {
+    // Tokens accepted per request
+    private int maxBatchSize = 500;
+
+    // How long a verification result is reused; never past the token's own expiry
+    private long cacheTtlSeconds = 30;
+
+    // Upper bound on cached results; tokens are a few hundred bytes each
+    private int cacheMaxEntries = 50_000;
+}
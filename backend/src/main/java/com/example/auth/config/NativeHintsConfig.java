@@ -0,0 +1,87 @@
+package com.example.auth.config;
+
+import com.example.auth.entity.OtpCode;
+import com.example.auth.entity.PendingRegistration;
+import com.example.auth.entity.User;
+import com.example.auth.entity.UsernameIndex;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.stream.Stream;
+
+/**
+ * Reflection and resource hints for the AOT-processed and native builds
+ * (the {@code aot} and {@code native} Maven profiles). Everything Spring can
+ * infer from beans and controllers is generated automatically; this covers
+ * what is looked up by name at runtime.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfig.AuthRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static class AuthRuntimeHints implements RuntimeHintsRegistrar {
+        // jjwt-api instantiates its implementation through Classes.newInstance(String)
+        private static final String[] JJWT_IMPL_CLASSES = {
+                "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+                "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+                "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+                "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+                "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+                "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+                "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+                "io.jsonwebtoken.impl.security.JwksBridge",
+                "io.jsonwebtoken.impl.security.KeysBridge",
+                "io.jsonwebtoken.impl.security.StandardCurves",
+                "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardKeyOperations",
+                "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+                // Found through META-INF/services by jjwt-jackson
+                "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+        };
+
+        // Loaded by Hikari through driverClassName
+        private static final String[] JDBC_DRIVERS = {
+                "com.mysql.cj.jdbc.Driver",
+                "org.postgresql.Driver",
+                "org.h2.Driver"
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (String type : JJWT_IMPL_CLASSES) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+            // Hibernate reads and writes the Lombok-generated entities reflectively
+            Stream.of(User.class, PendingRegistration.class, OtpCode.class, UsernameIndex.class)
+                    .forEach(type -> hints.reflection().registerType(type,
+                            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                            MemberCategory.DECLARED_FIELDS,
+                            MemberCategory.INVOKE_PUBLIC_METHODS));
+
+            // ShardingConfig builds HikariConfig directly; Hikari copies it with reflection
+            hints.reflection().registerType(TypeReference.of("com.zaxxer.hikari.HikariConfig"),
+                    MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS);
+            for (String driver : JDBC_DRIVERS) {
+                hints.reflection().registerType(TypeReference.of(driver),
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            }
+
+            hints.resources().registerPattern("db/sharding/*.sql");
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.auth.config;
+
+import com.example.auth.metrics.ConnectionMetrics;
+import com.example.auth.sharding.ShardDataSources;
+import com.example.auth.sharding.ShardRoutingDataSource;
+import com.example.auth.sharding.ShardingProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shard datasources, only created when {@code sharding.enabled=true}.
+ * Otherwise the regular auto-configured datasource is used.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@Slf4j
+public class ShardingConfig {
+    private static final List<String> ID_TABLES = List.of("users", "pending_registrations", "otp_codes");
+
+    @Bean
+    @ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+    public ShardDataSources shardDataSources(ShardingProperties properties,
+                                             ConnectionMetrics connectionMetrics) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("sharding.enabled=true but no sharding.shards are configured");
+        }
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        properties.getShards().forEach((name, shard) -> {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("shard-" + name);
+            config.setJdbcUrl(shard.getUrl());
+            config.setUsername(shard.getUsername());
+            config.setPassword(shard.getPassword());
+            config.setMaximumPoolSize(shard.getMaximumPoolSize());
+            config.setMetricsTrackerFactory(connectionMetrics);
+            // MySQL interleaves AUTO_INCREMENT values per session, keeping ids unique across shards
+            if (shard.getUrl().startsWith("jdbc:mysql:")) {
+                config.setConnectionInitSql(String.format(
+                        "SET SESSION auto_increment_increment = %d, auto_increment_offset = %d",
+                        properties.getIdIncrement(), shard.getIdOffset()));
+            }
+            dataSources.put(name, new HikariDataSource(config));
+        });
+        return new ShardDataSources(dataSources);
+    }
+
+    /**
+     * The routing datasource is wrapped in a lazy proxy so that the physical
+     * connection is only fetched at the first statement, after the service
+     * has bound the shard for the email it is working on.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+    public DataSource dataSource(ShardDataSources shardDataSources,
+                                 ShardingProperties properties) {
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(new HashMap<>(shardDataSources.byName()));
+        routing.setDefaultTargetDataSource(shardDataSources.get(properties.resolveGlobalShard()));
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Flyway is auto-configured on the routing datasource, which only
+     * reaches the global shard. Runs the same migrations on every shard
+     * instead, still before Hibernate validates the schema.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+    public FlywayMigrationStrategy shardMigrationStrategy(ShardDataSources shardDataSources) {
+        return flyway -> shardDataSources.byName().forEach((name, dataSource) -> {
+            var result = Flyway.configure().configuration(flyway.getConfiguration())
+                    .dataSource(dataSource)
+                    .load()
+                    .migrate();
+            log.info("Shard {} migrated: {} migrations applied, now at version {}",
+                    name, result.migrationsExecuted, result.targetSchemaVersion);
+        });
+    }
+
+    /**
+     * Prepares every shard at startup: runs the optional schema script and,
+     * for embedded H2 shards, steps the identity columns so ids stay unique.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+    public ApplicationRunner shardSchemaInitializer(ShardDataSources shardDataSources,
+                                                    ShardingProperties properties,
+                                                    ResourceLoader resourceLoader) {
+        return args -> {
+            for (Map.Entry<String, ShardingProperties.Shard> entry : properties.getShards().entrySet()) {
+                initializeShard(shardDataSources.get(entry.getKey()), entry.getValue(), properties, resourceLoader);
+                log.info("Shard {} initialized", entry.getKey());
+            }
+        };
+    }
+
+    private void initializeShard(DataSource dataSource, ShardingProperties.Shard shard,
+                                 ShardingProperties properties, ResourceLoader resourceLoader) throws SQLException {
+        if (properties.getSchemaScript() != null) {
+            new ResourceDatabasePopulator(resourceLoader.getResource(properties.getSchemaScript()))
+                    .execute(dataSource);
+        }
+        if (isH2(dataSource)) {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            for (String table : ID_TABLES) {
+                jdbc.execute(String.format("ALTER TABLE %s ALTER COLUMN id SET INCREMENT BY %d",
+                        table, properties.getIdIncrement()));
+                Long maxId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+                long next = maxId - (maxId % properties.getIdIncrement()) + properties.getIdIncrement()
+                        + shard.getIdOffset();
+                jdbc.execute(String.format("ALTER TABLE %s ALTER COLUMN id RESTART WITH %d", table, next));
+            }
+        }
+    }
+
+    private static boolean isH2(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return "H2".equals(connection.getMetaData().getDatabaseProductName());
+        }
+    }
+}
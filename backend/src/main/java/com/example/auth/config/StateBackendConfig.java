@@ -0,0 +1,30 @@
+package com.example.auth.config;
+
+import com.example.auth.state.RespClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Connection to the shared state server, only created when
+ * {@code state.backend=redis}. The default {@code jpa} backend keeps OTPs
+ * and pending registrations in the database.
+ */
+@Configuration
+@Slf4j
+public class StateBackendConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "state.backend", havingValue = "redis")
+    public RespClient respClient(@Value("${state.redis.host:localhost}") String host,
+                                 @Value("${state.redis.port:6379}") int port,
+                                 @Value("${state.redis.password:}") String password,
+                                 @Value("${state.redis.database:0}") int database,
+                                 @Value("${state.redis.pool-size:16}") int poolSize,
+                                 @Value("${state.redis.timeout-ms:2000}") int timeoutMillis) {
+        log.info("Using Redis state backend at {}:{}", host, port);
+        return new RespClient(host, port, password, database, poolSize, timeoutMillis);
+    }
+}
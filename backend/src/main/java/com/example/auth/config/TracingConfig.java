@@ -0,0 +1,49 @@
+package com.example.auth.config;
+
+import com.example.auth.tracing.FileSpanExporter;
+import com.example.auth.tracing.InMemorySpanExporter;
+import com.example.auth.tracing.SpanExporter;
+import com.example.auth.tracing.Tracer;
+import com.example.auth.tracing.TracingPostProcessor;
+import com.example.auth.tracing.TracingProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Tracer and span exporter selected by {@code tracing.exporter}; the
+ * instrumenting post-processor is only installed while tracing is enabled.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(TracingProperties.class)
+public class TracingConfig {
+
+    // Always present so instrumented code can call it; spans are no-ops while disabled
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public Tracer tracer(TracingProperties properties, ObjectProvider<SpanExporter> exporter) {
+        return new Tracer(properties, exporter.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.exporter", havingValue = "memory", matchIfMissing = true)
+    public InMemorySpanExporter inMemorySpanExporter(TracingProperties properties) {
+        return new InMemorySpanExporter(properties.getMemory().getMaxTraces());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.exporter", havingValue = "file")
+    public FileSpanExporter fileSpanExporter(TracingProperties properties) {
+        return new FileSpanExporter(Path.of(properties.getFile().getPath()),
+                properties.getFile().getMaxSizeMb() * 1024L * 1024L);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.enabled", havingValue = "true")
+    static TracingPostProcessor tracingPostProcessor(ObjectProvider<Tracer> tracer) {
+        return new TracingPostProcessor(tracer);
+    }
+}
@@ -2,6 +2,8 @@ package com.example.auth.config;
 
 import com.example.auth.entity.User;
 import com.example.auth.repository.UserRepository;
+import com.example.auth.service.EmailLookupBackfill;
+import com.example.auth.sharding.ShardRouter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -12,11 +14,16 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class UserDetailsServiceImpl implements UserDetailsService {
     private final UserRepository userRepository;
+    private final ShardRouter shardRouter;
+    private final EmailLookupBackfill emailLookupBackfill;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + email));
+        User user;
+        try (var shard = shardRouter.bindEmail(email)) {
+            user = userRepository.findByAnySpelling(email, emailLookupBackfill.legacyFallback())
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + email));
+        }
 
         return org.springframework.security.core.userdetails.User.builder()
                 .username(user.getEmail())
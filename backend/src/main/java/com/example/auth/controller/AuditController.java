@@ -0,0 +1,41 @@
+package com.example.auth.controller;
+
+import com.example.auth.audit.AuditEvent;
+import com.example.auth.audit.AuditEventType;
+import com.example.auth.audit.AuditLog;
+import com.example.auth.audit.AuditLogReader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/audit")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class AuditController {
+    private final AuditLog auditLog;
+
+    @GetMapping
+    public ResponseEntity<List<AuditEvent>> query(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) AuditEventType type,
+            @RequestParam(required = false) String subject,
+            @RequestParam(defaultValue = "1000") int limit) throws IOException {
+        List<AuditEvent> events = new AuditLogReader(auditLog.getDirectory()).query(
+                from.toEpochMilli(),
+                to.toEpochMilli(),
+                e -> (type == null || e.type() == type) && (subject == null || subject.equalsIgnoreCase(e.subject())),
+                Math.min(limit, 10_000));
+        return ResponseEntity.ok(events);
+    }
+}
@@ -2,10 +2,15 @@ package com.example.auth.controller;
 
 import com.example.auth.dto.*;
 import com.example.auth.service.AuthService;
+import com.example.auth.service.ClientCredentialsService;
+import com.example.auth.service.IdempotencyStore;
+import com.example.auth.service.TokenIntrospectionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,18 +20,34 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 public class AuthController {
     private final AuthService authService;
+    private final TokenIntrospectionService tokenIntrospectionService;
+    private final ClientCredentialsService clientCredentialsService;
+    private final IdempotencyStore idempotencyStore;
 
+    /**
+     * Register, verify-otp, forgot-password and reset-password honour an
+     * optional {@code Idempotency-Key} header: a retry with the same key and
+     * body replays the first response instead of running again.
+     */
     @PostMapping("/register")
-    public ResponseEntity<MessageResponse> register(@Valid @RequestBody RegisterRequest request) {
-        authService.register(request);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(new MessageResponse("Registration successful. OTP sent to your email."));
+    public ResponseEntity<MessageResponse> register(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody RegisterRequest request) {
+        return idempotencyStore.execute("register", idempotencyKey, request, () -> {
+            authService.register(request);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(new MessageResponse("Registration successful. OTP sent to your email."));
+        });
     }
 
     @PostMapping("/verify-otp")
-    public ResponseEntity<MessageResponse> verifyOtp(@Valid @RequestBody OtpVerificationRequest request) {
-        authService.verifyOtp(request.getEmail(), request.getOtpCode());
-        return ResponseEntity.ok(new MessageResponse("Email verified successfully. You can now login."));
+    public ResponseEntity<MessageResponse> verifyOtp(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody OtpVerificationRequest request) {
+        return idempotencyStore.execute("verify-otp", idempotencyKey, request, () -> {
+            authService.verifyOtp(request.getEmail(), request.getOtpCode());
+            return ResponseEntity.ok(new MessageResponse("Email verified successfully. You can now login."));
+        });
     }
 
     @PostMapping("/login")
@@ -36,14 +57,51 @@ public class AuthController {
     }
 
     @PostMapping("/forgot-password")
-    public ResponseEntity<MessageResponse> forgotPassword(@Valid @RequestBody ForgotPasswordRequest request) {
-        authService.forgotPassword(request.getEmail());
-        return ResponseEntity.ok(new MessageResponse("OTP sent to your email for password reset."));
+    public ResponseEntity<MessageResponse> forgotPassword(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody ForgotPasswordRequest request) {
+        return idempotencyStore.execute("forgot-password", idempotencyKey, request, () -> {
+            authService.forgotPassword(request.getEmail());
+            return ResponseEntity.ok(new MessageResponse("OTP sent to your email for password reset."));
+        });
     }
 
     @PostMapping("/reset-password")
-    public ResponseEntity<MessageResponse> resetPassword(@Valid @RequestBody ResetPasswordRequest request) {
-        authService.resetPassword(request.getEmail(), request.getOtpCode(), request.getNewPassword());
-        return ResponseEntity.ok(new MessageResponse("Password reset successfully. You can now login with your new password."));
+    public ResponseEntity<MessageResponse> resetPassword(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody ResetPasswordRequest request) {
+        return idempotencyStore.execute("reset-password", idempotencyKey, request, () -> {
+            authService.resetPassword(request.getEmail(), request.getOtpCode(), request.getNewPassword());
+            return ResponseEntity.ok(new MessageResponse("Password reset successfully. You can now login with your new password."));
+        });
+    }
+
+    /**
+     * Verifies a batch of tokens for a downstream service: a client-credentials
+     * client with the {@code introspect} scope, authenticated with HTTP Basic.
+     */
+    @PostMapping("/introspect")
+    public ResponseEntity<IntrospectionResponse> introspect(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @Valid @RequestBody IntrospectionRequest request) {
+        return ResponseEntity.ok(new IntrospectionResponse(
+                tokenIntrospectionService.introspect(authorization, request.getTokens())));
+    }
+
+    /**
+     * OAuth 2.0 client-credentials grant: a short-lived service token for a
+     * registered machine client, authenticated with HTTP Basic or the
+     * {@code client_id} and {@code client_secret} form parameters.
+     */
+    @PostMapping(value = "/token", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<ClientTokenResponse> token(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestParam(name = "grant_type", required = false) String grantType,
+            @RequestParam(required = false) String scope,
+            @RequestParam(name = "client_id", required = false) String clientId,
+            @RequestParam(name = "client_secret", required = false) String clientSecret) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .body(clientCredentialsService.issueToken(authorization, grantType, scope, clientId, clientSecret));
     }
 }
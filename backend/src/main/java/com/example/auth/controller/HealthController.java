@@ -0,0 +1,41 @@
+package com.example.auth.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Liveness and readiness probes. Readiness stays 503 until startup,
+ * including the JIT warm-up, has finished.
+ */
+@RestController
+@RequestMapping("/api/health")
+@RequiredArgsConstructor
+public class HealthController {
+    private final ApplicationAvailability availability;
+
+    @GetMapping("/liveness")
+    public ResponseEntity<Map<String, String>> liveness() {
+        boolean up = availability.getLivenessState() == LivenessState.CORRECT;
+        return status(up);
+    }
+
+    @GetMapping("/readiness")
+    public ResponseEntity<Map<String, String>> readiness() {
+        boolean up = availability.getReadinessState() == ReadinessState.ACCEPTING_TRAFFIC;
+        return status(up);
+    }
+
+    private static ResponseEntity<Map<String, String>> status(boolean up) {
+        return ResponseEntity.status(up ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("status", up ? "UP" : "OUT_OF_SERVICE"));
+    }
+}
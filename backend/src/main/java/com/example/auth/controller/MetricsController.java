@@ -0,0 +1,63 @@
+package com.example.auth.controller;
+
+import com.example.auth.limit.AdaptiveLimit;
+import com.example.auth.limit.ConcurrencyLimiter;
+import com.example.auth.metrics.AuthStats;
+import com.example.auth.metrics.ConnectionMetrics;
+import com.example.auth.service.AuthStatsReconciler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/metrics")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class MetricsController {
+    private final ConnectionMetrics connectionMetrics;
+    private final AuthStats authStats;
+    private final AuthStatsReconciler authStatsReconciler;
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    @GetMapping("/connections")
+    public ResponseEntity<Map<String, ConnectionMetrics.EndpointSnapshot>> connections() {
+        return ResponseEntity.ok(connectionMetrics.snapshot());
+    }
+
+    @PostMapping("/connections/reset")
+    public ResponseEntity<Void> resetConnections() {
+        connectionMetrics.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/pools")
+    public ResponseEntity<Map<String, ConnectionMetrics.PoolSnapshot>> pools() {
+        return ResponseEntity.ok(connectionMetrics.poolSnapshots());
+    }
+
+    @GetMapping("/auth")
+    public ResponseEntity<AuthStats.Snapshot> auth() {
+        return ResponseEntity.ok(authStats.snapshot());
+    }
+
+    /**
+     * Reconciles the gauges with the database now instead of waiting for
+     * the next scheduled run.
+     */
+    @PostMapping("/auth/reconcile")
+    public ResponseEntity<AuthStats.Snapshot> reconcileAuth() {
+        authStatsReconciler.reconcile();
+        return ResponseEntity.ok(authStats.snapshot());
+    }
+
+    @GetMapping("/concurrency")
+    public ResponseEntity<Map<String, AdaptiveLimit.Snapshot>> concurrency() {
+        return ResponseEntity.ok(concurrencyLimiter.snapshot());
+    }
+}
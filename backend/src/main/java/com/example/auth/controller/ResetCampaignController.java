@@ -0,0 +1,68 @@
+package com.example.auth.controller;
+
+import com.example.auth.campaign.ResetCampaignService;
+import com.example.auth.dto.ResetCampaignRequest;
+import com.example.auth.dto.ResetCampaignResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Forced password-reset campaigns. Creating one returns 202: the emails go
+ * out in the background, and GET /{id} reports how far it has got.
+ */
+@RestController
+@RequestMapping("/api/admin/reset-campaigns")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class ResetCampaignController {
+    private final ResetCampaignService campaignService;
+
+    @PostMapping
+    public ResponseEntity<ResetCampaignResponse> create(@Valid @RequestBody ResetCampaignRequest request,
+                                                        Authentication authentication) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(campaignService.create(request, authentication.getName()));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ResetCampaignResponse>> list() {
+        return ResponseEntity.ok(campaignService.list());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ResetCampaignResponse> get(@PathVariable long id) {
+        return ResponseEntity.ok(campaignService.get(id));
+    }
+
+    @PostMapping("/{id}/pause")
+    public ResponseEntity<ResetCampaignResponse> pause(@PathVariable long id) {
+        return ResponseEntity.ok(campaignService.pause(id));
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<ResetCampaignResponse> resume(@PathVariable long id) {
+        return ResponseEntity.ok(campaignService.resume(id));
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<ResetCampaignResponse> cancel(@PathVariable long id) {
+        return ResponseEntity.ok(campaignService.cancel(id));
+    }
+
+    @PostMapping("/{id}/retry-failed")
+    public ResponseEntity<ResetCampaignResponse> retryFailed(@PathVariable long id) {
+        return ResponseEntity.ok(campaignService.retryFailed(id));
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.auth.controller;
+
+import com.example.auth.dto.MessageResponse;
+import com.example.auth.dto.RebalanceRequest;
+import com.example.auth.service.ShardRebalanceService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/shards")
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class ShardAdminController {
+    private final ShardRebalanceService shardRebalanceService;
+
+    @PostMapping("/rebalance")
+    public ResponseEntity<MessageResponse> rebalance(@Valid @RequestBody RebalanceRequest request) {
+        long moved = shardRebalanceService.rebalance(request.getTargetShards());
+        return ResponseEntity.ok(new MessageResponse(
+                "Rebalance completed, " + moved + " emails moved. Update sharding.active-shards to "
+                        + request.getTargetShards() + " before the next restart."));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.auth.controller;
+
+import com.example.auth.tracing.InMemorySpanExporter;
+import com.example.auth.tracing.SpanData;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Traces kept by the in-memory exporter; 404 when another exporter is configured.
+ */
+@RestController
+@RequestMapping("/api/admin/traces")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class TraceController {
+    private final ObjectProvider<InMemorySpanExporter> exporter;
+
+    @GetMapping
+    public ResponseEntity<List<InMemorySpanExporter.TraceSummary>> recent() {
+        InMemorySpanExporter memory = exporter.getIfAvailable();
+        return memory == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(memory.recent());
+    }
+
+    @GetMapping("/{traceId}")
+    public ResponseEntity<List<SpanData>> trace(@PathVariable String traceId) {
+        InMemorySpanExporter memory = exporter.getIfAvailable();
+        List<SpanData> trace = memory == null ? null : memory.find(traceId);
+        return trace == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(trace);
+    }
+
+    @PostMapping("/reset")
+    public ResponseEntity<Void> reset() {
+        InMemorySpanExporter memory = exporter.getIfAvailable();
+        if (memory == null) {
+            return ResponseEntity.notFound().build();
+        }
+        memory.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
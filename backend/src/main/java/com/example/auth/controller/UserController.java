@@ -1,24 +1,85 @@
 package com.example.auth.controller;
 
+import com.example.auth.dto.MessageResponse;
+import com.example.auth.dto.TotpCodeRequest;
+import com.example.auth.dto.TotpEnrolmentResponse;
 import com.example.auth.dto.UserResponse;
+import com.example.auth.entity.Role;
+import com.example.auth.security.TokenClaims;
+import com.example.auth.service.TotpService;
 import com.example.auth.service.UserService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
 public class UserController {
     private final UserService userService;
+    private final TotpService totpService;
 
+    // "database" loads the user every time, "cache" uses the version-checked profile
+    // cache, "claims" answers with the email and role from the access token alone
+    @Value("${users.me.source:database}")
+    private String profileSource;
+
+    /**
+     * Carries an ETag of the user's id and profile version, so a client
+     * sending it back in If-None-Match gets a 304 with no body.
+     */
     @GetMapping("/me")
-    public ResponseEntity<UserResponse> getCurrentUser(Authentication authentication) {
-        String email = authentication.getName();
-        var user = userService.findByEmail(email);
-        return ResponseEntity.ok(userService.toUserResponse(user));
+    public ResponseEntity<UserResponse> getCurrentUser(
+            Authentication authentication, WebRequest request,
+            @RequestAttribute(name = TokenClaims.REQUEST_ATTRIBUTE, required = false) TokenClaims claims) {
+        if ("claims".equals(profileSource) && claims != null && claims.role() != null) {
+            String etag = "W/\"c" + Integer.toHexString((claims.subject() + '|' + claims.role()).hashCode()) + "\"";
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            UserResponse profile = new UserResponse();
+            profile.setEmail(claims.subject());
+            profile.setRole(Role.valueOf(claims.role()));
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate()).body(profile);
+        }
+
+        var versioned = userService.findProfile(authentication.getName(), "cache".equals(profileSource));
+        String etag = "W/\"" + versioned.profile().getId() + "-" + versioned.version() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate()).body(versioned.profile());
+    }
+
+    @PostMapping("/me/totp")
+    public ResponseEntity<TotpEnrolmentResponse> startTotpEnrolment(Authentication authentication) {
+        var user = userService.findByEmail(authentication.getName());
+        return ResponseEntity.ok(totpService.startEnrolment(user));
+    }
+
+    @PostMapping("/me/totp/confirm")
+    public ResponseEntity<MessageResponse> confirmTotpEnrolment(Authentication authentication,
+                                                                @Valid @RequestBody TotpCodeRequest request) {
+        var user = userService.findByEmail(authentication.getName());
+        totpService.confirmEnrolment(user, request.getCode());
+        return ResponseEntity.ok(new MessageResponse("Authenticator app enabled."));
+    }
+
+    @PostMapping("/me/totp/disable")
+    public ResponseEntity<MessageResponse> disableTotp(Authentication authentication,
+                                                       @Valid @RequestBody TotpCodeRequest request) {
+        var user = userService.findByEmail(authentication.getName());
+        totpService.disable(user, request.getCode());
+        return ResponseEntity.ok(new MessageResponse("Authenticator app disabled."));
     }
 }
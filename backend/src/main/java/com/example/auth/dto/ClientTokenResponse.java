@@ -0,0 +1,28 @@
+package com.example.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Token response of the client-credentials grant, with the field names of
+ * RFC 6749 so standard OAuth client libraries can read it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientTokenResponse {
+    @JsonProperty("access_token")
+    private String accessToken;
+
+    @JsonProperty("token_type")
+    private String tokenType;
+
+    // Seconds
+    @JsonProperty("expires_in")
+    private long expiresIn;
+
+    @JsonProperty("scope")
+    private String scope;
+}
@@ -0,0 +1,12 @@
+package com.example.auth.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class IntrospectionRequest {
+    @NotEmpty(message = "Tokens are required")
+    private List<String> tokens;
+}
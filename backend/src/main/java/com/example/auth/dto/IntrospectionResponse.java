@@ -0,0 +1,15 @@
+package com.example.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntrospectionResponse {
+    // In the same order as the request's tokens
+    private List<TokenIntrospection> results;
+}
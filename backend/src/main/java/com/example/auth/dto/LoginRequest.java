@@ -10,4 +10,7 @@ public class LoginRequest {
 
     @NotBlank(message = "Password is required")
     private String password;
+
+    // Only required when the account has an authenticator app enabled
+    private String totpCode;
 }
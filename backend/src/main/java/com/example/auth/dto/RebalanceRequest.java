@@ -0,0 +1,12 @@
+package com.example.auth.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class RebalanceRequest {
+    @NotEmpty(message = "Target shards are required")
+    private List<String> targetShards;
+}
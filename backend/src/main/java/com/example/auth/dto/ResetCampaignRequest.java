@@ -0,0 +1,39 @@
+package com.example.auth.dto;
+
+import com.example.auth.entity.Role;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Targets are either {@code emails} or a query: {@code role} and/or
+ * {@code createdBefore}, or {@code allUsers} to target every account.
+ */
+@Data
+public class ResetCampaignRequest {
+    @NotBlank(message = "Name is required")
+    @Size(max = 100, message = "Name must be at most 100 characters")
+    private String name;
+
+    private List<@Email(message = "Email should be valid") String> emails;
+
+    private Role role;
+
+    private LocalDateTime createdBefore;
+
+    private boolean allUsers;
+
+    // Replace the current password hashes, so old passwords stop working as soon as targets are selected
+    private boolean invalidatePasswords;
+
+    @Positive(message = "Emails per second must be positive")
+    private Integer emailsPerSecond;
+
+    @Positive(message = "Code validity must be positive")
+    private Integer codeValidityMinutes;
+}
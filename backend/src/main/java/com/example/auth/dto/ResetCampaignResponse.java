@@ -0,0 +1,47 @@
+package com.example.auth.dto;
+
+import com.example.auth.entity.Role;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A campaign and its progress. Delivery counts are summed over all shards;
+ * {@code targets} is every user selected so far.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResetCampaignResponse {
+    private Long id;
+    private String name;
+    private String status;
+    private String selector;
+    private Role role;
+    private LocalDateTime createdBefore;
+    private Boolean invalidatePasswords;
+    private Integer emailsPerSecond;
+    private Integer codeValidityMinutes;
+    private String createdBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    private Integer unmatchedEmails;
+    private Long targets;
+    private Long queued;
+    private Long sent;
+    private Long failed;
+    private Long skipped;
+    private Double percentComplete;
+
+    // Sent per second since the first send
+    private Double averageSendRate;
+    // Over the last minute; only on the instance dispatching the campaign
+    private Double currentSendRate;
+    private Long estimatedSecondsRemaining;
+}
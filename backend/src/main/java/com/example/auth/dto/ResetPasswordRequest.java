@@ -1,5 +1,6 @@
 package com.example.auth.dto;
 
+import com.example.auth.breach.NotBreached;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
@@ -18,5 +19,6 @@ public class ResetPasswordRequest {
     @Size(min = 8, message = "Password must be at least 8 characters")
     @Pattern(regexp = "^(?=.*[A-Z])(?=.*\\d).+$", 
              message = "Password must contain at least one uppercase letter and one number")
+    @NotBreached
     private String newPassword;
 }
@@ -0,0 +1,24 @@
+package com.example.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Introspection result for one token. Inactive tokens carry no other fields.
+ * Times are epoch seconds, as in the token.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospection {
+    private boolean active;
+    private String subject;
+    private String role;
+    // "access", "refresh" or "service"
+    private String tokenType;
+    private Long issuedAt;
+    private Long expiresAt;
+}
@@ -0,0 +1,12 @@
+package com.example.auth.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class TotpCodeRequest {
+    @NotBlank(message = "Code is required")
+    @Size(min = 6, max = 6, message = "Code must be 6 digits")
+    private String code;
+}
@@ -0,0 +1,13 @@
+package com.example.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TotpEnrolmentResponse {
+    private String secret;
+    private String provisioningUri;
+}
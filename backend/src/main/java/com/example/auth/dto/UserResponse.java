@@ -1,6 +1,7 @@
 package com.example.auth.dto;
 
 import com.example.auth.entity.Role;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class UserResponse {
     private Long id;
     private String username;
@@ -17,4 +19,5 @@ public class UserResponse {
     private Role role;
     private Boolean isVerified;
     private LocalDateTime createdAt;
+    private Boolean totpEnabled;
 }
@@ -0,0 +1,26 @@
+package com.example.auth.entity;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * The canonical form of an email address stored in the {@code email_lookup}
+ * columns: Unicode NFKC, surrounding whitespace removed, lower case. Two
+ * spellings of an address map to the same account exactly when their
+ * canonical forms are equal. The raw {@code email} column keeps what the
+ * user typed, for display and for sending mail.
+ */
+public final class EmailLookup {
+    private EmailLookup() {
+    }
+
+    public static String of(String email) {
+        if (email == null) {
+            return null;
+        }
+        String folded = Normalizer.normalize(email, Normalizer.Form.NFKC).strip().toLowerCase(Locale.ROOT);
+        // Case mapping can take a character out of NFKC (e.g. U+0130), so normalise again
+        return Normalizer.isNormalized(folded, Normalizer.Form.NFKC)
+                ? folded : Normalizer.normalize(folded, Normalizer.Form.NFKC);
+    }
+}
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 
@@ -24,6 +26,9 @@ public class OtpCode {
     @Column(name = "email", nullable = true)
     private String email; // For registration OTPs before user is created
 
+    @Column(name = "email_lookup")
+    private String emailLookup;
+
     @Column(name = "otp_code", nullable = false, length = 6)
     private String otpCode;
 
@@ -31,9 +36,16 @@ public class OtpCode {
     private LocalDateTime expiryTime;
 
     @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 20)
     private OtpType type;
 
     @Column(nullable = false)
     private Boolean used = false;
+
+    @PrePersist
+    @PreUpdate
+    void fillEmailLookup() {
+        emailLookup = EmailLookup.of(email);
+    }
 }
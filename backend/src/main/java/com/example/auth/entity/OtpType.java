@@ -2,5 +2,6 @@ package com.example.auth.entity;
 
 public enum OtpType {
     REGISTRATION,
-    RESET_PASSWORD
+    RESET_PASSWORD,
+    TOTP // Authenticator app code, verified in memory and never stored in otp_codes
 }
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 
@@ -24,17 +27,51 @@ public class User {
     @Column(unique = true, nullable = false)
     private String email;
 
+    // EmailLookup.of(email), kept in step on every write; all lookups by email use this column
+    @Column(name = "email_lookup")
+    private String emailLookup;
+
     @Column(nullable = false)
     private String password;
 
+    // VARCHAR rather than a MySQL ENUM, so a new value needs no table rebuild
     @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 20)
     private Role role = Role.USER;
 
     @Column(name = "is_verified", nullable = false)
     private Boolean isVerified = false;
 
+    @Column(name = "totp_secret")
+    private String totpSecret; // AES-GCM encrypted, null until enrolment starts
+
+    @Column(name = "totp_enabled")
+    private Boolean totpEnabled = false;
+
+    // Replay and lockout state, written only by the conditional UPDATEs in UserRepository
+    @Column(name = "totp_last_step", insertable = false, updatable = false)
+    private Long totpLastStep;
+
+    @ColumnDefault("0")
+    @Column(name = "totp_failed_attempts", nullable = false, insertable = false, updatable = false)
+    private Integer totpFailedAttempts = 0;
+
+    @Column(name = "totp_locked_until", insertable = false, updatable = false)
+    private LocalDateTime totpLockedUntil;
+
+    // Bumped by UserService on every write; backs the /api/users/me ETag and profile cache
+    @ColumnDefault("0")
+    @Column(name = "profile_version", nullable = false)
+    private Long profileVersion = 0L;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    @PrePersist
+    @PreUpdate
+    void fillEmailLookup() {
+        emailLookup = EmailLookup.of(email);
+    }
 }
@@ -0,0 +1,24 @@
+package com.example.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Global username -> email index, kept on the global shard so usernames stay
+ * unique when users are spread across shards by email.
+ */
+@Entity
+@Table(name = "username_index")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsernameIndex {
+    @Id
+    @Column(length = 50)
+    private String username;
+
+    @Column(nullable = false)
+    private String email;
+}
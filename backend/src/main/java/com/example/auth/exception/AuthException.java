@@ -0,0 +1,25 @@
+package com.example.auth.exception;
+
+/**
+ * Expected business failure (bad password, invalid OTP, duplicate email...).
+ *
+ * These are thrown on hot, attacker-controlled paths, so no stack trace is
+ * captured: the code and message are all the handler needs. Unexpected
+ * failures should keep using ordinary exceptions.
+ */
+public class AuthException extends RuntimeException {
+    private final ErrorCode code;
+
+    public AuthException(ErrorCode code, String message) {
+        this(code, message, null);
+    }
+
+    public AuthException(ErrorCode code, String message, Throwable cause) {
+        super(message, cause, false, false);
+        this.code = code;
+    }
+
+    public ErrorCode getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.auth.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Stable error codes returned to clients alongside the message.
+ * Codes are part of the API contract; add new ones rather than renaming.
+ */
+public enum ErrorCode {
+    INVALID_CREDENTIALS(HttpStatus.UNAUTHORIZED),
+    EMAIL_NOT_VERIFIED(HttpStatus.FORBIDDEN),
+    EMAIL_ALREADY_EXISTS(HttpStatus.CONFLICT),
+    USERNAME_ALREADY_EXISTS(HttpStatus.CONFLICT),
+    ACCOUNT_ALREADY_EXISTS(HttpStatus.CONFLICT),
+    INVALID_OTP(HttpStatus.BAD_REQUEST),
+    TOTP_REQUIRED(HttpStatus.UNAUTHORIZED),
+    TOTP_ALREADY_ENABLED(HttpStatus.CONFLICT),
+    TOTP_LOCKED(HttpStatus.TOO_MANY_REQUESTS),
+    OTP_RATE_LIMITED(HttpStatus.TOO_MANY_REQUESTS),
+    USER_NOT_FOUND(HttpStatus.NOT_FOUND),
+    PENDING_REGISTRATION_NOT_FOUND(HttpStatus.NOT_FOUND),
+    EMAIL_DELIVERY_FAILED(HttpStatus.SERVICE_UNAVAILABLE),
+    INVALID_CLIENT(HttpStatus.UNAUTHORIZED),
+    BATCH_TOO_LARGE(HttpStatus.PAYLOAD_TOO_LARGE),
+    INVALID_IDEMPOTENCY_KEY(HttpStatus.BAD_REQUEST),
+    IDEMPOTENCY_KEY_REUSED(HttpStatus.UNPROCESSABLE_ENTITY),
+    IDEMPOTENT_REQUEST_IN_PROGRESS(HttpStatus.CONFLICT),
+    UNSUPPORTED_GRANT_TYPE(HttpStatus.BAD_REQUEST),
+    INVALID_SCOPE(HttpStatus.BAD_REQUEST),
+    OVERLOADED(HttpStatus.SERVICE_UNAVAILABLE),
+    INVALID_CAMPAIGN(HttpStatus.BAD_REQUEST),
+    CAMPAIGN_NOT_FOUND(HttpStatus.NOT_FOUND),
+    CAMPAIGN_STATE_CONFLICT(HttpStatus.CONFLICT);
+
+    private final HttpStatus status;
+
+    ErrorCode(HttpStatus status) {
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
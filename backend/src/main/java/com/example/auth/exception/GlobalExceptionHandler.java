@@ -1,5 +1,6 @@
 package com.example.auth.exception;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +15,8 @@ import java.util.Map;
 @RestControllerAdvice
 @Slf4j
 public class GlobalExceptionHandler {
+    // At most 20 lines per error code per second
+    private final RateLimitedLogger authErrorLog = new RateLimitedLogger(log, 20, 1000);
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationExceptions(MethodArgumentNotValidException ex) {
@@ -33,6 +36,15 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
     }
 
+    @ExceptionHandler(AuthException.class)
+    public ResponseEntity<Map<String, String>> handleAuthException(AuthException ex, HttpServletRequest request) {
+        ErrorCode code = ex.getCode();
+        authErrorLog.warn(code.name(), "auth_error code={} status={} path={}",
+                code, code.getStatus().value(), request.getRequestURI());
+        return ResponseEntity.status(code.getStatus())
+                .body(Map.of("message", ex.getMessage(), "code", code.name()));
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, String>> handleRuntimeException(RuntimeException ex) {
         log.error("Runtime exception: {}", ex.getMessage(), ex);
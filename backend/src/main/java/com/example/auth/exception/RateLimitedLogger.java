@@ -0,0 +1,63 @@
+package com.example.auth.exception;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lets through at most {@code limitPerWindow} log lines per key and window,
+ * then counts what it drops and reports the count with the next line that
+ * gets through. Keeps floods of identical failures from swamping disk I/O.
+ */
+public class RateLimitedLogger {
+    private final Logger log;
+    private final int limitPerWindow;
+    private final long windowMillis;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    public RateLimitedLogger(Logger log, int limitPerWindow, long windowMillis) {
+        this(log, limitPerWindow, windowMillis, System::currentTimeMillis);
+    }
+
+    RateLimitedLogger(Logger log, int limitPerWindow, long windowMillis, LongSupplier clock) {
+        this.log = log;
+        this.limitPerWindow = limitPerWindow;
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+    }
+
+    public void warn(String key, String format, Object... args) {
+        if (!log.isWarnEnabled()) {
+            return;
+        }
+        long now = clock.getAsLong();
+        Window window = windows.computeIfAbsent(key, k -> new Window(now));
+        long start = window.start.get();
+        if (now - start >= windowMillis && window.start.compareAndSet(start, now)) {
+            int dropped = window.suppressed.getAndSet(0);
+            window.count.set(0);
+            if (dropped > 0) {
+                log.warn("auth_error_suppressed key={} count={}", key, dropped);
+            }
+        }
+        if (window.count.incrementAndGet() <= limitPerWindow) {
+            log.warn(format, args);
+        } else {
+            window.suppressed.incrementAndGet();
+        }
+    }
+
+    private static final class Window {
+        final AtomicLong start;
+        final AtomicInteger count = new AtomicInteger();
+        final AtomicInteger suppressed = new AtomicInteger();
+
+        Window(long start) {
+            this.start = new AtomicLong(start);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One EmailService call to the mail server. Recipients are not recorded.
+ */
+@Name("com.example.auth.EmailSend")
+@Label("Email Send")
+@Category({"Auth Service", "Email"})
+@Description("SMTP hand-off of one or more messages over one connection")
+@StackTrace(false)
+@Threshold("0 ms")
+public class EmailSendEvent extends StagedEvent {
+    @Label("Kind")
+    @Description("REGISTRATION, RESET_PASSWORD or FORCED_RESET")
+    String kind;
+
+    @Label("Messages")
+    int messages;
+
+    @Label("Failed")
+    @Description("Messages the mail server did not take")
+    int failed;
+
+    public void finish(String kind, int messages, int failed) {
+        this.kind = kind;
+        this.messages = messages;
+        this.failed = failed;
+        finish();
+    }
+}
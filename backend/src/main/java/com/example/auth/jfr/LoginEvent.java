@@ -0,0 +1,63 @@
+package com.example.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * One AuthService.login call. A stage that was not reached stays 0.
+ */
+@Name("com.example.auth.Login")
+@Label("Login")
+@Category({"Auth Service", "Authentication"})
+@Description("Password login, split into its stages")
+@StackTrace(false)
+@Threshold("0 ms")
+public class LoginEvent extends StagedEvent {
+    @Label("User Lookup")
+    @Timespan(Timespan.NANOSECONDS)
+    long userLookup;
+
+    @Label("Password Check")
+    @Description("AuthenticationManager: user load and BCrypt comparison")
+    @Timespan(Timespan.NANOSECONDS)
+    long passwordCheck;
+
+    @Label("Authenticator Check")
+    @Timespan(Timespan.NANOSECONDS)
+    long totpCheck;
+
+    @Label("Token Issue")
+    @Description("User reload and access and refresh token signing")
+    @Timespan(Timespan.NANOSECONDS)
+    long tokenIssue;
+
+    @Label("Outcome")
+    @Description("success, or the error code returned")
+    String outcome;
+
+    public void userLookedUp() {
+        userLookup = lap();
+    }
+
+    public void passwordChecked() {
+        passwordCheck = lap();
+    }
+
+    public void totpChecked() {
+        totpCheck = lap();
+    }
+
+    public void tokensIssued() {
+        tokenIssue = lap();
+    }
+
+    public void finish(String outcome) {
+        this.outcome = outcome;
+        finish();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One run of an OtpCleanupService job over every shard.
+ */
+@Name("com.example.auth.OtpCleanup")
+@Label("OTP Cleanup")
+@Category({"Auth Service", "Maintenance"})
+@Description("Scheduled purge of expired OTPs or unverified registrations")
+@StackTrace(false)
+@Threshold("0 ms")
+public class OtpCleanupEvent extends StagedEvent {
+    @Label("Job")
+    @Description("expired-otps or old-pending-registrations")
+    String job;
+
+    @Label("Removed")
+    @Description("Expired OTPs that were never used, or registrations deleted")
+    int removed;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    public void finish(String job, int removed, boolean succeeded) {
+        this.job = job;
+        this.removed = removed;
+        this.succeeded = succeeded;
+        finish();
+    }
+}
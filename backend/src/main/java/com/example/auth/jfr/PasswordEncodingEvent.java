@@ -0,0 +1,51 @@
+package com.example.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A password hashed or compared by {@link RecordingPasswordEncoder}.
+ */
+@Name("com.example.auth.PasswordEncoding")
+@Label("Password Encoding")
+@Category({"Auth Service", "Authentication"})
+@Description("BCrypt hash or comparison")
+@StackTrace(false)
+@Threshold("0 ms")
+public class PasswordEncodingEvent extends StagedEvent {
+    @Label("Operation")
+    @Description("encode or matches")
+    String operation;
+
+    @Label("Cost")
+    @Description("BCrypt log rounds of the hash, -1 if it is not a BCrypt hash")
+    int cost;
+
+    @Label("Matched")
+    @Description("For matches: whether the password was correct")
+    boolean matched;
+
+    void finish(String operation, String encoded, boolean matched) {
+        this.operation = operation;
+        this.cost = cost(encoded);
+        this.matched = matched;
+        finish();
+    }
+
+    // $2a$10$...: the rounds are the two digits after the second '$'
+    private static int cost(String encoded) {
+        if (encoded == null || encoded.length() < 7 || encoded.charAt(0) != '$' || encoded.charAt(6) != '$') {
+            return -1;
+        }
+        char tens = encoded.charAt(4);
+        char ones = encoded.charAt(5);
+        if (tens < '0' || tens > '9' || ones < '0' || ones > '9') {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+}
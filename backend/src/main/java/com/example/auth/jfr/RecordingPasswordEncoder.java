@@ -0,0 +1,38 @@
+package com.example.auth.jfr;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Emits a {@link PasswordEncodingEvent} around every hash and comparison
+ * of the encoder it wraps.
+ */
+public class RecordingPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+
+    public RecordingPasswordEncoder(PasswordEncoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordEncodingEvent event = new PasswordEncodingEvent();
+        event.start();
+        String encoded = delegate.encode(rawPassword);
+        event.finish("encode", encoded, false);
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordEncodingEvent event = new PasswordEncodingEvent();
+        event.start();
+        boolean matched = delegate.matches(rawPassword, encodedPassword);
+        event.finish("matches", encodedPassword, matched);
+        return matched;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * One AuthService.register call. A stage that was not reached stays 0.
+ */
+@Name("com.example.auth.Registration")
+@Label("Registration")
+@Category({"Auth Service", "Authentication"})
+@Description("Registration request up to the verification email, split into its stages")
+@StackTrace(false)
+@Threshold("0 ms")
+public class RegistrationEvent extends StagedEvent {
+    @Label("Duplicate Check")
+    @Description("Email and username lookups")
+    @Timespan(Timespan.NANOSECONDS)
+    long duplicateCheck;
+
+    @Label("Password Hash")
+    @Timespan(Timespan.NANOSECONDS)
+    long passwordHash;
+
+    @Label("Persist")
+    @Description("Transaction inserting the pending registration and its OTP")
+    @Timespan(Timespan.NANOSECONDS)
+    long persist;
+
+    @Label("Email Send")
+    @Timespan(Timespan.NANOSECONDS)
+    long emailSend;
+
+    @Label("Outcome")
+    @Description("success, or the error code returned")
+    String outcome;
+
+    public void duplicatesChecked() {
+        duplicateCheck = lap();
+    }
+
+    public void passwordHashed() {
+        passwordHash = lap();
+    }
+
+    public void persisted() {
+        persist = lap();
+    }
+
+    public void emailSent() {
+        emailSend = lap();
+    }
+
+    public void finish(String outcome) {
+        this.outcome = outcome;
+        finish();
+    }
+}
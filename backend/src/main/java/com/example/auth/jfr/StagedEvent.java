@@ -0,0 +1,46 @@
+package com.example.auth.jfr;
+
+import jdk.jfr.Event;
+
+/**
+ * An event whose work is split into stages, each recorded as its own
+ * duration field. The clock is only read while the event is enabled in a
+ * running recording, so stage timing costs nothing otherwise.
+ */
+abstract class StagedEvent extends Event {
+    // transient: not part of the recorded event
+    private transient long stageStart;
+
+    /**
+     * Begins the event and its first stage.
+     */
+    public void start() {
+        begin();
+        if (isEnabled()) {
+            stageStart = System.nanoTime();
+        }
+    }
+
+    /**
+     * @return the time since the previous stage ended, or 0 when disabled
+     */
+    long lap() {
+        if (!isEnabled()) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        long duration = now - stageStart;
+        stageStart = now;
+        return duration;
+    }
+
+    /**
+     * Ends the event and commits it if it is enabled and over its threshold.
+     */
+    void finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
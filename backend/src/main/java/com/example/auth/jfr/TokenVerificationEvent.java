@@ -0,0 +1,59 @@
+package com.example.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * A bearer token checked by JwtAuthenticationFilter, from the header to the
+ * security context.
+ */
+@Name("com.example.auth.TokenVerification")
+@Label("Token Verification")
+@Category({"Auth Service", "Requests"})
+@Description("Bearer token check: signature and expiry, then the principal")
+@StackTrace(false)
+@Threshold("1 ms")
+public class TokenVerificationEvent extends StagedEvent {
+    @Label("Verify Duration")
+    @Description("Signature and claims check only")
+    @Timespan(Timespan.NANOSECONDS)
+    long verifyDuration;
+
+    @Label("Token Type")
+    @Description("access, refresh, service, or invalid when the signature or expiry check failed")
+    String tokenType;
+
+    @Label("Principal Source")
+    @Description("claims (from the token alone), service (client token) or database (user lookup)")
+    String principalSource;
+
+    @Label("User Lookup Skipped")
+    @Description("The principal was built without reading the user, as with stateless authentication")
+    boolean lookupSkipped;
+
+    @Label("Authenticated")
+    boolean authenticated;
+
+    /**
+     * @param tokenType null when the token was rejected
+     */
+    public void verified(String tokenType) {
+        verifyDuration = lap();
+        this.tokenType = tokenType != null ? tokenType : "invalid";
+    }
+
+    public void principal(String source, boolean lookupSkipped) {
+        this.principalSource = source;
+        this.lookupSkipped = lookupSkipped;
+    }
+
+    public void finish(boolean authenticated) {
+        this.authenticated = authenticated;
+        finish();
+    }
+}
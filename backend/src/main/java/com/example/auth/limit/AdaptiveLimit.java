@@ -0,0 +1,185 @@
+package com.example.auth.limit;
+
+import com.example.auth.config.ConcurrencyLimitProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * In-flight limit for one group of routes that follows the latency the
+ * group actually sees. At the end of every window the average latency is
+ * compared with a baseline that drops to any faster window right away and
+ * creeps up towards slower ones:
+ *
+ * <pre>
+ * gradient = clamp(rtt-tolerance * baseline / window average, 0.5, 1)
+ * target   = limit * gradient + sqrt(limit)
+ * limit    = limit * (1 - smoothing) + target * smoothing
+ * </pre>
+ *
+ * While latency stays within the tolerance the limit grows by about
+ * sqrt(limit) per window; once requests queue up and latency climbs, it
+ * shrinks. A window with server errors (5xx or an exception, such as a
+ * pool timeout) multiplies the limit by {@code backoff-ratio} instead, the
+ * decrease half of AIMD. A limit the traffic never came close to using is
+ * not raised further.
+ *
+ * <p>Acquiring and releasing is lock-free; the update at the end of a
+ * window runs on whichever request thread closes it.
+ */
+@Slf4j
+public class AdaptiveLimit {
+    private static final double MIN_GRADIENT = 0.5;
+    // Weight of a slower window in the latency baseline
+    private static final double BASELINE_SMOOTHING = 0.002;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final int minWindowSamples;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double backoffRatio;
+    private final LongSupplier nanoClock;
+
+    private volatile double limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder windowRttNanos = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+    private volatile boolean windowFailed;
+    private volatile long windowStart;
+    private final ReentrantLock windowUpdate = new ReentrantLock();
+    // Guarded by windowUpdate; read unlocked for snapshots
+    private volatile double baselineRttNanos;
+    private volatile double lastRttNanos;
+
+    public AdaptiveLimit(String name, ConcurrencyLimitProperties.Group group, ConcurrencyLimitProperties properties) {
+        this(name, group, properties, System::nanoTime);
+    }
+
+    AdaptiveLimit(String name, ConcurrencyLimitProperties.Group group, ConcurrencyLimitProperties properties,
+                  LongSupplier nanoClock) {
+        if (group.getMinLimit() < 1 || group.getMaxLimit() < group.getMinLimit()) {
+            throw new IllegalStateException("concurrency-limit.groups." + name + " needs 1 <= min-limit <= max-limit");
+        }
+        this.name = name;
+        this.minLimit = group.getMinLimit();
+        this.maxLimit = group.getMaxLimit();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, group.getInitialLimit()));
+        this.windowNanos = properties.getWindowMs() * 1_000_000;
+        this.minWindowSamples = Math.max(1, properties.getMinWindowSamples());
+        this.rttTolerance = properties.getRttTolerance();
+        this.smoothing = properties.getSmoothing();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.nanoClock = nanoClock;
+        this.windowStart = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes an in-flight slot, or returns false straight away if the group
+     * is at its limit.
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        windowMaxInFlight.accumulateAndGet(current + 1, Math::max);
+        accepted.increment();
+        return true;
+    }
+
+    /**
+     * Gives the slot back and records how the request went.
+     *
+     * @param startNanos {@link System#nanoTime()} when the slot was acquired
+     */
+    public void release(long startNanos, boolean serverError) {
+        long now = nanoClock.getAsLong();
+        inFlight.decrementAndGet();
+        if (serverError) {
+            failed.increment();
+            windowFailed = true;
+        } else {
+            windowRttNanos.add(now - startNanos);
+            windowSamples.increment();
+        }
+        if (now - windowStart >= windowNanos && windowUpdate.tryLock()) {
+            try {
+                if (now - windowStart >= windowNanos && (windowFailed || windowSamples.sum() >= minWindowSamples)) {
+                    closeWindow(now);
+                }
+            } finally {
+                windowUpdate.unlock();
+            }
+        }
+    }
+
+    private void closeWindow(long now) {
+        long samples = windowSamples.sumThenReset();
+        long rttNanos = windowRttNanos.sumThenReset();
+        int maxInFlight = windowMaxInFlight.getAndSet(inFlight.get());
+        boolean anyFailed = windowFailed;
+        windowFailed = false;
+        windowStart = now;
+
+        double current = limit;
+        double next;
+        if (anyFailed) {
+            next = current * backoffRatio;
+        } else {
+            double rtt = (double) rttNanos / samples;
+            // Follows improvements at once and degradations slowly, so a sustained
+            // overload cannot become the new normal within a few windows
+            double baseline = baselineRttNanos == 0 || rtt < baselineRttNanos ? rtt
+                    : baselineRttNanos * (1 - BASELINE_SMOOTHING) + rtt * BASELINE_SMOOTHING;
+            baselineRttNanos = baseline;
+            lastRttNanos = rtt;
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * baseline / rtt));
+            double target = current * gradient + Math.sqrt(current);
+            if (maxInFlight < current / 2) {
+                target = Math.min(target, current);
+            }
+            next = current * (1 - smoothing) + target * smoothing;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+        if ((int) limit != (int) current) {
+            log.debug("concurrency_limit group={} limit={} previous={} rtt_ms={} baseline_ms={} failed={}",
+                    name, (int) limit, (int) current, millis(lastRttNanos), millis(baselineRttNanos), anyFailed);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot((int) limit, minLimit, maxLimit, inFlight.get(), accepted.sum(), rejected.sum(),
+                failed.sum(), millis(lastRttNanos), millis(baselineRttNanos));
+    }
+
+    private static double millis(double nanos) {
+        return Math.round(nanos / 10_000) / 100.0;
+    }
+
+    /**
+     * Counters are totals since startup; latencies are of the last closed
+     * window and the baseline, in milliseconds.
+     */
+    public record Snapshot(int limit, int minLimit, int maxLimit, int inFlight, long accepted, long rejected,
+                           long failed, double rttMs, double baselineRttMs) {
+    }
+}
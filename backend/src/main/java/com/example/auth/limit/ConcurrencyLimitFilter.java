@@ -0,0 +1,70 @@
+package com.example.auth.limit;
+
+import com.example.auth.exception.ErrorCode;
+import com.example.auth.exception.RateLimitedLogger;
+import com.example.auth.metrics.EndpointContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Sheds load once a route group is at its adaptive concurrency limit:
+ * excess requests get 503 with {@code Retry-After} at once, before token
+ * verification or any database work, instead of queueing for a Tomcat
+ * thread or a pool connection until they time out. Registered in the
+ * security chain ahead of {@code JwtAuthenticationFilter}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private final ConcurrencyLimiter limiter;
+    private final ObjectMapper objectMapper;
+    // At most 5 lines per group per second; the counters have the full story
+    private final RateLimitedLogger rejectionLog = new RateLimitedLogger(log, 5, 1000);
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        AdaptiveLimit group = limiter.groupFor(EndpointContext.current(), request.getRequestURI());
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!group.tryAcquire()) {
+            reject(response, group);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean serverError = true;
+        try {
+            filterChain.doFilter(request, response);
+            serverError = response.getStatus() >= 500;
+        } finally {
+            group.release(start, serverError);
+        }
+    }
+
+    private void reject(HttpServletResponse response, AdaptiveLimit group) throws IOException {
+        rejectionLog.warn(group.getName(), "concurrency_limit_rejected group={} limit={}",
+                group.getName(), group.snapshot().limit());
+        response.setStatus(ErrorCode.OVERLOADED.getStatus().value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                Map.of("message", "Server is busy, retry shortly", "code", ErrorCode.OVERLOADED.name()));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.auth.limit;
+
+import com.example.auth.config.ConcurrencyLimitProperties;
+import com.example.auth.metrics.EndpointContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link AdaptiveLimit}s configured under {@code concurrency-limit.groups},
+ * and which one serves each endpoint. Expensive routes (BCrypt, mail) get a
+ * group of their own so a flood of logins cannot take the slots that cheap
+ * token-authenticated reads need.
+ */
+@Component
+@Slf4j
+public class ConcurrencyLimiter {
+    static final String DEFAULT_GROUP = "default";
+
+    private final ConcurrencyLimitProperties properties;
+    private final Map<String, AdaptiveLimit> groups = new LinkedHashMap<>();
+    private final Map<String, AdaptiveLimit> byEndpoint = new HashMap<>();
+    private final AdaptiveLimit defaultGroup;
+
+    public ConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+        properties.getGroups().forEach((name, group) -> {
+            AdaptiveLimit limit = new AdaptiveLimit(name, group, properties);
+            groups.put(name, limit);
+            for (String endpoint : group.getEndpoints()) {
+                if (byEndpoint.put(endpoint.trim(), limit) != null) {
+                    throw new IllegalStateException("Endpoint " + endpoint + " is in more than one concurrency-limit group");
+                }
+            }
+        });
+        defaultGroup = groups.computeIfAbsent(DEFAULT_GROUP,
+                name -> new AdaptiveLimit(name, new ConcurrencyLimitProperties.Group(), properties));
+        if (properties.isEnabled()) {
+            log.info("Adaptive concurrency limits enabled for groups {}", groups.keySet());
+        }
+    }
+
+    /**
+     * The group limiting {@code endpoint} ("METHOD /pattern"), or null if the
+     * request is not limited. Warm-up requests never are, so their latencies
+     * don't become the baseline.
+     */
+    public AdaptiveLimit groupFor(String endpoint, String path) {
+        if (!properties.isEnabled() || EndpointContext.WARM_UP.equals(endpoint)) {
+            return null;
+        }
+        List<String> exempt = properties.getExemptPaths();
+        for (int i = 0; i < exempt.size(); i++) {
+            if (path.startsWith(exempt.get(i))) {
+                return null;
+            }
+        }
+        return byEndpoint.getOrDefault(endpoint, defaultGroup);
+    }
+
+    public Map<String, AdaptiveLimit.Snapshot> snapshot() {
+        Map<String, AdaptiveLimit.Snapshot> snapshot = new LinkedHashMap<>();
+        groups.forEach((name, limit) -> snapshot.put(name, limit.snapshot()));
+        return snapshot;
+    }
+}
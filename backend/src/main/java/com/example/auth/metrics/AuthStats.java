@@ -0,0 +1,213 @@
+package com.example.auth.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Live authentication statistics kept in memory, so dashboards don't have
+ * to run COUNT(*) over users, pending_registrations and otp_codes.
+ *
+ * <p>Every event has a running total and a sliding window of one-minute
+ * buckets covering the last hour; both are {@link LongAdder}s, so the
+ * request threads recording them never contend on a shared counter. The
+ * table sizes are gauges: the last reconciled database count plus the
+ * events recorded on this instance since. {@code AuthStatsReconciler}
+ * refreshes them in the background. Time-based expiry of OTPs and events
+ * on other instances only show up at the next reconciliation.
+ *
+ * <p>Window sums are approximate at minute boundaries: an increment racing
+ * a bucket rollover can land in the new minute.
+ */
+@Component
+public class AuthStats {
+    private static final int WINDOW_MINUTES = 60;
+    private static final int[] REPORTED_WINDOWS = {1, 5, 15, 60};
+
+    public enum Event {
+        REGISTRATION_REQUESTED,
+        REGISTRATION_VERIFIED,
+        LOGIN_SUCCESS,
+        LOGIN_FAILURE,
+        OTP_ISSUED,
+        OTP_CONSUMED,
+        OTP_DISCARDED,
+        // Purged by the cleanup job without ever being used
+        OTP_EXPIRED,
+        PENDING_EXPIRED
+    }
+
+    public enum Gauge {
+        USERS,
+        PENDING_REGISTRATIONS,
+        OUTSTANDING_OTPS
+    }
+
+    private final Map<Event, EventCounter> events = new EnumMap<>(Event.class);
+    private final Map<Gauge, GaugeState> gauges = new EnumMap<>(Gauge.class);
+    private final LongSupplier clock;
+
+    public AuthStats() {
+        this(System::currentTimeMillis);
+    }
+
+    AuthStats(LongSupplier clock) {
+        this.clock = clock;
+        for (Event event : Event.values()) {
+            events.put(event, new EventCounter());
+        }
+        for (Gauge gauge : Gauge.values()) {
+            gauges.put(gauge, new GaugeState());
+        }
+    }
+
+    public void record(Event event) {
+        record(event, 1);
+    }
+
+    public void record(Event event, long count) {
+        // Start-up warm-up work is synthetic
+        if (count <= 0 || EndpointContext.isWarmUp()) {
+            return;
+        }
+        events.get(event).add(count, currentMinute());
+        switch (event) {
+            case REGISTRATION_REQUESTED -> gauges.get(Gauge.PENDING_REGISTRATIONS).delta.add(count);
+            case REGISTRATION_VERIFIED -> {
+                gauges.get(Gauge.PENDING_REGISTRATIONS).delta.add(-count);
+                gauges.get(Gauge.USERS).delta.add(count);
+            }
+            case PENDING_EXPIRED -> gauges.get(Gauge.PENDING_REGISTRATIONS).delta.add(-count);
+            case OTP_ISSUED -> gauges.get(Gauge.OUTSTANDING_OTPS).delta.add(count);
+            case OTP_CONSUMED, OTP_DISCARDED -> gauges.get(Gauge.OUTSTANDING_OTPS).delta.add(-count);
+            default -> {
+                // Expired OTPs already left the outstanding count when their time ran out
+            }
+        }
+    }
+
+    /**
+     * Starts a reconciliation: returns the change recorded since the last
+     * one, to be handed back to {@link #reconcile} once the database count
+     * is known. Events recorded while the count runs stay in the delta.
+     */
+    public long deltaSinceReconcile(Gauge gauge) {
+        return gauges.get(gauge).delta.sum();
+    }
+
+    /**
+     * Replaces the gauge's base with {@code count} and drops the
+     * {@code deltaAtStart} it now includes.
+     *
+     * @return the drift: what the gauge claimed minus what the database holds
+     */
+    public long reconcile(Gauge gauge, long count, long deltaAtStart) {
+        GaugeState state = gauges.get(gauge);
+        long drift;
+        synchronized (state) {
+            long expected = (state.base != null ? state.base : 0) + deltaAtStart;
+            drift = state.base != null ? expected - count : 0;
+            state.base = count;
+            state.delta.add(-deltaAtStart);
+            state.reconciledAt = Instant.now();
+            state.lastDrift = drift;
+        }
+        return drift;
+    }
+
+    public Snapshot snapshot() {
+        long minute = currentMinute();
+        Map<String, EventSnapshot> eventSnapshots = new LinkedHashMap<>();
+        events.forEach((event, counter) -> eventSnapshots.put(event.name().toLowerCase(), counter.snapshot(minute)));
+        Map<String, GaugeSnapshot> gaugeSnapshots = new LinkedHashMap<>();
+        gauges.forEach((gauge, state) -> gaugeSnapshots.put(gauge.name().toLowerCase(), state.snapshot()));
+        return new Snapshot(eventSnapshots, gaugeSnapshots);
+    }
+
+    private long currentMinute() {
+        return clock.getAsLong() / 60_000;
+    }
+
+    private static final class EventCounter {
+        private final LongAdder total = new LongAdder();
+        private final LongAdder[] buckets = new LongAdder[WINDOW_MINUTES];
+        // Epoch minute each bucket currently counts
+        private final AtomicLongArray bucketMinutes = new AtomicLongArray(WINDOW_MINUTES);
+
+        EventCounter() {
+            for (int i = 0; i < WINDOW_MINUTES; i++) {
+                buckets[i] = new LongAdder();
+                bucketMinutes.set(i, -1);
+            }
+        }
+
+        void add(long count, long minute) {
+            total.add(count);
+            int slot = (int) (minute % WINDOW_MINUTES);
+            if (bucketMinutes.get(slot) != minute) {
+                rollOver(slot, minute);
+            }
+            buckets[slot].add(count);
+        }
+
+        // Once per bucket and minute; only the first thread into a new minute gets here
+        private synchronized void rollOver(int slot, long minute) {
+            if (bucketMinutes.get(slot) != minute) {
+                buckets[slot].reset();
+                bucketMinutes.set(slot, minute);
+            }
+        }
+
+        long sumLast(int minutes, long now) {
+            long sum = 0;
+            for (long minute = now; minute > now - minutes; minute--) {
+                int slot = (int) (minute % WINDOW_MINUTES);
+                if (bucketMinutes.get(slot) == minute) {
+                    sum += buckets[slot].sum();
+                }
+            }
+            return sum;
+        }
+
+        EventSnapshot snapshot(long now) {
+            Map<String, Long> windows = new LinkedHashMap<>();
+            for (int minutes : REPORTED_WINDOWS) {
+                windows.put(minutes + "m", sumLast(minutes, now));
+            }
+            return new EventSnapshot(total.sum(), windows);
+        }
+    }
+
+    private static final class GaugeState {
+        private final LongAdder delta = new LongAdder();
+        private Long base;
+        private Instant reconciledAt;
+        private long lastDrift;
+
+        synchronized GaugeSnapshot snapshot() {
+            long sinceReconcile = delta.sum();
+            return new GaugeSnapshot(base != null ? base + sinceReconcile : null, base, sinceReconcile,
+                    reconciledAt, lastDrift);
+        }
+    }
+
+    public record EventSnapshot(long total, Map<String, Long> windows) {
+    }
+
+    /**
+     * {@code value} is null until the first reconciliation, and stays null
+     * for state that lives in Redis, which is not counted.
+     */
+    public record GaugeSnapshot(Long value, Long reconciled, long sinceReconcile, Instant reconciledAt,
+                                long lastDrift) {
+    }
+
+    public record Snapshot(Map<String, EventSnapshot> events, Map<String, GaugeSnapshot> gauges) {
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.auth.metrics;
+
+import com.example.auth.exception.RateLimitedLogger;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint connection pool usage: how long requests wait to acquire a
+ * Hikari connection and how long they hold it before returning it. Hikari
+ * reports both on the borrowing thread, so {@link EndpointContext} tells
+ * which endpoint to charge. Registered on every pool, including the shards.
+ * The start-up warm-up is not charged at all.
+ */
+@Component
+@Slf4j
+public class ConnectionMetrics implements MetricsTrackerFactory {
+    private static final String OTHER = "other";
+    // Keys are mapping patterns plus "unmatched"; this only guards against a runaway controller set
+    private static final int MAX_ENDPOINTS = 200;
+
+    private final ConcurrentHashMap<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, PoolStats> pools = new ConcurrentHashMap<>();
+    private final RateLimitedLogger slowHoldLog = new RateLimitedLogger(log, 10, 1000);
+
+    @Value("${metrics.connection.slow-hold-ms:250}")
+    private long slowHoldMillis;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        pools.put(poolName, poolStats);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                if (EndpointContext.isWarmUp()) {
+                    return;
+                }
+                statsFor(EndpointContext.current()).recordAcquire(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                if (EndpointContext.isWarmUp()) {
+                    return;
+                }
+                String endpoint = EndpointContext.current();
+                statsFor(endpoint).recordHold(elapsedBorrowedMillis);
+                if (elapsedBorrowedMillis >= slowHoldMillis) {
+                    slowHoldLog.warn(endpoint, "slow_connection_hold pool={} endpoint={} held_ms={}",
+                            poolName, endpoint, elapsedBorrowedMillis);
+                }
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                if (EndpointContext.isWarmUp()) {
+                    return;
+                }
+                statsFor(EndpointContext.current()).timeouts.increment();
+            }
+        };
+    }
+
+    private EndpointStats statsFor(String endpoint) {
+        EndpointStats existing = stats.get(endpoint);
+        if (existing != null) {
+            return existing;
+        }
+        String key = stats.size() < MAX_ENDPOINTS ? endpoint : OTHER;
+        return stats.computeIfAbsent(key, k -> new EndpointStats());
+    }
+
+    public Map<String, EndpointSnapshot> snapshot() {
+        Map<String, EndpointSnapshot> result = new TreeMap<>();
+        stats.forEach((endpoint, s) -> result.put(endpoint, s.snapshot()));
+        return result;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    /**
+     * Current occupancy of every pool, the shards included.
+     */
+    public Map<String, PoolSnapshot> poolSnapshots() {
+        Map<String, PoolSnapshot> result = new TreeMap<>();
+        pools.forEach((pool, p) -> result.put(pool, new PoolSnapshot(p.getActiveConnections(),
+                p.getIdleConnections(), p.getTotalConnections(), p.getMaxConnections(), p.getPendingThreads())));
+        return result;
+    }
+
+    public record PoolSnapshot(int active, int idle, int total, int max, int pendingThreads) {
+    }
+
+    public record EndpointSnapshot(long acquisitions, double avgAcquireMs, double maxAcquireMs,
+                                   long returns, double avgHoldMs, long maxHoldMs, long timeouts) {
+    }
+
+    private static final class EndpointStats {
+        final LongAdder acquisitions = new LongAdder();
+        final LongAdder acquireNanos = new LongAdder();
+        final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+        final LongAdder returns = new LongAdder();
+        final LongAdder holdMillis = new LongAdder();
+        final LongAccumulator maxHoldMillis = new LongAccumulator(Math::max, 0);
+        final LongAdder timeouts = new LongAdder();
+
+        void recordAcquire(long nanos) {
+            acquisitions.increment();
+            acquireNanos.add(nanos);
+            maxAcquireNanos.accumulate(nanos);
+        }
+
+        void recordHold(long millis) {
+            returns.increment();
+            holdMillis.add(millis);
+            maxHoldMillis.accumulate(millis);
+        }
+
+        EndpointSnapshot snapshot() {
+            long acquired = acquisitions.sum();
+            long returned = returns.sum();
+            double nanosPerMilli = TimeUnit.MILLISECONDS.toNanos(1);
+            return new EndpointSnapshot(
+                    acquired,
+                    acquired == 0 ? 0 : acquireNanos.sum() / nanosPerMilli / acquired,
+                    maxAcquireNanos.get() / nanosPerMilli,
+                    returned,
+                    returned == 0 ? 0 : (double) holdMillis.sum() / returned,
+                    maxHoldMillis.get(),
+                    timeouts.sum());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.auth.metrics;
+
+/**
+ * Holds the endpoint the current thread is serving, so that work reported
+ * from deep inside libraries (such as Hikari's pool callbacks) can be
+ * attributed to the request that caused it.
+ */
+public final class EndpointContext {
+    static final String BACKGROUND = "background";
+    /**
+     * Bound for the start-up warm-up, in process and over loopback; its
+     * synthetic traffic is kept out of the limits, stats and traces.
+     */
+    public static final String WARM_UP = "warm-up";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private EndpointContext() {
+    }
+
+    /**
+     * The bound endpoint, or {@code "background"} for scheduled jobs and
+     * other work outside a request.
+     */
+    public static String current() {
+        String endpoint = CURRENT.get();
+        return endpoint != null ? endpoint : BACKGROUND;
+    }
+
+    public static boolean isWarmUp() {
+        return WARM_UP.equals(CURRENT.get());
+    }
+
+    public static Scope bind(String endpoint) {
+        String previous = CURRENT.get();
+        CURRENT.set(endpoint);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
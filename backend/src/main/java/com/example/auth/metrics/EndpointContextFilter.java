@@ -0,0 +1,67 @@
+package com.example.auth.metrics;
+
+import com.example.auth.warmup.WarmUpRequests;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.io.IOException;
+
+/**
+ * Binds "METHOD /pattern" as the current endpoint for the whole request,
+ * using the controller mapping's pattern rather than the raw URI so that
+ * path variables and scanned paths don't each get their own stats. Requests
+ * no controller handles share the "unmatched" endpoint, and the start-up
+ * warm-up's own requests the "warm-up" one. Runs ahead of the security
+ * chain, which already loads users from the database.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class EndpointContextFilter extends OncePerRequestFilter {
+    static final String UNMATCHED = "unmatched";
+
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final WarmUpRequests warmUpRequests;
+
+    public EndpointContextFilter(@Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+                                 WarmUpRequests warmUpRequests) {
+        this.handlerMapping = handlerMapping;
+        this.warmUpRequests = warmUpRequests;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        try (var endpoint = EndpointContext.bind(endpoint(request))) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private String endpoint(HttpServletRequest request) {
+        if (warmUpRequests.isWarmUp(request)) {
+            return EndpointContext.WARM_UP;
+        }
+        try {
+            // The dispatcher repeats this lookup and overwrites the attributes it leaves
+            ServletRequestPathUtils.parseAndCache(request);
+            if (handlerMapping.getHandler(request) != null
+                    && request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern) {
+                return request.getMethod() + " " + pattern;
+            }
+        } catch (Exception e) {
+            // No handler for this method, or a media type it can't produce
+        }
+        return UNMATCHED;
+    }
+}
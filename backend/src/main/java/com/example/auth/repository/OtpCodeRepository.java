@@ -17,13 +17,35 @@ public interface OtpCodeRepository extends JpaRepository<OtpCode, Long> {
     
     Optional<OtpCode> findByEmailAndOtpCodeAndTypeAndUsedFalse(String email, String otpCode, OtpType type);
     
+    @Modifying
+    @Query("UPDATE OtpCode o SET o.used = true WHERE o.email = ?1 AND o.otpCode = ?2 AND o.type = ?3 AND o.used = false AND o.expiryTime > ?4")
+    int consumeByEmail(String email, String otpCode, OtpType type, LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE OtpCode o SET o.used = true WHERE o.emailLookup = ?1 AND o.otpCode = ?2 AND o.type = ?3 AND o.used = false AND o.expiryTime > ?4")
+    int consumeByEmailLookup(String emailLookup, String otpCode, OtpType type, LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE OtpCode o SET o.used = true WHERE o.user = ?1 AND o.otpCode = ?2 AND o.type = ?3 AND o.used = false AND o.expiryTime > ?4")
+    int consumeByUser(User user, String otpCode, OtpType type, LocalDateTime now);
+    
     @Query("SELECT COUNT(o) FROM OtpCode o WHERE o.user = ?1 AND o.type = ?2 AND o.expiryTime > ?3 AND o.used = false")
     Long countValidOtpsByUserAndType(User user, OtpType type, LocalDateTime now);
     
     @Query("SELECT COUNT(o) FROM OtpCode o WHERE o.email = ?1 AND o.type = ?2 AND o.expiryTime > ?3 AND o.used = false")
     Long countValidOtpsByEmailAndType(String email, OtpType type, LocalDateTime now);
     
+    @Query("SELECT COUNT(o) FROM OtpCode o WHERE o.emailLookup = ?1 AND o.type = ?2 AND o.expiryTime > ?3 AND o.used = false")
+    long countValidOtpsByEmailLookupAndType(String emailLookup, OtpType type, LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM OtpCode o WHERE o.expiryTime < ?1 AND o.used = false")
+    int deleteExpiredUnusedOtps(LocalDateTime now);
+
     @Modifying
     @Query("DELETE FROM OtpCode o WHERE o.expiryTime < ?1")
-    void deleteExpiredOtps(LocalDateTime now);
+    int deleteExpiredOtps(LocalDateTime now);
+
+    @Query("SELECT COUNT(o) FROM OtpCode o WHERE o.expiryTime > ?1 AND o.used = false")
+    long countOutstanding(LocalDateTime now);
 }
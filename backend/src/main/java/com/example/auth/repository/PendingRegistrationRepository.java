@@ -1,5 +1,6 @@
 package com.example.auth.repository;
 
+import com.example.auth.entity.EmailLookup;
 import com.example.auth.entity.PendingRegistration;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -12,12 +13,40 @@ import java.util.Optional;
 @Repository
 public interface PendingRegistrationRepository extends JpaRepository<PendingRegistration, Long> {
     Optional<PendingRegistration> findByEmail(String email);
+    Optional<PendingRegistration> findByEmailLookup(String emailLookup);
     Boolean existsByEmail(String email);
+    boolean existsByEmailLookup(String emailLookup);
     Boolean existsByUsername(String username);
     
     @Modifying
     @Query("DELETE FROM PendingRegistration p WHERE p.createdAt < ?1")
-    void deleteOldPendingRegistrations(LocalDateTime cutoffTime);
+    int deleteOldPendingRegistrations(LocalDateTime cutoffTime);
     
-    void deleteByEmail(String email);
+    // Bulk delete; the derived form would load the entity first
+    @Modifying
+    @Query("DELETE FROM PendingRegistration p WHERE p.email = ?1")
+    int deleteByEmail(String email);
+
+    @Modifying
+    @Query("DELETE FROM PendingRegistration p WHERE p.emailLookup = ?1")
+    int deleteByEmailLookup(String emailLookup);
+
+    /**
+     * Lookups by any spelling of {@code email}, as in {@link UserRepository}:
+     * {@code legacyFallback} adds the exact raw email for rows without
+     * email_lookup.
+     */
+    default Optional<PendingRegistration> findByAnySpelling(String email, boolean legacyFallback) {
+        Optional<PendingRegistration> pending = findByEmailLookup(EmailLookup.of(email));
+        return pending.isPresent() || !legacyFallback ? pending : findByEmail(email);
+    }
+
+    default boolean existsByAnySpelling(String email, boolean legacyFallback) {
+        return existsByEmailLookup(EmailLookup.of(email)) || (legacyFallback && existsByEmail(email));
+    }
+
+    default int deleteByAnySpelling(String email, boolean legacyFallback) {
+        int deleted = deleteByEmailLookup(EmailLookup.of(email));
+        return legacyFallback ? deleted + deleteByEmail(email) : deleted;
+    }
 }
@@ -1,15 +1,67 @@
 package com.example.auth.repository;
 
+import com.example.auth.entity.EmailLookup;
 import com.example.auth.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+    Optional<User> findByEmailLookup(String emailLookup);
     Optional<User> findByUsername(String username);
     Boolean existsByEmail(String email);
+    boolean existsByEmailLookup(String emailLookup);
     Boolean existsByUsername(String username);
+
+    // Copies a pending registration into users as a verified account in one statement
+    @Modifying
+    @Query(value = "INSERT INTO users (username, email, email_lookup, password, role, is_verified, created_at) "
+            + "SELECT username, email, ?1, password, role, TRUE, CURRENT_TIMESTAMP "
+            + "FROM pending_registrations WHERE email_lookup = ?1", nativeQuery = true)
+    int promotePendingRegistration(String emailLookup);
+
+    // The same for a pending row the email_lookup backfill has not reached
+    @Modifying
+    @Query(value = "INSERT INTO users (username, email, email_lookup, password, role, is_verified, created_at) "
+            + "SELECT username, email, ?2, password, role, TRUE, CURRENT_TIMESTAMP "
+            + "FROM pending_registrations WHERE email = ?1 AND email_lookup IS NULL", nativeQuery = true)
+    int promoteLegacyPendingRegistration(String email, String emailLookup);
+
+    // Accepts an authenticator step once: only a later step than the last accepted one, and not while locked
+    @Modifying
+    @Query(value = "UPDATE users SET totp_last_step = ?2, totp_failed_attempts = 0 "
+            + "WHERE id = ?1 AND (totp_last_step IS NULL OR totp_last_step < ?2) "
+            + "AND (totp_locked_until IS NULL OR totp_locked_until <= ?3)", nativeQuery = true)
+    int acceptTotpStep(Long id, long step, LocalDateTime now);
+
+    @Modifying
+    @Query(value = "UPDATE users SET totp_failed_attempts = totp_failed_attempts + 1 WHERE id = ?1",
+            nativeQuery = true)
+    int countTotpFailure(Long id);
+
+    // A separate statement: MySQL and PostgreSQL disagree on whether SET sees the incremented count
+    @Modifying
+    @Query(value = "UPDATE users SET totp_locked_until = ?3, totp_failed_attempts = 0 "
+            + "WHERE id = ?1 AND totp_failed_attempts >= ?2", nativeQuery = true)
+    int lockTotpIfExhausted(Long id, int maxAttempts, LocalDateTime lockedUntil);
+
+    /**
+     * Finds the user behind any spelling of {@code email} through the
+     * email_lookup column. {@code legacyFallback} also tries the exact raw
+     * email, for rows the backfill has not reached yet.
+     */
+    default Optional<User> findByAnySpelling(String email, boolean legacyFallback) {
+        Optional<User> user = findByEmailLookup(EmailLookup.of(email));
+        return user.isPresent() || !legacyFallback ? user : findByEmail(email);
+    }
+
+    default boolean existsByAnySpelling(String email, boolean legacyFallback) {
+        return existsByEmailLookup(EmailLookup.of(email)) || (legacyFallback && existsByEmail(email));
+    }
 }
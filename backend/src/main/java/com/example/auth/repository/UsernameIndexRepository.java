@@ -0,0 +1,9 @@
+package com.example.auth.repository;
+
+import com.example.auth.entity.UsernameIndex;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UsernameIndexRepository extends JpaRepository<UsernameIndex, String> {
+}
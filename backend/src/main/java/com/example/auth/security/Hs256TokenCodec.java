@@ -0,0 +1,456 @@
+package com.example.auth.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+/**
+ * Specialised codec for our fixed token shape ({@code sub}, {@code role},
+ * {@code iat}, {@code exp}, and {@code scope} on service tokens) signed with
+ * HS256.
+ *
+ * Verification works directly on the token characters: the signing input is
+ * copied into a per-thread buffer, the HMAC is written into another, the
+ * signature and payload are Base64URL-decoded in place and the payload is
+ * scanned for the four claims without building a JSON tree. Tokens issued by
+ * jjwt with the same key verify here, and tokens issued here verify in jjwt.
+ *
+ * Instances are thread-safe; the {@link Mac} and buffers are per thread.
+ */
+public final class Hs256TokenCodec {
+    static final String HEADER_SEGMENT = base64Url("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.US_ASCII));
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final int INITIAL_BUFFER = 512;
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        java.util.Arrays.fill(DECODE, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final ThreadLocal<Mac> mac;
+    private final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+    public Hs256TokenCodec(byte[] key) {
+        SecretKeySpec spec = new SecretKeySpec(key.clone(), "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance("HmacSHA256");
+                instance.init(spec);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    /**
+     * Whether the token carries the plain HS256 header this codec handles.
+     * Anything else (other algorithms, extra header fields) must go through
+     * the general-purpose parser.
+     */
+    public boolean supports(String token) {
+        return token.length() > HEADER_SEGMENT.length()
+                && token.charAt(HEADER_SEGMENT.length()) == '.'
+                && token.startsWith(HEADER_SEGMENT);
+    }
+
+    public String sign(String subject, String role, long issuedAt, long expiresAt) {
+        return sign(subject, role, issuedAt, expiresAt, null);
+    }
+
+    public String sign(String subject, String role, long issuedAt, long expiresAt, String scope) {
+        StringBuilder payload = new StringBuilder(96).append('{');
+        if (role != null) {
+            appendString(payload.append("\"role\":"), role).append(',');
+        }
+        if (scope != null) {
+            appendString(payload.append("\"scope\":"), scope).append(',');
+        }
+        appendString(payload.append("\"sub\":"), subject)
+                .append(",\"iat\":").append(issuedAt)
+                .append(",\"exp\":").append(expiresAt)
+                .append('}');
+
+        String signingInput = HEADER_SEGMENT + '.' + base64Url(payload.toString().getBytes(StandardCharsets.UTF_8));
+        Buffers buf = buffers.get();
+        int length = buf.copyAscii(signingInput, 0, signingInput.length());
+        Mac hmac = mac.get();
+        hmac.update(buf.input, 0, length);
+        try {
+            hmac.doFinal(buf.expected, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to sign token", e);
+        }
+        return signingInput + '.' + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(java.util.Arrays.copyOf(buf.expected, SIGNATURE_LENGTH));
+    }
+
+    /**
+     * Returns the verified claims, or null if the token is malformed, has a
+     * bad signature or has expired.
+     */
+    public TokenClaims verify(String token, long nowMillis) {
+        if (!supports(token)) {
+            return null;
+        }
+        int firstDot = HEADER_SEGMENT.length();
+        int secondDot = token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            return null;
+        }
+
+        Buffers buf = buffers.get();
+        int inputLength = buf.copyAscii(token, 0, secondDot);
+        if (inputLength < 0) {
+            return null;
+        }
+        Mac hmac = mac.get();
+        hmac.update(buf.input, 0, inputLength);
+        try {
+            hmac.doFinal(buf.expected, 0);
+        } catch (GeneralSecurityException e) {
+            return null;
+        }
+
+        buf.ensureDecoded(SIGNATURE_LENGTH + 2);
+        int signatureLength = decode(token, secondDot + 1, token.length(), buf.decoded);
+        if (signatureLength != SIGNATURE_LENGTH || !constantTimeEquals(buf.expected, buf.decoded, SIGNATURE_LENGTH)) {
+            return null;
+        }
+
+        buf.ensureDecoded(secondDot - firstDot);
+        int payloadLength = decode(token, firstDot + 1, secondDot, buf.decoded);
+        if (payloadLength < 0) {
+            return null;
+        }
+        TokenClaims claims = ClaimScanner.scan(buf.decoded, payloadLength);
+        if (claims == null || claims.subject() == null || claims.isExpired(nowMillis)) {
+            return null;
+        }
+        return claims;
+    }
+
+    private static boolean constantTimeEquals(byte[] a, byte[] b, int length) {
+        int diff = 0;
+        for (int i = 0; i < length; i++) {
+            diff |= a[i] ^ b[i];
+        }
+        return diff == 0;
+    }
+
+    /**
+     * Decodes unpadded Base64URL characters {@code [from, to)} of {@code s}
+     * into {@code out}, returning the number of bytes or -1 if invalid.
+     * Like jjwt, rejects a last character whose unused low bits are set, so
+     * each byte sequence has exactly one accepted encoding.
+     */
+    static int decode(String s, int from, int to, byte[] out) {
+        int length = to - from;
+        if (length % 4 == 1) {
+            return -1;
+        }
+        int o = 0;
+        int bits = 0;
+        int accumulator = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            int v = c < 128 ? DECODE[c] : -1;
+            if (v < 0) {
+                return -1;
+            }
+            accumulator = (accumulator << 6) | v;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[o++] = (byte) (accumulator >> bits);
+            }
+        }
+        if ((accumulator & ((1 << bits) - 1)) != 0) {
+            return -1;
+        }
+        return o;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static StringBuilder appendString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"');
+    }
+
+    private static final class Buffers {
+        byte[] input = new byte[INITIAL_BUFFER];
+        byte[] decoded = new byte[INITIAL_BUFFER];
+        final byte[] expected = new byte[SIGNATURE_LENGTH];
+
+        int copyAscii(String s, int from, int to) {
+            int length = to - from;
+            if (input.length < length) {
+                input = new byte[Math.max(length, input.length * 2)];
+            }
+            for (int i = 0; i < length; i++) {
+                char c = s.charAt(from + i);
+                if (c > 127) {
+                    return -1;
+                }
+                input[i] = (byte) c;
+            }
+            return length;
+        }
+
+        void ensureDecoded(int encodedLength) {
+            int needed = encodedLength * 3 / 4 + 1;
+            if (decoded.length < needed) {
+                decoded = new byte[Math.max(needed, decoded.length * 2)];
+            }
+        }
+    }
+
+    /**
+     * Minimal scanner for a flat JSON object. Picks out the claims we use
+     * and skips everything else, including nested values.
+     */
+    static final class ClaimScanner {
+        private final byte[] json;
+        private final int end;
+        private int pos;
+
+        private ClaimScanner(byte[] json, int end) {
+            this.json = json;
+            this.end = end;
+        }
+
+        static TokenClaims scan(byte[] json, int length) {
+            try {
+                return new ClaimScanner(json, length).readObject();
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                return null;
+            }
+        }
+
+        private TokenClaims readObject() {
+            String subject = null;
+            String role = null;
+            String scope = null;
+            long issuedAt = 0;
+            long expiresAt = 0;
+            boolean hasExpiry = false;
+
+            skipWhitespace();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                return null;
+            }
+            while (true) {
+                skipWhitespace();
+                int keyStart = pos + 1;
+                skipString();
+                int keyEnd = pos - 1;
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                if (keyIs(keyStart, keyEnd, "sub")) {
+                    subject = readString();
+                } else if (keyIs(keyStart, keyEnd, "role")) {
+                    role = peek() == 'n' ? skipLiteral() : readString();
+                } else if (keyIs(keyStart, keyEnd, "scope")) {
+                    scope = peek() == 'n' ? skipLiteral() : readString();
+                } else if (keyIs(keyStart, keyEnd, "iat")) {
+                    issuedAt = readLong();
+                } else if (keyIs(keyStart, keyEnd, "exp")) {
+                    expiresAt = readLong();
+                    hasExpiry = true;
+                } else {
+                    skipValue();
+                }
+                skipWhitespace();
+                byte b = next();
+                if (b == '}') {
+                    break;
+                }
+                if (b != ',') {
+                    throw new IllegalArgumentException("Expected , or }");
+                }
+            }
+            return hasExpiry ? new TokenClaims(subject, role, issuedAt, expiresAt, scope) : null;
+        }
+
+        private boolean keyIs(int start, int end, String key) {
+            if (end - start != key.length()) {
+                return false;
+            }
+            for (int i = 0; i < key.length(); i++) {
+                if (json[start + i] != key.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String readString() {
+            expect('"');
+            int start = pos;
+            boolean escaped = false;
+            while (peek() != '"') {
+                if (json[pos] == '\\') {
+                    escaped = true;
+                    pos++;
+                    checkBounds();
+                }
+                pos++;
+            }
+            int stop = pos++;
+            if (!escaped) {
+                return new String(json, start, stop - start, StandardCharsets.UTF_8);
+            }
+            return unescape(start, stop);
+        }
+
+        private String unescape(int start, int stop) {
+            StringBuilder sb = new StringBuilder(stop - start);
+            int i = start;
+            while (i < stop) {
+                int runStart = i;
+                while (i < stop && json[i] != '\\') {
+                    i++;
+                }
+                sb.append(new String(json, runStart, i - runStart, StandardCharsets.UTF_8));
+                if (i >= stop) {
+                    break;
+                }
+                byte e = json[i + 1];
+                switch (e) {
+                    case 'n' -> sb.append('\n');
+                    case 't' -> sb.append('\t');
+                    case 'r' -> sb.append('\r');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (i + 6 > stop) {
+                            throw new IllegalArgumentException("Truncated escape");
+                        }
+                        sb.append((char) Integer.parseInt(new String(json, i + 2, 4, StandardCharsets.US_ASCII), 16));
+                        i += 4;
+                    }
+                    default -> sb.append((char) e);
+                }
+                i += 2;
+            }
+            return sb.toString();
+        }
+
+        private long readLong() {
+            boolean negative = peek() == '-';
+            if (negative) {
+                pos++;
+            }
+            long value = 0;
+            int digits = 0;
+            while (pos < end && json[pos] >= '0' && json[pos] <= '9') {
+                value = value * 10 + (json[pos++] - '0');
+                digits++;
+            }
+            if (digits == 0 || digits > 18) {
+                throw new IllegalArgumentException("Invalid number");
+            }
+            return negative ? -value : value;
+        }
+
+        private void skipValue() {
+            byte b = peek();
+            if (b == '"') {
+                skipString();
+            } else if (b == '{' || b == '[') {
+                int depth = 0;
+                do {
+                    byte c = peek();
+                    if (c == '"') {
+                        skipString();
+                        continue;
+                    }
+                    if (c == '{' || c == '[') {
+                        depth++;
+                    } else if (c == '}' || c == ']') {
+                        depth--;
+                    }
+                    pos++;
+                } while (depth > 0);
+            } else {
+                while (pos < end && json[pos] != ',' && json[pos] != '}') {
+                    pos++;
+                }
+            }
+        }
+
+        private String skipLiteral() {
+            while (pos < end && json[pos] != ',' && json[pos] != '}') {
+                pos++;
+            }
+            return null;
+        }
+
+        private void skipString() {
+            expect('"');
+            while (peek() != '"') {
+                if (json[pos] == '\\') {
+                    pos++;
+                    checkBounds();
+                }
+                pos++;
+            }
+            pos++;
+        }
+
+        private void skipWhitespace() {
+            while (pos < end && (json[pos] == ' ' || json[pos] == '\t' || json[pos] == '\n' || json[pos] == '\r')) {
+                pos++;
+            }
+        }
+
+        private byte peek() {
+            checkBounds();
+            return json[pos];
+        }
+
+        private byte next() {
+            checkBounds();
+            return json[pos++];
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw new IllegalArgumentException("Expected " + c);
+            }
+            pos++;
+        }
+
+        private void checkBounds() {
+            if (pos >= end) {
+                throw new IllegalArgumentException("Unexpected end of payload");
+            }
+        }
+    }
+}
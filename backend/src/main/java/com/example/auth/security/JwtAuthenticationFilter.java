@@ -1,14 +1,19 @@
 package com.example.auth.security;
 
+import com.example.auth.jfr.TokenVerificationEvent;
 import com.example.auth.service.JwtService;
+import com.example.auth.tracing.Span;
+import com.example.auth.tracing.Tracer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -16,12 +21,20 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final Tracer tracer;
+
+    // Trust the role claim of access tokens instead of loading the user on every request.
+    // Role changes and deletions then take effect when the token expires.
+    @Value("${jwt.stateless-authentication:false}")
+    private boolean statelessAuthentication;
 
     @Override
     protected void doFilterInternal(
@@ -36,14 +49,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        Span span = tracer.startSpan("JwtAuthenticationFilter.authenticate");
+        TokenVerificationEvent event = new TokenVerificationEvent();
+        event.start();
         try {
             final String jwt = authHeader.substring(7);
-            final String userEmail = jwtService.extractUsername(jwt);
+            final TokenClaims claims = jwtService.verify(jwt);
+            event.verified(tokenType(claims));
+            final String userEmail = claims != null ? claims.subject() : null;
 
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                request.setAttribute(TokenClaims.REQUEST_ATTRIBUTE, claims);
+                // Refresh tokens carry no role, so they always go through the user lookup.
+                // Service tokens name a client, not a user, and never do.
+                UserDetails userDetails;
+                if (claims.isServiceToken()) {
+                    userDetails = serviceClient(claims);
+                    event.principal("service", true);
+                } else if (statelessAuthentication && claims.role() != null) {
+                    userDetails = User.withUsername(userEmail).password("").authorities("ROLE_" + claims.role()).build();
+                    event.principal("claims", true);
+                } else {
+                    userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                    event.principal("database", false);
+                }
                 
-                if (jwtService.validateToken(jwt, userDetails)) {
+                if (jwtService.isValidFor(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -54,9 +85,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 }
             }
         } catch (Exception e) {
+            span.recordError(e);
             logger.error("Cannot set user authentication", e);
+        } finally {
+            boolean authenticated = SecurityContextHolder.getContext().getAuthentication() != null;
+            span.setAttribute("authenticated", authenticated);
+            span.end();
+            event.finish(authenticated);
         }
 
         filterChain.doFilter(request, response);
     }
+
+    private static String tokenType(TokenClaims claims) {
+        if (claims == null) {
+            return null;
+        }
+        if (claims.isServiceToken()) {
+            return "service";
+        }
+        return claims.role() != null ? "access" : "refresh";
+    }
+
+    private static UserDetails serviceClient(TokenClaims claims) {
+        List<String> authorities = new ArrayList<>();
+        authorities.add("ROLE_" + claims.role());
+        for (String scope : claims.scope().split(" ")) {
+            if (!scope.isEmpty()) {
+                authorities.add("SCOPE_" + scope);
+            }
+        }
+        return User.withUsername(claims.subject()).password("").authorities(authorities.toArray(String[]::new)).build();
+    }
 }
@@ -0,0 +1,24 @@
+package com.example.auth.security;
+
+/**
+ * The verified claims of one of our tokens. Times are epoch seconds, as in
+ * the JWT itself; {@code role} is null for refresh tokens. {@code scope} is
+ * only set on service tokens from the client-credentials grant, whose
+ * subject is a client id rather than a user.
+ */
+public record TokenClaims(String subject, String role, long issuedAt, long expiresAt, String scope) {
+    // Request attribute under which the authentication filter exposes the verified claims
+    public static final String REQUEST_ATTRIBUTE = "com.example.auth.security.TokenClaims";
+
+    public TokenClaims(String subject, String role, long issuedAt, long expiresAt) {
+        this(subject, role, issuedAt, expiresAt, null);
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAt * 1000 < nowMillis;
+    }
+
+    public boolean isServiceToken() {
+        return scope != null;
+    }
+}
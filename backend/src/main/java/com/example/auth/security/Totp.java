@@ -0,0 +1,95 @@
+package com.example.auth.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+/**
+ * RFC 6238 time-based one-time passwords (HMAC-SHA1, 30 second steps,
+ * 6 digits), the parameters every authenticator app supports.
+ */
+public final class Totp {
+    public static final int STEP_SECONDS = 30;
+    private static final int DIGITS = 6;
+    private static final int MODULUS = 1_000_000;
+    private static final String BASE32 = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private Totp() {
+    }
+
+    public static byte[] newSecret() {
+        byte[] secret = new byte[20];
+        RANDOM.nextBytes(secret);
+        return secret;
+    }
+
+    public static long currentStep(long nowMillis) {
+        return nowMillis / 1000 / STEP_SECONDS;
+    }
+
+    /**
+     * Returns the step within {@code window} steps of {@code step} whose code
+     * matches, or -1. The comparison does not short-circuit on the code.
+     */
+    public static long matchingStep(byte[] secret, String code, long step, int window) {
+        if (code == null || code.length() != DIGITS) {
+            return -1;
+        }
+        int expected;
+        try {
+            expected = Integer.parseInt(code);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        long match = -1;
+        for (long s = step - window; s <= step + window; s++) {
+            if (codeAt(secret, s) == expected) {
+                match = s;
+            }
+        }
+        return match;
+    }
+
+    public static int codeAt(byte[] secret, long step) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA1");
+            mac.init(new SecretKeySpec(secret, "HmacSHA1"));
+            byte[] hash = mac.doFinal(new byte[] {
+                    (byte) (step >>> 56), (byte) (step >>> 48), (byte) (step >>> 40), (byte) (step >>> 32),
+                    (byte) (step >>> 24), (byte) (step >>> 16), (byte) (step >>> 8), (byte) step
+            });
+            int offset = hash[hash.length - 1] & 0x0F;
+            int binary = ((hash[offset] & 0x7F) << 24)
+                    | ((hash[offset + 1] & 0xFF) << 16)
+                    | ((hash[offset + 2] & 0xFF) << 8)
+                    | (hash[offset + 3] & 0xFF);
+            return binary % MODULUS;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA1 not available", e);
+        }
+    }
+
+    public static String format(int code) {
+        return String.format("%0" + DIGITS + "d", code);
+    }
+
+    public static String toBase32(byte[] bytes) {
+        StringBuilder sb = new StringBuilder((bytes.length * 8 + 4) / 5);
+        int buffer = 0;
+        int bits = 0;
+        for (byte b : bytes) {
+            buffer = (buffer << 8) | (b & 0xFF);
+            bits += 8;
+            while (bits >= 5) {
+                bits -= 5;
+                sb.append(BASE32.charAt((buffer >> bits) & 0x1F));
+            }
+        }
+        if (bits > 0) {
+            sb.append(BASE32.charAt((buffer << (5 - bits)) & 0x1F));
+        }
+        return sb.toString();
+    }
+}
@@ -1,18 +1,30 @@
 package com.example.auth.service;
 
+import com.example.auth.audit.AuditEventType;
+import com.example.auth.audit.AuditLog;
 import com.example.auth.dto.AuthResponse;
 import com.example.auth.dto.LoginRequest;
 import com.example.auth.dto.RegisterRequest;
+import com.example.auth.entity.OtpCode;
 import com.example.auth.entity.OtpType;
 import com.example.auth.entity.Role;
 import com.example.auth.entity.User;
+import com.example.auth.exception.AuthException;
+import com.example.auth.exception.ErrorCode;
+import com.example.auth.jfr.LoginEvent;
+import com.example.auth.jfr.RegistrationEvent;
+import com.example.auth.metrics.AuthStats;
+import com.example.auth.sharding.ShardRouter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @RequiredArgsConstructor
@@ -24,72 +36,147 @@ public class AuthService {
     private final EmailService emailService;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final ShardRouter shardRouter;
+    private final UsernameIndexService usernameIndexService;
+    private final AuditLog auditLog;
+    private final AuthStats authStats;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
+    /**
+     * Only the inserts run in a transaction. BCrypt runs before it and the
+     * SMTP call after it, so neither holds a pooled connection.
+     */
     public void register(RegisterRequest request) {
+        RegistrationEvent event = new RegistrationEvent();
+        event.start();
+        String outcome = "error";
+        try (var shard = shardRouter.bindEmail(request.getEmail())) {
+            doRegister(request, event);
+            outcome = "success";
+        } catch (AuthException e) {
+            outcome = e.getCode().name();
+            throw e;
+        } finally {
+            event.finish(outcome);
+        }
+    }
+
+    private void doRegister(RegisterRequest request, RegistrationEvent event) {
         // Check if user already exists (verified or unverified)
         if (userService.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email already exists. Please login or verify your email.");
+            throw new AuthException(ErrorCode.EMAIL_ALREADY_EXISTS, "Email already exists. Please login or verify your email.");
         }
-        if (userService.existsByUsername(request.getUsername())) {
-            throw new RuntimeException("Username already exists");
+        if (userService.existsByUsername(request.getUsername())
+                || usernameIndexService.isTaken(request.getUsername())) {
+            throw new AuthException(ErrorCode.USERNAME_ALREADY_EXISTS, "Username already exists");
         }
+        event.duplicatesChecked();
 
-        // Create pending registration (NOT in users table yet)
-        var pendingRegistration = pendingRegistrationService.createPendingRegistration(
-                request.getUsername(),
-                request.getEmail(),
-                request.getPassword(),
-                Role.USER
-        );
+        String email = request.getEmail();
+        String passwordHash = passwordEncoder.encode(request.getPassword());
+        event.passwordHashed();
 
-        // Create OTP for email (not linked to user since user doesn't exist yet)
-        var otp = otpService.createOtpForEmail(pendingRegistration.getEmail(), OtpType.REGISTRATION);
-        emailService.sendOtpEmail(pendingRegistration.getEmail(), otp.getOtpCode(), "REGISTRATION");
-        log.info("Registration OTP sent to: {}", pendingRegistration.getEmail());
+        // Create pending registration (NOT in users table yet) and its OTP
+        OtpCode otp = transactionTemplate.execute(status -> {
+            pendingRegistrationService.createPendingRegistration(
+                    request.getUsername(),
+                    email,
+                    passwordHash,
+                    Role.USER
+            );
+            return otpService.createOtpForEmail(email, OtpType.REGISTRATION);
+        });
+        event.persisted();
+
+        try {
+            emailService.sendOtpEmail(email, otp.getOtpCode(), "REGISTRATION");
+            event.emailSent();
+        } catch (AuthException e) {
+            event.emailSent();
+            // Nothing was delivered, so let the user register again right away
+            transactionTemplate.executeWithoutResult(status -> {
+                otpService.discardOtp(otp);
+                pendingRegistrationService.deleteByEmail(email);
+            });
+            throw e;
+        }
+        auditLog.record(AuditEventType.REGISTRATION_REQUESTED, email);
+        authStats.record(AuthStats.Event.REGISTRATION_REQUESTED);
+        log.info("Registration OTP sent to: {}", email);
     }
 
     @Transactional
     public void verifyOtp(String email, String otpCode) {
-        // Verify OTP using email (not user, since user doesn't exist yet)
-        if (!otpService.verifyOtpByEmail(email, otpCode, OtpType.REGISTRATION)) {
-            throw new RuntimeException("Invalid or expired OTP");
+        try (var shard = shardRouter.bindEmail(email)) {
+            doVerifyOtp(email, otpCode);
         }
+    }
 
-        // Get pending registration
-        var pendingRegistration = pendingRegistrationService.findByEmail(email);
-
-        // Now create the actual user in users table with already hashed password
-        User createdUser = userService.createUserWithHashedPassword(
-                pendingRegistration.getUsername(),
-                pendingRegistration.getEmail(),
-                pendingRegistration.getPassword(), // Already hashed
-                pendingRegistration.getRole()
-        );
+    /**
+     * With the JPA state backend this is three statements in one transaction:
+     * consume the OTP, INSERT ... SELECT the pending row into users, delete
+     * the pending row. Any failure rolls all three back, including the OTP
+     * consumption.
+     */
+    private void doVerifyOtp(String email, String otpCode) {
+        if (!otpService.verifyOtpByEmail(email, otpCode, OtpType.REGISTRATION)) {
+            throw new AuthException(ErrorCode.INVALID_OTP, "Invalid or expired OTP");
+        }
 
-        // Verify the user was created correctly
-        if (createdUser == null || !createdUser.getIsVerified()) {
-            log.error("User creation failed or not verified for: {}", email);
-            throw new RuntimeException("Failed to create verified user");
+        // Only sharded deployments need the username, to claim it globally
+        String reservedUsername = null;
+        if (shardRouter.isEnabled()) {
+            reservedUsername = pendingRegistrationService.findByEmail(email).getUsername();
+            usernameIndexService.reserve(reservedUsername, email);
         }
 
-        // Delete pending registration
-        pendingRegistrationService.deleteByEmail(email);
+        try {
+            pendingRegistrationService.promote(email);
+        } catch (RuntimeException e) {
+            if (reservedUsername != null) {
+                usernameIndexService.release(reservedUsername);
+            }
+            throw e;
+        }
 
-        log.info("Email verified and user created successfully: {} (verified: {})", email, createdUser.getIsVerified());
+        auditLog.record(AuditEventType.REGISTRATION_COMPLETED, email);
+        authStats.record(AuthStats.Event.REGISTRATION_VERIFIED);
+        log.info("Email verified and user created successfully: {}", email);
     }
 
     public AuthResponse login(LoginRequest request) {
+        LoginEvent event = new LoginEvent();
+        event.start();
+        String outcome = "error";
+        try (var shard = shardRouter.bindEmail(request.getEmail())) {
+            AuthResponse response = doLogin(request, event);
+            outcome = "success";
+            auditLog.record(AuditEventType.LOGIN_SUCCESS, request.getEmail());
+            authStats.record(AuthStats.Event.LOGIN_SUCCESS);
+            return response;
+        } catch (AuthException e) {
+            outcome = e.getCode().name();
+            auditLog.record(AuditEventType.LOGIN_FAILURE, request.getEmail());
+            authStats.record(AuthStats.Event.LOGIN_FAILURE);
+            throw e;
+        } finally {
+            event.finish(outcome);
+        }
+    }
+
+    private AuthResponse doLogin(LoginRequest request, LoginEvent event) {
         User user = userService.findByEmail(request.getEmail());
+        event.userLookedUp();
 
         if (user == null) {
-            log.error("User not found for email: {}", request.getEmail());
-            throw new RuntimeException("Invalid email or password");
+            log.debug("User not found for email: {}", request.getEmail());
+            throw new AuthException(ErrorCode.INVALID_CREDENTIALS, "Invalid email or password");
         }
 
         if (!user.getIsVerified()) {
-            log.warn("Login attempted for unverified user: {}", request.getEmail());
-            throw new RuntimeException("Please verify your email before logging in");
+            log.debug("Login attempted for unverified user: {}", request.getEmail());
+            throw new AuthException(ErrorCode.EMAIL_NOT_VERIFIED, "Please verify your email before logging in");
         }
 
         try {
@@ -99,9 +186,22 @@ public class AuthService {
                             request.getPassword()
                     )
             );
-        } catch (Exception e) {
-            log.error("Authentication failed for user: {} - {}", request.getEmail(), e.getMessage());
-            throw new RuntimeException("Invalid email or password");
+        } catch (AuthenticationException e) {
+            // Counted and rate-limit logged by GlobalExceptionHandler; a line per bad password is too costly
+            log.debug("Authentication failed for user: {} - {}", request.getEmail(), e.getMessage());
+            throw new AuthException(ErrorCode.INVALID_CREDENTIALS, "Invalid email or password");
+        } finally {
+            event.passwordChecked();
+        }
+
+        if (Boolean.TRUE.equals(user.getTotpEnabled())) {
+            if (request.getTotpCode() == null || request.getTotpCode().isBlank()) {
+                throw new AuthException(ErrorCode.TOTP_REQUIRED, "Authenticator code required");
+            }
+            if (!otpService.verifyTotp(user, request.getTotpCode())) {
+                throw new AuthException(ErrorCode.INVALID_OTP, "Invalid authenticator code");
+            }
+            event.totpChecked();
         }
 
         // Reload user to ensure we have latest data
@@ -110,6 +210,7 @@ public class AuthService {
         UserDetails userDetails = loadUserByUsername(user.getEmail());
         String accessToken = jwtService.generateToken(userDetails, user.getRole().name());
         String refreshToken = jwtService.generateRefreshToken(userDetails);
+        event.tokensIssued();
 
         log.info("User logged in successfully: {} (verified: {})", user.getEmail(), user.getIsVerified());
         return new AuthResponse(
@@ -120,23 +221,43 @@ public class AuthService {
         );
     }
 
-    @Transactional
     public void forgotPassword(String email) {
+        try (var shard = shardRouter.bindEmail(email)) {
+            doForgotPassword(email);
+        }
+    }
+
+    private void doForgotPassword(String email) {
         User user = userService.findByEmail(email);
         var otp = otpService.createOtp(user, OtpType.RESET_PASSWORD);
-        emailService.sendOtpEmail(user.getEmail(), otp.getOtpCode(), "RESET_PASSWORD");
+        try {
+            emailService.sendOtpEmail(user.getEmail(), otp.getOtpCode(), "RESET_PASSWORD");
+        } catch (AuthException e) {
+            // Don't let an undelivered code count against the resend rate limit
+            otpService.discardOtp(otp);
+            throw e;
+        }
+        auditLog.record(AuditEventType.PASSWORD_RESET_REQUESTED, email);
         log.info("Password reset OTP sent to: {}", email);
     }
 
-    @Transactional
     public void resetPassword(String email, String otpCode, String newPassword) {
-        User user = userService.findByEmail(email);
+        try (var shard = shardRouter.bindEmail(email)) {
+            doResetPassword(email, otpCode, newPassword);
+        }
+    }
 
+    private void doResetPassword(String email, String otpCode, String newPassword) {
+        User user = userService.findByEmail(email);
+        // Consumed first, in its own short transaction: the endpoint is public,
+        // so a guessed code must not cost a BCrypt hash
         if (!otpService.verifyOtp(user, otpCode, OtpType.RESET_PASSWORD)) {
-            throw new RuntimeException("Invalid or expired OTP");
+            throw new AuthException(ErrorCode.INVALID_OTP, "Invalid or expired OTP");
         }
-
-        userService.updatePassword(email, newPassword);
+        // Hashed outside any transaction so BCrypt doesn't hold a connection
+        String passwordHash = passwordEncoder.encode(newPassword);
+        userService.updatePasswordHash(email, passwordHash);
+        auditLog.record(AuditEventType.PASSWORD_RESET_COMPLETED, email);
         log.info("Password reset successfully for user: {}", email);
     }
 
@@ -0,0 +1,68 @@
+package com.example.auth.service;
+
+import com.example.auth.metrics.AuthStats;
+import com.example.auth.metrics.AuthStats.Gauge;
+import com.example.auth.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Brings the {@link AuthStats} gauges back in line with the database in
+ * the background: the only place that still counts users,
+ * pending_registrations and otp_codes, once per
+ * {@code stats.reconcile-interval-ms} instead of once per dashboard poll.
+ * Catches what this instance cannot see, such as other instances' events
+ * and OTPs running out of time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuthStatsReconciler {
+    private final AuthStats authStats;
+    private final UserService userService;
+    private final PendingRegistrationService pendingRegistrationService;
+    private final OtpService otpService;
+    private final ShardRouter shardRouter;
+
+    @Scheduled(initialDelayString = "${stats.reconcile-initial-delay-ms:10000}",
+            fixedDelayString = "${stats.reconcile-interval-ms:300000}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("Error reconciling auth statistics", e);
+        }
+    }
+
+    public synchronized void reconcile() {
+        reconcile(Gauge.USERS, () -> OptionalLong.of(userService.countUsers()));
+        reconcile(Gauge.PENDING_REGISTRATIONS, pendingRegistrationService::countPendingRegistrations);
+        reconcile(Gauge.OUTSTANDING_OTPS, otpService::countOutstandingOtps);
+    }
+
+    private void reconcile(Gauge gauge, Supplier<OptionalLong> counter) {
+        long deltaAtStart = authStats.deltaSinceReconcile(gauge);
+        AtomicLong total = new AtomicLong();
+        AtomicBoolean countable = new AtomicBoolean(true);
+        shardRouter.forEachShard(() -> {
+            OptionalLong count = counter.get();
+            if (count.isPresent()) {
+                total.addAndGet(count.getAsLong());
+            } else {
+                countable.set(false);
+            }
+        });
+        if (!countable.get()) {
+            return;
+        }
+        long drift = authStats.reconcile(gauge, total.get(), deltaAtStart);
+        log.info("auth_stats_reconciled gauge={} count={} drift={}", gauge.name().toLowerCase(), total.get(), drift);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.auth.service;
+
+import com.example.auth.config.ClientCredentialsProperties;
+import com.example.auth.dto.ClientTokenResponse;
+import com.example.auth.exception.AuthException;
+import com.example.auth.exception.ErrorCode;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The OAuth 2.0 client-credentials grant for batch jobs and other machine
+ * clients. Client secrets are random 256-bit values, so a single
+ * HMAC-SHA256 under a server-side key is enough to store them safely; no
+ * BCrypt work factor and no database lookup on the way to a token. Tokens
+ * are short-lived and carry the granted scopes, and the authentication
+ * filter accepts them without loading a user.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClientCredentialsService {
+    public static final String GRANT_TYPE = "client_credentials";
+    private static final int SECRET_HASH_LENGTH = 32;
+
+    private final JwtService jwtService;
+    private final ClientCredentialsProperties properties;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    private SecretKeySpec hashKey;
+    private ThreadLocal<Mac> mac;
+    private Map<String, RegisteredClient> clients;
+    // Compared against when the client id is unknown, so both cases cost one HMAC
+    private final byte[] unknownClientHash = new byte[SECRET_HASH_LENGTH];
+
+    @PostConstruct
+    void init() {
+        String key = properties.getHashKey() == null || properties.getHashKey().isEmpty()
+                ? jwtSecret : properties.getHashKey();
+        hashKey = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        mac = ThreadLocal.withInitial(this::newMac);
+
+        Map<String, RegisteredClient> registered = new HashMap<>();
+        properties.getClients().forEach((id, client) -> registered.put(id, register(id, client)));
+        clients = Map.copyOf(registered);
+        if (!clients.isEmpty()) {
+            log.info("Client-credentials grant enabled for {} clients", clients.size());
+        }
+    }
+
+    private static RegisteredClient register(String id, ClientCredentialsProperties.Client client) {
+        byte[] secretHash;
+        try {
+            secretHash = Base64.getUrlDecoder().decode(client.getSecretHash() == null ? "" : client.getSecretHash());
+        } catch (IllegalArgumentException e) {
+            secretHash = new byte[0];
+        }
+        if (secretHash.length != SECRET_HASH_LENGTH) {
+            throw new IllegalStateException("client-credentials.clients." + id
+                    + ".secret-hash must be a Base64URL HMAC-SHA256 (scripts/NewServiceClient.java)");
+        }
+        if (client.getScopes().isEmpty()) {
+            throw new IllegalStateException("client-credentials.clients." + id + ".scopes must not be empty");
+        }
+        return new RegisteredClient(id, secretHash, new LinkedHashSet<>(client.getScopes()), client.getRole());
+    }
+
+    /**
+     * Authenticates the client and issues a token for the requested scopes,
+     * or for all of the client's scopes when none are requested. Credentials
+     * come from HTTP Basic or, failing that, the {@code client_id} and
+     * {@code client_secret} form parameters.
+     */
+    public ClientTokenResponse issueToken(String authorizationHeader, String grantType, String requestedScope,
+                                          String formClientId, String formClientSecret) {
+        if (!GRANT_TYPE.equals(grantType)) {
+            throw new AuthException(ErrorCode.UNSUPPORTED_GRANT_TYPE, "Only grant_type=client_credentials is supported");
+        }
+        RegisteredClient client = authenticate(authorizationHeader, formClientId, formClientSecret);
+        String scope = grantedScope(client, requestedScope);
+        long ttlSeconds = properties.getTokenTtlSeconds();
+        String token = jwtService.generateServiceToken(client.id(), client.role(), scope, ttlSeconds * 1000);
+        log.debug("Issued service token for client {} with scope [{}]", client.id(), scope);
+        return new ClientTokenResponse(token, "Bearer", ttlSeconds, scope);
+    }
+
+    /**
+     * Authenticates a client calling an endpoint directly with HTTP Basic,
+     * such as token introspection, and checks it was registered with
+     * {@code requiredScope}.
+     *
+     * @return the client id
+     */
+    public String authenticateForScope(String authorizationHeader, String requiredScope) {
+        RegisteredClient client = authenticate(authorizationHeader, null, null);
+        grantedScope(client, requiredScope);
+        return client.id();
+    }
+
+    private RegisteredClient authenticate(String authorizationHeader, String formClientId, String formClientSecret) {
+        String clientId = formClientId;
+        String secret = formClientSecret;
+        if (authorizationHeader != null && authorizationHeader.startsWith("Basic ")) {
+            String decoded;
+            try {
+                decoded = new String(Base64.getDecoder().decode(authorizationHeader.substring(6).trim()),
+                        StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw invalidClient();
+            }
+            int colon = decoded.indexOf(':');
+            if (colon < 0) {
+                throw invalidClient();
+            }
+            clientId = decoded.substring(0, colon);
+            secret = decoded.substring(colon + 1);
+        }
+        if (clientId == null || secret == null) {
+            throw invalidClient();
+        }
+
+        RegisteredClient client = clients.get(clientId);
+        byte[] presented = hash(secret);
+        byte[] expected = client != null ? client.secretHash() : unknownClientHash;
+        if (!MessageDigest.isEqual(expected, presented) || client == null) {
+            throw invalidClient();
+        }
+        return client;
+    }
+
+    private static String grantedScope(RegisteredClient client, String requestedScope) {
+        if (requestedScope == null || requestedScope.isBlank()) {
+            return String.join(" ", client.scopes());
+        }
+        Set<String> granted = new LinkedHashSet<>();
+        for (String scope : requestedScope.trim().split("\\s+")) {
+            if (!client.scopes().contains(scope)) {
+                throw new AuthException(ErrorCode.INVALID_SCOPE, "Scope not allowed for this client: " + scope);
+            }
+            granted.add(scope);
+        }
+        return String.join(" ", granted);
+    }
+
+    private byte[] hash(String secret) {
+        return mac.get().doFinal(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance("HmacSHA256");
+            instance.init(hashKey);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private static AuthException invalidClient() {
+        return new AuthException(ErrorCode.INVALID_CLIENT, "Invalid client credentials");
+    }
+
+    private record RegisteredClient(String id, byte[] secretHash, Set<String> scopes, String role) {
+    }
+}
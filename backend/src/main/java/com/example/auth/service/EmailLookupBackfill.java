@@ -0,0 +1,172 @@
+package com.example.auth.service;
+
+import com.example.auth.entity.EmailLookup;
+import com.example.auth.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills {@code email_lookup} for rows written before the column existed
+ * (V4__email_lookup.sql), online and in batches: each batch is read by
+ * primary key after the last id seen and updated in its own short
+ * transaction, with a pause in between, so it never holds locks or a
+ * pooled connection for long. Rows written since the column exists get
+ * their value from the entities and are never touched.
+ *
+ * <p>Until no row is left without a value, lookups by email also try the
+ * exact raw email ({@link #legacyFallback()}), so accounts the backfill has
+ * not reached can still log in. The check is repeated at every run, so rows
+ * written by instances still on an older version are picked up too.
+ *
+ * <p>A row whose canonical email is already taken by another account (two
+ * legacy accounts differing only in case) is left empty and logged; it
+ * stays reachable by its exact raw email and keeps the fallback on until
+ * it is resolved by hand.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailLookupBackfill {
+    private static final List<String> TABLES = List.of("users", "pending_registrations", "otp_codes");
+
+    private final DataSource dataSource;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${email-lookup.backfill-batch-size:500}")
+    private int batchSize;
+
+    @Value("${email-lookup.backfill-pause-ms:100}")
+    private long pauseMs;
+
+    private volatile boolean complete;
+
+    /**
+     * Whether lookups must also try the raw email column.
+     */
+    public boolean legacyFallback() {
+        return !complete;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkAtStartup() {
+        try {
+            long remaining = countRemaining();
+            complete = remaining == 0;
+            if (!complete) {
+                log.info("email_lookup missing on {} rows; backfill scheduled, raw email fallback on", remaining);
+            }
+        } catch (Exception e) {
+            log.error("Error checking email_lookup backfill state", e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${email-lookup.backfill-initial-delay-ms:5000}",
+            fixedDelayString = "${email-lookup.backfill-interval-ms:300000}")
+    public void scheduledBackfill() {
+        try {
+            backfill();
+        } catch (Exception e) {
+            log.error("Error backfilling email_lookup", e);
+        }
+    }
+
+    /**
+     * One pass over every table on every shard.
+     *
+     * @return the rows still without email_lookup afterwards
+     */
+    public synchronized long backfill() {
+        if (complete && countRemaining() == 0) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        AtomicLong filled = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        shardRouter.forEachShard(() -> {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            for (String table : TABLES) {
+                backfillTable(jdbc, table, filled, conflicts);
+            }
+        });
+        long remaining = countRemaining();
+        complete = remaining == 0;
+        log.info("email_lookup_backfill filled={} conflicts={} remaining={} duration_ms={}",
+                filled.get(), conflicts.get(), remaining, (System.nanoTime() - start) / 1_000_000);
+        return remaining;
+    }
+
+    private void backfillTable(JdbcTemplate jdbc, String table, AtomicLong filled, AtomicLong conflicts) {
+        long lastId = 0;
+        List<Row> batch;
+        do {
+            batch = jdbc.query("SELECT id, email FROM " + table
+                            + " WHERE id > ? AND email_lookup IS NULL AND email IS NOT NULL ORDER BY id LIMIT ?",
+                    (rs, i) -> new Row(rs.getLong(1), rs.getString(2)), lastId, batchSize);
+            if (batch.isEmpty()) {
+                return;
+            }
+            lastId = batch.get(batch.size() - 1).id();
+            String update = "UPDATE " + table + " SET email_lookup = ? WHERE id = ? AND email_lookup IS NULL";
+            List<Object[]> args = batch.stream()
+                    .map(row -> new Object[]{EmailLookup.of(row.email()), row.id()})
+                    .toList();
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbc.batchUpdate(update, args));
+                filled.addAndGet(args.size());
+            } catch (DataIntegrityViolationException e) {
+                // Some canonical email in the batch is taken; find which row by row
+                for (Object[] row : args) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> jdbc.update(update, row));
+                        filled.incrementAndGet();
+                    } catch (DataIntegrityViolationException conflict) {
+                        conflicts.incrementAndGet();
+                        log.warn("email_lookup_conflict table={} id={}: another account has the same canonical email",
+                                table, row[1]);
+                    }
+                }
+            }
+            pause();
+        } while (batch.size() == batchSize);
+    }
+
+    private long countRemaining() {
+        AtomicLong remaining = new AtomicLong();
+        shardRouter.forEachShard(() -> {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            for (String table : TABLES) {
+                Long count = jdbc.queryForObject("SELECT COUNT(*) FROM " + table
+                        + " WHERE email_lookup IS NULL AND email IS NOT NULL", Long.class);
+                remaining.addAndGet(count != null ? count : 0);
+            }
+        });
+        return remaining.get();
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Row(long id, String email) {
+    }
+}
@@ -1,11 +1,20 @@
 package com.example.auth.service;
 
+import com.example.auth.exception.AuthException;
+import com.example.auth.exception.ErrorCode;
+import com.example.auth.jfr.EmailSendEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -13,18 +22,62 @@ public class EmailService {
     private final JavaMailSender mailSender;
 
     public void sendOtpEmail(String to, String otpCode, String type) {
+        EmailSendEvent event = new EmailSendEvent();
+        int failed = 1;
         try {
             SimpleMailMessage message = new SimpleMailMessage();
             message.setTo(to);
             message.setSubject(getSubject(type));
             message.setText(getEmailBody(otpCode, type));
             
+            event.start();
             mailSender.send(message);
+            failed = 0;
             log.info("OTP email sent successfully to: {}", to);
         } catch (Exception e) {
             log.error("Failed to send email to: {}", to, e);
-            throw new RuntimeException("Failed to send email", e);
+            throw new AuthException(ErrorCode.EMAIL_DELIVERY_FAILED, "Failed to send email", e);
+        } finally {
+            event.finish(type, 1, failed);
+        }
+    }
+
+    /**
+     * Sends forced password-reset codes, {@code otpCodes.get(i)} to
+     * {@code recipients.get(i)}, all over one SMTP connection.
+     *
+     * @return the positions of the messages that were not sent
+     */
+    public Set<Integer> sendForcedResetEmails(List<String> recipients, List<String> otpCodes, int validityMinutes) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[recipients.size()];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = new SimpleMailMessage();
+            messages[i].setTo(recipients.get(i));
+            messages[i].setSubject("Action Required: Reset Your Password");
+            messages[i].setText(getForcedResetBody(otpCodes.get(i), validityMinutes));
         }
+        Set<Integer> failed = new HashSet<>();
+        EmailSendEvent event = new EmailSendEvent();
+        event.start();
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            // Messages rejected one by one; when the connection itself failed, none were sent
+            Set<Object> rejected = e.getFailedMessages().keySet();
+            for (int i = 0; i < messages.length; i++) {
+                if (rejected.isEmpty() || rejected.contains(messages[i])) {
+                    failed.add(i);
+                }
+            }
+            log.error("Failed to send {} of {} forced reset emails", failed.size(), messages.length, e);
+        } catch (MailException e) {
+            for (int i = 0; i < messages.length; i++) {
+                failed.add(i);
+            }
+            log.error("Failed to send {} forced reset emails", messages.length, e);
+        }
+        event.finish("FORCED_RESET", messages.length, failed.size());
+        return failed;
     }
 
     private String getSubject(String type) {
@@ -50,4 +103,20 @@ public class EmailService {
                 Auth Service Team
                 """, action, otpCode);
     }
+
+    private String getForcedResetBody(String otpCode, int validityMinutes) {
+        return String.format("""
+                Hello,
+                
+                As a security precaution, you need to choose a new password for your account.
+                
+                Your OTP code to reset your password is: %s
+                
+                This code will expire in %d minutes. After that, request a new one
+                with "Forgot password".
+                
+                Best regards,
+                Auth Service Team
+                """, otpCode, validityMinutes);
+    }
 }
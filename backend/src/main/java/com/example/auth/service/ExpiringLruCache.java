@@ -0,0 +1,174 @@
+package com.example.auth.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded in-memory cache whose entries each carry an expiry time. When full,
+ * an insert evicts the least recently used entry, so hot keys stay cached and
+ * the cost of every operation is constant. Expired entries are dropped when
+ * read, and from the cold end of the recency order on insert.
+ *
+ * <p>Keys are spread over independently locked segments, each an
+ * access-ordered {@link LinkedHashMap}, so concurrent requests rarely
+ * contend. Callers pass the current time in epoch milliseconds.
+ */
+final class ExpiringLruCache<K, V> {
+    private static final int SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+
+    @SuppressWarnings("unchecked")
+    ExpiringLruCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        // Small caches get a single segment so the bound stays exact
+        int count = maxEntries < SEGMENTS * SEGMENTS ? 1 : SEGMENTS;
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(maxEntries / count + (i < maxEntries % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * @return the live value for {@code key}, or null if absent or expired
+     */
+    V get(K key, long now) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.live(key, now);
+            return entry != null ? entry.value : null;
+        }
+    }
+
+    void put(K key, V value, long now, long expiresAt) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.insert(key, new Entry<>(value, expiresAt), now);
+        }
+    }
+
+    /**
+     * Replaces the live value for {@code key} (null if there is none) with
+     * the result of {@code remapping}, expiring at {@code expiresAt}.
+     * Returning the current value unchanged keeps it and its expiry;
+     * returning null removes the entry. Runs under the segment's lock.
+     *
+     * @return the value now mapped
+     */
+    V compute(K key, long now, long expiresAt, UnaryOperator<V> remapping) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> current = segment.live(key, now);
+            V currentValue = current != null ? current.value : null;
+            V value = remapping.apply(currentValue);
+            if (value == null) {
+                segment.map.remove(key);
+            } else if (current == null || value != currentValue) {
+                segment.insert(key, new Entry<>(value, expiresAt), now);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Moves the expiry of {@code key}, provided it still maps to {@code value}.
+     */
+    void expireAt(K key, V value, long expiresAt) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.map.get(key);
+            if (entry != null && entry.value == value) {
+                entry.expiresAt = expiresAt;
+            }
+        }
+    }
+
+    /**
+     * Removes {@code key} only if it still maps to {@code value}.
+     */
+    void remove(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.map.get(key);
+            if (entry != null && entry.value == value) {
+                segment.map.remove(key);
+            }
+        }
+    }
+
+    void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.map.clear();
+            }
+        }
+    }
+
+    /**
+     * Entries held, including expired ones not dropped yet.
+     */
+    int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        return segments[((h ^ (h >>> 16)) & 0x7fffffff) % segments.length];
+    }
+
+    private static final class Segment<K, V> {
+        final int capacity;
+        final LinkedHashMap<K, Entry<V>> map;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    return size() > Segment.this.capacity;
+                }
+            };
+        }
+
+        Entry<V> live(K key, long now) {
+            Entry<V> entry = map.get(key);
+            if (entry != null && entry.expiresAt <= now) {
+                map.remove(key);
+                return null;
+            }
+            return entry;
+        }
+
+        void insert(K key, Entry<V> entry, long now) {
+            map.put(key, entry);
+            // Only looks at the cold end, so this stays constant-time
+            Iterator<Entry<V>> coldest = map.values().iterator();
+            for (int i = 0; i < 2 && coldest.hasNext(); i++) {
+                Entry<V> candidate = coldest.next();
+                if (candidate != entry && candidate.expiresAt <= now) {
+                    coldest.remove();
+                }
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.auth.service;
+
+import com.example.auth.exception.AuthException;
+import com.example.auth.exception.ErrorCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-expiring record of requests carrying an {@code Idempotency-Key}
+ * header, so a client retrying after a lost response gets the first
+ * outcome back instead of another BCrypt hash, OTP row or email.
+ *
+ * <p>The first request with a key runs; duplicates arriving while it is in
+ * flight wait for it, and later ones replay its response or its client
+ * error. Server errors, rate limiting and failed deliveries are not kept,
+ * so the retry runs again. A key is bound to the endpoint and a digest of
+ * the request body; reusing it for a different body is rejected. Records
+ * live on this instance only, in a bounded LRU cache like
+ * {@link UserProfileCache}'s; when it is full the least recently used key
+ * is forgotten, so a retry with that key runs again.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class IdempotencyStore {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Value("${idempotency.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    @Value("${idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    // How long a duplicate waits for the first request before giving up with 409
+    @Value("${idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    private final ObjectMapper objectMapper;
+
+    private ExpiringLruCache<String, Entry> entries;
+
+    @PostConstruct
+    void init() {
+        entries = new ExpiringLruCache<>(maxEntries);
+    }
+
+    /**
+     * Runs {@code action} once per endpoint and key; without a key it just runs.
+     */
+    public <T> ResponseEntity<T> execute(String endpoint, String key, Object request,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new AuthException(ErrorCode.INVALID_IDEMPOTENCY_KEY,
+                    HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String storeKey = endpoint + ' ' + key;
+        byte[] fingerprint = fingerprint(endpoint, request);
+        Entry entry = new Entry(fingerprint);
+        Entry existing = claim(storeKey, entry);
+        if (existing == null) {
+            return run(storeKey, entry, action);
+        }
+        if (!Arrays.equals(existing.fingerprint, fingerprint)) {
+            throw new AuthException(ErrorCode.IDEMPOTENCY_KEY_REUSED,
+                    HEADER + " was already used for a different request");
+        }
+        log.debug("idempotent_replay endpoint={} in_flight={}", endpoint, !existing.outcome.isDone());
+        return replay(existing);
+    }
+
+    // Registers entry for the key, or returns the live entry already there
+    private Entry claim(String storeKey, Entry entry) {
+        // In-flight entries never expire; completing one sets its TTL
+        Entry current = entries.compute(storeKey, System.currentTimeMillis(), Long.MAX_VALUE,
+                existing -> existing != null ? existing : entry);
+        return current == entry ? null : current;
+    }
+
+    private <T> ResponseEntity<T> run(String storeKey, Entry entry, Supplier<ResponseEntity<T>> action) {
+        try {
+            ResponseEntity<T> response = action.get();
+            complete(storeKey, entry, response);
+            return response;
+        } catch (RuntimeException e) {
+            if (isReplayable(e)) {
+                complete(storeKey, entry, e);
+            } else {
+                entries.remove(storeKey, entry);
+                entry.outcome.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            if (!entry.outcome.isDone()) {
+                entries.remove(storeKey, entry);
+                entry.outcome.completeExceptionally(new IllegalStateException("Idempotent request failed"));
+            }
+        }
+    }
+
+    private void complete(String storeKey, Entry entry, Object result) {
+        entries.expireAt(storeKey, entry, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds));
+        entry.outcome.complete(result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> replay(Entry entry) {
+        Object outcome;
+        try {
+            outcome = entry.outcome.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new AuthException(ErrorCode.IDEMPOTENT_REQUEST_IN_PROGRESS,
+                    "A request with this " + HEADER + " is still being processed");
+        } catch (ExecutionException e) {
+            // The first request failed in a way that is not kept; it is also this one's outcome
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthException(ErrorCode.IDEMPOTENT_REQUEST_IN_PROGRESS,
+                    "A request with this " + HEADER + " is still being processed");
+        }
+        if (outcome instanceof RuntimeException e) {
+            throw e;
+        }
+        ResponseEntity<T> response = (ResponseEntity<T>) outcome;
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    // Client errors are a property of the request; anything else may succeed on retry
+    private static boolean isReplayable(RuntimeException e) {
+        if (!(e instanceof AuthException authException)) {
+            return false;
+        }
+        HttpStatus status = authException.getCode().getStatus();
+        return status.is4xxClientError() && status != HttpStatus.TOO_MANY_REQUESTS;
+    }
+
+    // Digest of the request as JSON, which covers every bound field whatever
+    // its toString() shows; only the digest is kept, not the passwords in it
+    private byte[] fingerprint(String endpoint, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(endpoint.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return digest.digest(objectMapper.writeValueAsBytes(request));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Request cannot be serialized for its idempotency fingerprint", e);
+        }
+    }
+
+    private static final class Entry {
+        final byte[] fingerprint;
+        // A ResponseEntity, or the AuthException to replay
+        final CompletableFuture<Object> outcome = new CompletableFuture<>();
+
+        Entry(byte[] fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
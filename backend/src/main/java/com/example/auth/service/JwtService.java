@@ -1,8 +1,13 @@
 package com.example.auth.service;
 
+import com.example.auth.security.Hs256TokenCodec;
+import com.example.auth.security.TokenClaims;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -27,8 +32,27 @@ public class JwtService {
     @Value("${jwt.refresh-expiration}")
     private Long refreshExpiration;
 
+    // "jjwt" (default) or "hs256" for the specialised codec on sign and verify
+    @Value("${jwt.codec:jjwt}")
+    private String codec;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Hs256TokenCodec hs256Codec;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        signingKey = Keys.hmacShaKeyFor(keyBytes);
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        if ("hs256".equalsIgnoreCase(codec)) {
+            hs256Codec = new Hs256TokenCodec(keyBytes);
+            log.info("Using specialised HS256 token codec");
+        }
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        return signingKey;
     }
 
     public String extractUsername(String token) {
@@ -45,11 +69,31 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * Verifies signature and expiry and returns the claims, or null if the
+     * token is not valid. Tokens the specialised codec cannot handle (for
+     * example ones signed with a different algorithm) fall back to jjwt.
+     */
+    public TokenClaims verify(String token) {
+        if (hs256Codec != null && hs256Codec.supports(token)) {
+            return hs256Codec.verify(token, System.currentTimeMillis());
+        }
+        try {
+            Claims claims = extractAllClaims(token);
+            return new TokenClaims(
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() / 1000 : 0,
+                    claims.getExpiration().getTime() / 1000,
+                    claims.get("scope", String.class)
+            );
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Token rejected: {}", e.getMessage());
+            return null;
+        }
     }
 
     private Boolean isTokenExpired(String token) {
@@ -57,16 +101,43 @@ public class JwtService {
     }
 
     public String generateToken(UserDetails userDetails, String role) {
+        if (hs256Codec != null) {
+            return createHs256Token(userDetails.getUsername(), role, expiration);
+        }
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", role);
         return createToken(claims, userDetails.getUsername(), expiration);
     }
 
     public String generateRefreshToken(UserDetails userDetails) {
+        if (hs256Codec != null) {
+            return createHs256Token(userDetails.getUsername(), null, refreshExpiration);
+        }
         Map<String, Object> claims = new HashMap<>();
         return createToken(claims, userDetails.getUsername(), refreshExpiration);
     }
 
+    /**
+     * Issues a service token for a client of the client-credentials grant:
+     * the client id as subject, its role, and the granted scopes as a
+     * space-separated {@code scope} claim.
+     */
+    public String generateServiceToken(String clientId, String role, String scope, long ttlMillis) {
+        if (hs256Codec != null) {
+            long now = System.currentTimeMillis();
+            return hs256Codec.sign(clientId, role, now / 1000, (now + ttlMillis) / 1000, scope);
+        }
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("role", role);
+        claims.put("scope", scope);
+        return createToken(claims, clientId, ttlMillis);
+    }
+
+    private String createHs256Token(String subject, String role, Long expirationTime) {
+        long now = System.currentTimeMillis();
+        return hs256Codec.sign(subject, role, now / 1000, (now + expirationTime) / 1000);
+    }
+
     private String createToken(Map<String, Object> claims, String subject, Long expirationTime) {
         return Jwts.builder()
                 .claims(claims)
@@ -81,4 +152,10 @@ public class JwtService {
         final String username = extractUsername(token);
         return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
     }
+
+    public boolean isValidFor(TokenClaims claims, UserDetails userDetails) {
+        return claims != null
+                && claims.subject().equals(userDetails.getUsername())
+                && !claims.isExpired(System.currentTimeMillis());
+    }
 }
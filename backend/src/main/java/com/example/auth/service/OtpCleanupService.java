@@ -1,12 +1,15 @@
 package com.example.auth.service;
 
+import com.example.auth.jfr.OtpCleanupEvent;
+import com.example.auth.metrics.AuthStats;
+import com.example.auth.sharding.ShardRouter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Scheduled service to clean up expired OTPs and old pending registrations
@@ -17,18 +20,27 @@ import java.time.LocalDateTime;
 public class OtpCleanupService {
     private final OtpService otpService;
     private final PendingRegistrationService pendingRegistrationService;
+    private final ShardRouter shardRouter;
+    private final AuthStats authStats;
 
     /**
      * Clean up expired OTPs every hour
      */
     @Scheduled(fixedRate = 3600000) // 1 hour in milliseconds
-    @Transactional
     public void cleanupExpiredOtps() {
+        OtpCleanupEvent event = new OtpCleanupEvent();
+        event.start();
+        AtomicInteger expired = new AtomicInteger();
+        boolean succeeded = false;
         try {
-            otpService.cleanupExpiredOtps();
-            log.debug("Expired OTPs cleaned up successfully");
+            shardRouter.forEachShard(() -> expired.addAndGet(otpService.cleanupExpiredOtps()));
+            authStats.record(AuthStats.Event.OTP_EXPIRED, expired.get());
+            succeeded = true;
+            log.debug("Expired OTPs cleaned up successfully, {} never used", expired.get());
         } catch (Exception e) {
             log.error("Error cleaning up expired OTPs", e);
+        } finally {
+            event.finish("expired-otps", expired.get(), succeeded);
         }
     }
 
@@ -37,14 +49,21 @@ public class OtpCleanupService {
      * Runs every 6 hours
      */
     @Scheduled(fixedRate = 21600000) // 6 hours in milliseconds
-    @Transactional
     public void cleanupOldPendingRegistrations() {
+        OtpCleanupEvent event = new OtpCleanupEvent();
+        event.start();
+        AtomicInteger deleted = new AtomicInteger();
+        boolean succeeded = false;
         try {
             LocalDateTime cutoffTime = LocalDateTime.now().minusHours(24);
-            pendingRegistrationService.deleteOldPendingRegistrations(cutoffTime);
+            shardRouter.forEachShard(() -> deleted.addAndGet(pendingRegistrationService.deleteOldPendingRegistrations(cutoffTime)));
+            authStats.record(AuthStats.Event.PENDING_EXPIRED, deleted.get());
+            succeeded = true;
             log.debug("Old pending registrations cleaned up successfully (older than 24 hours)");
         } catch (Exception e) {
             log.error("Error cleaning up old pending registrations", e);
+        } finally {
+            event.finish("old-pending-registrations", deleted.get(), succeeded);
         }
     }
 }
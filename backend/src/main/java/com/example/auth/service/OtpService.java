@@ -1,23 +1,34 @@
 package com.example.auth.service;
 
+import com.example.auth.audit.AuditEventType;
+import com.example.auth.audit.AuditLog;
 import com.example.auth.entity.OtpCode;
 import com.example.auth.entity.OtpType;
 import com.example.auth.entity.User;
-import com.example.auth.repository.OtpCodeRepository;
+import com.example.auth.exception.AuthException;
+import com.example.auth.exception.ErrorCode;
+import com.example.auth.metrics.AuthStats;
+import com.example.auth.state.OtpStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
 import java.util.Random;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OtpService {
-    private final OtpCodeRepository otpCodeRepository;
+    private final OtpStore otpStore;
+    private final AuditLog auditLog;
+    private final TotpService totpService;
+    private final AuthStats authStats;
     private final Random random = new Random();
 
     @Value("${otp.expiration.minutes:5}")
@@ -30,102 +41,130 @@ public class OtpService {
         return String.format("%06d", random.nextInt(1000000));
     }
 
-    @Transactional
     public OtpCode createOtp(User user, OtpType type) {
         return createOtp(user, null, type);
     }
 
-    @Transactional
     public OtpCode createOtpForEmail(String email, OtpType type) {
         return createOtp(null, email, type);
     }
 
-    @Transactional
     public OtpCode createOtp(User user, String email, OtpType type) {
-        // Check rate limiting
-        LocalDateTime rateLimitTime = LocalDateTime.now().minusMinutes(rateLimitMinutes);
-        Long recentOtps = 0L;
-        
-        if (user != null) {
-            recentOtps = otpCodeRepository.countValidOtpsByUserAndType(user, type, rateLimitTime);
-        } else if (email != null) {
-            recentOtps = otpCodeRepository.countValidOtpsByEmailAndType(email, type, rateLimitTime);
-        }
-        
-        if (recentOtps > 0) {
-            throw new RuntimeException("Please wait before requesting another OTP");
-        }
-
-        // Invalidate previous unused OTPs
-        otpCodeRepository.deleteExpiredOtps(LocalDateTime.now());
-
-        String otpCode = generateOtp();
-        LocalDateTime expiryTime = LocalDateTime.now().plusMinutes(otpExpirationMinutes);
-
         OtpCode otp = new OtpCode();
         otp.setUser(user);
         otp.setEmail(email);
-        otp.setOtpCode(otpCode);
-        otp.setExpiryTime(expiryTime);
+        otp.setOtpCode(generateOtp());
+        otp.setExpiryTime(LocalDateTime.now().plusMinutes(otpExpirationMinutes));
         otp.setType(type);
         otp.setUsed(false);
 
-        return otpCodeRepository.save(otp);
+        OtpCode saved = otpStore.issue(otp, Duration.ofMinutes(rateLimitMinutes));
+        if (saved == null) {
+            throw new AuthException(ErrorCode.OTP_RATE_LIMITED, "Please wait before requesting another OTP");
+        }
+        auditLog.record(AuditEventType.OTP_ISSUED, user != null ? user.getEmail() : email);
+        authStats.record(AuthStats.Event.OTP_ISSUED);
+        return saved;
+    }
+
+    /**
+     * Issues one code per user in a single store round trip, bypassing the
+     * resend rate limit. For forced resets, where {@code validity} has to
+     * cover the time the email waits in the dispatch queue.
+     */
+    public List<OtpCode> createOtps(List<User> users, OtpType type, Duration validity) {
+        LocalDateTime expiry = LocalDateTime.now().plus(validity);
+        List<OtpCode> otps = new ArrayList<>(users.size());
+        for (User user : users) {
+            otps.add(new OtpCode(null, user, null, null, generateOtp(), expiry, type, false));
+        }
+        if (otps.isEmpty()) {
+            return otps;
+        }
+        otpStore.issueAll(otps);
+        for (User user : users) {
+            auditLog.record(AuditEventType.OTP_ISSUED, user.getEmail());
+        }
+        authStats.record(AuthStats.Event.OTP_ISSUED, otps.size());
+        return otps;
+    }
+
+    /**
+     * Removes an OTP whose email could not be delivered, so the resend rate
+     * limit doesn't lock the user out of retrying.
+     */
+    public void discardOtp(OtpCode otp) {
+        otpStore.discard(otp);
+        authStats.record(AuthStats.Event.OTP_DISCARDED);
+    }
+
+    public void discardOtps(List<OtpCode> otps) {
+        if (otps.isEmpty()) {
+            return;
+        }
+        otpStore.discardAll(otps);
+        authStats.record(AuthStats.Event.OTP_DISCARDED, otps.size());
     }
 
-    @Transactional
     public boolean verifyOtp(User user, String otpCode, OtpType type) {
+        if (user != null && type == OtpType.TOTP) {
+            return verifyTotp(user, otpCode);
+        }
         if (user != null) {
             return verifyOtpByUser(user, otpCode, type);
         }
         return false;
     }
 
-    @Transactional
-    public boolean verifyOtpByEmail(String email, String otpCode, OtpType type) {
-        OtpCode otp = otpCodeRepository
-                .findByEmailAndOtpCodeAndTypeAndUsedFalse(email, otpCode, type)
-                .orElse(null);
-
-        if (otp == null) {
-            log.warn("Invalid OTP for email: {}", email);
-            return false;
-        }
+    /**
+     * Authenticator-app codes are computed in memory; only the accepted step,
+     * or the failed attempt, is written to the user row.
+     */
+    public boolean verifyTotp(User user, String otpCode) {
+        boolean valid = totpService.verify(user, otpCode);
+        auditLog.record(valid ? AuditEventType.OTP_VERIFIED : AuditEventType.OTP_REJECTED, user.getEmail());
+        return valid;
+    }
 
-        if (otp.getExpiryTime().isBefore(LocalDateTime.now())) {
-            log.warn("Expired OTP for email: {}", email);
+    /**
+     * Consumes the OTP in a single conditional UPDATE: it only succeeds if a
+     * matching, unused and unexpired code exists, and concurrent attempts
+     * cannot both win.
+     */
+    public boolean verifyOtpByEmail(String email, String otpCode, OtpType type) {
+        if (!otpStore.consume(null, email, otpCode, type)) {
+            log.debug("Invalid or expired OTP for email: {}", email);
+            auditLog.record(AuditEventType.OTP_REJECTED, email);
             return false;
         }
 
-        otp.setUsed(true);
-        otpCodeRepository.save(otp);
+        auditLog.record(AuditEventType.OTP_VERIFIED, email);
+        authStats.record(AuthStats.Event.OTP_CONSUMED);
         log.info("OTP verified successfully for email: {}", email);
         return true;
     }
 
-    @Transactional
     public boolean verifyOtpByUser(User user, String otpCode, OtpType type) {
-        OtpCode otp = otpCodeRepository
-                .findByUserAndOtpCodeAndTypeAndUsedFalse(user, otpCode, type)
-                .orElse(null);
-
-        if (otp == null) {
-            log.warn("Invalid OTP for user: {}", user.getEmail());
+        if (!otpStore.consume(user, null, otpCode, type)) {
+            log.debug("Invalid or expired OTP for user: {}", user.getEmail());
+            auditLog.record(AuditEventType.OTP_REJECTED, user.getEmail());
             return false;
         }
 
-        if (otp.getExpiryTime().isBefore(LocalDateTime.now())) {
-            log.warn("Expired OTP for user: {}", user.getEmail());
-            return false;
-        }
-
-        otp.setUsed(true);
-        otpCodeRepository.save(otp);
+        auditLog.record(AuditEventType.OTP_VERIFIED, user.getEmail());
+        authStats.record(AuthStats.Event.OTP_CONSUMED);
         log.info("OTP verified successfully for user: {}", user.getEmail());
         return true;
     }
 
-    public void cleanupExpiredOtps() {
-        otpCodeRepository.deleteExpiredOtps(LocalDateTime.now());
+    /**
+     * @return how many expired codes were never used
+     */
+    public int cleanupExpiredOtps() {
+        return otpStore.purgeExpired();
+    }
+
+    public OptionalLong countOutstandingOtps() {
+        return otpStore.countOutstanding();
     }
 }
@@ -2,56 +2,63 @@ package com.example.auth.service;
 
 import com.example.auth.entity.PendingRegistration;
 import com.example.auth.entity.Role;
-import com.example.auth.repository.PendingRegistrationRepository;
+import com.example.auth.exception.AuthException;
+import com.example.auth.exception.ErrorCode;
+import com.example.auth.state.PendingRegistrationStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.OptionalLong;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PendingRegistrationService {
-    private final PendingRegistrationRepository pendingRegistrationRepository;
-    private final PasswordEncoder passwordEncoder;
-
-    @Transactional
-    public PendingRegistration createPendingRegistration(String username, String email, String password, Role role) {
-        if (pendingRegistrationRepository.existsByEmail(email)) {
-            throw new RuntimeException("Email already registered. Please verify your email or use a different email.");
-        }
-        if (pendingRegistrationRepository.existsByUsername(username)) {
-            throw new RuntimeException("Username already exists");
-        }
+    private final PendingRegistrationStore pendingRegistrationStore;
 
+    /**
+     * Takes an already encoded password; callers hash before opening the
+     * transaction so BCrypt doesn't run on a borrowed connection.
+     */
+    public PendingRegistration createPendingRegistration(String username, String email, String passwordHash, Role role) {
         PendingRegistration pending = new PendingRegistration();
         pending.setUsername(username);
         pending.setEmail(email);
-        pending.setPassword(passwordEncoder.encode(password));
+        pending.setPassword(passwordHash);
         pending.setRole(role != null ? role : Role.USER);
 
-        PendingRegistration saved = pendingRegistrationRepository.save(pending);
+        pendingRegistrationStore.create(pending);
         log.info("Pending registration created for: {}", email);
-        return saved;
+        return pending;
     }
 
     public PendingRegistration findByEmail(String email) {
-        return pendingRegistrationRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Pending registration not found"));
+        return pendingRegistrationStore.findByEmail(email)
+                .orElseThrow(() -> new AuthException(ErrorCode.PENDING_REGISTRATION_NOT_FOUND, "Pending registration not found"));
+    }
+
+    /**
+     * Moves the registration into users as a verified account and removes it.
+     */
+    public void promote(String email) {
+        pendingRegistrationStore.promote(email);
+        log.info("Pending registration promoted for: {}", email);
     }
 
-    @Transactional
     public void deleteByEmail(String email) {
-        pendingRegistrationRepository.deleteByEmail(email);
+        pendingRegistrationStore.deleteByEmail(email);
         log.info("Pending registration deleted for: {}", email);
     }
 
-    @Transactional
-    public void deleteOldPendingRegistrations(LocalDateTime cutoffTime) {
-        pendingRegistrationRepository.deleteOldPendingRegistrations(cutoffTime);
-        log.info("Old pending registrations deleted (older than: {})", cutoffTime);
+    public int deleteOldPendingRegistrations(LocalDateTime cutoffTime) {
+        int deleted = pendingRegistrationStore.deleteOlderThan(cutoffTime);
+        log.info("{} old pending registrations deleted (older than: {})", deleted, cutoffTime);
+        return deleted;
+    }
+
+    public OptionalLong countPendingRegistrations() {
+        return pendingRegistrationStore.count();
     }
 }
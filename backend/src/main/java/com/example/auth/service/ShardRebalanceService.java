@@ -0,0 +1,197 @@
+package com.example.auth.service;
+
+import com.example.auth.sharding.ConsistentHashRing;
+import com.example.auth.sharding.ShardDataSources;
+import com.example.auth.sharding.ShardRouter;
+import com.example.auth.sharding.ShardingProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Online rebalancer: moves every email whose owner changes under the target
+ * layout, one email at a time, and tells the {@link ShardRouter} as soon as
+ * it has moved so subsequent requests go to the new shard.
+ *
+ * Rows keep their ids when copied because ids are already unique across
+ * shards. Each email is copied to the target before it is deleted from the
+ * source, so an interrupted run can simply be started again. A second pass
+ * picks up rows written to the old owner by requests that were routed there
+ * just before the email moved.
+ */
+@Service
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ShardRebalanceService {
+    private static final String OTP_FOR_EMAIL =
+            "email = ? OR user_id IN (SELECT id FROM users WHERE email = ?)";
+
+    private final ShardRouter shardRouter;
+    private final ShardDataSources shardDataSources;
+    private final ShardingProperties properties;
+
+    public synchronized long rebalance(List<String> targetShards) {
+        for (String shard : targetShards) {
+            shardDataSources.get(shard);
+        }
+        ConsistentHashRing target = shardRouter.beginMigration(targetShards);
+        AtomicLong moved = new AtomicLong();
+        for (int pass = 1; pass <= 2; pass++) {
+            for (String source : properties.getShards().keySet()) {
+                moved.addAndGet(drainShard(source, target));
+            }
+            log.info("Rebalance pass {} finished, {} emails moved so far", pass, moved.get());
+        }
+        shardRouter.completeMigration();
+        return moved.get();
+    }
+
+    private long drainShard(String source, ConsistentHashRing target) {
+        JdbcTemplate jdbc = new JdbcTemplate(shardDataSources.get(source));
+        long moved = 0;
+        for (String table : List.of("users", "pending_registrations", "otp_codes")) {
+            String lastEmail = "";
+            List<String> batch;
+            do {
+                batch = jdbc.queryForList(
+                        "SELECT DISTINCT email FROM " + table
+                                + " WHERE email IS NOT NULL AND email > ? ORDER BY email LIMIT ?",
+                        String.class, lastEmail, properties.getRebalanceBatchSize());
+                for (String email : batch) {
+                    String owner = target.shardFor(email);
+                    if (!owner.equals(source)) {
+                        moveEmail(email, source, owner);
+                        moved++;
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    lastEmail = batch.get(batch.size() - 1);
+                }
+            } while (batch.size() == properties.getRebalanceBatchSize());
+        }
+        return moved;
+    }
+
+    /**
+     * Runs in a source transaction holding the row locks of the email, so an
+     * update or delete on the source waits until the email has moved and
+     * then finds nothing, instead of being applied to rows already copied.
+     * Inserts are not blocked by those locks: rows that appear on the source
+     * during the copy are copied too before the source rows are deleted.
+     */
+    private void moveEmail(String email, String source, String target) {
+        JdbcTemplate from = new JdbcTemplate(shardDataSources.get(source));
+        JdbcTemplate to = new JdbcTemplate(shardDataSources.get(target));
+        // Moved by an earlier pass or an interrupted run: the target copy is the current one
+        boolean targetCurrent = shardRouter.isMoved(email);
+
+        inTransaction(source, () -> {
+            Map<String, List<Map<String, Object>>> copied = lockRows(from, email);
+            if (targetCurrent) {
+                copied.forEach((table, rows) -> insertMissingRows(to, table, rows));
+            } else {
+                inTransaction(target, () -> {
+                    to.update("DELETE FROM otp_codes WHERE " + OTP_FOR_EMAIL, email, email);
+                    to.update("DELETE FROM pending_registrations WHERE email = ?", email);
+                    to.update("DELETE FROM users WHERE email = ?", email);
+                    copied.forEach((table, rows) -> insertRows(to, table, rows));
+                });
+            }
+            // Route to the new owner before the source copy disappears
+            shardRouter.markMoved(email);
+
+            Map<String, List<Map<String, Object>>> late = newRows(lockRows(from, email), copied);
+            while (!late.isEmpty()) {
+                late.forEach((table, rows) -> {
+                    insertMissingRows(to, table, rows);
+                    copied.get(table).addAll(rows);
+                });
+                late = newRows(lockRows(from, email), copied);
+            }
+            for (String table : List.of("otp_codes", "pending_registrations", "users")) {
+                for (Map<String, Object> row : copied.get(table)) {
+                    from.update("DELETE FROM " + table + " WHERE id = ?", row.get("id"));
+                }
+            }
+        });
+        log.debug("Moved {} from {} to {}", email, source, target);
+    }
+
+    /**
+     * The email's rows, in insert order (users before the OTPs referencing
+     * them), locked until the surrounding transaction ends.
+     */
+    private Map<String, List<Map<String, Object>>> lockRows(JdbcTemplate jdbc, String email) {
+        Map<String, List<Map<String, Object>>> rows = new LinkedHashMap<>();
+        rows.put("users", new ArrayList<>(jdbc.queryForList(
+                "SELECT * FROM users WHERE email = ? FOR UPDATE", email)));
+        rows.put("pending_registrations", new ArrayList<>(jdbc.queryForList(
+                "SELECT * FROM pending_registrations WHERE email = ? FOR UPDATE", email)));
+        rows.put("otp_codes", new ArrayList<>(jdbc.queryForList(
+                "SELECT * FROM otp_codes WHERE " + OTP_FOR_EMAIL + " FOR UPDATE", email, email)));
+        return rows;
+    }
+
+    private Map<String, List<Map<String, Object>>> newRows(Map<String, List<Map<String, Object>>> current,
+                                                           Map<String, List<Map<String, Object>>> copied) {
+        Map<String, List<Map<String, Object>>> fresh = new LinkedHashMap<>();
+        current.forEach((table, rows) -> {
+            Set<Object> known = new HashSet<>();
+            copied.get(table).forEach(row -> known.add(row.get("id")));
+            List<Map<String, Object>> added = rows.stream().filter(row -> !known.contains(row.get("id"))).toList();
+            if (!added.isEmpty()) {
+                fresh.put(table, new ArrayList<>(added));
+            }
+        });
+        return fresh;
+    }
+
+    /**
+     * Inserts the rows the target does not have yet, by id, each on its own
+     * so it can be repeated. A row that conflicts with a different one
+     * already on the target (the same email registered there since the
+     * move) is dropped: the target is current.
+     */
+    private void insertMissingRows(JdbcTemplate jdbc, String table, List<Map<String, Object>> rows) {
+        for (Map<String, Object> row : rows) {
+            Integer present = jdbc.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE id = ?",
+                    Integer.class, row.get("id"));
+            if (present != null && present > 0) {
+                continue;
+            }
+            try {
+                insertRows(jdbc, table, List.of(row));
+            } catch (DuplicateKeyException e) {
+                log.warn("Dropped {} row {} while moving it: it conflicts with the target shard", table, row.get("id"));
+            }
+        }
+    }
+
+    private void insertRows(JdbcTemplate jdbc, String table, List<Map<String, Object>> rows) {
+        for (Map<String, Object> row : rows) {
+            String columns = String.join(", ", row.keySet());
+            String placeholders = String.join(", ", row.keySet().stream().map(c -> "?").toList());
+            jdbc.update("INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders + ")",
+                    row.values().toArray());
+        }
+    }
+
+    private void inTransaction(String shard, Runnable work) {
+        new TransactionTemplate(new DataSourceTransactionManager(shardDataSources.get(shard)))
+                .executeWithoutResult(status -> work.run());
+    }
+}
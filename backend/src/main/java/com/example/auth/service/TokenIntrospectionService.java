@@ -0,0 +1,87 @@
+package com.example.auth.service;
+
+import com.example.auth.config.IntrospectionProperties;
+import com.example.auth.dto.TokenIntrospection;
+import com.example.auth.exception.AuthException;
+import com.example.auth.exception.ErrorCode;
+import com.example.auth.security.TokenClaims;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch verification of our tokens for gateways and internal services, so
+ * they don't have to re-implement {@link JwtService}. Callers are
+ * client-credentials clients registered with the {@code introspect} scope. Results are cached
+ * briefly by token: gateways ask about the same hot tokens over and over.
+ * Verification is stateless, so the cache never needs invalidating; entries
+ * simply stop being served at the cache TTL or the token's expiry, and the
+ * least recently asked-about tokens make room when it is full.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenIntrospectionService {
+    public static final String SCOPE = "introspect";
+    private static final TokenIntrospection INACTIVE = new TokenIntrospection(false, null, null, null, null, null);
+
+    private final JwtService jwtService;
+    private final ClientCredentialsService clientCredentialsService;
+    private final IntrospectionProperties properties;
+    private ExpiringLruCache<String, TokenIntrospection> cache;
+
+    @PostConstruct
+    void init() {
+        cache = new ExpiringLruCache<>(properties.getCacheMaxEntries());
+    }
+
+    public List<TokenIntrospection> introspect(String authorizationHeader, List<String> tokens) {
+        String clientId = clientCredentialsService.authenticateForScope(authorizationHeader, SCOPE);
+        if (tokens.size() > properties.getMaxBatchSize()) {
+            throw new AuthException(ErrorCode.BATCH_TOO_LARGE,
+                    "At most " + properties.getMaxBatchSize() + " tokens per request");
+        }
+
+        long now = System.currentTimeMillis();
+        List<TokenIntrospection> results = new ArrayList<>(tokens.size());
+        int cacheHits = 0;
+        for (String token : tokens) {
+            TokenIntrospection cached = token != null ? cache.get(token, now) : null;
+            if (cached != null) {
+                results.add(cached);
+                cacheHits++;
+            } else {
+                results.add(verifyAndCache(token, now));
+            }
+        }
+        log.debug("Introspected {} tokens for client {} ({} from cache)", tokens.size(), clientId, cacheHits);
+        return results;
+    }
+
+    private TokenIntrospection verifyAndCache(String token, long now) {
+        if (token == null || token.isBlank()) {
+            return INACTIVE;
+        }
+        TokenClaims claims = jwtService.verify(token);
+        long validUntil = now + properties.getCacheTtlSeconds() * 1000;
+        TokenIntrospection result;
+        if (claims == null) {
+            result = INACTIVE;
+        } else {
+            result = new TokenIntrospection(
+                    true,
+                    claims.subject(),
+                    claims.role(),
+                    claims.isServiceToken() ? "service" : claims.role() != null ? "access" : "refresh",
+                    claims.issuedAt(),
+                    claims.expiresAt());
+            validUntil = Math.min(validUntil, claims.expiresAt() * 1000);
+        }
+        cache.put(token, result, now, validUntil);
+        return result;
+    }
+}
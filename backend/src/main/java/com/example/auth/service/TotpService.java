@@ -0,0 +1,129 @@
+package com.example.auth.service;
+
+import com.example.auth.dto.TotpEnrolmentResponse;
+import com.example.auth.entity.User;
+import com.example.auth.exception.AuthException;
+import com.example.auth.exception.ErrorCode;
+import com.example.auth.security.SecretCipher;
+import com.example.auth.security.Totp;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Authenticator-app (TOTP) second factor. The seed is stored encrypted on the
+ * user and codes are computed in memory. The last accepted step and the
+ * failed-attempt count live on the user row, so replays and guesses are
+ * limited across every instance.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TotpService {
+    private final UserService userService;
+
+    @Value("${totp.issuer:AuthService}")
+    private String issuer;
+
+    @Value("${totp.encryption-key:${jwt.secret}}")
+    private String encryptionKey;
+
+    // Steps accepted either side of the current one to absorb clock drift
+    @Value("${totp.window:1}")
+    private int window;
+
+    // Wrong codes in a row before the user is locked out for lockout-minutes
+    @Value("${totp.max-failed-attempts:5}")
+    private int maxFailedAttempts;
+
+    @Value("${totp.lockout-minutes:15}")
+    private int lockoutMinutes;
+
+    private SecretCipher cipher;
+
+    @PostConstruct
+    void init() {
+        cipher = new SecretCipher(encryptionKey);
+    }
+
+    @Transactional
+    public TotpEnrolmentResponse startEnrolment(User user) {
+        if (Boolean.TRUE.equals(user.getTotpEnabled())) {
+            throw new AuthException(ErrorCode.TOTP_ALREADY_ENABLED, "Authenticator app is already enabled");
+        }
+        byte[] secret = Totp.newSecret();
+        user.setTotpSecret(cipher.encrypt(secret));
+        userService.saveUser(user);
+
+        String base32 = Totp.toBase32(secret);
+        String label = URLEncoder.encode(issuer + ":" + user.getEmail(), StandardCharsets.UTF_8).replace("+", "%20");
+        String uri = String.format("otpauth://totp/%s?secret=%s&issuer=%s&algorithm=SHA1&digits=6&period=%d",
+                label, base32, URLEncoder.encode(issuer, StandardCharsets.UTF_8).replace("+", "%20"),
+                Totp.STEP_SECONDS);
+        return new TotpEnrolmentResponse(base32, uri);
+    }
+
+    @Transactional
+    public void confirmEnrolment(User user, String code) {
+        if (user.getTotpSecret() == null) {
+            throw new AuthException(ErrorCode.INVALID_OTP, "Start authenticator enrolment first");
+        }
+        if (!verify(user, code)) {
+            throw new AuthException(ErrorCode.INVALID_OTP, "Invalid authenticator code");
+        }
+        user.setTotpEnabled(true);
+        userService.saveUser(user);
+        log.info("Authenticator app enabled for user: {}", user.getEmail());
+    }
+
+    @Transactional
+    public void disable(User user, String code) {
+        if (!Boolean.TRUE.equals(user.getTotpEnabled()) || !verify(user, code)) {
+            throw new AuthException(ErrorCode.INVALID_OTP, "Invalid authenticator code");
+        }
+        user.setTotpEnabled(false);
+        user.setTotpSecret(null);
+        userService.saveUser(user);
+        log.info("Authenticator app disabled for user: {}", user.getEmail());
+    }
+
+    /**
+     * Checks a code against the user's seed. A code is accepted at most once:
+     * its step must be later than the last step accepted for this user. Wrong
+     * and replayed codes count towards the lockout.
+     *
+     * @throws AuthException with {@link ErrorCode#TOTP_LOCKED} while the user
+     *                       is locked out
+     */
+    public boolean verify(User user, String code) {
+        if (user.getTotpSecret() == null) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (user.getTotpLockedUntil() != null && user.getTotpLockedUntil().isAfter(now)) {
+            throw locked();
+        }
+        long step = Totp.matchingStep(cipher.decrypt(user.getTotpSecret()), code,
+                Totp.currentStep(System.currentTimeMillis()), window);
+        if (step >= 0 && userService.acceptTotpStep(user, step)) {
+            return true;
+        }
+        if (userService.recordTotpFailure(user, maxFailedAttempts, now.plusMinutes(lockoutMinutes))) {
+            log.warn("Authenticator locked for {} minutes after {} wrong codes: {}",
+                    lockoutMinutes, maxFailedAttempts, user.getEmail());
+            throw locked();
+        }
+        return false;
+    }
+
+    private static AuthException locked() {
+        return new AuthException(ErrorCode.TOTP_LOCKED, "Too many wrong authenticator codes, try again later");
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.auth.service;
+
+import com.example.auth.dto.UserResponse;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Small cache of {@link UserResponse}s for GET /api/users/me, keyed by
+ * email and tagged with the user's profile version. {@link UserService}
+ * bumps the version on every write and calls {@link #invalidate}, which
+ * leaves a marker so that a load still carrying the old version cannot put
+ * a stale profile back. Writes made on other instances are only seen once
+ * the entry expires, so the TTL bounds cross-instance staleness. When full,
+ * the least recently read users make room.
+ */
+@Component
+public class UserProfileCache {
+    @Value("${users.me.cache-ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${users.me.cache-max-entries:10000}")
+    private int maxEntries;
+
+    private ExpiringLruCache<String, CachedProfile> entries;
+
+    @PostConstruct
+    void init() {
+        entries = new ExpiringLruCache<>(maxEntries);
+    }
+
+    public VersionedProfile get(String email) {
+        CachedProfile cached = entries.get(email, System.currentTimeMillis());
+        if (cached == null || cached.profile() == null) {
+            return null;
+        }
+        return new VersionedProfile(cached.profile(), cached.version());
+    }
+
+    public void put(String email, VersionedProfile versioned) {
+        store(email, new CachedProfile(versioned.version(), versioned.profile()));
+    }
+
+    public void invalidate(String email, long newVersion) {
+        store(email, new CachedProfile(newVersion, null));
+    }
+
+    // Never replaces a newer version, whether a profile or a marker
+    private void store(String email, CachedProfile fresh) {
+        long now = System.currentTimeMillis();
+        entries.compute(email, now, now + ttlSeconds * 1000,
+                current -> current != null && current.version() > fresh.version() ? current : fresh);
+    }
+
+    /**
+     * A user's profile response together with the version it was built from.
+     */
+    public record VersionedProfile(UserResponse profile, long version) {
+    }
+
+    // An invalidation marker when profile is null
+    private record CachedProfile(long version, UserResponse profile) {
+    }
+}
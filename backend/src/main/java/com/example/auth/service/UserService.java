@@ -1,29 +1,39 @@
 package com.example.auth.service;
 
 import com.example.auth.dto.UserResponse;
+import com.example.auth.entity.EmailLookup;
 import com.example.auth.entity.Role;
 import com.example.auth.entity.User;
+import com.example.auth.exception.AuthException;
+import com.example.auth.exception.ErrorCode;
 import com.example.auth.repository.UserRepository;
+import com.example.auth.sharding.ShardRouter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ShardRouter shardRouter;
+    private final UserProfileCache profileCache;
+    private final EmailLookupBackfill emailLookupBackfill;
 
     @Transactional
     public User createUser(String username, String email, String password, Role role) {
-        if (userRepository.existsByEmail(email)) {
-            throw new RuntimeException("Email already exists");
+        if (existsByEmail(email)) {
+            throw new AuthException(ErrorCode.EMAIL_ALREADY_EXISTS, "Email already exists");
         }
         if (userRepository.existsByUsername(username)) {
-            throw new RuntimeException("Username already exists");
+            throw new AuthException(ErrorCode.USERNAME_ALREADY_EXISTS, "Username already exists");
         }
 
         User user = new User();
@@ -38,44 +48,71 @@ public class UserService {
         return savedUser;
     }
 
+    /**
+     * Turns the pending registration for this email into a verified user.
+     * Duplicates are caught by the unique constraints on users rather than
+     * by pre-checks, so this is a single INSERT ... SELECT.
+     */
     @Transactional
-    public User createUserWithHashedPassword(String username, String email, String hashedPassword, Role role) {
-        if (userRepository.existsByEmail(email)) {
-            throw new RuntimeException("Email already exists");
+    public void promotePendingRegistration(String email) {
+        String emailLookup = EmailLookup.of(email);
+        int inserted;
+        try {
+            inserted = userRepository.promotePendingRegistration(emailLookup);
+            if (inserted == 0 && emailLookupBackfill.legacyFallback()) {
+                inserted = userRepository.promoteLegacyPendingRegistration(email, emailLookup);
+            }
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateAccount(e);
         }
-        if (userRepository.existsByUsername(username)) {
-            throw new RuntimeException("Username already exists");
+        if (inserted == 0) {
+            throw new AuthException(ErrorCode.PENDING_REGISTRATION_NOT_FOUND, "Pending registration not found");
         }
+        log.info("Pending registration promoted to verified user: {}", email);
+    }
 
+    /**
+     * Inserts a verified user from a pending registration held outside the
+     * database; the unique constraints on users catch duplicates.
+     */
+    @Transactional
+    public void createVerifiedUser(String username, String email, String passwordHash, Role role) {
         User user = new User();
         user.setUsername(username);
         user.setEmail(email);
-        user.setPassword(hashedPassword); // Already hashed
+        user.setPassword(passwordHash);
         user.setRole(role != null ? role : Role.USER);
-        user.setIsVerified(true); // Verified since OTP was checked
+        user.setIsVerified(true);
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateAccount(e);
+        }
+        log.info("Verified user created: {}", email);
+    }
 
-        User savedUser = userRepository.save(user);
-        
-        // Verify the user was saved correctly
-        if (savedUser == null || savedUser.getId() == null) {
-            log.error("Failed to save user: {}", email);
-            throw new RuntimeException("Failed to create user");
+    private AuthException duplicateAccount(DataIntegrityViolationException e) {
+        // Constraint names from the schema scripts contain the column name
+        String detail = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase();
+        if (detail.contains("username")) {
+            return new AuthException(ErrorCode.USERNAME_ALREADY_EXISTS, "Username already exists");
         }
-        
-        // Double-check isVerified is set
-        if (!savedUser.getIsVerified()) {
-            log.warn("User created but isVerified is false, setting to true: {}", email);
-            savedUser.setIsVerified(true);
-            savedUser = userRepository.save(savedUser);
+        if (detail.contains("email")) {
+            return new AuthException(ErrorCode.EMAIL_ALREADY_EXISTS, "Email already exists");
         }
-        
-        log.info("User created with hashed password: {} (id: {}, verified: {})", 
-                savedUser.getEmail(), savedUser.getId(), savedUser.getIsVerified());
-        return savedUser;
+        return new AuthException(ErrorCode.ACCOUNT_ALREADY_EXISTS, "Email or username already exists");
     }
 
+    /**
+     * Whether an account exists for any spelling of {@code email}, such as
+     * a different case.
+     */
     public boolean existsByEmail(String email) {
-        return userRepository.existsByEmail(email);
+        return userRepository.existsByAnySpelling(email, emailLookupBackfill.legacyFallback());
+    }
+
+    public long countUsers() {
+        return userRepository.count();
     }
 
     public boolean existsByUsername(String username) {
@@ -84,30 +121,97 @@ public class UserService {
 
     @Transactional
     public User saveUser(User user) {
+        bumpProfileVersion(user);
         return userRepository.save(user);
     }
 
     public User findByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        try (var shard = shardRouter.bindEmail(email)) {
+            return userRepository.findByAnySpelling(email, emailLookupBackfill.legacyFallback())
+                    .orElseThrow(() -> new AuthException(ErrorCode.USER_NOT_FOUND, "User not found"));
+        }
     }
 
     @Transactional
     public void verifyUser(String email) {
         User user = findByEmail(email);
         user.setIsVerified(true);
+        bumpProfileVersion(user);
         userRepository.save(user);
         log.info("User verified: {}", email);
     }
 
+    /**
+     * Takes an already encoded password; callers hash before opening the
+     * transaction so BCrypt doesn't run on a borrowed connection.
+     */
     @Transactional
-    public void updatePassword(String email, String newPassword) {
+    public void updatePasswordHash(String email, String passwordHash) {
         User user = findByEmail(email);
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHash);
+        bumpProfileVersion(user);
         userRepository.save(user);
         log.info("Password updated for user: {}", email);
     }
 
+    /**
+     * Records {@code step} as the user's last accepted authenticator step.
+     *
+     * @return false if that step or a later one was already accepted, by any
+     * instance, or if the user is locked out
+     */
+    @Transactional
+    public boolean acceptTotpStep(User user, long step) {
+        try (var shard = shardRouter.bindEmail(user.getEmail())) {
+            return userRepository.acceptTotpStep(user.getId(), step, LocalDateTime.now()) == 1;
+        }
+    }
+
+    /**
+     * Counts a wrong authenticator code and locks the user out until
+     * {@code lockedUntil} once {@code maxAttempts} are reached.
+     *
+     * @return true if this failure started a lockout
+     */
+    @Transactional
+    public boolean recordTotpFailure(User user, int maxAttempts, LocalDateTime lockedUntil) {
+        try (var shard = shardRouter.bindEmail(user.getEmail())) {
+            userRepository.countTotpFailure(user.getId());
+            return userRepository.lockTotpIfExhausted(user.getId(), maxAttempts, lockedUntil) == 1;
+        }
+    }
+
+    /**
+     * The profile behind GET /api/users/me and its version. With
+     * {@code cached} set, a hit in the profile cache skips the users table.
+     */
+    public UserProfileCache.VersionedProfile findProfile(String email, boolean cached) {
+        if (cached) {
+            UserProfileCache.VersionedProfile hit = profileCache.get(email);
+            if (hit != null) {
+                return hit;
+            }
+        }
+        User user = findByEmail(email);
+        var profile = new UserProfileCache.VersionedProfile(toUserResponse(user), user.getProfileVersion());
+        if (cached) {
+            profileCache.put(email, profile);
+        }
+        return profile;
+    }
+
+    /**
+     * Every write to a user goes through here so that ETags change and
+     * cached profiles are dropped. The cache is invalidated before commit:
+     * a concurrent load then either sees the old version, which the cache
+     * refuses, or the committed new one.
+     */
+    private void bumpProfileVersion(User user) {
+        long version = user.getProfileVersion() + 1;
+        user.setProfileVersion(version);
+        profileCache.invalidate(user.getEmail(), version);
+    }
+
     public UserResponse toUserResponse(User user) {
         return new UserResponse(
                 user.getId(),
@@ -115,7 +219,8 @@ public class UserService {
                 user.getEmail(),
                 user.getRole(),
                 user.getIsVerified(),
-                user.getCreatedAt()
+                user.getCreatedAt(),
+                Boolean.TRUE.equals(user.getTotpEnabled())
         );
     }
 }
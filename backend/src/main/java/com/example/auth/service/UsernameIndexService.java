@@ -0,0 +1,81 @@
+package com.example.auth.service;
+
+import com.example.auth.entity.UsernameIndex;
+import com.example.auth.exception.AuthException;
+import com.example.auth.exception.ErrorCode;
+import com.example.auth.repository.UsernameIndexRepository;
+import com.example.auth.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Global username uniqueness for sharded deployments. Each call runs in its
+ * own transaction on the global shard, independent of the caller's shard.
+ * Without sharding the unique constraint on users.username is sufficient and
+ * every method is a no-op.
+ */
+@Service
+@Slf4j
+public class UsernameIndexService {
+    private final UsernameIndexRepository usernameIndexRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate requiresNew;
+
+    public UsernameIndexService(UsernameIndexRepository usernameIndexRepository,
+                                ShardRouter shardRouter,
+                                PlatformTransactionManager transactionManager) {
+        this.usernameIndexRepository = usernameIndexRepository;
+        this.shardRouter = shardRouter;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean isTaken(String username) {
+        if (!shardRouter.isEnabled()) {
+            return false;
+        }
+        return Boolean.TRUE.equals(requiresNew.execute(status -> {
+            try (var scope = shardRouter.bindGlobal()) {
+                return usernameIndexRepository.existsById(username);
+            }
+        }));
+    }
+
+    public void reserve(String username, String email) {
+        if (!shardRouter.isEnabled()) {
+            return;
+        }
+        try {
+            requiresNew.executeWithoutResult(status -> reserveOnGlobalShard(username, email));
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent registration of the same username
+            throw new AuthException(ErrorCode.USERNAME_ALREADY_EXISTS, "Username already exists");
+        }
+        log.debug("Username reserved in global index: {}", username);
+    }
+
+    private void reserveOnGlobalShard(String username, String email) {
+        try (var scope = shardRouter.bindGlobal()) {
+            var existing = usernameIndexRepository.findById(username).orElse(null);
+            if (existing != null && !existing.getEmail().equalsIgnoreCase(email)) {
+                throw new AuthException(ErrorCode.USERNAME_ALREADY_EXISTS, "Username already exists");
+            }
+            usernameIndexRepository.saveAndFlush(new UsernameIndex(username, email));
+        }
+    }
+
+    public void release(String username) {
+        if (!shardRouter.isEnabled()) {
+            return;
+        }
+        requiresNew.executeWithoutResult(status -> {
+            try (var scope = shardRouter.bindGlobal()) {
+                usernameIndexRepository.deleteById(username);
+            }
+        });
+    }
+}
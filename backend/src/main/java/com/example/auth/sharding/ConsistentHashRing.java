@@ -0,0 +1,67 @@
+package com.example.auth.sharding;
+
+import com.example.auth.entity.EmailLookup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable consistent-hash ring mapping an email to a shard name.
+ * Each shard is placed on the ring several times (virtual nodes) so that
+ * adding or removing a shard only moves roughly 1/N of the keys. Emails
+ * are hashed in their {@link EmailLookup} form, so every spelling that
+ * finds an account is routed to the shard holding it.
+ */
+public final class ConsistentHashRing {
+    private final NavigableMap<Long, String> ring;
+    private final List<String> shards;
+
+    public ConsistentHashRing(List<String> shards, int virtualNodes) {
+        if (shards == null || shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        TreeMap<Long, String> nodes = new TreeMap<>();
+        for (String shard : shards) {
+            for (int i = 0; i < virtualNodes; i++) {
+                nodes.put(hash(shard + "#" + i), shard);
+            }
+        }
+        this.ring = Collections.unmodifiableNavigableMap(nodes);
+        this.shards = List.copyOf(shards);
+    }
+
+    public String shardFor(String email) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(routingKey(email)));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public List<String> getShards() {
+        return shards;
+    }
+
+    static String routingKey(String email) {
+        return email == null ? "" : EmailLookup.of(email);
+    }
+
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long h = 0;
+            for (int i = 0; i < 8; i++) {
+                h = (h << 8) | (digest[i] & 0xFF);
+            }
+            return h;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+}
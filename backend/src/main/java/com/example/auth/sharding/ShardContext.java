@@ -0,0 +1,39 @@
+package com.example.auth.sharding;
+
+/**
+ * Holds the shard the current thread is working against. The routing
+ * datasource reads it lazily when the first statement of a transaction runs,
+ * so it must be bound before any repository call.
+ */
+public final class ShardContext {
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds the given shard until the returned scope is closed, restoring the
+     * previously bound shard afterwards so scopes can be nested.
+     */
+    public static Scope bind(String shard) {
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
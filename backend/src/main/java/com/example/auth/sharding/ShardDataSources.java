@@ -0,0 +1,19 @@
+package com.example.auth.sharding;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * The physical per-shard datasources, keyed by shard name. Kept in a holder
+ * rather than a {@code Map} bean so it is never mistaken for a collection of
+ * {@link DataSource} beans during autowiring.
+ */
+public record ShardDataSources(Map<String, DataSource> byName) {
+    public DataSource get(String shard) {
+        DataSource dataSource = byName.get(shard);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        return dataSource;
+    }
+}
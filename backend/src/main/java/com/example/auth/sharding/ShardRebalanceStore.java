@@ -0,0 +1,69 @@
+package com.example.auth.sharding;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rebalance progress on the global shard (shard_rebalance and
+ * shard_moved_emails), so that every instance, and this one after a
+ * restart, routes moved emails the same way.
+ */
+class ShardRebalanceStore {
+    private static final String MIGRATING = "MIGRATING";
+    private static final String COMPLETED = "COMPLETED";
+
+    private final JdbcTemplate jdbc;
+
+    ShardRebalanceStore(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * @param completed true once every email has moved: the target is then
+     *                  the layout in use
+     */
+    record State(List<String> targetShards, boolean completed) {
+    }
+
+    /**
+     * @return null when no rebalance was ever started
+     */
+    State load() {
+        List<State> states = jdbc.query("SELECT target_shards, status FROM shard_rebalance WHERE id = 1",
+                (rs, rowNum) -> new State(Arrays.asList(rs.getString(1).split(",")),
+                        COMPLETED.equals(rs.getString(2))));
+        return states.isEmpty() ? null : states.get(0);
+    }
+
+    /**
+     * Replaces a completed rebalance, and the emails it moved, with a new one.
+     */
+    void begin(List<String> targetShards) {
+        jdbc.update("DELETE FROM shard_moved_emails");
+        jdbc.update("DELETE FROM shard_rebalance");
+        jdbc.update("INSERT INTO shard_rebalance (id, target_shards, status) VALUES (1, ?, ?)",
+                String.join(",", targetShards), MIGRATING);
+    }
+
+    void markMoved(String routingKey) {
+        try {
+            jdbc.update("INSERT INTO shard_moved_emails (email) VALUES (?)", routingKey);
+        } catch (DuplicateKeyException e) {
+            // Moved again by the second pass or a resumed run
+        }
+    }
+
+    boolean isMoved(String routingKey) {
+        Integer found = jdbc.queryForObject("SELECT COUNT(*) FROM shard_moved_emails WHERE email = ?",
+                Integer.class, routingKey);
+        return found != null && found > 0;
+    }
+
+    void complete() {
+        jdbc.update("UPDATE shard_rebalance SET status = ?, completed_at = CURRENT_TIMESTAMP WHERE id = 1",
+                COMPLETED);
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.auth.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps emails to shards and binds the owning shard for the current thread.
+ * When sharding is disabled every method is a no-op so services can bind
+ * unconditionally.
+ *
+ * During a rebalance the router keeps the old ring as the owner of each email
+ * until the rebalancer reports it as moved, so reads and writes keep working
+ * while data is being migrated. The rebalance and the moved emails are kept
+ * on the global shard: every instance polls for a rebalance and, while one
+ * runs, asks the global shard whether an email has moved before routing it.
+ * A completed rebalance stays recorded, so its layout survives restarts even
+ * before sharding.active-shards is updated.
+ */
+@Component
+@Slf4j
+public class ShardRouter {
+    private static final ShardContext.Scope NO_OP = () -> { };
+
+    private final ShardingProperties properties;
+    private final ObjectProvider<ShardDataSources> shardDataSources;
+    private volatile ShardRebalanceStore store;
+    private volatile ConsistentHashRing ring;
+    private volatile ConsistentHashRing targetRing;
+    // Emails known to have moved; one never moves back during a rebalance, so only hits are kept
+    private final Set<String> movedEmails = ConcurrentHashMap.newKeySet();
+    private volatile boolean stateUnreadable;
+
+    public ShardRouter(ShardingProperties properties, ObjectProvider<ShardDataSources> shardDataSources) {
+        this.properties = properties;
+        this.shardDataSources = shardDataSources;
+        if (properties.isEnabled()) {
+            this.ring = newRing(properties.resolveActiveShards());
+            log.info("Sharding enabled with active shards: {}", ring.getShards());
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public String shardFor(String email) {
+        if (!isEnabled()) {
+            return null;
+        }
+        ConsistentHashRing target = targetRing;
+        if (target != null && isMoved(email)) {
+            return target.shardFor(email);
+        }
+        return ring.shardFor(email);
+    }
+
+    public ShardContext.Scope bindEmail(String email) {
+        return isEnabled() ? ShardContext.bind(shardFor(email)) : NO_OP;
+    }
+
+    public ShardContext.Scope bindGlobal() {
+        return isEnabled() ? ShardContext.bind(properties.resolveGlobalShard()) : NO_OP;
+    }
+
+    /**
+     * Runs the task once per configured shard, or once against the single
+     * datasource when sharding is disabled. Used by maintenance jobs.
+     */
+    public void forEachShard(Runnable task) {
+        if (!isEnabled()) {
+            task.run();
+            return;
+        }
+        for (String shard : properties.getShards().keySet()) {
+            try (var scope = ShardContext.bind(shard)) {
+                task.run();
+            }
+        }
+    }
+
+    public ConsistentHashRing currentRing() {
+        return ring;
+    }
+
+    /**
+     * Picks up a rebalance started or completed by another instance.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    @Scheduled(fixedDelayString = "${sharding.rebalance-state-poll-ms:1000}")
+    public void refresh() {
+        if (!isEnabled()) {
+            return;
+        }
+        ShardRebalanceStore.State state;
+        try {
+            state = store().load();
+        } catch (DataAccessException e) {
+            // Once, not every poll: embedded shards only get their tables after startup
+            if (!stateUnreadable) {
+                stateUnreadable = true;
+                log.warn("Cannot read the shard rebalance state: {}", e.getMessage());
+            }
+            return;
+        }
+        stateUnreadable = false;
+        apply(state);
+    }
+
+    /**
+     * Starts routing moved emails to the target layout, and returns once
+     * every instance has had a poll interval to notice. Calling it again with
+     * the same target resumes an interrupted rebalance instead of failing.
+     */
+    public synchronized ConsistentHashRing beginMigration(List<String> targetShards) {
+        ShardRebalanceStore.State state = store().load();
+        if (state != null && !state.completed()) {
+            if (!state.targetShards().equals(targetShards)) {
+                throw new IllegalStateException("A rebalance towards " + state.targetShards() + " is in progress");
+            }
+            log.info("Resuming rebalance towards: {}", targetShards);
+        } else {
+            store().begin(targetShards);
+            log.info("Rebalance started: {} -> {}", ring.getShards(), targetShards);
+        }
+        apply(store().load());
+        try {
+            Thread.sleep(2 * properties.getRebalanceStatePollMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while starting the rebalance", e);
+        }
+        return targetRing;
+    }
+
+    public boolean isMoved(String email) {
+        String key = ConsistentHashRing.routingKey(email);
+        if (movedEmails.contains(key)) {
+            return true;
+        }
+        if (store().isMoved(key)) {
+            movedEmails.add(key);
+            return true;
+        }
+        return false;
+    }
+
+    public void markMoved(String email) {
+        String key = ConsistentHashRing.routingKey(email);
+        store().markMoved(key);
+        movedEmails.add(key);
+    }
+
+    public synchronized void completeMigration() {
+        store().complete();
+        apply(store().load());
+    }
+
+    public boolean isMigrating() {
+        return targetRing != null;
+    }
+
+    private synchronized void apply(ShardRebalanceStore.State state) {
+        if (state == null) {
+            if (targetRing != null) {
+                log.warn("Shard rebalance state removed, routing by {} again", ring.getShards());
+                targetRing = null;
+                movedEmails.clear();
+            }
+            return;
+        }
+        if (state.completed()) {
+            if (!ring.getShards().equals(state.targetShards())) {
+                ring = newRing(state.targetShards());
+                log.info("Rebalance completed, active shards: {}", ring.getShards());
+                if (!properties.resolveActiveShards().equals(ring.getShards())) {
+                    log.warn("sharding.active-shards is {}, update it to {}",
+                            properties.resolveActiveShards(), ring.getShards());
+                }
+            }
+            targetRing = null;
+            movedEmails.clear();
+        } else if (targetRing == null || !targetRing.getShards().equals(state.targetShards())) {
+            targetRing = newRing(state.targetShards());
+            movedEmails.clear();
+            log.info("Rebalance in progress: {} -> {}", ring.getShards(), state.targetShards());
+        }
+    }
+
+    private ShardRebalanceStore store() {
+        ShardRebalanceStore current = store;
+        if (current == null) {
+            current = new ShardRebalanceStore(new JdbcTemplate(
+                    shardDataSources.getObject().get(properties.resolveGlobalShard())));
+            store = current;
+        }
+        return current;
+    }
+
+    private ConsistentHashRing newRing(List<String> shards) {
+        return new ConsistentHashRing(shards, properties.getVirtualNodes());
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.auth.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Routes each connection request to the shard bound in {@link ShardContext}.
+ * Unbound work (schema checks, global username index) goes to the default shard.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
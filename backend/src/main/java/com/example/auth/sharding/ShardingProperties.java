@@ -0,0 +1,60 @@
+package com.example.auth.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shard layout, bound from the {@code sharding.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "sharding")
+public class ShardingProperties {
+    private boolean enabled = false;
+
+    // Virtual nodes per shard on the consistent-hash ring
+    private int virtualNodes = 128;
+
+    // Shard holding the global username index and any unbound work
+    private String globalShard;
+
+    // Shards currently owning data; defaults to every configured shard
+    private List<String> activeShards = new ArrayList<>();
+
+    // Step between generated ids; must be >= the maximum number of shards ever used
+    private int idIncrement = 64;
+
+    // Rows moved per batch by the rebalancer
+    private int rebalanceBatchSize = 500;
+
+    // How often each instance checks the global shard for a rebalance started elsewhere
+    private long rebalanceStatePollMs = 1000;
+
+    // Optional script run against every shard at startup (e.g. local embedded shards)
+    private String schemaScript;
+
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+
+        // 1-based offset of this shard's generated ids, unique per shard
+        private int idOffset = 1;
+    }
+
+    public List<String> resolveActiveShards() {
+        return activeShards.isEmpty() ? new ArrayList<>(shards.keySet()) : activeShards;
+    }
+
+    public String resolveGlobalShard() {
+        return globalShard != null ? globalShard : shards.keySet().iterator().next();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.auth.sidecar;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Blocking client for the verification sidecar. Not thread-safe: use one
+ * per thread, or share one behind a lock and batch with {@link #verifyAll}.
+ */
+public class SidecarClient implements AutoCloseable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private int nextRequestId;
+
+    public SidecarClient(Path socketPath) throws IOException {
+        channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        channel.connect(UnixDomainSocketAddress.of(socketPath));
+        in.flip();
+    }
+
+    public Result verify(String token) throws IOException {
+        return verifyAll(List.of(token)).get(0);
+    }
+
+    /**
+     * Pipelines the tokens: requests are written back to back and the
+     * responses read afterwards, one round trip for the whole batch as long
+     * as it fits the socket buffers.
+     */
+    public List<Result> verifyAll(List<String> tokens) throws IOException {
+        for (String token : tokens) {
+            if (SidecarProtocol.LENGTH_BYTES + SidecarProtocol.REQUEST_HEADER_BYTES + token.length() > BUFFER_BYTES) {
+                throw new IllegalArgumentException("Token too long for the sidecar protocol");
+            }
+        }
+        List<Result> results = new ArrayList<>(tokens.size());
+        int firstId = nextRequestId;
+        int sent = 0;
+        while (results.size() < tokens.size()) {
+            while (sent < tokens.size()
+                    && out.remaining() >= SidecarProtocol.LENGTH_BYTES + SidecarProtocol.REQUEST_HEADER_BYTES
+                    + tokens.get(sent).length()) {
+                SidecarProtocol.writeRequest(out, nextRequestId++, tokens.get(sent++));
+            }
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            out.clear();
+            // Read back what was sent before writing more, so neither side's buffer fills up
+            while (results.size() < sent) {
+                results.add(readResponse(firstId + results.size()));
+            }
+        }
+        return results;
+    }
+
+    private Result readResponse(int expectedId) throws IOException {
+        fill(SidecarProtocol.LENGTH_BYTES);
+        int length = in.getInt();
+        fill(length);
+        int requestId = in.getInt();
+        if (requestId != expectedId) {
+            throw new IOException("Sidecar response " + requestId + " does not match request " + expectedId);
+        }
+        byte status = in.get();
+        if (status != SidecarProtocol.STATUS_ACTIVE) {
+            return new Result(false, null, null, 0);
+        }
+        long expiresAt = in.getLong();
+        String subject = readString();
+        String role = readString();
+        return new Result(true, subject, role.isEmpty() ? null : role, expiresAt);
+    }
+
+    private String readString() {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void fill(int bytes) throws IOException {
+        if (in.remaining() >= bytes) {
+            return;
+        }
+        in.compact();
+        while (in.position() < bytes) {
+            if (channel.read(in) < 0) {
+                throw new IOException("Sidecar closed the connection");
+            }
+        }
+        in.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Outcome for one token; {@code role} is null for refresh tokens and
+     * {@code expiresAt} is in epoch seconds.
+     */
+    public record Result(boolean active, String subject, String role, long expiresAt) {
+    }
+}
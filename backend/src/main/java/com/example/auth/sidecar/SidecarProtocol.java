@@ -0,0 +1,58 @@
+package com.example.auth.sidecar;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format of the verification sidecar. All integers are big-endian and
+ * every frame starts with the length of the rest of the frame.
+ *
+ * <pre>
+ * request:  u32 length | u32 requestId | token (ASCII, length - 4 bytes)
+ * response: u32 length | u32 requestId | u8 status
+ *           status ACTIVE only: i64 expiresAt (epoch seconds)
+ *                               u16 subjectLength | subject (UTF-8)
+ *                               u16 roleLength    | role (UTF-8, empty for refresh tokens)
+ * </pre>
+ *
+ * A connection may pipeline any number of requests; responses come back in
+ * request order, and the echoed request id lets clients check the pairing.
+ */
+public final class SidecarProtocol {
+    public static final byte STATUS_ACTIVE = 0;
+    public static final byte STATUS_INACTIVE = 1;
+    public static final byte STATUS_MALFORMED = 2;
+
+    static final int LENGTH_BYTES = 4;
+    static final int REQUEST_HEADER_BYTES = 4;
+    // Largest subject or role written; longer values are never issued by this service
+    static final int MAX_STRING_BYTES = 1024;
+    static final int MAX_RESPONSE_BYTES = LENGTH_BYTES + 4 + 1 + 8 + 2 + MAX_STRING_BYTES + 2 + MAX_STRING_BYTES;
+
+    private SidecarProtocol() {
+    }
+
+    static void writeRequest(ByteBuffer out, int requestId, String token) {
+        byte[] bytes = token.getBytes(StandardCharsets.US_ASCII);
+        out.putInt(REQUEST_HEADER_BYTES + bytes.length);
+        out.putInt(requestId);
+        out.put(bytes);
+    }
+
+    static void writeInactive(ByteBuffer out, int requestId, byte status) {
+        out.putInt(4 + 1);
+        out.putInt(requestId);
+        out.put(status);
+    }
+
+    static void writeActive(ByteBuffer out, int requestId, long expiresAt, byte[] subject, byte[] role) {
+        out.putInt(4 + 1 + 8 + 2 + subject.length + 2 + role.length);
+        out.putInt(requestId);
+        out.put(STATUS_ACTIVE);
+        out.putLong(expiresAt);
+        out.putShort((short) subject.length);
+        out.put(subject);
+        out.putShort((short) role.length);
+        out.put(role);
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.auth.sidecar;
+
+import com.example.auth.security.TokenClaims;
+import com.example.auth.service.JwtService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Iterator;
+
+/**
+ * Optional token verification listener for services on the same host,
+ * speaking {@link SidecarProtocol} over a Unix domain socket. A single
+ * selector thread serves every connection: verification takes microseconds,
+ * so handing frames to another thread would cost more than it saves.
+ * Access is controlled by the socket file's permissions (owner and group).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VerificationSidecar {
+    private final JwtService jwtService;
+
+    @Value("${sidecar.enabled:false}")
+    private boolean enabled;
+
+    @Value("${sidecar.socket-path:/tmp/auth-verify.sock}")
+    private String socketPath;
+
+    @Value("${sidecar.max-token-bytes:8192}")
+    private int maxTokenBytes;
+
+    private Selector selector;
+    private ServerSocketChannel server;
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path path = Path.of(socketPath);
+        // A socket file left by an unclean shutdown would make bind fail
+        Files.deleteIfExists(path);
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(path));
+        server.configureBlocking(false);
+        try {
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rw-rw----"));
+        } catch (UnsupportedOperationException e) {
+            log.warn("Cannot restrict permissions of {}", path);
+        }
+        selector = Selector.open();
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        selectorThread = new Thread(this::selectLoop, "auth-sidecar");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+        log.info("Verification sidecar listening on {}", path.toAbsolutePath());
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        selectorThread.join(2000);
+        server.close();
+        Files.deleteIfExists(Path.of(socketPath));
+    }
+
+    private void selectLoop() {
+        while (running) {
+            try {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+            } catch (IOException e) {
+                log.error("Sidecar selector failed", e);
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            closeQuietly(key);
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            log.debug("Closing sidecar selector failed", e);
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        try {
+            if (key.isAcceptable()) {
+                SocketChannel channel = server.accept();
+                if (channel != null) {
+                    channel.configureBlocking(false);
+                    channel.register(selector, SelectionKey.OP_READ, new Connection(channel, maxTokenBytes));
+                }
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            if (key.isWritable() && connection.flush()) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+            if (key.isReadable() && connection.channel.read(connection.in) < 0) {
+                closeQuietly(key);
+                return;
+            }
+            if (!process(connection)) {
+                closeQuietly(key);
+                return;
+            }
+            if (!connection.flush()) {
+                // Client is not draining responses; stop reading until it does
+                key.interestOps(SelectionKey.OP_WRITE);
+            }
+        } catch (IOException e) {
+            log.debug("Sidecar connection closed: {}", e.getMessage());
+            closeQuietly(key);
+        }
+    }
+
+    /**
+     * Answers every complete frame in the input buffer, leaving a trailing
+     * partial frame for the next read. Returns false on a protocol violation.
+     */
+    private boolean process(Connection connection) throws IOException {
+        ByteBuffer in = connection.in;
+        ByteBuffer out = connection.out;
+        in.flip();
+        try {
+            while (in.remaining() >= SidecarProtocol.LENGTH_BYTES) {
+                int length = in.getInt(in.position());
+                if (length < SidecarProtocol.REQUEST_HEADER_BYTES
+                        || length > SidecarProtocol.REQUEST_HEADER_BYTES + maxTokenBytes) {
+                    return false;
+                }
+                if (in.remaining() < SidecarProtocol.LENGTH_BYTES + length) {
+                    break;
+                }
+                if (out.remaining() < SidecarProtocol.MAX_RESPONSE_BYTES && !connection.flush()
+                        && out.remaining() < SidecarProtocol.MAX_RESPONSE_BYTES) {
+                    break;
+                }
+                in.getInt();
+                int requestId = in.getInt();
+                int tokenLength = length - SidecarProtocol.REQUEST_HEADER_BYTES;
+                in.get(connection.tokenBytes, 0, tokenLength);
+                respond(out, requestId, new String(connection.tokenBytes, 0, tokenLength, StandardCharsets.US_ASCII));
+            }
+            return true;
+        } finally {
+            in.compact();
+        }
+    }
+
+    private void respond(ByteBuffer out, int requestId, String token) {
+        if (token.isEmpty()) {
+            SidecarProtocol.writeInactive(out, requestId, SidecarProtocol.STATUS_MALFORMED);
+            return;
+        }
+        TokenClaims claims = jwtService.verify(token);
+        if (claims == null) {
+            SidecarProtocol.writeInactive(out, requestId, SidecarProtocol.STATUS_INACTIVE);
+            return;
+        }
+        byte[] subject = claims.subject().getBytes(StandardCharsets.UTF_8);
+        byte[] role = claims.role() != null ? claims.role().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (subject.length > SidecarProtocol.MAX_STRING_BYTES || role.length > SidecarProtocol.MAX_STRING_BYTES) {
+            SidecarProtocol.writeInactive(out, requestId, SidecarProtocol.STATUS_MALFORMED);
+            return;
+        }
+        SidecarProtocol.writeActive(out, requestId, claims.expiresAt(), subject, role);
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // already closed by the peer
+        }
+    }
+
+    private static final class Connection {
+        final SocketChannel channel;
+        final ByteBuffer in;
+        final ByteBuffer out = ByteBuffer.allocateDirect(64 * 1024);
+        final byte[] tokenBytes;
+
+        Connection(SocketChannel channel, int maxTokenBytes) {
+            this.channel = channel;
+            this.in = ByteBuffer.allocateDirect(
+                    SidecarProtocol.LENGTH_BYTES + SidecarProtocol.REQUEST_HEADER_BYTES + maxTokenBytes);
+            this.tokenBytes = new byte[maxTokenBytes];
+        }
+
+        /**
+         * Writes pending responses; returns true once nothing is left.
+         */
+        boolean flush() throws IOException {
+            out.flip();
+            try {
+                channel.write(out);
+                return !out.hasRemaining();
+            } finally {
+                out.compact();
+            }
+        }
+    }
+}
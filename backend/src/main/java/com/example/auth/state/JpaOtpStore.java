@@ -0,0 +1,114 @@
+package com.example.auth.state;
+
+import com.example.auth.entity.EmailLookup;
+import com.example.auth.entity.OtpCode;
+import com.example.auth.entity.OtpType;
+import com.example.auth.entity.User;
+import com.example.auth.repository.OtpCodeRepository;
+import com.example.auth.service.EmailLookupBackfill;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.OptionalLong;
+
+@Component
+@ConditionalOnProperty(name = "state.backend", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaOtpStore implements OtpStore {
+    private final OtpCodeRepository otpCodeRepository;
+    private final EmailLookupBackfill emailLookupBackfill;
+    private final DataSource dataSource;
+
+    @Override
+    @Transactional
+    public OtpCode issue(OtpCode otp, Duration rateLimitWindow) {
+        LocalDateTime rateLimitTime = LocalDateTime.now().minus(rateLimitWindow);
+        Long recentOtps = 0L;
+
+        if (otp.getUser() != null) {
+            recentOtps = otpCodeRepository.countValidOtpsByUserAndType(otp.getUser(), otp.getType(), rateLimitTime);
+        } else if (otp.getEmail() != null) {
+            recentOtps = otpCodeRepository.countValidOtpsByEmailLookupAndType(
+                    EmailLookup.of(otp.getEmail()), otp.getType(), rateLimitTime);
+            if (recentOtps == 0 && emailLookupBackfill.legacyFallback()) {
+                recentOtps = otpCodeRepository.countValidOtpsByEmailAndType(otp.getEmail(), otp.getType(), rateLimitTime);
+            }
+        }
+
+        if (recentOtps > 0) {
+            return null;
+        }
+
+        return otpCodeRepository.save(otp);
+    }
+
+    /**
+     * One JDBC batch: Hibernate cannot batch inserts into an IDENTITY table.
+     * The codes get no id back; {@link #discardAll} finds them by user and code.
+     */
+    @Override
+    @Transactional
+    public void issueAll(List<OtpCode> otps) {
+        new JdbcTemplate(dataSource).batchUpdate(
+                "INSERT INTO otp_codes (user_id, email, email_lookup, otp_code, expiry_time, type, used)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?)",
+                otps.stream().map(otp -> new Object[]{
+                        otp.getUser() != null ? otp.getUser().getId() : null,
+                        otp.getEmail(),
+                        EmailLookup.of(otp.getEmail()),
+                        otp.getOtpCode(),
+                        Timestamp.valueOf(otp.getExpiryTime()),
+                        otp.getType().name(),
+                        false}).toList());
+    }
+
+    @Override
+    @Transactional
+    public boolean consume(User user, String email, String code, OtpType type) {
+        LocalDateTime now = LocalDateTime.now();
+        if (user != null) {
+            return otpCodeRepository.consumeByUser(user, code, type, now) > 0;
+        }
+        if (otpCodeRepository.consumeByEmailLookup(EmailLookup.of(email), code, type, now) > 0) {
+            return true;
+        }
+        return emailLookupBackfill.legacyFallback() && otpCodeRepository.consumeByEmail(email, code, type, now) > 0;
+    }
+
+    @Override
+    @Transactional
+    public void discard(OtpCode otp) {
+        otpCodeRepository.deleteById(otp.getId());
+    }
+
+    @Override
+    @Transactional
+    public void discardAll(List<OtpCode> otps) {
+        new JdbcTemplate(dataSource).batchUpdate(
+                "DELETE FROM otp_codes WHERE user_id = ? AND otp_code = ? AND type = ? AND used = ?",
+                otps.stream().map(otp -> new Object[]{
+                        otp.getUser().getId(), otp.getOtpCode(), otp.getType().name(), false}).toList());
+    }
+
+    @Override
+    @Transactional
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int unused = otpCodeRepository.deleteExpiredUnusedOtps(now);
+        otpCodeRepository.deleteExpiredOtps(now);
+        return unused;
+    }
+
+    @Override
+    public OptionalLong countOutstanding() {
+        return OptionalLong.of(otpCodeRepository.countOutstanding(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.auth.state;
+
+import com.example.auth.entity.PendingRegistration;
+import com.example.auth.exception.AuthException;
+import com.example.auth.exception.ErrorCode;
+import com.example.auth.repository.PendingRegistrationRepository;
+import com.example.auth.service.EmailLookupBackfill;
+import com.example.auth.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+@Component
+@ConditionalOnProperty(name = "state.backend", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaPendingRegistrationStore implements PendingRegistrationStore {
+    private final PendingRegistrationRepository pendingRegistrationRepository;
+    private final UserService userService;
+    private final EmailLookupBackfill emailLookupBackfill;
+
+    @Override
+    @Transactional
+    public void create(PendingRegistration pending) {
+        if (pendingRegistrationRepository.existsByAnySpelling(pending.getEmail(), emailLookupBackfill.legacyFallback())) {
+            throw new AuthException(ErrorCode.EMAIL_ALREADY_EXISTS, "Email already registered. Please verify your email or use a different email.");
+        }
+        if (pendingRegistrationRepository.existsByUsername(pending.getUsername())) {
+            throw new AuthException(ErrorCode.USERNAME_ALREADY_EXISTS, "Username already exists");
+        }
+        pendingRegistrationRepository.save(pending);
+    }
+
+    @Override
+    public Optional<PendingRegistration> findByEmail(String email) {
+        return pendingRegistrationRepository.findByAnySpelling(email, emailLookupBackfill.legacyFallback());
+    }
+
+    /**
+     * INSERT ... SELECT into users followed by a bulk delete: two statements,
+     * the pending row is never loaded.
+     */
+    @Override
+    @Transactional
+    public void promote(String email) {
+        userService.promotePendingRegistration(email);
+        pendingRegistrationRepository.deleteByAnySpelling(email, emailLookupBackfill.legacyFallback());
+    }
+
+    @Override
+    @Transactional
+    public void deleteByEmail(String email) {
+        pendingRegistrationRepository.deleteByAnySpelling(email, emailLookupBackfill.legacyFallback());
+    }
+
+    @Override
+    @Transactional
+    public int deleteOlderThan(LocalDateTime cutoffTime) {
+        return pendingRegistrationRepository.deleteOldPendingRegistrations(cutoffTime);
+    }
+
+    @Override
+    public OptionalLong count() {
+        return OptionalLong.of(pendingRegistrationRepository.count());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.auth.state;
+
+import com.example.auth.entity.OtpCode;
+import com.example.auth.entity.OtpType;
+import com.example.auth.entity.User;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Where one-time codes and their resend rate limit live. The JPA store
+ * (default) keeps them in otp_codes; with {@code state.backend=redis} they
+ * are TTL keys shared by every auth node. {@code OtpService} owns the
+ * policy (code generation, expiry, audit) and calls this for storage.
+ */
+public interface OtpStore {
+    /**
+     * Stores the code unless one was already issued for the same user or
+     * email and type within {@code rateLimitWindow}.
+     *
+     * @return the stored code, or null when rate limited
+     */
+    OtpCode issue(OtpCode otp, Duration rateLimitWindow);
+
+    /**
+     * Stores codes issued in bulk to existing users, without the resend
+     * rate limit, in as few round trips as the backend allows.
+     */
+    void issueAll(List<OtpCode> otps);
+
+    /**
+     * Atomically marks a matching, unexpired code as used so it can only
+     * succeed once. Exactly one of {@code user} and {@code email} is set,
+     * as when the code was issued.
+     */
+    boolean consume(User user, String email, String code, OtpType type);
+
+    /**
+     * Removes a code that was never delivered, together with its rate-limit
+     * entry, so the user can ask again straight away.
+     */
+    void discard(OtpCode otp);
+
+    /**
+     * Removes undelivered codes stored by {@link #issueAll}.
+     */
+    void discardAll(List<OtpCode> otps);
+
+    /**
+     * Removes expired codes.
+     *
+     * @return how many of them were never used, or 0 when the backend
+     *         expires codes on its own and cannot tell
+     */
+    int purgeExpired();
+
+    /**
+     * Unused, unexpired codes, for reconciling the live statistics; empty
+     * when the backend cannot count them cheaply.
+     */
+    OptionalLong countOutstanding();
+}
@@ -0,0 +1,46 @@
+package com.example.auth.state;
+
+import com.example.auth.entity.PendingRegistration;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Where registrations wait for email verification. The JPA store (default)
+ * uses pending_registrations; with {@code state.backend=redis} they are
+ * hashes that expire on their own.
+ */
+public interface PendingRegistrationStore {
+    /**
+     * Stores a registration with an already encoded password.
+     *
+     * @throws com.example.auth.exception.AuthException if the email or
+     *         username is already pending
+     */
+    void create(PendingRegistration pending);
+
+    Optional<PendingRegistration> findByEmail(String email);
+
+    /**
+     * Turns the pending registration into a verified user and removes it.
+     *
+     * @throws com.example.auth.exception.AuthException if nothing is pending
+     *         for the email or the account already exists
+     */
+    void promote(String email);
+
+    void deleteByEmail(String email);
+
+    /**
+     * @return how many registrations were removed, or 0 when the backend
+     *         expires them on its own
+     */
+    int deleteOlderThan(LocalDateTime cutoffTime);
+
+    /**
+     * Registrations waiting for verification, for reconciling the live
+     * statistics; empty when the backend cannot count them cheaply.
+     */
+    OptionalLong count();
+}
@@ -0,0 +1,102 @@
+package com.example.auth.state;
+
+import com.example.auth.entity.EmailLookup;
+import com.example.auth.entity.OtpCode;
+import com.example.auth.entity.OtpType;
+import com.example.auth.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * OTPs as Redis keys that expire with the code. One live code per email and
+ * type; a resend replaces it. The rate limit is a counter that exists for
+ * the length of the window, so it needs no cleanup either.
+ */
+@Component
+@ConditionalOnProperty(name = "state.backend", havingValue = "redis")
+@RequiredArgsConstructor
+public class RedisOtpStore implements OtpStore {
+    // Delete only if the code matches, so a wrong guess doesn't burn the real code
+    private static final String CONSUME_SCRIPT =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0";
+
+    private final RespClient redis;
+
+    @Value("${state.redis.key-prefix:auth:}")
+    private String keyPrefix;
+
+    @Override
+    public OtpCode issue(OtpCode otp, Duration rateLimitWindow) {
+        String subject = subject(otp.getUser(), otp.getEmail());
+        String rateKey = rateKey(otp.getType(), subject);
+        // SET NX starts the window with its TTL; INCR then counts within it
+        List<Object> replies = redis.pipeline(List.of(
+                new String[]{"SET", rateKey, "0", "PX", Long.toString(rateLimitWindow.toMillis()), "NX"},
+                new String[]{"INCR", rateKey}));
+        if ((Long) replies.get(1) > 1) {
+            return null;
+        }
+        long ttlMillis = Math.max(1, Duration.between(LocalDateTime.now(), otp.getExpiryTime()).toMillis());
+        redis.execute("SET", codeKey(otp.getType(), subject), otp.getOtpCode(), "PX", Long.toString(ttlMillis));
+        return otp;
+    }
+
+    @Override
+    public void issueAll(List<OtpCode> otps) {
+        LocalDateTime now = LocalDateTime.now();
+        redis.pipeline(otps.stream().map(otp -> new String[]{
+                "SET", codeKey(otp.getType(), subject(otp.getUser(), otp.getEmail())), otp.getOtpCode(),
+                "PX", Long.toString(Math.max(1, Duration.between(now, otp.getExpiryTime()).toMillis()))}).toList());
+    }
+
+    @Override
+    public boolean consume(User user, String email, String code, OtpType type) {
+        Object deleted = redis.execute("EVAL", CONSUME_SCRIPT, "1", codeKey(type, subject(user, email)), code);
+        return Long.valueOf(1).equals(deleted);
+    }
+
+    @Override
+    public void discard(OtpCode otp) {
+        String subject = subject(otp.getUser(), otp.getEmail());
+        redis.execute("DEL", codeKey(otp.getType(), subject), rateKey(otp.getType(), subject));
+    }
+
+    @Override
+    public void discardAll(List<OtpCode> otps) {
+        // Only if still the code we stored, so a code the user asked for since survives
+        redis.pipeline(otps.stream().map(otp -> new String[]{
+                "EVAL", CONSUME_SCRIPT, "1", codeKey(otp.getType(), subject(otp.getUser(), otp.getEmail())),
+                otp.getOtpCode()}).toList());
+    }
+
+    @Override
+    public int purgeExpired() {
+        // Keys expire on their own
+        return 0;
+    }
+
+    @Override
+    public OptionalLong countOutstanding() {
+        // Codes are spread over the keyspace; counting them would take a SCAN
+        return OptionalLong.empty();
+    }
+
+    private static String subject(User user, String email) {
+        return EmailLookup.of(user != null ? user.getEmail() : email);
+    }
+
+    private String codeKey(OtpType type, String subject) {
+        return keyPrefix + "otp:" + type + ":" + subject;
+    }
+
+    private String rateKey(OtpType type, String subject) {
+        return keyPrefix + "otp-rate:" + type + ":" + subject;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.auth.state;
+
+import com.example.auth.entity.EmailLookup;
+import com.example.auth.entity.PendingRegistration;
+import com.example.auth.entity.Role;
+import com.example.auth.exception.AuthException;
+import com.example.auth.exception.ErrorCode;
+import com.example.auth.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Pending registrations as Redis hashes with a TTL, so abandoned sign-ups
+ * disappear without the cleanup job. A second key per username keeps
+ * usernames unique among pending registrations.
+ */
+@Component
+@ConditionalOnProperty(name = "state.backend", havingValue = "redis")
+@RequiredArgsConstructor
+public class RedisPendingRegistrationStore implements PendingRegistrationStore {
+    // 1 = email pending, 2 = username pending, 0 = created; all or nothing
+    private static final String CREATE_SCRIPT = """
+            if redis.call('EXISTS', KEYS[1]) == 1 then return 1 end
+            if not redis.call('SET', KEYS[2], ARGV[1], 'NX', 'PX', ARGV[2]) then return 2 end
+            redis.call('HSET', KEYS[1], 'username', ARGV[3], 'password', ARGV[4], 'role', ARGV[5], 'createdAt', ARGV[6])
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            return 0
+            """;
+
+    private final RespClient redis;
+    private final UserService userService;
+
+    @Value("${state.redis.key-prefix:auth:}")
+    private String keyPrefix;
+
+    @Value("${state.redis.pending-ttl-hours:24}")
+    private long pendingTtlHours;
+
+    @Override
+    public void create(PendingRegistration pending) {
+        String ttlMillis = Long.toString(pendingTtlHours * 3_600_000);
+        Object result = redis.execute("EVAL", CREATE_SCRIPT, "2",
+                pendingKey(pending.getEmail()), usernameKey(pending.getUsername()),
+                pending.getEmail(), ttlMillis, pending.getUsername(), pending.getPassword(),
+                pending.getRole().name(), LocalDateTime.now().toString());
+        if (Long.valueOf(1).equals(result)) {
+            throw new AuthException(ErrorCode.EMAIL_ALREADY_EXISTS, "Email already registered. Please verify your email or use a different email.");
+        }
+        if (Long.valueOf(2).equals(result)) {
+            throw new AuthException(ErrorCode.USERNAME_ALREADY_EXISTS, "Username already exists");
+        }
+    }
+
+    @Override
+    public Optional<PendingRegistration> findByEmail(String email) {
+        List<?> fields = (List<?>) redis.execute("HMGET", pendingKey(email), "username", "password", "role", "createdAt");
+        if (fields.get(0) == null) {
+            return Optional.empty();
+        }
+        PendingRegistration pending = new PendingRegistration();
+        pending.setEmail(email);
+        pending.setUsername((String) fields.get(0));
+        pending.setPassword((String) fields.get(1));
+        pending.setRole(Role.valueOf((String) fields.get(2)));
+        pending.setCreatedAt(LocalDateTime.parse((String) fields.get(3)));
+        return Optional.of(pending);
+    }
+
+    /**
+     * Not atomic with the user insert: if deleting the keys fails after the
+     * insert, they expire on their own and the email is already taken.
+     */
+    @Override
+    public void promote(String email) {
+        PendingRegistration pending = findByEmail(email)
+                .orElseThrow(() -> new AuthException(ErrorCode.PENDING_REGISTRATION_NOT_FOUND, "Pending registration not found"));
+        userService.createVerifiedUser(pending.getUsername(), email, pending.getPassword(), pending.getRole());
+        redis.execute("DEL", pendingKey(email), usernameKey(pending.getUsername()));
+    }
+
+    @Override
+    public void deleteByEmail(String email) {
+        Object username = redis.execute("HGET", pendingKey(email), "username");
+        if (username != null) {
+            redis.execute("DEL", pendingKey(email), usernameKey((String) username));
+        }
+    }
+
+    @Override
+    public int deleteOlderThan(LocalDateTime cutoffTime) {
+        // Hashes expire after state.redis.pending-ttl-hours
+        return 0;
+    }
+
+    @Override
+    public OptionalLong count() {
+        // Hashes are spread over the keyspace; counting them would take a SCAN
+        return OptionalLong.empty();
+    }
+
+    private String pendingKey(String email) {
+        return keyPrefix + "pending:" + EmailLookup.of(email);
+    }
+
+    private String usernameKey(String username) {
+        return keyPrefix + "pending-username:" + username.toLowerCase();
+    }
+}
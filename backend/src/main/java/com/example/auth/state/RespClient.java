@@ -0,0 +1,239 @@
+package com.example.auth.state;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Minimal blocking client for the Redis serialization protocol (RESP2),
+ * covering what the state stores need: plain commands, pipelines and
+ * scripts. Works against Redis and compatible servers (Valkey, KeyDB,
+ * Dragonfly). Connections are pooled and opened on demand.
+ *
+ * <p>Replies map to Java as: simple string and bulk string to {@link String}
+ * (null bulk to null), integer to {@link Long}, array to {@link List}, and
+ * error to a {@link RespException}.
+ */
+@Slf4j
+public class RespClient implements AutoCloseable {
+    private final String host;
+    private final int port;
+    private final String password;
+    private final int database;
+    private final int timeoutMillis;
+    private final BlockingQueue<Connection> idle;
+
+    public RespClient(String host, int port, String password, int database, int poolSize, int timeoutMillis) {
+        this.host = host;
+        this.port = port;
+        this.password = password;
+        this.database = database;
+        this.timeoutMillis = timeoutMillis;
+        this.idle = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    public Object execute(String... command) {
+        return pipeline(List.<String[]>of(command)).get(0);
+    }
+
+    /**
+     * Sends all commands in one write and reads the replies in order: one
+     * network round trip however many commands there are. An error reply
+     * is thrown only after every reply has been read, so the connection
+     * stays usable.
+     */
+    public List<Object> pipeline(List<String[]> commands) {
+        Connection connection = borrow();
+        boolean healthy = false;
+        try {
+            for (String[] command : commands) {
+                connection.write(command);
+            }
+            connection.out.flush();
+            List<Object> replies = new ArrayList<>(commands.size());
+            RespException error = null;
+            for (int i = 0; i < commands.size(); i++) {
+                Object reply = connection.read();
+                if (reply instanceof RespException e && error == null) {
+                    error = e;
+                }
+                replies.add(reply);
+            }
+            healthy = true;
+            if (error != null) {
+                throw error;
+            }
+            return replies;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Redis command failed on " + host + ":" + port, e);
+        } finally {
+            release(connection, healthy);
+        }
+    }
+
+    private Connection borrow() {
+        Connection connection = idle.poll();
+        if (connection != null) {
+            return connection;
+        }
+        try {
+            return open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot connect to Redis at " + host + ":" + port, e);
+        }
+    }
+
+    private void release(Connection connection, boolean healthy) {
+        // A connection that failed mid-reply may still have bytes in flight; drop it
+        if (!healthy || !idle.offer(connection)) {
+            connection.close();
+        }
+    }
+
+    private Connection open() throws IOException {
+        Socket socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(timeoutMillis);
+        socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+        Connection connection = new Connection(socket);
+        List<String[]> handshake = new ArrayList<>();
+        if (password != null && !password.isEmpty()) {
+            handshake.add(new String[]{"AUTH", password});
+        }
+        if (database != 0) {
+            handshake.add(new String[]{"SELECT", Integer.toString(database)});
+        }
+        for (String[] command : handshake) {
+            connection.write(command);
+        }
+        connection.out.flush();
+        for (int i = 0; i < handshake.size(); i++) {
+            if (connection.read() instanceof RespException e) {
+                connection.close();
+                throw e;
+            }
+        }
+        log.debug("Opened Redis connection to {}:{}", host, port);
+        return connection;
+    }
+
+    @Override
+    public void close() {
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    private static final class Connection {
+        private static final byte[] CRLF = {'\r', '\n'};
+
+        final Socket socket;
+        final OutputStream out;
+        final InputStream in;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new BufferedOutputStream(socket.getOutputStream(), 8192);
+            this.in = new BufferedInputStream(socket.getInputStream(), 8192);
+        }
+
+        void write(String[] command) throws IOException {
+            writeHeader('*', command.length);
+            for (String argument : command) {
+                byte[] bytes = argument.getBytes(StandardCharsets.UTF_8);
+                writeHeader('$', bytes.length);
+                out.write(bytes);
+                out.write(CRLF);
+            }
+        }
+
+        private void writeHeader(char type, int value) throws IOException {
+            out.write(type);
+            out.write(Integer.toString(value).getBytes(StandardCharsets.US_ASCII));
+            out.write(CRLF);
+        }
+
+        Object read() throws IOException {
+            int type = in.read();
+            String line = readLine();
+            switch (type) {
+                case '+':
+                    return line;
+                case '-':
+                    return new RespException(line);
+                case ':':
+                    return Long.parseLong(line);
+                case '$': {
+                    int length = Integer.parseInt(line);
+                    if (length < 0) {
+                        return null;
+                    }
+                    byte[] bytes = in.readNBytes(length + 2);
+                    if (bytes.length < length + 2) {
+                        throw new EOFException("Truncated Redis reply");
+                    }
+                    return new String(bytes, 0, length, StandardCharsets.UTF_8);
+                }
+                case '*': {
+                    int count = Integer.parseInt(line);
+                    if (count < 0) {
+                        return null;
+                    }
+                    List<Object> items = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        items.add(read());
+                    }
+                    return items;
+                }
+                case -1:
+                    throw new EOFException("Redis closed the connection");
+                default:
+                    throw new IOException("Unexpected Redis reply type: " + (char) type);
+            }
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int b;
+            while ((b = in.read()) != '\r') {
+                if (b < 0) {
+                    throw new EOFException("Redis closed the connection");
+                }
+                line.append((char) b);
+            }
+            in.read();
+            return line.toString();
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // nothing left to release
+            }
+        }
+    }
+
+    /**
+     * Error reply from the server, such as a wrong type or a failed script.
+     */
+    public static class RespException extends RuntimeException {
+        public RespException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.auth.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends spans as JSON lines, one span per line. When the file passes its
+ * size limit it is renamed to {@code <name>.1}, replacing the previous one,
+ * so at most twice the limit is kept on disk.
+ */
+@Slf4j
+public class FileSpanExporter implements SpanExporter {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path path;
+    private final long maxBytes;
+    private BufferedWriter writer;
+    private long written;
+
+    public FileSpanExporter(Path path, long maxBytes) {
+        this.path = path;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void export(List<SpanData> trace) {
+        try {
+            if (writer == null) {
+                open();
+            }
+            for (SpanData span : trace) {
+                String line = objectMapper.writeValueAsString(span);
+                writer.write(line);
+                writer.newLine();
+                written += line.length() + 1;
+            }
+            writer.flush();
+            if (written >= maxBytes) {
+                rotate();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write spans to " + path, e);
+        }
+    }
+
+    private void open() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        written = Files.size(path);
+    }
+
+    private void rotate() throws IOException {
+        writer.close();
+        writer = null;
+        Files.move(path, path.resolveSibling(path.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        log.debug("Rotated span file {}", path);
+    }
+
+    public void close() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("Cannot close span file {}: {}", path, e.getMessage());
+            }
+            writer = null;
+        }
+    }
+}
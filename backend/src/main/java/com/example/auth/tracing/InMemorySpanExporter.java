@@ -0,0 +1,59 @@
+package com.example.auth.tracing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the most recent traces in memory for /api/admin/traces. Meant for
+ * air-gapped installs and for poking at a running instance; nothing
+ * survives a restart.
+ */
+public class InMemorySpanExporter implements SpanExporter {
+    private final int maxTraces;
+    private final Deque<List<SpanData>> traces = new ArrayDeque<>();
+
+    public InMemorySpanExporter(int maxTraces) {
+        this.maxTraces = maxTraces;
+    }
+
+    @Override
+    public synchronized void export(List<SpanData> trace) {
+        if (traces.size() >= maxTraces) {
+            traces.removeFirst();
+        }
+        traces.addLast(trace);
+    }
+
+    /**
+     * Newest first; the root is the last span of each trace.
+     */
+    public synchronized List<TraceSummary> recent() {
+        List<TraceSummary> result = new ArrayList<>(traces.size());
+        traces.descendingIterator().forEachRemaining(trace -> {
+            SpanData root = trace.get(trace.size() - 1);
+            boolean error = trace.stream().anyMatch(span -> span.error() != null);
+            result.add(new TraceSummary(root.traceId(), root.name(), root.startEpochMicros(),
+                    root.durationMicros(), trace.size(), error));
+        });
+        return result;
+    }
+
+    public synchronized List<SpanData> find(String traceId) {
+        for (List<SpanData> trace : traces) {
+            if (trace.get(0).traceId().equals(traceId)) {
+                return trace;
+            }
+        }
+        return null;
+    }
+
+    public synchronized void clear() {
+        traces.clear();
+    }
+
+    public record TraceSummary(String traceId, String rootName, long startEpochMicros, long durationMicros,
+                               int spanCount, boolean error) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.auth.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An open span. Started by {@link Tracer#startSpan}, it becomes the current
+ * span of its thread until {@link #end()} restores the parent, so spans
+ * must be ended on the thread that started them, in reverse order.
+ *
+ * <p>Spans of traces that are not being recorded are shared no-op
+ * instances, which is what keeps tracing cheap with sampling off.
+ */
+public class Span {
+    static final Span NOOP = new Span();
+
+    final Tracer.Trace trace;
+    final Span parent;
+    final String spanId;
+    private final String name;
+    private final long startEpochMicros;
+    private final long startNanos;
+    private Map<String, String> attributes;
+    private String error;
+
+    Span() {
+        this.trace = null;
+        this.parent = null;
+        this.spanId = null;
+        this.name = null;
+        this.startEpochMicros = 0;
+        this.startNanos = 0;
+    }
+
+    Span(Tracer.Trace trace, Span parent, String spanId, String name) {
+        this.trace = trace;
+        this.parent = parent;
+        this.spanId = spanId;
+        this.name = name;
+        this.startEpochMicros = System.currentTimeMillis() * 1000;
+        this.startNanos = System.nanoTime();
+    }
+
+    public boolean isRecording() {
+        return trace != null;
+    }
+
+    public Span setAttribute(String key, Object value) {
+        if (trace != null) {
+            if (attributes == null) {
+                attributes = new LinkedHashMap<>();
+            }
+            attributes.put(key, String.valueOf(value));
+        }
+        return this;
+    }
+
+    public void recordError(Throwable throwable) {
+        if (trace != null) {
+            error = throwable.getClass().getSimpleName()
+                    + (throwable.getMessage() != null ? ": " + throwable.getMessage() : "");
+            trace.hasError = true;
+        }
+    }
+
+    /**
+     * W3C {@code traceparent} value naming this span as the parent.
+     */
+    public String traceparent() {
+        return trace == null ? null
+                : "00-" + trace.traceId + "-" + spanId + (trace.sampled ? "-01" : "-00");
+    }
+
+    public void end() {
+        if (trace != null) {
+            long duration = (System.nanoTime() - startNanos) / 1000;
+            String parentId = parent != null ? parent.spanId : trace.remoteParentId;
+            trace.tracer.finish(this, new SpanData(trace.traceId, spanId, parentId, name,
+                    startEpochMicros, duration, attributes, error), duration);
+        }
+    }
+}
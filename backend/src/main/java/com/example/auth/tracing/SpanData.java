@@ -0,0 +1,15 @@
+package com.example.auth.tracing;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * A finished span as handed to a {@link SpanExporter}. IDs are lowercase
+ * hex as in W3C trace context; times are microseconds.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SpanData(String traceId, String spanId, String parentSpanId, String name,
+                       long startEpochMicros, long durationMicros,
+                       Map<String, String> attributes, String error) {
+}
@@ -0,0 +1,12 @@
+package com.example.auth.tracing;
+
+import java.util.List;
+
+/**
+ * Destination for finished traces. Called from the single exporter thread
+ * with all kept spans of one trace, root last, so implementations need no
+ * locking of their own for writes.
+ */
+public interface SpanExporter {
+    void export(List<SpanData> trace);
+}
@@ -0,0 +1,233 @@
+package com.example.auth.tracing;
+
+import com.example.auth.exception.RateLimitedLogger;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process tracer. The sampling decision is made once per trace, at the
+ * root span: an incoming W3C {@code traceparent} decides for itself,
+ * otherwise {@code tracing.sample-rate} does (head sampling). Unsampled
+ * traces are recorded anyway while tail sampling is on, and kept only if
+ * the root turned out slow or something failed. Everything else gets no-op
+ * spans and costs a thread-local read per instrumented call.
+ *
+ * <p>Kept traces are handed to the {@link SpanExporter} on a background
+ * thread through a bounded queue; when it is full the trace is dropped and
+ * counted rather than slowing the request down.
+ */
+@Slf4j
+public class Tracer implements AutoCloseable {
+    private static final HexFormat HEX = HexFormat.of();
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    // Root of a trace that is not recorded; its children are no-ops
+    private static final Span SUPPRESSED_ROOT = new Span() {
+        @Override
+        public void end() {
+            CURRENT.remove();
+        }
+    };
+
+    private final TracingProperties properties;
+    private final SpanExporter exporter;
+    private final BlockingQueue<List<SpanData>> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final RateLimitedLogger exportLog = new RateLimitedLogger(log, 1, 60_000);
+    private final boolean tailSampling;
+    private Thread exporterThread;
+    private volatile boolean running;
+
+    public Tracer(TracingProperties properties, SpanExporter exporter) {
+        this.properties = properties;
+        this.exporter = exporter;
+        this.queue = new ArrayBlockingQueue<>(properties.getExportQueueSize());
+        this.tailSampling = properties.getTailLatencyMs() > 0 || properties.isTailErrors();
+    }
+
+    public void start() {
+        if (!properties.isEnabled() || exporter == null) {
+            return;
+        }
+        running = true;
+        exporterThread = new Thread(this::exportLoop, "trace-exporter");
+        exporterThread.setDaemon(true);
+        exporterThread.start();
+        log.info("Tracing on: sample rate {}, tail latency {} ms, tail errors {}, exporter {}",
+                properties.getSampleRate(), properties.getTailLatencyMs(), properties.isTailErrors(),
+                exporter.getClass().getSimpleName());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Starts a child of the current span, or a new trace if there is none.
+     */
+    public Span startSpan(String name) {
+        if (!properties.isEnabled()) {
+            return Span.NOOP;
+        }
+        Span current = CURRENT.get();
+        if (current == null) {
+            return startRoot(name, null);
+        }
+        if (!current.isRecording()) {
+            return Span.NOOP;
+        }
+        Span span = new Span(current.trace, current, newSpanId(), name);
+        CURRENT.set(span);
+        return span;
+    }
+
+    /**
+     * Starts the root span of an incoming request, continuing the caller's
+     * trace when {@code traceparent} is a valid W3C header.
+     */
+    public Span startRootSpan(String name, String traceparent) {
+        if (!properties.isEnabled()) {
+            return Span.NOOP;
+        }
+        if (CURRENT.get() != null) {
+            return startSpan(name);
+        }
+        return startRoot(name, traceparent);
+    }
+
+    private Span startRoot(String name, String traceparent) {
+        String traceId = null;
+        String remoteParentId = null;
+        boolean sampled;
+        if (isValidTraceparent(traceparent)) {
+            traceId = traceparent.substring(3, 35);
+            remoteParentId = traceparent.substring(36, 52);
+            sampled = (HEX.fromHexDigits(traceparent, 53, 55) & 1) == 1;
+        } else {
+            sampled = ThreadLocalRandom.current().nextDouble() < properties.getSampleRate();
+        }
+        if (!sampled && !tailSampling) {
+            CURRENT.set(SUPPRESSED_ROOT);
+            return SUPPRESSED_ROOT;
+        }
+        Trace trace = new Trace(this, traceId != null ? traceId : newTraceId(), remoteParentId, sampled);
+        Span span = new Span(trace, null, newSpanId(), name);
+        CURRENT.set(span);
+        return span;
+    }
+
+    void finish(Span span, SpanData data, long durationMicros) {
+        Trace trace = span.trace;
+        if (span.parent != null) {
+            CURRENT.set(span.parent);
+            trace.add(data, false);
+            return;
+        }
+        CURRENT.remove();
+        trace.add(data, true);
+        boolean keep = trace.sampled
+                || (properties.getTailLatencyMs() > 0 && durationMicros >= properties.getTailLatencyMs() * 1000)
+                || (properties.isTailErrors() && trace.hasError);
+        if (keep && exporter != null && !queue.offer(trace.spans)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void exportLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                List<SpanData> trace = queue.poll(1, TimeUnit.SECONDS);
+                if (trace != null) {
+                    exporter.export(trace);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                exportLog.warn("trace-export", "trace_export_failed exporter={} error={}",
+                        exporter.getClass().getSimpleName(), e.toString());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        if (exporterThread != null) {
+            exporterThread.join(5000);
+        }
+    }
+
+    // 00-<32 hex trace id>-<16 hex parent id>-<2 hex flags>, ids not all zero
+    static boolean isValidTraceparent(String header) {
+        if (header == null || header.length() != 55 || !header.startsWith("00-")
+                || header.charAt(35) != '-' || header.charAt(52) != '-') {
+            return false;
+        }
+        boolean nonZeroTrace = false;
+        boolean nonZeroParent = false;
+        for (int i = 3; i < 55; i++) {
+            if (i == 35 || i == 52) {
+                continue;
+            }
+            char c = header.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+            if (c != '0' && i < 35) {
+                nonZeroTrace = true;
+            } else if (c != '0' && i < 52) {
+                nonZeroParent = true;
+            }
+        }
+        return nonZeroTrace && nonZeroParent;
+    }
+
+    private static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return HEX.toHexDigits(random.nextLong()) + HEX.toHexDigits(random.nextLong());
+    }
+
+    private static String newSpanId() {
+        return HEX.toHexDigits(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Spans collected for one recorded trace, exported together once the
+     * root ends.
+     */
+    static final class Trace {
+        final Tracer tracer;
+        final String traceId;
+        final String remoteParentId;
+        final boolean sampled;
+        final List<SpanData> spans = new ArrayList<>();
+        volatile boolean hasError;
+
+        Trace(Tracer tracer, String traceId, String remoteParentId, boolean sampled) {
+            this.tracer = tracer;
+            this.traceId = traceId;
+            this.remoteParentId = remoteParentId;
+            this.sampled = sampled;
+        }
+
+        synchronized void add(SpanData span, boolean root) {
+            // Leave room for the root, which ends last
+            if (root || spans.size() < tracer.properties.getMaxSpansPerTrace() - 1) {
+                spans.add(span);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.auth.tracing;
+
+import com.example.auth.metrics.EndpointContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Opens the root span of each request, continuing the caller's trace from
+ * its {@code traceparent} header, and returns the trace context of
+ * recorded requests in {@code traceresponse}. Sits outside the security
+ * chain so authentication is part of the trace. The start-up warm-up's
+ * requests are not traced.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@RequiredArgsConstructor
+public class TracingFilter extends OncePerRequestFilter {
+    private final Tracer tracer;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (!tracer.isEnabled() || EndpointContext.isWarmUp()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Span span = tracer.startRootSpan(EndpointContext.current(), request.getHeader("traceparent"));
+        if (span.isRecording()) {
+            response.setHeader("traceresponse", span.traceparent());
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            span.recordError(e);
+            throw e;
+        } finally {
+            span.setAttribute("http.status_code", response.getStatus());
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.auth.tracing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Wraps each call on one component in a span named "Component.method".
+ */
+public class TracingInterceptor implements MethodInterceptor {
+    private final Supplier<Tracer> tracer;
+    private final String component;
+    private final ConcurrentHashMap<Method, String> spanNames = new ConcurrentHashMap<>();
+
+    public TracingInterceptor(Supplier<Tracer> tracer, String component) {
+        this.tracer = tracer;
+        this.component = component;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (method.getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        Span span = tracer.get().startSpan(spanNames.computeIfAbsent(method, m -> component + "." + m.getName()));
+        try {
+            return invocation.proceed();
+        } catch (Throwable t) {
+            span.recordError(t);
+            throw t;
+        } finally {
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.auth.tracing;
+
+import com.example.auth.service.AuthService;
+import com.example.auth.service.EmailService;
+import com.example.auth.service.OtpCleanupService;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.Repository;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+
+/**
+ * Adds a {@link TracingInterceptor} to the components worth a span: the
+ * auth flow, repositories, password encoding, mail and the cleanup jobs.
+ * Beans that are already proxies (repositories, transactional services)
+ * get the interceptor first in their chain, so spans include transaction
+ * commit. Runs before the scheduling post-processor so that scheduled jobs
+ * are invoked through the proxy.
+ */
+public class TracingPostProcessor implements BeanPostProcessor, Ordered {
+    private static final List<Class<?>> TRACED_TYPES = List.of(
+            AuthService.class, EmailService.class, OtpCleanupService.class, PasswordEncoder.class);
+
+    private final ObjectProvider<Tracer> tracer;
+
+    public TracingPostProcessor(ObjectProvider<Tracer> tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        String component = componentName(bean);
+        if (component == null) {
+            return bean;
+        }
+        TracingInterceptor interceptor = new TracingInterceptor(tracer::getObject, component);
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        if (bean.getClass().getInterfaces().length == 0) {
+            proxyFactory.setProxyTargetClass(true);
+        }
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private static String componentName(Object bean) {
+        if (bean instanceof Repository<?, ?>) {
+            for (Class<?> type : bean.getClass().getInterfaces()) {
+                if (Repository.class.isAssignableFrom(type) && type.getName().startsWith("com.example.")) {
+                    return type.getSimpleName();
+                }
+            }
+            return null;
+        }
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        for (Class<?> type : TRACED_TYPES) {
+            if (type.isAssignableFrom(targetClass)) {
+                return type == PasswordEncoder.class ? "PasswordEncoder" : targetClass.getSimpleName();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+}
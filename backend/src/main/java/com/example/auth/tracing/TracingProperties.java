@@ -0,0 +1,46 @@
+package com.example.auth.tracing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tracing settings, bound from the {@code tracing.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "tracing")
+public class TracingProperties {
+    // Off: no proxies are installed and spans are no-ops
+    private boolean enabled = false;
+
+    // memory (kept for /api/admin/traces), file (JSON lines) or none
+    private String exporter = "memory";
+
+    // Head sampling: share of new traces recorded and always exported.
+    // Incoming traceparent headers decide for themselves.
+    private double sampleRate = 0.01;
+
+    // Tail sampling: record unsampled traces too and keep those whose root
+    // took at least this long (0 disables) or that recorded an error
+    private long tailLatencyMs = 0;
+    private boolean tailErrors = false;
+
+    // Spans kept per trace; deeper traces are truncated
+    private int maxSpansPerTrace = 256;
+
+    // Finished traces waiting for the exporter thread; more are dropped
+    private int exportQueueSize = 1024;
+
+    private Memory memory = new Memory();
+    private File file = new File();
+
+    @Data
+    public static class Memory {
+        private int maxTraces = 200;
+    }
+
+    @Data
+    public static class File {
+        private String path = "traces/spans.jsonl";
+        private int maxSizeMb = 100;
+    }
+}
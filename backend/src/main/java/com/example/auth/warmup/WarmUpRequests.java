@@ -0,0 +1,51 @@
+package com.example.auth.warmup;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Tells {@link WarmUpRunner}'s loopback requests apart from real traffic,
+ * so they warm up Tomcat and the filter chain without feeding the
+ * concurrency limits, pool metrics or traces. The runner sends a random
+ * per-process token in {@value #HEADER}; only a loopback request carrying
+ * that token counts, so clients cannot use the header to skip the limiter.
+ */
+@Component
+public class WarmUpRequests {
+    public static final String HEADER = "X-Warm-Up";
+
+    private final byte[] token;
+
+    public WarmUpRequests() {
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        token = Base64.getUrlEncoder().withoutPadding().encode(random);
+    }
+
+    String token() {
+        return new String(token, StandardCharsets.US_ASCII);
+    }
+
+    public boolean isWarmUp(HttpServletRequest request) {
+        String value = request.getHeader(HEADER);
+        return value != null
+                && MessageDigest.isEqual(token, value.getBytes(StandardCharsets.US_ASCII))
+                && isLoopback(request.getRemoteAddr());
+    }
+
+    private static boolean isLoopback(String address) {
+        try {
+            // A literal address, so no lookup happens
+            return address != null && InetAddress.getByName(address).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
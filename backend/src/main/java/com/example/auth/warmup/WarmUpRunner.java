@@ -0,0 +1,156 @@
+package com.example.auth.warmup;
+
+import com.example.auth.dto.AuthResponse;
+import com.example.auth.dto.LoginRequest;
+import com.example.auth.dto.UserResponse;
+import com.example.auth.entity.Role;
+import com.example.auth.metrics.EndpointContext;
+import com.example.auth.service.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Runs the token and login hot paths on synthetic input before the service
+ * reports ready, so the JIT has compiled them by the time real logins
+ * arrive. Spring Boot only moves readiness to ACCEPTING_TRAFFIC after all
+ * runners have finished, which makes GET /api/health/readiness answer 503
+ * until this is done.
+ *
+ * <p>Each phase runs for its iteration count or until the shared
+ * {@code warmup.max-duration-ms} budget is spent:
+ * <ul>
+ *   <li>password: {@code warmup.password-checks} logins through the
+ *       AuthenticationManager for an address that cannot exist (.invalid);
+ *       the lookup misses and the provider's timing-attack guard still
+ *       runs a BCrypt check. First, so the budget cannot starve it</li>
+ *   <li>token: sign and verify access and refresh tokens with the configured codec</li>
+ *   <li>json: serialize an {@link AuthResponse} and read a {@link LoginRequest}</li>
+ *   <li>http: requests over loopback through Tomcat and the security filter
+ *       chain, with a token whose signature fails, so no table is touched</li>
+ * </ul>
+ * Nothing is written. The run is bound to the "warm-up"
+ * {@link EndpointContext} and the loopback requests carry the
+ * {@link WarmUpRequests} token, so none of it reaches the concurrency
+ * limits, auth and pool stats or traces that real traffic feeds.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class WarmUpRunner implements ApplicationRunner {
+    private static final String SUBJECT = "warm-up@localhost.invalid";
+
+    private final JwtService jwtService;
+    private final AuthenticationManager authenticationManager;
+    private final ObjectMapper objectMapper;
+    private final ApplicationContext context;
+    private final WarmUpRequests warmUpRequests;
+
+    @Value("${warmup.iterations:5000}")
+    private int iterations;
+
+    @Value("${warmup.http-requests:1000}")
+    private int httpRequests;
+
+    @Value("${warmup.password-checks:10}")
+    private int passwordChecks;
+
+    @Value("${warmup.max-duration-ms:15000}")
+    private long maxDurationMs;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try (var endpoint = EndpointContext.bind(EndpointContext.WARM_UP)) {
+            warmUp();
+        }
+    }
+
+    private void warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + maxDurationMs * 1_000_000;
+        UserDetails user = User.withUsername(SUBJECT).password("").authorities("ROLE_USER").build();
+
+        int passwords = phase("password", passwordChecks, deadline, i -> {
+            try {
+                authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(SUBJECT, "warm-up-" + i));
+            } catch (AuthenticationException expected) {
+                // No such account; the provider still checks the password against its dummy hash
+            }
+        });
+        int tokens = phase("token", iterations, deadline, i -> {
+            jwtService.verify(jwtService.generateToken(user, "USER"));
+            jwtService.verify(jwtService.generateRefreshToken(user));
+        });
+        String token = jwtService.generateToken(user, "USER");
+        UserResponse profile = new UserResponse();
+        profile.setEmail(SUBJECT);
+        profile.setUsername("warm-up");
+        profile.setRole(Role.USER);
+        byte[] login = ("{\"email\":\"" + SUBJECT + "\",\"password\":\"warm-up\"}").getBytes(StandardCharsets.UTF_8);
+        int json = phase("json", iterations, deadline, i -> {
+            objectMapper.writeValueAsBytes(new AuthResponse(token, token, "Bearer", profile));
+            objectMapper.readValue(login, LoginRequest.class);
+        });
+        int http = httpPhase(token, deadline);
+
+        log.info("JIT warm-up finished in {} ms: {} password checks, {} token round trips, "
+                        + "{} json round trips, {} http requests",
+                (System.nanoTime() - start) / 1_000_000, passwords, tokens, json, http);
+    }
+
+    private int httpPhase(String token, long deadline) {
+        if (!(context instanceof WebServerApplicationContext web) || web.getWebServer().getPort() <= 0) {
+            return 0;
+        }
+        // Same shape as a real token, but the signature does not verify
+        String badToken = token.substring(0, token.length() - 4) + (token.endsWith("AAAA") ? "BBBB" : "AAAA");
+        byte[] request = ("GET /api/users/me HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n"
+                + WarmUpRequests.HEADER + ": " + warmUpRequests.token() + "\r\n"
+                + "Authorization: Bearer " + badToken + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        int port = web.getWebServer().getPort();
+        return phase("http", httpRequests, deadline, i -> {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                socket.setSoTimeout(5000);
+                socket.getOutputStream().write(request);
+                socket.getInputStream().readAllBytes();
+            }
+        });
+    }
+
+    private int phase(String name, int count, long deadline, Step step) {
+        long start = System.nanoTime();
+        int done = 0;
+        try {
+            while (done < count && System.nanoTime() < deadline) {
+                step.run(done);
+                done++;
+            }
+        } catch (Exception e) {
+            log.warn("JIT warm-up phase {} failed after {} iterations: {}", name, done, e.toString());
+        }
+        log.debug("JIT warm-up phase {}: {} iterations in {} ms", name, done, (System.nanoTime() - start) / 1_000_000);
+        return done;
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run(int iteration) throws Exception;
+    }
+}
@@ -0,0 +1,53 @@
+-- Baseline: the tables as the entities map them. Databases that already
+-- hold these tables (created by ddl-auto=update or the old database/*.sql
+-- scripts) are baselined at this version by spring.flyway.baseline-on-migrate
+-- and continue with V2.
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(20) NOT NULL DEFAULT 'USER',
+    is_verified BIT(1) NOT NULL DEFAULT 0,
+    totp_secret VARCHAR(255) NULL,
+    totp_enabled BIT(1) NULL DEFAULT 0,
+    profile_version BIGINT NOT NULL DEFAULT 0,
+    created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Registrations waiting for email verification; moved into users by verify-otp
+CREATE TABLE pending_registrations (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(20) NOT NULL DEFAULT 'USER',
+    created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_pending_registrations_username UNIQUE (username),
+    CONSTRAINT uk_pending_registrations_email UNIQUE (email)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Registration codes carry the email (no user yet), reset codes the user_id
+CREATE TABLE otp_codes (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NULL,
+    email VARCHAR(255) NULL,
+    otp_code VARCHAR(6) NOT NULL,
+    expiry_time DATETIME(6) NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    used BIT(1) NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_otp_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Global username -> email index; only read and written on the global shard
+CREATE TABLE username_index (
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    PRIMARY KEY (username)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,38 @@
+-- Brings databases baselined at V1 to the V1 shape. Those built from the
+-- old database/*.sql scripts relied on ddl-auto=update for later columns
+-- and tables, which only ever ran against the global shard; those built by
+-- ddl-auto=update have MySQL ENUM columns where the entities now map
+-- VARCHAR(20). Changes nothing on a schema created by V1.
+
+CREATE TABLE IF NOT EXISTS username_index (
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    PRIMARY KEY (username)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- MySQL has no ADD COLUMN IF NOT EXISTS
+DROP PROCEDURE IF EXISTS add_column_if_missing;
+
+DELIMITER //
+CREATE PROCEDURE add_column_if_missing(IN table_name_in VARCHAR(64), IN column_name_in VARCHAR(64),
+                                       IN definition_in VARCHAR(255))
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = DATABASE() AND table_name = table_name_in AND column_name = column_name_in) THEN
+        SET @ddl = CONCAT('ALTER TABLE `', table_name_in, '` ADD COLUMN `', column_name_in, '` ', definition_in);
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END //
+DELIMITER ;
+
+CALL add_column_if_missing('users', 'totp_secret', 'VARCHAR(255) NULL');
+CALL add_column_if_missing('users', 'totp_enabled', 'BIT(1) NULL DEFAULT 0');
+CALL add_column_if_missing('users', 'profile_version', 'BIGINT NOT NULL DEFAULT 0');
+
+DROP PROCEDURE add_column_if_missing;
+
+ALTER TABLE users MODIFY role VARCHAR(20) NOT NULL DEFAULT 'USER';
+ALTER TABLE pending_registrations MODIFY role VARCHAR(20) NOT NULL DEFAULT 'USER';
+ALTER TABLE otp_codes MODIFY type VARCHAR(20) NOT NULL;
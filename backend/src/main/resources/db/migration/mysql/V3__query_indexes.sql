@@ -0,0 +1,70 @@
+-- Secondary indexes shaped by the repository queries: equality columns
+-- first, the expiry range last. They replace the single-column indexes of
+-- the old database/*.sql scripts, which every insert and update had to
+-- maintain while few queries could use them (used, type, role, is_verified
+-- have two or three values; email and username duplicated the unique keys).
+
+-- Resend rate limit (countValidOtpsByEmailAndType) is answered from the
+-- index alone; consumeByEmail and findByEmailAndOtpCodeAndTypeAndUsedFalse
+-- use the same prefix
+CREATE INDEX idx_otp_codes_email_type_used_expiry ON otp_codes (email, type, used, expiry_time);
+
+-- The same for codes issued to an existing user (password reset); also
+-- serves the user_id foreign key
+CREATE INDEX idx_otp_codes_user_type_used_expiry ON otp_codes (user_id, type, used, expiry_time);
+
+-- Expired-code purge and the outstanding-code count: one range scan
+CREATE INDEX idx_otp_codes_expiry_used ON otp_codes (expiry_time, used);
+
+-- Cleanup of registrations never verified
+CREATE INDEX idx_pending_registrations_created_at ON pending_registrations (created_at);
+
+-- MySQL has no DROP INDEX IF EXISTS; the old scripts disagree on names
+DROP PROCEDURE IF EXISTS drop_index_if_exists;
+
+DELIMITER //
+CREATE PROCEDURE drop_index_if_exists(IN table_name_in VARCHAR(64), IN index_name_in VARCHAR(64))
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = table_name_in AND index_name = index_name_in) THEN
+        SET @ddl = CONCAT('DROP INDEX `', index_name_in, '` ON `', table_name_in, '`');
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END //
+DELIMITER ;
+
+CALL drop_index_if_exists('users', 'idx_users_email');
+CALL drop_index_if_exists('users', 'idx_users_username');
+CALL drop_index_if_exists('users', 'idx_users_role');
+CALL drop_index_if_exists('users', 'idx_users_is_verified');
+CALL drop_index_if_exists('users', 'idx_email');
+CALL drop_index_if_exists('users', 'idx_username');
+CALL drop_index_if_exists('users', 'idx_role');
+CALL drop_index_if_exists('users', 'idx_is_verified');
+
+CALL drop_index_if_exists('pending_registrations', 'idx_pending_registrations_email');
+CALL drop_index_if_exists('pending_registrations', 'idx_pending_registrations_username');
+CALL drop_index_if_exists('pending_registrations', 'idx_email');
+CALL drop_index_if_exists('pending_registrations', 'idx_username');
+
+CALL drop_index_if_exists('otp_codes', 'idx_otp_codes_user_id');
+CALL drop_index_if_exists('otp_codes', 'idx_otp_codes_email');
+CALL drop_index_if_exists('otp_codes', 'idx_otp_codes_otp_code');
+CALL drop_index_if_exists('otp_codes', 'idx_otp_codes_expiry_time');
+CALL drop_index_if_exists('otp_codes', 'idx_otp_codes_type');
+CALL drop_index_if_exists('otp_codes', 'idx_otp_codes_used');
+CALL drop_index_if_exists('otp_codes', 'idx_otp_codes_user_otp_type');
+CALL drop_index_if_exists('otp_codes', 'idx_otp_codes_email_otp_type');
+CALL drop_index_if_exists('otp_codes', 'idx_otp_codes_composite');
+CALL drop_index_if_exists('otp_codes', 'idx_user_id');
+CALL drop_index_if_exists('otp_codes', 'idx_email');
+CALL drop_index_if_exists('otp_codes', 'idx_otp_code');
+CALL drop_index_if_exists('otp_codes', 'idx_expiry_time');
+CALL drop_index_if_exists('otp_codes', 'idx_type');
+CALL drop_index_if_exists('otp_codes', 'idx_used');
+CALL drop_index_if_exists('otp_codes', 'idx_user_otp_type');
+CALL drop_index_if_exists('otp_codes', 'idx_email_otp_type');
+
+DROP PROCEDURE drop_index_if_exists;
@@ -0,0 +1,29 @@
+-- Canonical form of the email (EmailLookup: NFKC, trimmed, lower case),
+-- written by the application on every insert and update. Lookups go
+-- through this column instead of comparing the raw string, so spellings
+-- that differ in case or Unicode form find the same account, and no query
+-- needs LOWER(email), which no index could serve.
+--
+-- Binary collation: the canonical form is the only equality. The default
+-- utf8mb4 collations also ignore accents, which would merge different
+-- mailboxes.
+--
+-- The columns start out NULL; EmailLookupBackfill fills existing rows in
+-- batches while the service runs. Adding a nullable column and building a
+-- secondary index are online operations in InnoDB.
+
+ALTER TABLE users
+    ADD COLUMN email_lookup VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NULL;
+CREATE UNIQUE INDEX uk_users_email_lookup ON users (email_lookup) ALGORITHM = INPLACE LOCK = NONE;
+
+ALTER TABLE pending_registrations
+    ADD COLUMN email_lookup VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NULL;
+CREATE UNIQUE INDEX uk_pending_registrations_email_lookup ON pending_registrations (email_lookup)
+    ALGORITHM = INPLACE LOCK = NONE;
+
+ALTER TABLE otp_codes
+    ADD COLUMN email_lookup VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NULL;
+-- Same shape as idx_otp_codes_email_type_used_expiry, which only serves
+-- rows the backfill has not reached and can go in a later version
+CREATE INDEX idx_otp_codes_email_lookup_type_used_expiry ON otp_codes (email_lookup, type, used, expiry_time)
+    ALGORITHM = INPLACE LOCK = NONE;
@@ -0,0 +1,20 @@
+-- Shard rebalance progress (ShardRouter), shared by every instance. Only
+-- used on the global shard.
+
+-- At most one row: the layout being moved to, MIGRATING until every email
+-- has moved and COMPLETED afterwards, when it is the layout in use
+CREATE TABLE shard_rebalance (
+    id INT NOT NULL,
+    target_shards VARCHAR(1000) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    started_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    completed_at DATETIME(6) NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Routing keys of the emails already owned by the target layout
+CREATE TABLE shard_moved_emails (
+    email VARCHAR(255) NOT NULL,
+    moved_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (email)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_bin;
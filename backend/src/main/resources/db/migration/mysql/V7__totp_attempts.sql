@@ -0,0 +1,8 @@
+-- Authenticator-app state shared by every instance (TotpService):
+-- totp_last_step is the last accepted time step, so a code is accepted once;
+-- totp_failed_attempts counts wrong codes until totp_locked_until is set.
+-- Only written by the conditional UPDATEs in UserRepository.
+ALTER TABLE users
+    ADD COLUMN totp_last_step BIGINT NULL,
+    ADD COLUMN totp_failed_attempts INT NOT NULL DEFAULT 0,
+    ADD COLUMN totp_locked_until DATETIME(6) NULL;
@@ -0,0 +1,49 @@
+-- Baseline: the tables as the entities map them. Databases that already
+-- hold these tables (created by ddl-auto=update or the old database/*.sql
+-- scripts) are baselined at this version by spring.flyway.baseline-on-migrate
+-- and continue with V2.
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(20) NOT NULL DEFAULT 'USER',
+    is_verified BOOLEAN NOT NULL DEFAULT FALSE,
+    totp_secret VARCHAR(255) NULL,
+    totp_enabled BOOLEAN NULL DEFAULT FALSE,
+    profile_version BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+-- Registrations waiting for email verification; moved into users by verify-otp
+CREATE TABLE pending_registrations (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(20) NOT NULL DEFAULT 'USER',
+    created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_pending_registrations_username UNIQUE (username),
+    CONSTRAINT uk_pending_registrations_email UNIQUE (email)
+);
+
+-- Registration codes carry the email (no user yet), reset codes the user_id
+CREATE TABLE otp_codes (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NULL,
+    email VARCHAR(255) NULL,
+    otp_code VARCHAR(6) NOT NULL,
+    expiry_time TIMESTAMP(6) NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    used BOOLEAN NOT NULL DEFAULT FALSE,
+    CONSTRAINT fk_otp_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+-- Global username -> email index; only read and written on the global shard
+CREATE TABLE username_index (
+    username VARCHAR(50) PRIMARY KEY,
+    email VARCHAR(255) NOT NULL
+);
@@ -0,0 +1,18 @@
+-- Brings databases baselined at V1 to the V1 shape. Those built from the
+-- old database/*.sql scripts relied on ddl-auto=update for later columns
+-- and tables, which only ever ran against the global shard; those built by
+-- ddl-auto=update have VARCHAR(255) where the entities now map
+-- VARCHAR(20). Changes nothing on a schema created by V1.
+
+CREATE TABLE IF NOT EXISTS username_index (
+    username VARCHAR(50) PRIMARY KEY,
+    email VARCHAR(255) NOT NULL
+);
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS totp_secret VARCHAR(255) NULL;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS totp_enabled BOOLEAN NULL DEFAULT FALSE;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS profile_version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE users ALTER COLUMN role TYPE VARCHAR(20);
+ALTER TABLE pending_registrations ALTER COLUMN role TYPE VARCHAR(20);
+ALTER TABLE otp_codes ALTER COLUMN type TYPE VARCHAR(20);
@@ -0,0 +1,36 @@
+-- Secondary indexes shaped by the repository queries: equality columns
+-- first, the expiry range last. They replace the single-column indexes of
+-- the old database/*.sql scripts, which every insert and update had to
+-- maintain while few queries could use them (used, type, role, is_verified
+-- have two or three values; email and username duplicated the unique keys).
+
+-- Resend rate limit (countValidOtpsByEmailAndType) is answered by an
+-- index-only scan; consumeByEmail and findByEmailAndOtpCodeAndTypeAndUsedFalse
+-- use the same prefix
+CREATE INDEX idx_otp_codes_email_type_used_expiry ON otp_codes (email, type, used, expiry_time);
+
+-- The same for codes issued to an existing user (password reset); also
+-- keeps the ON DELETE CASCADE from users from scanning otp_codes
+CREATE INDEX idx_otp_codes_user_type_used_expiry ON otp_codes (user_id, type, used, expiry_time);
+
+-- Expired-code purge and the outstanding-code count: one range scan
+CREATE INDEX idx_otp_codes_expiry_used ON otp_codes (expiry_time, used);
+
+-- Cleanup of registrations never verified
+CREATE INDEX idx_pending_registrations_created_at ON pending_registrations (created_at);
+
+DROP INDEX IF EXISTS idx_users_email;
+DROP INDEX IF EXISTS idx_users_username;
+DROP INDEX IF EXISTS idx_users_role;
+DROP INDEX IF EXISTS idx_users_is_verified;
+DROP INDEX IF EXISTS idx_pending_registrations_email;
+DROP INDEX IF EXISTS idx_pending_registrations_username;
+DROP INDEX IF EXISTS idx_otp_codes_user_id;
+DROP INDEX IF EXISTS idx_otp_codes_email;
+DROP INDEX IF EXISTS idx_otp_codes_otp_code;
+DROP INDEX IF EXISTS idx_otp_codes_expiry_time;
+DROP INDEX IF EXISTS idx_otp_codes_type;
+DROP INDEX IF EXISTS idx_otp_codes_used;
+DROP INDEX IF EXISTS idx_otp_codes_user_otp_type;
+DROP INDEX IF EXISTS idx_otp_codes_email_otp_type;
+DROP INDEX IF EXISTS idx_otp_codes_composite;
@@ -0,0 +1,20 @@
+-- Indexes on the email_lookup columns added by V4. CONCURRENTLY keeps
+-- inserts and updates running while each index builds, where a plain
+-- CREATE INDEX would block writes to the table for the whole build.
+-- PostgreSQL refuses CONCURRENTLY inside a transaction, so this script
+-- runs without one (V4_1__email_lookup_indexes.sql.conf).
+--
+-- A concurrent build that fails leaves an INVALID index behind; each
+-- build drops any leftover first, so the migration can simply be run again.
+
+DROP INDEX CONCURRENTLY IF EXISTS uk_users_email_lookup;
+CREATE UNIQUE INDEX CONCURRENTLY uk_users_email_lookup ON users (email_lookup);
+
+DROP INDEX CONCURRENTLY IF EXISTS uk_pending_registrations_email_lookup;
+CREATE UNIQUE INDEX CONCURRENTLY uk_pending_registrations_email_lookup ON pending_registrations (email_lookup);
+
+-- Same shape as idx_otp_codes_email_type_used_expiry, which only serves
+-- rows the backfill has not reached and can go in a later version
+DROP INDEX CONCURRENTLY IF EXISTS idx_otp_codes_email_lookup_type_used_expiry;
+CREATE INDEX CONCURRENTLY idx_otp_codes_email_lookup_type_used_expiry
+    ON otp_codes (email_lookup, type, used, expiry_time);
@@ -0,0 +1,16 @@
+-- Canonical form of the email (EmailLookup: NFKC, trimmed, lower case),
+-- written by the application on every insert and update. Lookups go
+-- through this column instead of comparing the raw string, so spellings
+-- that differ in case or Unicode form find the same account, and no query
+-- needs LOWER(email), which no index could serve.
+--
+-- The columns start out NULL; EmailLookupBackfill fills existing rows in
+-- batches while the service runs. Adding a nullable column without a
+-- default does not rewrite the table. The indexes on these columns are
+-- built concurrently by V4_1, outside this migration's transaction.
+
+ALTER TABLE users ADD COLUMN email_lookup VARCHAR(255);
+
+ALTER TABLE pending_registrations ADD COLUMN email_lookup VARCHAR(255);
+
+ALTER TABLE otp_codes ADD COLUMN email_lookup VARCHAR(255);
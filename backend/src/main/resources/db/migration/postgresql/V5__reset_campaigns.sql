@@ -0,0 +1,40 @@
+-- Forced password-reset campaigns (ResetCampaignService). The campaign row
+-- lives on the global shard; its deliveries live on the shard of the user
+-- they target, next to the users and otp_codes rows they are joined with.
+
+-- lease_owner/lease_until: the instance currently selecting or dispatching
+-- the campaign; another one takes over once the lease has run out
+CREATE TABLE reset_campaigns (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    selector VARCHAR(20) NOT NULL,
+    target_role VARCHAR(20) NULL,
+    created_before TIMESTAMP(6) NULL,
+    unmatched_emails INT NOT NULL DEFAULT 0,
+    invalidate_passwords BOOLEAN NOT NULL DEFAULT FALSE,
+    emails_per_second INT NOT NULL,
+    code_validity_minutes INT NOT NULL,
+    created_by VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP(6) NULL,
+    finished_at TIMESTAMP(6) NULL,
+    lease_owner VARCHAR(100) NULL,
+    lease_until TIMESTAMP(6) NULL
+);
+CREATE INDEX idx_reset_campaigns_status ON reset_campaigns (status);
+
+-- One row per targeted user: the send queue and the selection checkpoint
+-- (selection resumes after MAX(user_id) of the campaign). No foreign key to
+-- users: a user deleted or moved to another shard meanwhile is skipped.
+CREATE TABLE reset_campaign_deliveries (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    campaign_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_reset_campaign_deliveries_user UNIQUE (campaign_id, user_id)
+);
+-- Next batch to send, and the per-status counts, from the index alone
+CREATE INDEX idx_reset_campaign_deliveries_status ON reset_campaign_deliveries (campaign_id, status, id);
@@ -0,0 +1,18 @@
+-- Shard rebalance progress (ShardRouter), shared by every instance. Only
+-- used on the global shard.
+
+-- At most one row: the layout being moved to, MIGRATING until every email
+-- has moved and COMPLETED afterwards, when it is the layout in use
+CREATE TABLE shard_rebalance (
+    id INT PRIMARY KEY,
+    target_shards VARCHAR(1000) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    started_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP(6) NULL
+);
+
+-- Routing keys of the emails already owned by the target layout
+CREATE TABLE shard_moved_emails (
+    email VARCHAR(255) PRIMARY KEY,
+    moved_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,100 @@
+-- Schema applied to every embedded shard by the sharding-local profile
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) UNIQUE NOT NULL,
+    email VARCHAR(255) UNIQUE NOT NULL,
+    email_lookup VARCHAR(255) NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(20) NOT NULL DEFAULT 'USER',
+    is_verified BOOLEAN NOT NULL DEFAULT FALSE,
+    totp_secret VARCHAR(255) NULL,
+    totp_enabled BOOLEAN DEFAULT FALSE,
+    totp_last_step BIGINT NULL,
+    totp_failed_attempts INT NOT NULL DEFAULT 0,
+    totp_locked_until TIMESTAMP NULL,
+    profile_version BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS pending_registrations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) UNIQUE NOT NULL,
+    email VARCHAR(255) UNIQUE NOT NULL,
+    email_lookup VARCHAR(255) NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(20) NOT NULL DEFAULT 'USER',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS otp_codes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NULL,
+    email VARCHAR(255) NULL,
+    email_lookup VARCHAR(255) NULL,
+    otp_code VARCHAR(6) NOT NULL,
+    expiry_time TIMESTAMP NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    used BOOLEAN NOT NULL DEFAULT FALSE,
+    CONSTRAINT fk_otp_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Same secondary indexes as db/migration/*/V3__query_indexes.sql and V4__email_lookup.sql
+CREATE INDEX IF NOT EXISTS idx_otp_codes_email_type_used_expiry ON otp_codes (email, type, used, expiry_time);
+CREATE INDEX IF NOT EXISTS idx_otp_codes_user_type_used_expiry ON otp_codes (user_id, type, used, expiry_time);
+CREATE INDEX IF NOT EXISTS idx_otp_codes_expiry_used ON otp_codes (expiry_time, used);
+CREATE INDEX IF NOT EXISTS idx_pending_registrations_created_at ON pending_registrations (created_at);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_users_email_lookup ON users (email_lookup);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_pending_registrations_email_lookup ON pending_registrations (email_lookup);
+CREATE INDEX IF NOT EXISTS idx_otp_codes_email_lookup_type_used_expiry ON otp_codes (email_lookup, type, used, expiry_time);
+
+-- Only used on the global shard
+CREATE TABLE IF NOT EXISTS username_index (
+    username VARCHAR(50) PRIMARY KEY,
+    email VARCHAR(255) NOT NULL
+);
+
+-- Same as db/migration/*/V6__shard_rebalance_state.sql; only used on the global shard
+CREATE TABLE IF NOT EXISTS shard_rebalance (
+    id INT PRIMARY KEY,
+    target_shards VARCHAR(1000) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP NULL
+);
+
+CREATE TABLE IF NOT EXISTS shard_moved_emails (
+    email VARCHAR(255) PRIMARY KEY,
+    moved_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Same as db/migration/*/V5__reset_campaigns.sql; campaigns only on the global shard
+CREATE TABLE IF NOT EXISTS reset_campaigns (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    selector VARCHAR(20) NOT NULL,
+    target_role VARCHAR(20) NULL,
+    created_before TIMESTAMP NULL,
+    unmatched_emails INT NOT NULL DEFAULT 0,
+    invalidate_passwords BOOLEAN NOT NULL DEFAULT FALSE,
+    emails_per_second INT NOT NULL,
+    code_validity_minutes INT NOT NULL,
+    created_by VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP NULL,
+    finished_at TIMESTAMP NULL,
+    lease_owner VARCHAR(100) NULL,
+    lease_until TIMESTAMP NULL
+);
+CREATE INDEX IF NOT EXISTS idx_reset_campaigns_status ON reset_campaigns (status);
+
+CREATE TABLE IF NOT EXISTS reset_campaign_deliveries (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    campaign_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_reset_campaign_deliveries_user UNIQUE (campaign_id, user_id)
+);
+CREATE INDEX IF NOT EXISTS idx_reset_campaign_deliveries_status ON reset_campaign_deliveries (campaign_id, status, id);
@@ -0,0 +1,114 @@
+package com.example.auth.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditRingBufferTest {
+    @Test
+    void roundsTheCapacityUpToAPowerOfTwo() {
+        assertThat(new AuditRingBuffer(1000).capacity()).isEqualTo(1024);
+        assertThat(new AuditRingBuffer(1024).capacity()).isEqualTo(1024);
+        assertThat(new AuditRingBuffer(2).capacity()).isEqualTo(2);
+        assertThat(new AuditRingBuffer(1).capacity()).isEqualTo(2);
+    }
+
+    @Test
+    void drainsInPublicationOrder() {
+        AuditRingBuffer ring = new AuditRingBuffer(8);
+        ring.offer(1, AuditEventType.LOGIN_SUCCESS, "a@example.com");
+        ring.offer(2, AuditEventType.LOGIN_FAILURE, "b@example.com");
+
+        List<String> drained = new ArrayList<>();
+        int count = ring.drain((timestamp, type, subject) ->
+                drained.add(timestamp + " " + AuditEventType.fromOrdinal(type) + " " + subject));
+
+        assertThat(count).isEqualTo(2);
+        assertThat(drained).containsExactly("1 LOGIN_SUCCESS a@example.com", "2 LOGIN_FAILURE b@example.com");
+        assertThat(ring.drain((timestamp, type, subject) -> drained.add("again"))).isZero();
+    }
+
+    @Test
+    void rejectsOffersWhileFullAndAcceptsThemOnceDrained() {
+        AuditRingBuffer ring = new AuditRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(ring.offer(i, AuditEventType.OTP_ISSUED, "s" + i)).isTrue();
+        }
+
+        assertThat(ring.offer(4, AuditEventType.OTP_ISSUED, "s4")).isFalse();
+
+        assertThat(ring.drain((timestamp, type, subject) -> { })).isEqualTo(4);
+        assertThat(ring.offer(5, AuditEventType.OTP_ISSUED, "s5")).isTrue();
+        List<Long> drained = new ArrayList<>();
+        ring.drain((timestamp, type, subject) -> drained.add(timestamp));
+        assertThat(drained).containsExactly(5L);
+    }
+
+    @Test
+    void deliversEveryEventFromConcurrentProducersOnceAndInTheirOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        AuditRingBuffer ring = new AuditRingBuffer(64);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                awaitQuietly(start);
+                String subject = "p" + producer;
+                for (long i = 0; i < perProducer && !stop.get(); i++) {
+                    // The timestamp carries producer and sequence
+                    while (!ring.offer(producer << 32 | i, AuditEventType.LOGIN_FAILURE, subject) && !stop.get()) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        Map<Long, Long> nextExpected = new HashMap<>();
+        AtomicBoolean outOfOrder = new AtomicBoolean();
+        long[] received = {0};
+        AuditRingBuffer.Sink sink = (timestamp, type, subject) -> {
+            long producer = timestamp >>> 32;
+            long sequence = timestamp & 0xFFFFFFFFL;
+            if (sequence != nextExpected.getOrDefault(producer, 0L) || !subject.equals("p" + producer)) {
+                outOfOrder.set(true);
+            }
+            nextExpected.put(producer, sequence + 1);
+            received[0]++;
+        };
+        start.countDown();
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (received[0] < (long) producers * perProducer && System.nanoTime() < deadline) {
+            if (ring.drain(sink) == 0) {
+                Thread.yield();
+            }
+        }
+        stop.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(received[0]).isEqualTo((long) producers * perProducer);
+        assertThat(outOfOrder).isFalse();
+        assertThat(nextExpected).hasSize(producers).allSatisfy((producer, next) -> assertThat(next).isEqualTo(perProducer));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.auth.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditSegmentWriterTest {
+    private static final long NOW = 1_700_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackWhatWasWritten() throws Exception {
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(directory, 64 * 1024, null)) {
+            writer.append(NOW, (byte) AuditEventType.LOGIN_SUCCESS.ordinal(), "someone@example.com");
+            writer.append(NOW + 1, (byte) AuditEventType.OTP_ISSUED.ordinal(), "zoë@example.com");
+            writer.append(NOW + 2, (byte) AuditEventType.LOGIN_FAILURE.ordinal(), null);
+        }
+
+        assertThat(readAll()).containsExactly(
+                new AuditEvent(NOW, AuditEventType.LOGIN_SUCCESS, "someone@example.com"),
+                new AuditEvent(NOW + 1, AuditEventType.OTP_ISSUED, "zoë@example.com"),
+                new AuditEvent(NOW + 2, AuditEventType.LOGIN_FAILURE, ""));
+    }
+
+    @Test
+    void filtersByTimeRangeAndPredicate() throws Exception {
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(directory, 64 * 1024, null)) {
+            for (int i = 0; i < 10; i++) {
+                AuditEventType type = i % 2 == 0 ? AuditEventType.LOGIN_SUCCESS : AuditEventType.LOGIN_FAILURE;
+                writer.append(NOW + i, (byte) type.ordinal(), "user" + i);
+            }
+        }
+
+        List<AuditEvent> failures = new AuditLogReader(directory)
+                .query(NOW + 2, NOW + 7, e -> e.type() == AuditEventType.LOGIN_FAILURE, 10);
+
+        assertThat(failures).extracting(AuditEvent::subject).containsExactly("user3", "user5", "user7");
+        assertThat(new AuditLogReader(directory).query(NOW, NOW + 9, e -> true, 4)).hasSize(4);
+    }
+
+    @Test
+    void rotatesToANewSegmentWhenFull() throws Exception {
+        int records = 200;
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(directory, 1024, null)) {
+            for (int i = 0; i < records; i++) {
+                writer.append(NOW + i, (byte) AuditEventType.OTP_VERIFIED.ordinal(), "user" + i + "@example.com");
+            }
+        }
+
+        assertThat(segments()).hasSizeGreaterThan(5);
+        assertThat(readAll()).extracting(AuditEvent::subject)
+                .hasSize(records)
+                .startsWith("user0@example.com")
+                .endsWith("user199@example.com");
+    }
+
+    @Test
+    void namesSegmentsInOrderEvenWhenTheClockStepsBack() throws Exception {
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(directory, 64, null)) {
+            writer.append(NOW, (byte) 0, "first-record-fills-the-segment");
+            writer.append(NOW - 5_000, (byte) 0, "second-record-fills-the-next");
+        }
+
+        List<String> names = segments();
+        assertThat(names).hasSize(2);
+        assertThat(AuditSegmentFormat.startOf(names.get(1))).isGreaterThan(AuditSegmentFormat.startOf(names.get(0)));
+    }
+
+    @Test
+    void purgesSegmentsPastRetention() throws Exception {
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(directory, 64, Duration.ofDays(1))) {
+            writer.append(NOW, (byte) 0, "old-record-fills-the-segment");
+            writer.append(NOW + 1, (byte) 0, "old-record-fills-the-segment");
+            writer.append(NOW + Duration.ofDays(2).toMillis(), (byte) 0, "new-record-fills-the-segment");
+        }
+
+        assertThat(segments()).hasSize(2);
+        assertThat(readAll()).extracting(AuditEvent::subject)
+                .containsExactly("old-record-fills-the-segment", "new-record-fills-the-segment");
+    }
+
+    @Test
+    void cutsLongSubjectsAtACharacterBoundary() throws Exception {
+        // Two-byte characters pushed one byte off, so the byte limit falls inside one
+        String subject = "x" + "é".repeat(AuditSegmentFormat.MAX_SUBJECT_BYTES);
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(directory, 64 * 1024, null)) {
+            writer.append(NOW, (byte) 0, subject);
+        }
+
+        String read = readAll().get(0).subject();
+        assertThat(read).doesNotContain("�");
+        assertThat(read.getBytes(StandardCharsets.UTF_8)).hasSize(AuditSegmentFormat.MAX_SUBJECT_BYTES - 1);
+        assertThat(subject).startsWith(read);
+    }
+
+    @Test
+    void truncatedLengthNeverSplitsACharacter() {
+        for (String character : List.of("a", "é", "€", "😀")) {
+            byte[] utf8 = character.repeat(AuditSegmentFormat.MAX_SUBJECT_BYTES).getBytes(StandardCharsets.UTF_8);
+            int length = AuditSegmentWriter.truncatedLength(utf8);
+            int width = character.getBytes(StandardCharsets.UTF_8).length;
+
+            assertThat(length).isLessThanOrEqualTo(AuditSegmentFormat.MAX_SUBJECT_BYTES)
+                    .isGreaterThan(AuditSegmentFormat.MAX_SUBJECT_BYTES - width)
+                    .isEqualTo(length / width * width);
+        }
+    }
+
+    @Test
+    void alignsEveryRecordLength() throws Exception {
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(directory, 64 * 1024, null)) {
+            for (int i = 0; i < 8; i++) {
+                writer.append(NOW, (byte) 0, "s".repeat(i));
+            }
+        }
+
+        ByteBuffer segment = ByteBuffer.wrap(Files.readAllBytes(directory.resolve(segments().get(0))));
+        int position = AuditSegmentFormat.HEADER_SIZE;
+        for (int i = 0; i < 8; i++) {
+            assertThat(position % 4).isZero();
+            position += 4 + segment.getInt(position);
+        }
+        assertThat(segment.getInt(position)).isZero();
+    }
+
+    @Test
+    void stopsAtARecordWhoseLengthIsNotYetPublished() throws Exception {
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(directory, 64 * 1024, null)) {
+            writer.append(NOW, (byte) AuditEventType.LOGIN_SUCCESS.ordinal(), "whole@example.com");
+        }
+        // A body caught mid-append: everything but the length is in place
+        Path segment = directory.resolve(segments().get(0));
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(segment));
+        int next = AuditSegmentFormat.HEADER_SIZE + 4 + bytes.getInt(AuditSegmentFormat.HEADER_SIZE);
+        bytes.position(next + 4).putLong(NOW + 1).put((byte) 0).putShort((short) 4).put("torn".getBytes(StandardCharsets.UTF_8));
+        Files.write(segment, bytes.array());
+
+        assertThat(readAll()).extracting(AuditEvent::subject).containsExactly("whole@example.com");
+    }
+
+    @Test
+    void readsUnpaddedVersionOneSegments() throws Exception {
+        ByteBuffer bytes = ByteBuffer.allocate(128)
+                .putInt(AuditSegmentFormat.MAGIC).putInt(AuditSegmentFormat.UNPADDED_VERSION);
+        for (String subject : List.of("a@example.com", "bc@example.com")) {
+            bytes.putInt(AuditSegmentFormat.RECORD_OVERHEAD - 4 + subject.length())
+                    .putLong(NOW).put((byte) AuditEventType.OTP_ISSUED.ordinal())
+                    .putShort((short) subject.length()).put(subject.getBytes(StandardCharsets.UTF_8));
+        }
+        Files.write(directory.resolve(AuditSegmentFormat.fileName(NOW)), bytes.array());
+
+        assertThat(readAll()).extracting(AuditEvent::subject).containsExactly("a@example.com", "bc@example.com");
+    }
+
+    @Test
+    void readersOfTheLiveSegmentOnlySeeWholeRecords() throws Exception {
+        int records = 20_000;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(directory, 4 * 1024 * 1024, null)) {
+            Thread appender = new Thread(() -> {
+                for (int i = 0; i < records; i++) {
+                    writer.append(NOW + i, (byte) AuditEventType.LOGIN_FAILURE.ordinal(), "user" + i + "@example.com");
+                }
+            });
+            appender.start();
+            int seen = 0;
+            while (appender.isAlive() || seen < records) {
+                List<AuditEvent> events = readAll();
+                assertThat(events.size()).isGreaterThanOrEqualTo(seen);
+                for (int i = 0; i < events.size(); i++) {
+                    AuditEvent event = events.get(i);
+                    if (event.timestamp() != NOW + i || !event.subject().equals("user" + i + "@example.com")) {
+                        failure.compareAndSet(null, new AssertionError("Torn record at " + i + ": " + event));
+                    }
+                }
+                seen = events.size();
+            }
+            appender.join();
+        }
+
+        assertThat(failure.get()).isNull();
+        assertThat(readAll()).hasSize(records);
+    }
+
+    private List<AuditEvent> readAll() throws Exception {
+        return new AuditLogReader(directory).query(Long.MIN_VALUE, Long.MAX_VALUE, e -> true, Integer.MAX_VALUE);
+    }
+
+    private List<String> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(p -> p.getFileName().toString()).filter(AuditSegmentFormat::isSegment).sorted().toList();
+        }
+    }
+}
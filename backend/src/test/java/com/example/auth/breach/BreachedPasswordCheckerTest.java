@@ -0,0 +1,92 @@
+package com.example.auth.breach;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BreachedPasswordCheckerTest {
+    private static final List<String> PASSWORDS = List.of(
+            "",
+            "password",
+            "pässwörd",
+            "密码",
+            "€uro",
+            "emoji 😀 pair",
+            "\uD83D",
+            "unpaired high \uD83D at the end \uD83D",
+            "unpaired low \uDE00 first",
+            "swapped \uDE00\uD83D pair",
+            "\uD83D😀",
+            "\u007F\u0080߿ࠀ￿",
+            "x".repeat(300) + "😀");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void encodesTheSameBytesAsTheJdk() {
+        for (String password : PASSWORDS) {
+            byte[] out = new byte[password.length() * 3];
+            int length = BreachedPasswordChecker.Hasher.encode(password, out);
+
+            assertThat(Arrays.copyOf(out, length)).as(password)
+                    .isEqualTo(password.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void hashesTheUtf8Bytes() throws Exception {
+        BreachedPasswordChecker.Hasher hasher = new BreachedPasswordChecker.Hasher();
+        for (String password : PASSWORDS) {
+            byte[] expected = MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+
+            assertThat(hasher.sha1(password)).as(password).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void rejectsPasswordsInTheIndex() throws Exception {
+        BreachedPasswordChecker checker = checkerFor("password", "pässwörd", "emoji 😀 pair");
+
+        assertThat(checker.isEnabled()).isTrue();
+        assertThat(checker.isBreached("password")).isTrue();
+        assertThat(checker.isBreached("pässwörd")).isTrue();
+        assertThat(checker.isBreached("emoji 😀 pair")).isTrue();
+        assertThat(checker.isBreached("Password")).isFalse();
+        assertThat(checker.isBreached(null)).isFalse();
+    }
+
+    @Test
+    void acceptsEverythingWithoutAnIndex() throws Exception {
+        BreachedPasswordChecker checker = new BreachedPasswordChecker();
+        checker.open();
+
+        assertThat(checker.isEnabled()).isFalse();
+        assertThat(checker.isBreached("password")).isFalse();
+    }
+
+    private BreachedPasswordChecker checkerFor(String... passwords) throws Exception {
+        MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+        List<String> lines = Arrays.stream(passwords)
+                .map(p -> HexFormat.of().withUpperCase().formatHex(sha1.digest(p.getBytes(StandardCharsets.UTF_8))) + ":1")
+                .toList();
+        Path input = Files.write(directory.resolve("corpus.txt"), lines);
+        Path index = directory.resolve("index.idx");
+        BreachedPasswordIndexBuilder.build(input, index, BreachedPasswordFormat.DEFAULT_PREFIX_BITS, directory);
+
+        BreachedPasswordChecker checker = new BreachedPasswordChecker();
+        ReflectionTestUtils.setField(checker, "indexPath", index.toString());
+        checker.open();
+        return checker;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.auth.breach;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BreachedPasswordIndexTest {
+    private static final int PREFIX_BITS = 8;
+    private static final String LOWEST = "0000000000000000000000000000000000000000";
+    private static final String HIGHEST = "FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF";
+    // Last hash of bucket 0x00 and first of bucket 0x01, at PREFIX_BITS = 8
+    private static final String BUCKET_END = "00FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF";
+    private static final String BUCKET_START = "0100000000000000000000000000000000000000";
+    private static final String MIDDLE = "5BAA61E4C9B93F3F0682250B6CF8331B7EE68FD8";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void findsEveryIndexedHashAndNothingElse() throws Exception {
+        try (BreachedPasswordIndex index = build(List.of(LOWEST, BUCKET_START, HIGHEST + ":3", MIDDLE + ":10",
+                BUCKET_END), PREFIX_BITS)) {
+            assertThat(index.size()).isEqualTo(5);
+            for (String hash : List.of(LOWEST, BUCKET_END, BUCKET_START, MIDDLE, HIGHEST)) {
+                assertThat(index.contains(hex(hash))).as(hash).isTrue();
+            }
+            assertThat(index.contains(hex("0000000000000000000000000000000000000001"))).isFalse();
+            assertThat(index.contains(hex("00FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFE"))).isFalse();
+            assertThat(index.contains(hex("0100000000000000000000000000000000000001"))).isFalse();
+            assertThat(index.contains(hex("5BAA61E4C9B93F3F0682250B6CF8331B7EE68FD9"))).isFalse();
+            assertThat(index.contains(hex("FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFE"))).isFalse();
+        }
+    }
+
+    @Test
+    void dropsDuplicatesWhateverTheirCaseOrCount() throws Exception {
+        try (BreachedPasswordIndex index = build(List.of(MIDDLE, MIDDLE.toLowerCase() + ":7", MIDDLE + ":1",
+                BUCKET_END, BUCKET_END), PREFIX_BITS)) {
+            assertThat(index.size()).isEqualTo(2);
+            assertThat(index.contains(hex(MIDDLE))).isTrue();
+            assertThat(index.contains(hex(BUCKET_END))).isTrue();
+        }
+    }
+
+    @Test
+    void skipsMalformedLines() throws Exception {
+        List<String> lines = List.of(
+                "",
+                "5BAA61E4C9B93F3F0682250B6CF8331B7EE68FD",
+                "5BAA61E4C9B93F3F0682250B6CF8331B7EE68FDZ",
+                "5BAA61E4C9B93F3F0682250B6CF8331B7EE68FD8;4",
+                "5BAA61E4C9B93F3F0682250B6CF8331B7EE68FD8 ",
+                "not a hash at all",
+                HIGHEST);
+        try (BreachedPasswordIndex index = build(lines, PREFIX_BITS)) {
+            assertThat(index.size()).isEqualTo(1);
+            assertThat(index.contains(hex(HIGHEST))).isTrue();
+            assertThat(index.contains(hex(MIDDLE))).isFalse();
+        }
+    }
+
+    @Test
+    void opensAnIndexBuiltFromEmptyInput() throws Exception {
+        try (BreachedPasswordIndex index = build(List.of(), PREFIX_BITS)) {
+            assertThat(index.size()).isZero();
+            assertThat(index.contains(hex(LOWEST))).isFalse();
+            assertThat(index.contains(hex(HIGHEST))).isFalse();
+        }
+    }
+
+    @Test
+    void findsHashesAcrossManyBuckets() throws Exception {
+        // Pseudo-random hashes over every bucket at the default prefix length
+        Random random = new Random(42);
+        List<String> hashes = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            byte[] hash = new byte[BreachedPasswordFormat.HASH_SIZE];
+            random.nextBytes(hash);
+            hashes.add(HexFormat.of().formatHex(hash));
+        }
+        try (BreachedPasswordIndex index = build(hashes, BreachedPasswordFormat.DEFAULT_PREFIX_BITS)) {
+            assertThat(index.size()).isEqualTo(hashes.size());
+            assertThat(hashes).allSatisfy(hash -> assertThat(index.contains(hex(hash))).isTrue());
+            byte[] absent = hex(hashes.get(0));
+            absent[19] ^= 1;
+            assertThat(index.contains(absent)).isFalse();
+        }
+    }
+
+    @Test
+    void rejectsAPrefixLengthOutOfRange() throws Exception {
+        Path file = buildFile(List.of(MIDDLE), PREFIX_BITS);
+        for (int prefixBits : new int[]{0, -1, 25, 64, Integer.MAX_VALUE}) {
+            overwriteInt(file, 8, prefixBits);
+
+            assertThatThrownBy(() -> BreachedPasswordIndex.open(file))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("invalid prefix length");
+        }
+    }
+
+    @Test
+    void rejectsAnEntryCountThatDoesNotMatchTheFileLength() throws Exception {
+        Path file = buildFile(List.of(MIDDLE, HIGHEST), PREFIX_BITS);
+        for (long entryCount : new long[]{1, 3, -1, Long.MAX_VALUE / BreachedPasswordFormat.HASH_SIZE + 2}) {
+            overwriteLong(file, 16, entryCount);
+
+            assertThatThrownBy(() -> BreachedPasswordIndex.open(file))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("truncated or has trailing data");
+        }
+    }
+
+    @Test
+    void rejectsTruncatedOrExtendedFiles() throws Exception {
+        Path file = buildFile(List.of(MIDDLE, HIGHEST), PREFIX_BITS);
+        byte[] bytes = Files.readAllBytes(file);
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThatThrownBy(() -> BreachedPasswordIndex.open(file)).hasMessageContaining("truncated");
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length + BreachedPasswordFormat.HASH_SIZE));
+        assertThatThrownBy(() -> BreachedPasswordIndex.open(file)).hasMessageContaining("trailing data");
+
+        Files.write(file, Arrays.copyOf(bytes, 10));
+        assertThatThrownBy(() -> BreachedPasswordIndex.open(file)).hasMessageContaining("not a breached-password index");
+    }
+
+    @Test
+    void rejectsACorruptBucketTable() throws Exception {
+        Path file = buildFile(List.of(MIDDLE, HIGHEST), PREFIX_BITS);
+        // Bucket 0x10 claims to start past the end of the data
+        overwriteLong(file, BreachedPasswordFormat.HEADER_SIZE + 0x10 * Long.BYTES, 99);
+
+        assertThatThrownBy(() -> BreachedPasswordIndex.open(file)).hasMessageContaining("corrupt bucket table");
+    }
+
+    @Test
+    void rejectsOtherFiles() throws Exception {
+        Path file = buildFile(List.of(MIDDLE), PREFIX_BITS);
+        overwriteInt(file, 0, 0x12345678);
+
+        assertThatThrownBy(() -> BreachedPasswordIndex.open(file)).hasMessageContaining("not a breached-password index");
+    }
+
+    @Test
+    void refusesToBuildWithAnUnsupportedPrefixLength() throws Exception {
+        Path input = Files.write(directory.resolve("corpus.txt"), List.of(MIDDLE));
+
+        assertThatThrownBy(() -> BreachedPasswordIndexBuilder.build(input, directory.resolve("index.idx"), 25, directory))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private BreachedPasswordIndex build(List<String> lines, int prefixBits) throws IOException {
+        return BreachedPasswordIndex.open(buildFile(lines, prefixBits));
+    }
+
+    private Path buildFile(List<String> lines, int prefixBits) throws IOException {
+        Path input = Files.write(directory.resolve("corpus.txt"), lines);
+        Path output = directory.resolve("index.idx");
+        BreachedPasswordIndexBuilder.build(input, output, prefixBits, directory);
+        return output;
+    }
+
+    private static void overwriteInt(Path file, long position, int value) throws IOException {
+        overwrite(file, position, ByteBuffer.allocate(Integer.BYTES).putInt(value).flip());
+    }
+
+    private static void overwriteLong(Path file, long position, long value) throws IOException {
+        overwrite(file, position, ByteBuffer.allocate(Long.BYTES).putLong(value).flip());
+    }
+
+    private static void overwrite(Path file, long position, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(bytes, position);
+        }
+    }
+
+    private static byte[] hex(String hash) {
+        return HexFormat.of().parseHex(hash);
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.auth.campaign;
+
+import com.example.auth.audit.AuditLog;
+import com.example.auth.campaign.ResetCampaign.DeliveryStatus;
+import com.example.auth.campaign.ResetCampaign.Selector;
+import com.example.auth.campaign.ResetCampaign.Status;
+import com.example.auth.campaign.ResetCampaignStore.Delivery;
+import com.example.auth.entity.OtpCode;
+import com.example.auth.entity.OtpType;
+import com.example.auth.entity.User;
+import com.example.auth.service.EmailService;
+import com.example.auth.service.OtpService;
+import com.example.auth.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The send path against mocks: which codes stay live and which deliveries
+ * are checkpointed when a chunk goes out, fails or is stopped.
+ */
+class ResetCampaignDispatcherTest {
+    private static final String OWNER = "instance-1";
+
+    private final ResetCampaignService campaignService = mock(ResetCampaignService.class);
+    private final ResetCampaignStore store = mock(ResetCampaignStore.class);
+    private final ShardRouter shardRouter = mock(ShardRouter.class);
+    private final OtpService otpService = mock(OtpService.class);
+    private final EmailService emailService = mock(EmailService.class);
+    private final ResetCampaignDispatcher dispatcher = new ResetCampaignDispatcher(campaignService, store,
+            shardRouter, otpService, emailService, mock(AuditLog.class));
+
+    // Every code issued, and every code discarded, in order
+    private final List<OtpCode> issued = new ArrayList<>();
+    private final List<OtpCode> discarded = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 10);
+        ReflectionTestUtils.setField(dispatcher, "chunkSize", 2);
+        when(campaignService.instanceId()).thenReturn(OWNER);
+        when(campaignService.leaseUntil()).thenReturn(LocalDateTime.now().plusMinutes(1));
+        when(store.acquireLease(eq(1L), eq(OWNER), any())).thenReturn(true);
+        when(store.renewLease(eq(1L), eq(OWNER), eq(Status.DISPATCHING), any())).thenReturn(true);
+        when(store.transition(anyLong(), any(), any())).thenReturn(true);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(shardRouter).forEachShard(any());
+        when(otpService.createOtps(anyList(), eq(OtpType.RESET_PASSWORD), any())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            List<OtpCode> otps = new ArrayList<>();
+            for (User user : users) {
+                OtpCode otp = new OtpCode(null, user, null, null, "code-" + user.getId(),
+                        LocalDateTime.now().plusHours(1), OtpType.RESET_PASSWORD, false);
+                otps.add(otp);
+                issued.add(otp);
+            }
+            return otps;
+        });
+        doAnswer(invocation -> {
+            discarded.addAll(List.copyOf(invocation.<List<OtpCode>>getArgument(0)));
+            return null;
+        }).when(otpService).discardOtps(anyList());
+        when(emailService.sendForcedResetEmails(anyList(), anyList(), anyInt())).thenReturn(Set.of());
+    }
+
+    @Test
+    void sendsEveryChunkAndCompletes() {
+        queued(5);
+
+        dispatcher.work(campaign(Status.DISPATCHING, Selector.LIST));
+
+        verify(emailService, times(3)).sendForcedResetEmails(anyList(), anyList(), eq(60));
+        verify(store).mark(List.of(100L, 101L), DeliveryStatus.SENT, true);
+        verify(store).mark(List.of(104L), DeliveryStatus.SENT, true);
+        assertThat(discarded).isEmpty();
+        verify(store).transition(1L, List.of(Status.DISPATCHING), Status.COMPLETED);
+        verify(campaignService, times(2)).recordSent(1L, 2);
+        verify(campaignService).recordSent(1L, 1);
+        verify(store).releaseLease(1L, OWNER);
+    }
+
+    @Test
+    void rejectedRecipientsFailAndLoseTheirCodes() {
+        queued(2);
+        when(emailService.sendForcedResetEmails(anyList(), anyList(), anyInt())).thenReturn(Set.of(1));
+
+        dispatcher.work(campaign(Status.DISPATCHING, Selector.LIST));
+
+        verify(store).mark(List.of(100L), DeliveryStatus.SENT, true);
+        verify(store).mark(List.of(101L), DeliveryStatus.FAILED, true);
+        assertThat(discarded).containsExactly(issued.get(1));
+    }
+
+    @Test
+    void usersGoneFromTheShardAreSkippedWithoutACode() {
+        when(store.nextQueued(1L, 10)).thenReturn(List.of(
+                new Delivery(100, 1, "user1@example.com"), new Delivery(101, 2, null)), List.of());
+
+        dispatcher.work(campaign(Status.DISPATCHING, Selector.LIST));
+
+        verify(store).mark(List.of(101L), DeliveryStatus.SKIPPED, false);
+        assertThat(issued).hasSize(1);
+    }
+
+    @Test
+    void unexpectedSendFailureDiscardsTheUnsentCodes() {
+        queued(5);
+        when(emailService.sendForcedResetEmails(anyList(), anyList(), anyInt()))
+                .thenReturn(Set.of())
+                .thenThrow(new IllegalStateException("template failed"));
+
+        assertThatThrownBy(() -> dispatcher.work(campaign(Status.DISPATCHING, Selector.LIST)))
+                .isInstanceOf(IllegalStateException.class);
+
+        // The first chunk went out and keeps its codes; the rest stay queued for the next pass
+        verify(store).mark(List.of(100L, 101L), DeliveryStatus.SENT, true);
+        assertThat(discarded).containsExactlyElementsOf(issued.subList(2, 5));
+        verify(store, never()).transition(1L, List.of(Status.DISPATCHING), Status.COMPLETED);
+        verify(store).releaseLease(1L, OWNER);
+    }
+
+    @Test
+    void failureBeforeTheFirstChunkDiscardsEveryCode() {
+        queued(3);
+        when(emailService.sendForcedResetEmails(anyList(), anyList(), anyInt()))
+                .thenThrow(new MailSendException("connection refused"));
+
+        assertThatThrownBy(() -> dispatcher.work(campaign(Status.DISPATCHING, Selector.LIST)))
+                .isInstanceOf(MailSendException.class);
+
+        assertThat(discarded).containsExactlyElementsOf(issued);
+    }
+
+    @Test
+    void lostLeaseStopsAndDiscardsTheUnsentCodes() {
+        queued(5);
+        when(store.renewLease(eq(1L), eq(OWNER), eq(Status.DISPATCHING), any())).thenReturn(true, false);
+
+        dispatcher.work(campaign(Status.DISPATCHING, Selector.LIST));
+
+        verify(emailService).sendForcedResetEmails(anyList(), anyList(), anyInt());
+        assertThat(discarded).containsExactlyElementsOf(issued.subList(2, 5));
+        verify(store, never()).transition(1L, List.of(Status.DISPATCHING), Status.COMPLETED);
+    }
+
+    @Test
+    void campaignLeasedElsewhereIsLeftAlone() {
+        when(store.acquireLease(eq(1L), eq(OWNER), any())).thenReturn(false);
+
+        dispatcher.work(campaign(Status.DISPATCHING, Selector.LIST));
+
+        verify(store, never()).nextQueued(anyLong(), anyInt());
+        verify(store, never()).releaseLease(anyLong(), anyString());
+    }
+
+    @Test
+    void interruptedListSelectionIsCancelled() {
+        dispatcher.work(campaign(Status.SELECTING, Selector.LIST));
+
+        verify(store).transition(1L, List.of(Status.SELECTING), Status.CANCELLED);
+        verify(store, never()).nextQueued(anyLong(), anyInt());
+        verify(store).releaseLease(1L, OWNER);
+    }
+
+    @Test
+    void querySelectionFinishesBeforeDispatching() {
+        ResetCampaign campaign = campaign(Status.SELECTING, Selector.QUERY);
+        when(campaignService.selectQueried(eq(campaign), any())).thenReturn(true);
+        queued(1);
+
+        dispatcher.work(campaign);
+
+        verify(store).transition(1L, List.of(Status.SELECTING), Status.DISPATCHING);
+        verify(emailService).sendForcedResetEmails(anyList(), anyList(), anyInt());
+    }
+
+    @Test
+    void unfinishedQuerySelectionDoesNotDispatch() {
+        ResetCampaign campaign = campaign(Status.SELECTING, Selector.QUERY);
+        when(campaignService.selectQueried(eq(campaign), any())).thenReturn(false);
+
+        dispatcher.work(campaign);
+
+        verify(store, never()).transition(1L, List.of(Status.SELECTING), Status.DISPATCHING);
+        verify(store, never()).nextQueued(anyLong(), anyInt());
+        verify(store).releaseLease(1L, OWNER);
+    }
+
+    private void queued(int count) {
+        List<Delivery> batch = IntStream.range(0, count)
+                .mapToObj(i -> new Delivery(100 + i, i + 1, "user" + (i + 1) + "@example.com"))
+                .toList();
+        when(store.nextQueued(1L, 10)).thenReturn(batch, List.of());
+    }
+
+    // Fast enough that pacing sleeps stay in the milliseconds
+    private static ResetCampaign campaign(Status status, Selector selector) {
+        return new ResetCampaign(1, "test", status, selector, null, null, 0, false, 1000, 60, "admin@example.com",
+                LocalDateTime.now(), null, null);
+    }
+}
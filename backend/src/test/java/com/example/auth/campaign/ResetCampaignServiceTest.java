@@ -0,0 +1,375 @@
+package com.example.auth.campaign;
+
+import com.example.auth.campaign.ResetCampaign.Status;
+import com.example.auth.dto.ResetCampaignRequest;
+import com.example.auth.dto.ResetCampaignResponse;
+import com.example.auth.entity.Role;
+import com.example.auth.entity.User;
+import com.example.auth.exception.AuthException;
+import com.example.auth.exception.ErrorCode;
+import com.example.auth.repository.UserRepository;
+import com.example.auth.service.EmailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Campaign state transitions, leases and checkpoints against the H2
+ * schema. The dispatcher thread is off in tests; each
+ * {@code dispatcher.work} call is one pass of it on this instance.
+ */
+@SpringBootTest(properties = {
+        "reset-campaign.select-batch-size=2",
+        "reset-campaign.dispatch-batch-size=3",
+        "reset-campaign.send-chunk-size=2",
+        "reset-campaign.emails-per-second=200",
+})
+@ActiveProfiles("test")
+class ResetCampaignServiceTest {
+    private static final String OTHER_INSTANCE = "other-instance";
+
+    @Autowired
+    private ResetCampaignService campaignService;
+
+    @Autowired
+    private ResetCampaignDispatcher dispatcher;
+
+    @Autowired
+    private ResetCampaignStore store;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @MockBean
+    private EmailService emailService;
+
+    private final List<String> recipients = new ArrayList<>();
+
+    @BeforeEach
+    void recordRecipients() {
+        when(emailService.sendForcedResetEmails(anyList(), anyList(), anyInt())).thenAnswer(invocation -> {
+            recipients.addAll(invocation.getArgument(0));
+            return Set.of();
+        });
+    }
+
+    @Test
+    void listIsSelectedWhenCreatedAndSentByTheNextPass() {
+        List<String> emails = users(2, Role.USER);
+
+        ResetCampaignResponse created = campaignService.create(listRequest(emails.get(0), emails.get(1),
+                "nobody-" + UUID.randomUUID() + "@example.com"), "admin@example.com");
+
+        assertThat(created.getStatus()).isEqualTo("DISPATCHING");
+        assertThat(created.getUnmatchedEmails()).isEqualTo(1);
+        assertThat(created.getQueued()).isEqualTo(2);
+
+        runPass(created.getId());
+
+        ResetCampaignResponse done = campaignService.get(created.getId());
+        assertThat(done.getStatus()).isEqualTo("COMPLETED");
+        assertThat(done.getSent()).isEqualTo(2);
+        assertThat(done.getFinishedAt()).isNotNull();
+        assertThat(recipients).containsExactlyInAnyOrderElementsOf(emails);
+        assertThat(liveResetCodes(emails.get(0))).isEqualTo(1);
+    }
+
+    @Test
+    void queryIsSelectedByTheDispatcher() {
+        users(3, Role.ADMIN);
+        sleepPastCreation();
+
+        ResetCampaignResponse created = campaignService.create(queryRequest(Role.ADMIN), "admin@example.com");
+        assertThat(created.getStatus()).isEqualTo("SELECTING");
+        assertThat(created.getQueued()).isZero();
+
+        runPass(created.getId());
+
+        ResetCampaignResponse done = campaignService.get(created.getId());
+        assertThat(done.getStatus()).isEqualTo("COMPLETED");
+        assertThat(selectedUserIds(created.getId())).containsExactlyInAnyOrderElementsOf(
+                usersMatching(Role.ADMIN, store.find(created.getId()).orElseThrow().createdBefore()));
+        assertThat(done.getSent()).isEqualTo(done.getTargets());
+    }
+
+    @Test
+    void interruptedQuerySelectionResumesAfterTheLastSelectedUser() {
+        users(5, Role.ADMIN);
+        sleepPastCreation();
+        long id = campaignService.create(queryRequest(Role.ADMIN), "admin@example.com").getId();
+        ResetCampaign campaign = store.find(id).orElseThrow();
+
+        // The lease is lost after two batches
+        AtomicInteger renewals = new AtomicInteger();
+        assertThat(campaignService.selectQueried(campaign, () -> renewals.incrementAndGet() <= 2)).isFalse();
+        assertThat(selectedUserIds(id)).hasSize(4);
+
+        // Another pass picks up from the checkpoint; a user selected twice would break the unique key
+        assertThat(campaignService.selectQueried(campaign, () -> true)).isTrue();
+        assertThat(selectedUserIds(id)).containsExactlyInAnyOrderElementsOf(
+                usersMatching(Role.ADMIN, campaign.createdBefore()));
+    }
+
+    @Test
+    void pausedCampaignIsNotSentUntilResumed() {
+        long id = listCampaign(users(2, Role.USER));
+
+        assertThat(campaignService.pause(id).getStatus()).isEqualTo("PAUSED");
+        runPass(id);
+        assertThat(recipients).isEmpty();
+        assertConflict(() -> campaignService.pause(id));
+
+        // A list was selected when created, so it goes straight back to sending
+        assertThat(campaignService.resume(id).getStatus()).isEqualTo("DISPATCHING");
+        assertConflict(() -> campaignService.resume(id));
+        runPass(id);
+        assertThat(campaignService.get(id).getStatus()).isEqualTo("COMPLETED");
+        assertThat(recipients).hasSize(2);
+    }
+
+    @Test
+    void resumedQueryGoesBackToSelecting() {
+        users(1, Role.ADMIN);
+        sleepPastCreation();
+        long id = campaignService.create(queryRequest(Role.ADMIN), "admin@example.com").getId();
+
+        campaignService.pause(id);
+
+        assertThat(campaignService.resume(id).getStatus()).isEqualTo("SELECTING");
+    }
+
+    @Test
+    void cancelledCampaignStaysCancelled() {
+        long id = listCampaign(users(2, Role.USER));
+
+        ResetCampaignResponse cancelled = campaignService.cancel(id);
+        assertThat(cancelled.getStatus()).isEqualTo("CANCELLED");
+        assertThat(cancelled.getFinishedAt()).isNotNull();
+
+        runPass(id);
+        assertThat(recipients).isEmpty();
+        assertThat(campaignService.get(id).getQueued()).isEqualTo(2);
+        assertConflict(() -> campaignService.cancel(id));
+        assertConflict(() -> campaignService.resume(id));
+        assertConflict(() -> campaignService.pause(id));
+        assertConflict(() -> campaignService.retryFailed(id));
+    }
+
+    @Test
+    void retryFailedReopensACompletedCampaign() {
+        List<String> emails = users(2, Role.USER);
+        long id = listCampaign(emails);
+        when(emailService.sendForcedResetEmails(anyList(), anyList(), anyInt())).thenAnswer(invocation -> {
+            List<String> to = invocation.getArgument(0);
+            recipients.addAll(to);
+            return Set.of(to.indexOf(emails.get(1)));
+        });
+        runPass(id);
+        ResetCampaignResponse completed = campaignService.get(id);
+        assertThat(completed.getStatus()).isEqualTo("COMPLETED");
+        assertThat(completed.getFailed()).isEqualTo(1);
+        assertThat(liveResetCodes(emails.get(1))).isZero();
+
+        recordRecipients();
+        recipients.clear();
+        ResetCampaignResponse retried = campaignService.retryFailed(id);
+        assertThat(retried.getStatus()).isEqualTo("DISPATCHING");
+        assertThat(retried.getQueued()).isEqualTo(1);
+
+        runPass(id);
+        assertThat(recipients).containsExactly(emails.get(1));
+        ResetCampaignResponse done = campaignService.get(id);
+        assertThat(done.getStatus()).isEqualTo("COMPLETED");
+        assertThat(done.getSent()).isEqualTo(2);
+        assertThat(done.getFailed()).isZero();
+    }
+
+    @Test
+    void leaseKeepsOtherInstancesOutUntilItLapses() {
+        users(1, Role.ADMIN);
+        long id = campaignService.create(queryRequest(Role.ADMIN), "admin@example.com").getId();
+        String owner = campaignService.instanceId();
+        LocalDateTime until = LocalDateTime.now().plusMinutes(1);
+
+        assertThat(store.acquireLease(id, owner, until)).isTrue();
+        assertThat(store.acquireLease(id, OTHER_INSTANCE, until)).isFalse();
+        assertThat(store.renewLease(id, owner, Status.SELECTING, until)).isTrue();
+
+        expireLease(id);
+        assertThat(store.acquireLease(id, OTHER_INSTANCE, until)).isTrue();
+        // The previous holder finds out at its next renewal and stops
+        assertThat(store.renewLease(id, owner, Status.SELECTING, until)).isFalse();
+        store.releaseLease(id, owner);
+        assertThat(store.acquireLease(id, owner, until)).isFalse();
+
+        store.releaseLease(id, OTHER_INSTANCE);
+        assertThat(store.acquireLease(id, owner, until)).isTrue();
+    }
+
+    @Test
+    void leaseCannotBeTakenOnAStoppedCampaign() {
+        long id = listCampaign(users(1, Role.USER));
+        campaignService.pause(id);
+
+        assertThat(store.acquireLease(id, OTHER_INSTANCE, LocalDateTime.now().plusMinutes(1))).isFalse();
+    }
+
+    @Test
+    void takeoverAfterALostLeaseResumesFromTheLastCheckpoint() {
+        List<String> emails = users(5, Role.USER);
+        long id = listCampaign(emails);
+        AtomicInteger chunks = new AtomicInteger();
+        when(emailService.sendForcedResetEmails(anyList(), anyList(), anyInt())).thenAnswer(invocation -> {
+            recipients.addAll(invocation.getArgument(0));
+            if (chunks.incrementAndGet() == 2) {
+                // Another instance takes over while this chunk is out
+                jdbc.update("UPDATE reset_campaigns SET lease_owner = ?, lease_until = ? WHERE id = ?",
+                        OTHER_INSTANCE, LocalDateTime.now().plusMinutes(1), id);
+            }
+            return Set.of();
+        });
+
+        runPass(id);
+
+        // First batch of three went out; the next batch stopped before its first chunk
+        ResetCampaignResponse stopped = campaignService.get(id);
+        assertThat(stopped.getStatus()).isEqualTo("DISPATCHING");
+        assertThat(stopped.getSent()).isEqualTo(3);
+        assertThat(stopped.getQueued()).isEqualTo(2);
+        List<String> unsent = emails.stream().filter(email -> !recipients.contains(email)).toList();
+        assertThat(unsent).hasSize(2);
+        assertThat(unsent).allSatisfy(email -> assertThat(liveResetCodes(email)).isZero());
+
+        // This instance holds no lease now; once the other one's lapses it takes the campaign back
+        runPass(id);
+        assertThat(recipients).hasSize(3);
+        expireLease(id);
+        runPass(id);
+
+        assertThat(campaignService.get(id).getStatus()).isEqualTo("COMPLETED");
+        assertThat(recipients).containsExactlyInAnyOrderElementsOf(emails);
+        assertThat(emails).allSatisfy(email -> assertThat(liveResetCodes(email)).isEqualTo(1));
+    }
+
+    @Test
+    void listShowsTheNewestCampaignsFirst() {
+        long first = listCampaign(users(1, Role.USER));
+        long second = listCampaign(users(1, Role.USER));
+
+        List<Long> ids = campaignService.list().stream().map(ResetCampaignResponse::getId).toList();
+
+        assertThat(ids).containsSubsequence(second, first);
+    }
+
+    @Test
+    void unknownCampaignIsNotFound() {
+        assertThatThrownBy(() -> campaignService.pause(Long.MAX_VALUE))
+                .isInstanceOfSatisfying(AuthException.class,
+                        e -> assertThat(e.getCode()).isEqualTo(ErrorCode.CAMPAIGN_NOT_FOUND));
+    }
+
+    @Test
+    void listAndQueryCannotBeCombined() {
+        ResetCampaignRequest request = listRequest("someone@example.com");
+        request.setRole(Role.ADMIN);
+
+        assertThatThrownBy(() -> campaignService.create(request, "admin@example.com"))
+                .isInstanceOfSatisfying(AuthException.class,
+                        e -> assertThat(e.getCode()).isEqualTo(ErrorCode.INVALID_CAMPAIGN));
+        verify(emailService, never()).sendForcedResetEmails(anyList(), anyList(), anyInt());
+    }
+
+    private void runPass(long id) {
+        dispatcher.work(store.find(id).orElseThrow());
+    }
+
+    private long listCampaign(List<String> emails) {
+        return campaignService.create(listRequest(emails.toArray(String[]::new)), "admin@example.com").getId();
+    }
+
+    private static ResetCampaignRequest listRequest(String... emails) {
+        ResetCampaignRequest request = new ResetCampaignRequest();
+        request.setName("list");
+        request.setEmails(List.of(emails));
+        request.setEmailsPerSecond(200);
+        return request;
+    }
+
+    private static ResetCampaignRequest queryRequest(Role role) {
+        ResetCampaignRequest request = new ResetCampaignRequest();
+        request.setName("query");
+        request.setRole(role);
+        request.setEmailsPerSecond(200);
+        return request;
+    }
+
+    private List<String> users(int count, Role role) {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setUsername("campaign-" + run + "-" + i);
+            user.setEmail("campaign-" + run + "-" + i + "@example.com");
+            user.setPassword("hash");
+            user.setRole(role);
+            userRepository.save(user);
+            emails.add(user.getEmail());
+        }
+        return emails;
+    }
+
+    // Query campaigns only target users created strictly before them
+    private static void sleepPastCreation() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void expireLease(long id) {
+        jdbc.update("UPDATE reset_campaigns SET lease_until = ? WHERE id = ?", LocalDateTime.now().minusSeconds(1), id);
+    }
+
+    private List<Long> selectedUserIds(long id) {
+        return jdbc.queryForList("SELECT user_id FROM reset_campaign_deliveries WHERE campaign_id = ?", Long.class, id);
+    }
+
+    private List<Long> usersMatching(Role role, LocalDateTime createdBefore) {
+        return jdbc.queryForList("SELECT id FROM users WHERE role = ? AND created_at < ?", Long.class,
+                role.name(), createdBefore);
+    }
+
+    private int liveResetCodes(String email) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM otp_codes o JOIN users u ON u.id = o.user_id"
+                + " WHERE u.email = ? AND o.type = 'RESET_PASSWORD' AND o.used = FALSE", Integer.class, email);
+    }
+
+    private static void assertConflict(Runnable action) {
+        assertThatThrownBy(action::run)
+                .isInstanceOfSatisfying(AuthException.class,
+                        e -> assertThat(e.getCode()).isEqualTo(ErrorCode.CAMPAIGN_STATE_CONFLICT));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.auth.campaign;
+
+import com.example.auth.campaign.ResetCampaignService.SendRate;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SendRateTest {
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private final SendRate rate = new SendRate(now::get);
+
+    @Test
+    void nothingSentIsZero() {
+        assertThat(rate.perSecond()).isZero();
+    }
+
+    @Test
+    void freshCampaignIsAveragedOverTheSecondsSinceItsFirstSend() {
+        // 20 per second for five seconds
+        for (int second = 0; second < 5; second++) {
+            rate.record(20);
+            advanceSeconds(1);
+        }
+        now.addAndGet(-1000);
+
+        assertThat(rate.perSecond()).isEqualTo(20.0);
+    }
+
+    @Test
+    void firstSecondCountsInFull() {
+        rate.record(15);
+
+        assertThat(rate.perSecond()).isEqualTo(15.0);
+    }
+
+    @Test
+    void idleSecondsSinceTheFirstSendLowerTheRate() {
+        rate.record(30);
+        advanceSeconds(9);
+
+        assertThat(rate.perSecond()).isEqualTo(3.0);
+    }
+
+    @Test
+    void longRunningCampaignIsAveragedOverTheLastMinute() {
+        for (int second = 0; second < 120; second++) {
+            rate.record(10);
+            advanceSeconds(1);
+        }
+        now.addAndGet(-1000);
+
+        assertThat(rate.perSecond()).isEqualTo(10.0);
+    }
+
+    @Test
+    void sendsOlderThanAMinuteExpire() {
+        rate.record(50);
+        advanceSeconds(60);
+
+        assertThat(rate.perSecond()).isZero();
+    }
+
+    private void advanceSeconds(int seconds) {
+        now.addAndGet(seconds * 1000L);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.auth.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ServiceTokenClientTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong(1_000 * SECOND);
+    private final HttpClient http = mock(HttpClient.class);
+    private final Deque<HttpResponse<byte[]>> responses = new ArrayDeque<>();
+    private final List<HttpRequest> requests = new ArrayList<>();
+    private final ServiceTokenClient client = new ServiceTokenClient(http, URI.create("https://auth.example"),
+            "nightly-export", "s3cret", "users:read", 0.8, now::get);
+
+    ServiceTokenClientTest() throws Exception {
+        doAnswer(invocation -> {
+            requests.add(invocation.getArgument(0));
+            return responses.remove();
+        }).when(http).send(any(), any());
+    }
+
+    @Test
+    void fetchesOnceAndServesTheCachedToken() throws Exception {
+        answer(200, "{\"access_token\":\"token-1\",\"expires_in\":100}");
+
+        assertThat(client.token()).isEqualTo("token-1");
+        now.addAndGet(79 * SECOND);
+        assertThat(client.authorizationHeader()).isEqualTo("Bearer token-1");
+        assertThat(requests).hasSize(1);
+    }
+
+    @Test
+    void requestCarriesTheClientCredentials() throws Exception {
+        answer(200, "{\"access_token\":\"token-1\",\"expires_in\":100}");
+
+        client.token();
+
+        HttpRequest request = requests.get(0);
+        assertThat(request.uri()).isEqualTo(URI.create("https://auth.example/api/auth/token"));
+        assertThat(request.method()).isEqualTo("POST");
+        assertThat(request.headers().firstValue("Authorization"))
+                .hasValue("Basic bmlnaHRseS1leHBvcnQ6czNjcmV0");
+        assertThat(request.headers().firstValue("Content-Type")).hasValue("application/x-www-form-urlencoded");
+    }
+
+    @Test
+    void renewsEarlyOnceRefreshAheadHasPassed() throws Exception {
+        answer(200, "{\"access_token\":\"token-1\",\"expires_in\":100}");
+        answer(200, "{\"access_token\":\"token-2\",\"expires_in\":100}");
+        client.token();
+
+        now.addAndGet(80 * SECOND);
+
+        assertThat(client.token()).isEqualTo("token-2");
+        assertThat(requests).hasSize(2);
+    }
+
+    @Test
+    void failedEarlyRenewalKeepsTheCurrentTokenAndRetriesNextCall() throws Exception {
+        answer(200, "{\"access_token\":\"token-1\",\"expires_in\":100}");
+        answer(503, "busy");
+        answer(200, "{\"access_token\":\"token-2\",\"expires_in\":100}");
+        client.token();
+        now.addAndGet(85 * SECOND);
+
+        assertThat(client.token()).isEqualTo("token-1");
+        assertThat(client.token()).isEqualTo("token-2");
+        assertThat(requests).hasSize(3);
+    }
+
+    @Test
+    void expiredTokenIsNotServedWhenRenewalFails() throws Exception {
+        answer(200, "{\"access_token\":\"token-1\",\"expires_in\":100}");
+        answer(503, "busy");
+        client.token();
+        // Expiry is held back by a safety margin, so 95 s is already too late
+        now.addAndGet(95 * SECOND);
+
+        assertThatThrownBy(client::token).isInstanceOf(IOException.class).hasMessageContaining("503");
+    }
+
+    @Test
+    void expiredTokenIsReplacedBeforeUse() throws Exception {
+        answer(200, "{\"access_token\":\"token-1\",\"expires_in\":100}");
+        answer(200, "{\"access_token\":\"token-2\",\"expires_in\":100}");
+        client.token();
+        now.addAndGet(200 * SECOND);
+
+        assertThat(client.token()).isEqualTo("token-2");
+    }
+
+    @Test
+    void invalidateFetchesANewToken() throws Exception {
+        answer(200, "{\"access_token\":\"token-1\",\"expires_in\":100}");
+        answer(200, "{\"access_token\":\"token-2\",\"expires_in\":100}");
+        client.token();
+
+        client.invalidate();
+
+        assertThat(client.token()).isEqualTo("token-2");
+    }
+
+    @Test
+    void invalidateDuringEarlyRenewalDoesNotFailTheCaller() throws Exception {
+        answer(200, "{\"access_token\":\"token-1\",\"expires_in\":100}");
+        AtomicReference<ServiceTokenClient> racing = new AtomicReference<>();
+        AtomicBoolean invalidateOnNextReading = new AtomicBoolean();
+        racing.set(new ServiceTokenClient(http, URI.create("https://auth.example"),
+                "nightly-export", "s3cret", null, 0.8, () -> {
+                    // token() reads the clock after taking its copy of the cached token
+                    if (invalidateOnNextReading.getAndSet(false)) {
+                        racing.get().invalidate();
+                    }
+                    return now.get();
+                }));
+        racing.get().token();
+        now.addAndGet(85 * SECOND);
+        invalidateOnNextReading.set(true);
+
+        assertThat(racing.get().token()).isEqualTo("token-1");
+    }
+
+    @Test
+    void responseWithoutATokenIsRejected() throws Exception {
+        answer(200, "{\"token_type\":\"Bearer\"}");
+
+        assertThatThrownBy(client::token).isInstanceOf(IOException.class)
+                .hasMessageContaining("access_token");
+    }
+
+    @Test
+    void refreshAheadMustBeAFractionOfTheLifetime() {
+        assertThatThrownBy(() -> new ServiceTokenClient(http, URI.create("https://auth.example"),
+                "id", "secret", null, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ServiceTokenClient(http, URI.create("https://auth.example"),
+                "id", "secret", null, 1.5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void answer(int status, String body) {
+        HttpResponse<byte[]> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(status);
+        when(response.body()).thenReturn(body.getBytes(StandardCharsets.UTF_8));
+        responses.add(response);
+    }
+}
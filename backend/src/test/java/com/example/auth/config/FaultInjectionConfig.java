@@ -0,0 +1,69 @@
+package com.example.auth.config;
+
+import com.example.auth.fault.FaultInjectingDataSource;
+import com.example.auth.fault.FaultInjectingMailSender;
+import com.example.auth.fault.FaultInjector;
+import com.example.auth.fault.SaturationSampler;
+import com.example.auth.metrics.ConnectionMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Wraps the JavaMailSender and the primary datasource in fault-injecting
+ * stand-ins and logs saturation samples, for the soak scenarios in
+ * scripts/fault-soak.sh. Not a scanned configuration: it is only in effect
+ * where it is imported, by {@code FaultSoakApplication} and by tests.
+ */
+@EnableConfigurationProperties(FaultInjectionProperties.class)
+public class FaultInjectionConfig {
+
+    @Bean
+    public FaultInjector smtpFaultInjector(FaultInjectionProperties properties) {
+        return new FaultInjector("smtp", properties.getSmtp());
+    }
+
+    @Bean
+    public FaultInjector connectionFaultInjector(FaultInjectionProperties properties) {
+        return new FaultInjector("connection", properties.getConnection());
+    }
+
+    @Bean
+    public FaultInjector statementFaultInjector(FaultInjectionProperties properties) {
+        return new FaultInjector("statement", properties.getStatement());
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public SaturationSampler saturationSampler(ApplicationContext context, ConnectionMetrics connectionMetrics,
+                                               List<FaultInjector> injectors, FaultInjectionProperties properties) {
+        return new SaturationSampler(context, connectionMetrics, injectors, properties.getSaturationLogIntervalMs());
+    }
+
+    @Bean
+    static BeanPostProcessor faultInjectionPostProcessor(
+            ObjectProvider<FaultInjectionProperties> properties,
+            @Qualifier("smtpFaultInjector") ObjectProvider<FaultInjector> smtp,
+            @Qualifier("connectionFaultInjector") ObjectProvider<FaultInjector> connection,
+            @Qualifier("statementFaultInjector") ObjectProvider<FaultInjector> statement) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof JavaMailSender mailSender && !(bean instanceof FaultInjectingMailSender)) {
+                    return new FaultInjectingMailSender(mailSender, smtp.getObject());
+                }
+                if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+                    return new FaultInjectingDataSource(dataSource, connection.getObject(), statement.getObject(),
+                            properties.getObject().getStatement().getSqlContains());
+                }
+                return bean;
+            }
+        };
+    }
+}
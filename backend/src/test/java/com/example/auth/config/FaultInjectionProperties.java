@@ -0,0 +1,57 @@
+package com.example.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Faults injected into outgoing mail and database calls, bound from the
+ * {@code fault-injection.*} properties. Meant for soak runs against local
+ * stand-ins (scripts/fault-soak.sh), so it only exists on the test classpath.
+ */
+@Data
+@ConfigurationProperties(prefix = "fault-injection")
+public class FaultInjectionProperties {
+    // Logs a "saturation" line with request thread and pool usage at this interval; 0 disables
+    private long saturationLogIntervalMs = 1000;
+
+    // Each JavaMailSender send
+    private Fault smtp = new Fault();
+
+    // Each connection taken from the pool, applied while holding it, so
+    // latency here drains the pool the way slow transactions do
+    private Fault connection = new Fault();
+
+    // Each statement execution whose SQL contains statement.sql-contains
+    private Fault statement = new Fault();
+
+    public enum Distribution {
+        FIXED, UNIFORM, EXPONENTIAL
+    }
+
+    /**
+     * Latency, failures and stalls added to one kind of call.
+     */
+    @Data
+    public static class Fault {
+        // FIXED: always latency-ms; UNIFORM: 0 to 2x latency-ms; EXPONENTIAL: mean latency-ms
+        private Distribution distribution = Distribution.FIXED;
+        private long latencyMs = 0;
+
+        // Upper bound on sampled latency, stalls excluded
+        private long maxLatencyMs = 60_000;
+
+        // Share of calls that fail after their latency
+        private double errorRate = 0;
+
+        // Share of calls that also pause for stall-ms: lock waits, GC, a hung relay
+        private double stallRate = 0;
+        private long stallMs = 0;
+
+        // Statements only: case-insensitive SQL fragment to match, e.g. otp_codes; empty matches all
+        private String sqlContains = "";
+
+        public boolean isActive() {
+            return latencyMs > 0 || errorRate > 0 || (stallRate > 0 && stallMs > 0);
+        }
+    }
+}
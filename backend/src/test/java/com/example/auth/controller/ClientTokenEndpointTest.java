@@ -0,0 +1,111 @@
+package com.example.auth.controller;
+
+import com.example.auth.security.TokenClaims;
+import com.example.auth.service.JwtService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * {@code POST /api/auth/token}: the client-credentials grant as machine
+ * clients see it.
+ */
+@SpringBootTest(properties = {
+        "client-credentials.hash-key=test-hash-key",
+        "client-credentials.clients.gateway.secret-hash=6hAJjsPOVSZPehLTWRlrrYy7jdt48QEDvYkDmz1Zxzw",
+        "client-credentials.clients.gateway.scopes=introspect",
+        "client-credentials.clients.export.secret-hash=cUDZ-418AKBbAFvZm7X0lZCRvgeXi88xw0TRJT-CJBA",
+        "client-credentials.clients.export.scopes=users:read",
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ClientTokenEndpointTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void registeredClientGetsAServiceToken() throws Exception {
+        String body = token(basic("export", "export-secret"), "grant_type=client_credentials")
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(jsonPath("$.token_type").value("Bearer"))
+                .andExpect(jsonPath("$.scope").value("users:read"))
+                .andExpect(jsonPath("$.expires_in").isNumber())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode response = objectMapper.readTree(body);
+        TokenClaims claims = jwtService.verify(response.path("access_token").asText());
+        assertThat(claims.subject()).isEqualTo("export");
+        assertThat(claims.scope()).isEqualTo("users:read");
+    }
+
+    @Test
+    void formCredentialsAreAccepted() throws Exception {
+        token(null, "grant_type=client_credentials&client_id=export&client_secret=export-secret")
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void wrongSecretIsRejected() throws Exception {
+        token(basic("export", "gateway-secret"), "grant_type=client_credentials")
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.code").value("INVALID_CLIENT"));
+    }
+
+    @Test
+    void unknownClientIsRejected() throws Exception {
+        token(basic("nightly", "export-secret"), "grant_type=client_credentials")
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.code").value("INVALID_CLIENT"));
+    }
+
+    @Test
+    void scopeBeyondTheRegistrationIsRejected() throws Exception {
+        token(basic("export", "export-secret"), "grant_type=client_credentials&scope=users%3Aread+introspect")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_SCOPE"));
+    }
+
+    @Test
+    void otherGrantTypesAreRejected() throws Exception {
+        token(basic("export", "export-secret"), "grant_type=password")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("UNSUPPORTED_GRANT_TYPE"));
+    }
+
+    private ResultActions token(String authorization, String form) throws Exception {
+        var request = post("/api/auth/token")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .content(form);
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        return mockMvc.perform(request);
+    }
+
+    private static String basic(String clientId, String secret) {
+        return "Basic " + Base64.getEncoder().encodeToString((clientId + ":" + secret).getBytes(StandardCharsets.UTF_8));
+    }
+}
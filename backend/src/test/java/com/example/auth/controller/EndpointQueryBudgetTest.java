@@ -0,0 +1,171 @@
+package com.example.auth.controller;
+
+import com.example.auth.metrics.QueryCountingConfig;
+import com.example.auth.metrics.QueryRecorder;
+import com.example.auth.service.EmailService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * SQL budgets per endpoint: each test drives one request and fails, listing
+ * the SQL it ran, if the request executes more statements or reads more
+ * rows than its budget. Raising a budget is a deliberate change here;
+ * setup requests around the measured one are not counted.
+ */
+@SpringBootTest(properties = {
+        "client-credentials.hash-key=test-hash-key",
+        "client-credentials.clients.gateway.secret-hash=6hAJjsPOVSZPehLTWRlrrYy7jdt48QEDvYkDmz1Zxzw",
+        "client-credentials.clients.gateway.scopes=introspect",
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(QueryCountingConfig.class)
+class EndpointQueryBudgetTest {
+    private static final String PASSWORD = "Budget-Check-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QueryRecorder recorder;
+
+    @MockBean
+    private EmailService emailService;
+
+    @Test
+    void register() throws Exception {
+        withinBudget(7, 1, 201, json(post("/api/auth/register"),
+                "{\"username\":\"budget-register\",\"email\":\"budget-register@example.com\",\"password\":\"" + PASSWORD + "\"}"));
+    }
+
+    @Test
+    void verifyOtp() throws Exception {
+        String email = register("budget-verify");
+        withinBudget(3, 0, 200, json(post("/api/auth/verify-otp"),
+                "{\"email\":\"" + email + "\",\"otpCode\":\"" + latestOtp(email) + "\"}"));
+    }
+
+    @Test
+    void login() throws Exception {
+        String email = verifiedUser("budget-login");
+        withinBudget(4, 4, 200, json(post("/api/auth/login"),
+                "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}"));
+    }
+
+    @Test
+    void forgotPassword() throws Exception {
+        String email = verifiedUser("budget-forgot");
+        withinBudget(3, 2, 200, json(post("/api/auth/forgot-password"), "{\"email\":\"" + email + "\"}"));
+    }
+
+    @Test
+    void resetPassword() throws Exception {
+        String email = verifiedUser("budget-reset");
+        perform(200, json(post("/api/auth/forgot-password"), "{\"email\":\"" + email + "\"}"));
+        withinBudget(4, 2, 200, json(post("/api/auth/reset-password"),
+                "{\"email\":\"" + email + "\",\"otpCode\":\"" + latestOtp(email) + "\",\"newPassword\":\"Budget-Check-2\"}"));
+    }
+
+    @Test
+    void introspect() throws Exception {
+        String token = accessToken(verifiedUser("budget-introspect"));
+        withinBudget(0, 0, 200, json(post("/api/auth/introspect"), "{\"tokens\":[\"" + token + "\",\"not-a-token\"]}")
+                .header("Authorization", "Basic " + Base64.getEncoder()
+                        .encodeToString("gateway:gateway-secret".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void currentUser() throws Exception {
+        String token = accessToken(verifiedUser("budget-me"));
+        withinBudget(2, 2, 200, get("/api/users/me").header("Authorization", "Bearer " + token));
+    }
+
+    @Test
+    void currentUserNotModified() throws Exception {
+        String token = accessToken(verifiedUser("budget-etag"));
+        String etag = perform(200, get("/api/users/me").header("Authorization", "Bearer " + token))
+                .getResponse().getHeader("ETag");
+        withinBudget(2, 2, 304, get("/api/users/me")
+                .header("Authorization", "Bearer " + token)
+                .header("If-None-Match", etag));
+    }
+
+    @Test
+    void startTotpEnrolment() throws Exception {
+        String token = accessToken(verifiedUser("budget-totp"));
+        withinBudget(4, 3, 200, post("/api/users/me/totp").header("Authorization", "Bearer " + token));
+    }
+
+    private void withinBudget(int statements, long rows, int expectedStatus, RequestBuilder request) throws Exception {
+        try (QueryRecorder.Recording recording = recorder.start()) {
+            MvcResult result = perform(expectedStatus, request);
+            MockHttpServletRequest sent = result.getRequest();
+            assertThat(recording.statements() <= statements && recording.rows() <= rows)
+                    .as("%s %s is over its budget of %d statements and %d rows: %s",
+                            sent.getMethod(), sent.getRequestURI(), statements, rows, recording.describe())
+                    .isTrue();
+        }
+    }
+
+    private MvcResult perform(int expectedStatus, RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        assertThat(result.getResponse().getStatus())
+                .as(result.getResponse().getContentAsString())
+                .isEqualTo(expectedStatus);
+        return result;
+    }
+
+    private String register(String username) throws Exception {
+        String email = username + "@example.com";
+        perform(201, json(post("/api/auth/register"),
+                "{\"username\":\"" + username + "\",\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}"));
+        return email;
+    }
+
+    private String verifiedUser(String username) throws Exception {
+        String email = register(username);
+        perform(200, json(post("/api/auth/verify-otp"),
+                "{\"email\":\"" + email + "\",\"otpCode\":\"" + latestOtp(email) + "\"}"));
+        return email;
+    }
+
+    private String accessToken(String email) throws Exception {
+        MvcResult result = perform(200, json(post("/api/auth/login"),
+                "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}"));
+        return JsonPath.read(result.getResponse().getContentAsString(), "$.accessToken");
+    }
+
+    private String latestOtp(String email) {
+        ArgumentCaptor<String> otp = ArgumentCaptor.forClass(String.class);
+        verify(emailService, atLeastOnce()).sendOtpEmail(eq(email), otp.capture(), anyString());
+        return otp.getValue();
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.auth.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Introspection callers are client-credentials clients; only those
+ * registered with the introspect scope get through.
+ */
+@SpringBootTest(properties = {
+        "client-credentials.hash-key=test-hash-key",
+        "client-credentials.clients.gateway.secret-hash=6hAJjsPOVSZPehLTWRlrrYy7jdt48QEDvYkDmz1Zxzw",
+        "client-credentials.clients.gateway.scopes=introspect",
+        "client-credentials.clients.export.secret-hash=cUDZ-418AKBbAFvZm7X0lZCRvgeXi88xw0TRJT-CJBA",
+        "client-credentials.clients.export.scopes=users:read",
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IntrospectionClientTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void clientWithTheIntrospectScopeIsServed() throws Exception {
+        introspect("gateway", "gateway-secret")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].active").value(false));
+    }
+
+    @Test
+    void clientWithoutTheIntrospectScopeIsRejected() throws Exception {
+        introspect("export", "export-secret").andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void wrongSecretIsRejected() throws Exception {
+        introspect("gateway", "export-secret").andExpect(status().isUnauthorized());
+    }
+
+    private ResultActions introspect(String clientId, String secret) throws Exception {
+        return mockMvc.perform(post("/api/auth/introspect")
+                .header("Authorization", "Basic " + Base64.getEncoder()
+                        .encodeToString((clientId + ":" + secret).getBytes(StandardCharsets.UTF_8)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"tokens\":[\"not-a-token\"]}"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.auth.controller;
+
+import com.example.auth.metrics.QueryCountingConfig;
+import com.example.auth.metrics.QueryRecorder;
+import com.example.auth.service.EmailService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL of the verify-and-promote path through
+ * {@code QueryCountingDataSource}: consuming the OTP, the INSERT ... SELECT
+ * into users and the delete of the pending registration.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(QueryCountingConfig.class)
+class VerifyOtpQueryCountTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QueryRecorder recorder;
+
+    @MockBean
+    private EmailService emailService;
+
+    @Test
+    void verifyOtpPromotesInThreeStatements() throws Exception {
+        mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"counted\",\"email\":\"counted@example.com\",\"password\":\"Counted-1\"}"))
+                .andExpect(status().isCreated());
+        ArgumentCaptor<String> otp = ArgumentCaptor.forClass(String.class);
+        verify(emailService).sendOtpEmail(eq("counted@example.com"), otp.capture(), anyString());
+
+        try (QueryRecorder.Recording recording = recorder.start()) {
+            mockMvc.perform(post("/api/auth/verify-otp").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"email\":\"counted@example.com\",\"otpCode\":\"" + otp.getValue() + "\"}"))
+                    .andExpect(status().isOk());
+
+            assertThat(recording.statements()).as(recording.describe()).isEqualTo(3);
+            assertThat(recording.rows()).as(recording.describe()).isZero();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.auth.exception;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import com.example.auth.audit.AuditLog;
+import com.example.auth.dto.LoginRequest;
+import com.example.auth.entity.User;
+import com.example.auth.metrics.AuthStats;
+import com.example.auth.service.AuthService;
+import com.example.auth.service.EmailService;
+import com.example.auth.service.JwtService;
+import com.example.auth.service.OtpService;
+import com.example.auth.service.PendingRegistrationService;
+import com.example.auth.service.UserService;
+import com.example.auth.service.UsernameIndexService;
+import com.example.auth.sharding.ShardRouter;
+import com.example.auth.sharding.ShardingProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Failed logins for an unknown email, from {@link AuthService#login} through
+ * {@link GlobalExceptionHandler}, as a credential-stuffing run produces them.
+ * "stackless" is the {@link AuthException} path; "stack-trace" throws an
+ * ordinary RuntimeException from the same spot and has it handled as any
+ * unexpected failure, stack and all. Requests arrive {@value #FRAMES} frames
+ * deep, about what Tomcat, the filter chain and the dispatcher add.
+ * Audit recording is off and log lines go nowhere, so the numbers leave
+ * out disk I/O:
+ *
+ * <pre>
+ * scripts/jmh.sh FailedLoginBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FailedLoginBenchmark {
+    private static final int FRAMES = 80;
+
+    @Param({"stackless", "stack-trace"})
+    private String exception;
+
+    private AuthService authService;
+    private GlobalExceptionHandler handler;
+    private LoginRequest request;
+    private MockHttpServletRequest httpRequest;
+
+    @Setup
+    public void setUp() {
+        // No appenders: events are still built, stack and all, but never written
+        Logger root = ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        root.setLevel(Level.INFO);
+
+        boolean stackTrace = exception.equals("stack-trace");
+        // Real or hand-stubbed where the failed login passes; mocks walk the stack on every call
+        UserService userService = new UserService(null, null, null, null, null) {
+            @Override
+            public User findByEmail(String email) {
+                if (stackTrace) {
+                    throw new RuntimeException("Invalid email or password");
+                }
+                return null;
+            }
+        };
+        authService = new AuthService(userService, mock(PendingRegistrationService.class), mock(OtpService.class),
+                mock(EmailService.class), mock(JwtService.class), mock(AuthenticationManager.class),
+                new ShardRouter(new ShardingProperties(), null), mock(UsernameIndexService.class), new AuditLog(),
+                new AuthStats(), mock(PasswordEncoder.class), mock(TransactionTemplate.class));
+        handler = new GlobalExceptionHandler();
+        request = new LoginRequest();
+        request.setEmail("nobody@example.com");
+        request.setPassword("guess");
+        httpRequest = new MockHttpServletRequest("POST", "/api/auth/login");
+    }
+
+    @Benchmark
+    public ResponseEntity<?> failedLogin() {
+        return call(FRAMES);
+    }
+
+    private ResponseEntity<?> call(int depth) {
+        if (depth > 0) {
+            return call(depth - 1);
+        }
+        try {
+            authService.login(request);
+        } catch (AuthException e) {
+            return handler.handleAuthException(e, httpRequest);
+        } catch (RuntimeException e) {
+            return handler.handleRuntimeException(e);
+        }
+        throw new IllegalStateException("Login for an unknown email succeeded");
+    }
+}
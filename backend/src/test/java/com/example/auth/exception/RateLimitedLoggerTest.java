@@ -0,0 +1,86 @@
+package com.example.auth.exception;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class RateLimitedLoggerTest {
+    private static final String FORMAT = "auth_error code={}";
+    private static final String SUPPRESSED = "auth_error_suppressed key={} count={}";
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private Logger log;
+    private RateLimitedLogger limited;
+
+    @BeforeEach
+    void setUp() {
+        log = mock(Logger.class);
+        when(log.isWarnEnabled()).thenReturn(true);
+        limited = new RateLimitedLogger(log, 20, 1000, now::get);
+    }
+
+    @Test
+    void letsThroughAtMostTheLimitPerCodeAndSecond() {
+        for (int i = 0; i < 50; i++) {
+            limited.warn("INVALID_CREDENTIALS", FORMAT, "INVALID_CREDENTIALS");
+            now.addAndGet(10);
+        }
+
+        verify(log, times(20)).warn(FORMAT, new Object[]{"INVALID_CREDENTIALS"});
+        verify(log, never()).warn(eq(SUPPRESSED), any(), any());
+    }
+
+    @Test
+    void countsCodesSeparately() {
+        for (int i = 0; i < 30; i++) {
+            limited.warn("INVALID_CREDENTIALS", FORMAT, "INVALID_CREDENTIALS");
+            limited.warn("INVALID_OTP", FORMAT, "INVALID_OTP");
+        }
+
+        verify(log, times(20)).warn(FORMAT, new Object[]{"INVALID_CREDENTIALS"});
+        verify(log, times(20)).warn(FORMAT, new Object[]{"INVALID_OTP"});
+    }
+
+    @Test
+    void reportsTheSuppressedCountWhenTheNextWindowOpens() {
+        for (int i = 0; i < 35; i++) {
+            limited.warn("INVALID_OTP", FORMAT, "INVALID_OTP");
+        }
+        now.addAndGet(1000);
+        limited.warn("INVALID_OTP", FORMAT, "INVALID_OTP");
+
+        verify(log).warn(SUPPRESSED, "INVALID_OTP", 15);
+        verify(log, times(21)).warn(FORMAT, new Object[]{"INVALID_OTP"});
+    }
+
+    @Test
+    void staysQuietAboutWindowsWithNothingSuppressed() {
+        limited.warn("INVALID_OTP", FORMAT, "INVALID_OTP");
+        now.addAndGet(5000);
+        limited.warn("INVALID_OTP", FORMAT, "INVALID_OTP");
+
+        verify(log, never()).warn(eq(SUPPRESSED), any(), any());
+        verify(log, times(2)).warn(FORMAT, new Object[]{"INVALID_OTP"});
+    }
+
+    @Test
+    void skipsEverythingWhenWarnIsOff() {
+        when(log.isWarnEnabled()).thenReturn(false);
+
+        limited.warn("INVALID_OTP", FORMAT, "INVALID_OTP");
+
+        verify(log).isWarnEnabled();
+        verifyNoMoreInteractions(log);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.auth.fault;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.SQLTransientException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Adds latency, stalls and failures to connection checkout and to matching
+ * statements. Connection faults are applied after the pool hands the
+ * connection out, so a slow checkout also keeps the connection busy and a
+ * small pool runs dry. Statement faults stand in for lock waits on a hot
+ * table. The JDBC objects are dynamic proxies, which is why this is only
+ * installed for soak runs.
+ */
+public class FaultInjectingDataSource extends DelegatingDataSource {
+    private final FaultInjector connectionFaults;
+    private final FaultInjector statementFaults;
+    private final String sqlContains;
+
+    public FaultInjectingDataSource(DataSource target, FaultInjector connectionFaults,
+                                    FaultInjector statementFaults, String sqlContains) {
+        super(target);
+        this.connectionFaults = connectionFaults;
+        this.statementFaults = statementFaults;
+        this.sqlContains = sqlContains == null ? "" : sqlContains.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return afterCheckout(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return afterCheckout(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection afterCheckout(Connection connection) throws SQLException {
+        if (connectionFaults.inject()) {
+            connection.close();
+            throw new SQLTransientConnectionException("Injected connection failure");
+        }
+        if (!statementFaults.isActive()) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                        return Proxy.newProxyInstance(getClass().getClassLoader(),
+                                new Class<?>[]{method.getReturnType()}, new StatementHandler(statement, sql));
+                    }
+                    return result;
+                });
+    }
+
+    private boolean matches(String sql) {
+        return sqlContains.isEmpty() || (sql != null && sql.toLowerCase(Locale.ROOT).contains(sqlContains));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String preparedSql;
+        private String batchSql;
+
+        StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            switch (method.getName()) {
+                case "execute", "executeQuery", "executeUpdate", "executeLargeUpdate" -> injectFault(sql);
+                case "addBatch" -> batchSql = sql;
+                case "executeBatch", "executeLargeBatch" -> injectFault(batchSql);
+                default -> {
+                }
+            }
+            return FaultInjectingDataSource.invoke(statement, method, args);
+        }
+
+        private void injectFault(String sql) throws SQLException {
+            if (matches(sql) && statementFaults.inject()) {
+                throw new SQLTransientException("Injected lock wait timeout");
+            }
+        }
+    }
+}
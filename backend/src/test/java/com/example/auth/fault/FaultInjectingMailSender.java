@@ -0,0 +1,52 @@
+package com.example.auth.fault;
+
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.io.InputStream;
+
+/**
+ * Slows down or fails sends before handing them to the real sender, the way
+ * a congested or flaky SMTP relay would. The single-message and preparator
+ * variants all end up in the two overridden methods.
+ */
+public class FaultInjectingMailSender implements JavaMailSender {
+    private final JavaMailSender delegate;
+    private final FaultInjector smtp;
+
+    public FaultInjectingMailSender(JavaMailSender delegate, FaultInjector smtp) {
+        this.delegate = delegate;
+        this.smtp = smtp;
+    }
+
+    @Override
+    public MimeMessage createMimeMessage() {
+        return delegate.createMimeMessage();
+    }
+
+    @Override
+    public MimeMessage createMimeMessage(InputStream contentStream) throws MailException {
+        return delegate.createMimeMessage(contentStream);
+    }
+
+    @Override
+    public void send(MimeMessage... mimeMessages) throws MailException {
+        injectFault();
+        delegate.send(mimeMessages);
+    }
+
+    @Override
+    public void send(SimpleMailMessage... simpleMessages) throws MailException {
+        injectFault();
+        delegate.send(simpleMessages);
+    }
+
+    private void injectFault() {
+        if (smtp.inject()) {
+            throw new MailSendException("Injected SMTP failure");
+        }
+    }
+}
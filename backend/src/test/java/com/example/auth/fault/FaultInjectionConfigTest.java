@@ -0,0 +1,60 @@
+package com.example.auth.fault;
+
+import com.example.auth.AuthApplication;
+import com.example.auth.config.FaultInjectionConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * The otp-locks soak scenario with every matching statement failing: the
+ * wrappers are in place and a fault on otp_codes inserts fails the
+ * registration. The fragment leaves the schema's CREATE TABLE alone.
+ */
+@SpringBootTest(classes = {AuthApplication.class, FaultInjectionConfig.class}, properties = {
+        "fault-injection.statement.sql-contains=into otp_codes",
+        "fault-injection.statement.error-rate=1",
+        "fault-injection.saturation-log-interval-ms=0",
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FaultInjectionConfigTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    @Qualifier("statementFaultInjector")
+    private FaultInjector statementFaults;
+
+    @Test
+    void wrapsTheDatasourceAndMailSender() {
+        assertThat(dataSource).isInstanceOf(FaultInjectingDataSource.class);
+        assertThat(mailSender).isInstanceOf(FaultInjectingMailSender.class);
+    }
+
+    @Test
+    void failsStatementsOnTheMatchingTable() throws Exception {
+        mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"faulted\",\"email\":\"faulted@example.com\",\"password\":\"Faulted-1\"}"))
+                .andExpect(result -> assertThat(result.getResponse().getStatus()).isNotEqualTo(201));
+
+        assertThat(statementFaults.summary()).isEqualTo("statement=1/1/0");
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.auth.fault;
+
+import com.example.auth.config.FaultInjectionProperties;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applies one {@link FaultInjectionProperties.Fault} on the calling thread:
+ * sleeps for a sampled latency, sometimes stalls, and tells the caller
+ * whether to fail the call. Counts what it injected for the saturation log.
+ */
+public class FaultInjector {
+    private final String name;
+    private final FaultInjectionProperties.Fault fault;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder stalls = new LongAdder();
+
+    public FaultInjector(String name, FaultInjectionProperties.Fault fault) {
+        this.name = name;
+        this.fault = fault;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isActive() {
+        return fault.isActive();
+    }
+
+    /**
+     * Delays the caller; returns true if the call should then fail.
+     */
+    public boolean inject() {
+        if (!fault.isActive()) {
+            return false;
+        }
+        calls.increment();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delayMs = Math.min(sampleLatency(random), fault.getMaxLatencyMs());
+        if (fault.getStallRate() > 0 && random.nextDouble() < fault.getStallRate()) {
+            stalls.increment();
+            delayMs += fault.getStallMs();
+        }
+        if (delayMs > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return true;
+            }
+        }
+        if (fault.getErrorRate() > 0 && random.nextDouble() < fault.getErrorRate()) {
+            errors.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private long sampleLatency(ThreadLocalRandom random) {
+        long mean = fault.getLatencyMs();
+        if (mean <= 0) {
+            return 0;
+        }
+        return switch (fault.getDistribution()) {
+            case FIXED -> mean;
+            case UNIFORM -> random.nextLong(2 * mean + 1);
+            case EXPONENTIAL -> (long) (-mean * Math.log(1 - random.nextDouble()));
+        };
+    }
+
+    // name=calls/errors/stalls
+    String summary() {
+        return name + "=" + calls.sum() + "/" + errors.sum() + "/" + stalls.sum();
+    }
+}
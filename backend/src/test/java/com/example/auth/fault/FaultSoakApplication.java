@@ -0,0 +1,19 @@
+package com.example.auth.fault;
+
+import com.example.auth.AuthApplication;
+import com.example.auth.config.FaultInjectionConfig;
+import org.springframework.boot.SpringApplication;
+
+/**
+ * The service with {@link FaultInjectionConfig} applied, started from the
+ * test classpath by scripts/fault-soak.sh. Faults are set per scenario
+ * with {@code --fault-injection.*} arguments.
+ */
+public final class FaultSoakApplication {
+    private FaultSoakApplication() {
+    }
+
+    public static void main(String[] args) {
+        SpringApplication.run(new Class<?>[]{AuthApplication.class, FaultInjectionConfig.class}, args);
+    }
+}
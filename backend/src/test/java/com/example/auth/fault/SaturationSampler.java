@@ -0,0 +1,89 @@
+package com.example.auth.fault;
+
+import com.example.auth.metrics.ConnectionMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.connector.Connector;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.context.ApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Logs request thread and connection pool occupancy at a fixed interval
+ * during soak runs, one line per sample:
+ *
+ * <pre>
+ * saturation http_busy=12 http_threads=40 http_max=200 pool_active=10 pool_max=10 pool_waiting=7 faults=smtp=120/3/1 ...
+ * </pre>
+ *
+ * Pools are summed across shards; faults are calls/errors/stalls per
+ * injection point.
+ */
+@Slf4j
+public class SaturationSampler implements AutoCloseable {
+    private final ApplicationContext context;
+    private final ConnectionMetrics connectionMetrics;
+    private final List<FaultInjector> injectors;
+    private final long intervalMs;
+    private ScheduledExecutorService scheduler;
+
+    public SaturationSampler(ApplicationContext context, ConnectionMetrics connectionMetrics,
+                             List<FaultInjector> injectors, long intervalMs) {
+        this.context = context;
+        this.connectionMetrics = connectionMetrics;
+        this.injectors = injectors;
+        this.intervalMs = intervalMs;
+    }
+
+    public void start() {
+        if (intervalMs <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "saturation-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::sample, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void sample() {
+        int busy = 0;
+        int threads = 0;
+        int max = 0;
+        // findConnectors, not getConnector: the latter creates one when called before startup
+        if (context instanceof WebServerApplicationContext web && web.getWebServer() instanceof TomcatWebServer tomcat) {
+            for (Connector connector : tomcat.getTomcat().getService().findConnectors()) {
+                if (connector.getProtocolHandler().getExecutor() instanceof ThreadPoolExecutor pool) {
+                    busy += pool.getActiveCount();
+                    threads += pool.getPoolSize();
+                    max += pool.getMaximumPoolSize();
+                }
+            }
+        }
+        int active = 0;
+        int poolMax = 0;
+        int waiting = 0;
+        for (ConnectionMetrics.PoolSnapshot pool : connectionMetrics.poolSnapshots().values()) {
+            active += pool.active();
+            poolMax += pool.max();
+            waiting += pool.pendingThreads();
+        }
+        log.info("saturation http_busy={} http_threads={} http_max={} pool_active={} pool_max={} pool_waiting={} faults={}",
+                busy, threads, max, active, poolMax, waiting,
+                injectors.stream().map(FaultInjector::summary).collect(Collectors.joining(",")));
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
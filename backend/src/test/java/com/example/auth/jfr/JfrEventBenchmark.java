@@ -0,0 +1,116 @@
+package com.example.auth.jfr;
+
+import jdk.jfr.Recording;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what the auth events add to a request shaped like a login: a
+ * token verification event and a login event with its four stages around
+ * some trivial work. Runs the same work with no events, with events but no
+ * recording (as deployed), and in a recording with the events disabled,
+ * enabled but under their threshold, and committing every one:
+ *
+ * <pre>
+ * scripts/jmh.sh JfrEventBenchmark
+ * </pre>
+ *
+ * {@link JfrEventOverheadTest} checks the same request shape on every build.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JfrEventBenchmark {
+    @Param({"no-events", "no-recording", "recording-disabled", "under-threshold", "every-event"})
+    public String setup;
+
+    private Recording recording;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        switch (setup) {
+            case "no-events", "no-recording" -> recording = null;
+            case "recording-disabled" -> {
+                recording = new Recording();
+                recording.disable(TokenVerificationEvent.class);
+                recording.disable(LoginEvent.class);
+            }
+            case "under-threshold" -> recording = recording(Duration.ofSeconds(1));
+            case "every-event" -> recording = recording(Duration.ZERO);
+            default -> throw new IllegalArgumentException("Unknown setup " + setup);
+        }
+        if (recording != null) {
+            recording.start();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    @Benchmark
+    public long request() {
+        return setup.equals("no-events") ? plain(seed++) : instrumented(seed++);
+    }
+
+    static Recording recording(Duration threshold) {
+        Recording recording = new Recording();
+        recording.enable(TokenVerificationEvent.class).withThreshold(threshold);
+        recording.enable(LoginEvent.class).withThreshold(threshold);
+        return recording;
+    }
+
+    static long plain(long seed) {
+        long value = seed;
+        for (int stage = 0; stage < 5; stage++) {
+            value = work(value);
+        }
+        return value;
+    }
+
+    static long instrumented(long seed) {
+        TokenVerificationEvent verification = new TokenVerificationEvent();
+        verification.start();
+        long value = work(seed);
+        verification.verified("access");
+        verification.principal("claims", true);
+        verification.finish(true);
+
+        LoginEvent login = new LoginEvent();
+        login.start();
+        value = work(value);
+        login.userLookedUp();
+        value = work(value);
+        login.passwordChecked();
+        value = work(value);
+        login.totpChecked();
+        value = work(value);
+        login.tokensIssued();
+        login.finish("success");
+        return value;
+    }
+
+    private static long work(long value) {
+        return value * 31 + 7;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.auth.jfr;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+
+/**
+ * The events cost next to nothing unless a recording asks for them: with
+ * no recording, or with the events disabled, no stage reads the clock and
+ * the login-shaped request of {@link JfrEventBenchmark} stays within a
+ * small fixed cost of the same work without events. Under their threshold
+ * they are timed but never written.
+ *
+ * <p>The first recording in a JVM instruments the event classes for good,
+ * after which even disabled events pay for their timestamps, so the timing
+ * runs first, before this class starts any recording.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class JfrEventOverheadTest {
+    // Far above the few nanoseconds measured, so only a real regression trips it
+    private static final double MAX_ADDED_NANOS = 1_000;
+    private static final int ITERATIONS = 200_000;
+    private static final int ROUNDS = 5;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void stagesAreNotTimedWithoutARecording() {
+        LoginEvent login = loginThroughAllStages();
+
+        assertThat(login.isEnabled()).isFalse();
+        assertThat(List.of(login.userLookup, login.passwordCheck, login.totpCheck, login.tokenIssue))
+                .containsOnly(0L);
+    }
+
+    @Test
+    void stagesAreNotTimedWhileTheEventIsDisabled() {
+        try (Recording recording = new Recording()) {
+            recording.disable(LoginEvent.class);
+            recording.start();
+
+            LoginEvent login = loginThroughAllStages();
+
+            assertThat(login.isEnabled()).isFalse();
+            assertThat(login.tokenIssue).isZero();
+        }
+    }
+
+    @Test
+    @Order(1)
+    void addsNegligibleTimeWithoutARecording() {
+        assumeThat(FlightRecorder.isInitialized())
+                .as("a recording has already run in this JVM")
+                .isFalse();
+        double plain = bestNanosPerRequest(false);
+        double instrumented = bestNanosPerRequest(true);
+
+        assertThat(instrumented - plain)
+                .as("plain %.1f ns, with events %.1f ns per request", plain, instrumented)
+                .isLessThan(MAX_ADDED_NANOS);
+    }
+
+    @Test
+    void eventsUnderTheirThresholdAreNotWritten() throws Exception {
+        assertThat(recordedLogins(Duration.ofSeconds(10))).isEmpty();
+    }
+
+    @Test
+    void eventsOverTheirThresholdAreWritten() throws Exception {
+        List<RecordedEvent> logins = recordedLogins(Duration.ZERO);
+
+        assertThat(logins).hasSize(3);
+        assertThat(logins).allSatisfy(event -> {
+            assertThat(event.getString("outcome")).isEqualTo("success");
+            assertThat(event.getDuration("tokenIssue")).isGreaterThanOrEqualTo(Duration.ZERO);
+        });
+    }
+
+    private List<RecordedEvent> recordedLogins(Duration threshold) throws Exception {
+        Path file = directory.resolve("events.jfr");
+        try (Recording recording = JfrEventBenchmark.recording(threshold)) {
+            recording.start();
+            for (int i = 0; i < 3; i++) {
+                JfrEventBenchmark.instrumented(i);
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("com.example.auth.Login"))
+                .toList();
+    }
+
+    private static LoginEvent loginThroughAllStages() {
+        LoginEvent login = new LoginEvent();
+        login.start();
+        login.userLookedUp();
+        login.passwordChecked();
+        login.totpChecked();
+        login.tokensIssued();
+        login.finish("success");
+        return login;
+    }
+
+    private static double bestNanosPerRequest(boolean events) {
+        long sink = 0;
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += events ? JfrEventBenchmark.instrumented(i) : JfrEventBenchmark.plain(i);
+            }
+            best = Math.min(best, (System.nanoTime() - start) / (double) ITERATIONS);
+        }
+        // Keeps the loop's result live so it is not optimised away
+        assertThat(sink).isNotEqualTo(Long.MIN_VALUE);
+        return best;
+    }
+}
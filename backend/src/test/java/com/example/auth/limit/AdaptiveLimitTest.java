@@ -0,0 +1,202 @@
+package com.example.auth.limit;
+
+import com.example.auth.config.ConcurrencyLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives the limit window by window with a fake clock and chosen
+ * latencies, under the default tuning: 250 ms windows of at least ten
+ * requests, 1.5x latency tolerance, 0.2 smoothing and 0.9 backoff.
+ */
+class AdaptiveLimitTest {
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long WINDOW = 250 * MILLIS;
+
+    private final AtomicLong now = new AtomicLong(1_000_000 * MILLIS);
+    private final ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+
+    @Test
+    void growsWhileLatencyHolds() {
+        AdaptiveLimit limit = limit(20, 2, 200);
+
+        int previous = limitOf(limit);
+        for (int i = 0; i < 10; i++) {
+            busyWindow(limit, 10);
+            assertThat(limitOf(limit)).isGreaterThanOrEqualTo(previous);
+            previous = limitOf(limit);
+        }
+
+        assertThat(previous).isGreaterThan(25);
+        assertThat(limit.snapshot().rttMs()).isEqualTo(10.0);
+        assertThat(limit.snapshot().baselineRttMs()).isEqualTo(10.0);
+    }
+
+    @Test
+    void latencyWithinTheToleranceStillGrows() {
+        AdaptiveLimit limit = limit(20, 2, 200);
+        busyWindow(limit, 10);
+        int before = limitOf(limit);
+
+        for (int i = 0; i < 5; i++) {
+            busyWindow(limit, 14);
+        }
+
+        assertThat(limitOf(limit)).isGreaterThan(before);
+    }
+
+    @Test
+    void shrinksWhenLatencyInflates() {
+        AdaptiveLimit limit = limit(20, 2, 200);
+        for (int i = 0; i < 10; i++) {
+            busyWindow(limit, 10);
+        }
+        int before = limitOf(limit);
+
+        for (int i = 0; i < 5; i++) {
+            int previous = limitOf(limit);
+            busyWindow(limit, 40);
+            assertThat(limitOf(limit)).isLessThanOrEqualTo(previous);
+        }
+
+        assertThat(limitOf(limit)).isLessThan(before - 3);
+        // The baseline follows a slower window only slowly
+        assertThat(limit.snapshot().baselineRttMs()).isLessThan(11.0);
+    }
+
+    @Test
+    void fasterWindowResetsTheBaseline() {
+        AdaptiveLimit limit = limit(20, 2, 200);
+        busyWindow(limit, 20);
+
+        busyWindow(limit, 5);
+
+        assertThat(limit.snapshot().baselineRttMs()).isEqualTo(5.0);
+    }
+
+    @Test
+    void backsOffAfterAWindowWithServerErrors() {
+        AdaptiveLimit limit = limit(20, 2, 200);
+
+        failingWindow(limit);
+
+        assertThat(limitOf(limit)).isEqualTo(18);
+        assertThat(limit.snapshot().failed()).isEqualTo(1);
+    }
+
+    @Test
+    void unusedHeadroomIsNotRaised() {
+        AdaptiveLimit limit = limit(30, 2, 200);
+
+        // Never more than a third of the limit in flight
+        for (int i = 0; i < 10; i++) {
+            window(limit, 10, 10);
+        }
+
+        assertThat(limitOf(limit)).isEqualTo(30);
+    }
+
+    @Test
+    void windowWaitsForEnoughSamples() {
+        AdaptiveLimit limit = limit(20, 2, 200);
+        busyWindow(limit, 10);
+        double rtt = limit.snapshot().rttMs();
+
+        // Nine requests at a very different latency, well past the window length
+        window(limit, 9, 100);
+
+        assertThat(limit.snapshot().rttMs()).isEqualTo(rtt);
+    }
+
+    @Test
+    void neverDropsBelowTheMinimum() {
+        AdaptiveLimit limit = limit(20, 3, 200);
+
+        for (int i = 0; i < 50; i++) {
+            failingWindow(limit);
+        }
+
+        assertThat(limitOf(limit)).isEqualTo(3);
+    }
+
+    @Test
+    void neverGrowsAboveTheMaximum() {
+        AdaptiveLimit limit = limit(20, 2, 25);
+
+        for (int i = 0; i < 50; i++) {
+            busyWindow(limit, 10);
+        }
+
+        assertThat(limitOf(limit)).isEqualTo(25);
+    }
+
+    @Test
+    void initialLimitIsClampedToTheBounds() {
+        assertThat(limitOf(limit(500, 2, 100))).isEqualTo(100);
+        assertThat(limitOf(limit(1, 5, 100))).isEqualTo(5);
+    }
+
+    @Test
+    void rejectsOnceAtTheLimitUntilASlotIsReleased() {
+        AdaptiveLimit limit = limit(2, 2, 10);
+        long start = now.get();
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        limit.release(start, false);
+        assertThat(limit.tryAcquire()).isTrue();
+
+        AdaptiveLimit.Snapshot snapshot = limit.snapshot();
+        assertThat(snapshot.inFlight()).isEqualTo(2);
+        assertThat(snapshot.accepted()).isEqualTo(3);
+        assertThat(snapshot.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidBoundsFailStartUp() {
+        assertThatThrownBy(() -> limit(10, 0, 10)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> limit(10, 20, 10)).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("concurrency-limit.groups.test");
+    }
+
+    // As many concurrent requests as the limit allows, so the limit counts as used
+    private void busyWindow(AdaptiveLimit limit, long rttMillis) {
+        window(limit, limitOf(limit), rttMillis);
+    }
+
+    // All requests overlap; the last one to finish closes the window
+    private void window(AdaptiveLimit limit, int requests, long rttMillis) {
+        for (int i = 0; i < requests; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        for (int i = 0; i < requests - 1; i++) {
+            limit.release(now.get() - rttMillis * MILLIS, false);
+        }
+        now.addAndGet(WINDOW);
+        limit.release(now.get() - rttMillis * MILLIS, false);
+    }
+
+    private void failingWindow(AdaptiveLimit limit) {
+        assertThat(limit.tryAcquire()).isTrue();
+        now.addAndGet(WINDOW);
+        limit.release(now.get() - 10 * MILLIS, true);
+    }
+
+    private static int limitOf(AdaptiveLimit limit) {
+        return limit.snapshot().limit();
+    }
+
+    private AdaptiveLimit limit(int initial, int min, int max) {
+        ConcurrencyLimitProperties.Group group = new ConcurrencyLimitProperties.Group();
+        group.setInitialLimit(initial);
+        group.setMinLimit(min);
+        group.setMaxLimit(max);
+        return new AdaptiveLimit("test", group, properties, now::get);
+    }
+}
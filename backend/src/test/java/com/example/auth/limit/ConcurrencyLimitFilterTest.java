@@ -0,0 +1,125 @@
+package com.example.auth.limit;
+
+import com.example.auth.config.ConcurrencyLimitProperties;
+import com.example.auth.metrics.EndpointContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimitFilterTest {
+    private static final String LOGIN = "POST /api/auth/login";
+
+    private final ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties());
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limiter, new ObjectMapper());
+    private final AdaptiveLimit expensive = limiter.groupFor(LOGIN, "/api/auth/login");
+
+    @Test
+    void requestHoldsASlotWhileItRuns() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger(-1);
+
+        MockHttpServletResponse response = login((request, resp) -> inFlight.set(expensive.snapshot().inFlight()));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(inFlight).hasValue(1);
+        assertReleased(0);
+    }
+
+    @Test
+    void requestOverTheLimitGets503WithRetryAfter() throws Exception {
+        assertThat(expensive.tryAcquire()).isTrue();
+        AtomicInteger calls = new AtomicInteger();
+
+        MockHttpServletResponse response = login((request, resp) -> calls.incrementAndGet());
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(response.getContentType()).isEqualTo("application/json");
+        assertThat(response.getContentAsString()).contains("\"code\":\"OVERLOADED\"");
+        assertThat(calls).hasValue(0);
+        assertThat(expensive.snapshot().rejected()).isEqualTo(1);
+        assertThat(expensive.snapshot().inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void slotIsReleasedWhenTheChainThrows() {
+        assertThatThrownBy(() -> login((request, response) -> {
+            throw new IllegalStateException("pool timeout");
+        })).isInstanceOf(IllegalStateException.class);
+        assertReleased(1);
+
+        assertThatThrownBy(() -> login((request, response) -> {
+            throw new ServletException("broken");
+        })).isInstanceOf(ServletException.class);
+        assertReleased(2);
+    }
+
+    @Test
+    void serverErrorResponseCountsAsAFailure() throws Exception {
+        login((request, response) -> ((HttpServletResponse) response).setStatus(500));
+
+        assertReleased(1);
+    }
+
+    @Test
+    void clientErrorResponseIsNotAFailure() throws Exception {
+        login((request, response) -> ((HttpServletResponse) response).setStatus(401));
+
+        assertReleased(0);
+    }
+
+    @Test
+    void exemptRequestPassesEvenWhenTheGroupIsFull() throws Exception {
+        assertThat(limiter.groupFor("GET /api/health/ready", "/api/health/ready")).isNull();
+        AdaptiveLimit fallback = limiter.groupFor("GET /api/users/me", "/api/users/me");
+        while (fallback.tryAcquire()) {
+            // Fill the default group
+        }
+        AtomicInteger calls = new AtomicInteger();
+
+        MockHttpServletResponse response = perform("GET /api/health/ready",
+                new MockHttpServletRequest("GET", "/api/health/ready"), (request, resp) -> calls.incrementAndGet());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(calls).hasValue(1);
+    }
+
+    private void assertReleased(long failed) {
+        AdaptiveLimit.Snapshot snapshot = expensive.snapshot();
+        assertThat(snapshot.inFlight()).isZero();
+        assertThat(snapshot.failed()).isEqualTo(failed);
+    }
+
+    private MockHttpServletResponse login(FilterChain chain) throws Exception {
+        return perform(LOGIN, new MockHttpServletRequest("POST", "/api/auth/login"), chain);
+    }
+
+    private MockHttpServletResponse perform(String endpoint, MockHttpServletRequest request, FilterChain chain)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try (var scope = EndpointContext.bind(endpoint)) {
+            filter.doFilter(request, response, chain);
+        }
+        return response;
+    }
+
+    private static ConcurrencyLimitProperties properties() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        ConcurrencyLimitProperties.Group group = new ConcurrencyLimitProperties.Group();
+        group.setEndpoints(List.of(LOGIN));
+        group.setInitialLimit(1);
+        group.setMinLimit(1);
+        group.setMaxLimit(1);
+        properties.getGroups().put("expensive", group);
+        return properties;
+    }
+}
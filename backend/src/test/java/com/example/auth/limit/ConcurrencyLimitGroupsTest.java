@@ -0,0 +1,59 @@
+package com.example.auth.limit;
+
+import com.example.auth.config.ConcurrencyLimitProperties;
+import com.example.auth.metrics.EndpointContext;
+import com.example.auth.metrics.EndpointContextFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The configured groups name endpoints the way the endpoint filter keys
+ * real requests, so a typo cannot quietly send a route to the default
+ * group.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ConcurrencyLimitGroupsTest {
+    @Autowired
+    private ConcurrencyLimitProperties properties;
+
+    @Autowired
+    private ConcurrencyLimiter limiter;
+
+    @Autowired
+    private EndpointContextFilter endpointContextFilter;
+
+    @Test
+    void configuredEndpointsReachTheirGroup() throws Exception {
+        assertThat(properties.getGroups()).containsKeys("expensive", "cheap");
+        for (var entry : properties.getGroups().entrySet()) {
+            for (String endpoint : entry.getValue().getEndpoints()) {
+                String[] parts = endpoint.trim().split(" ", 2);
+                String path = parts[1].replaceAll("\\{[^}]+}", "1");
+
+                assertThat(groupServing(parts[0], path)).as(endpoint).isEqualTo(entry.getKey());
+            }
+        }
+    }
+
+    @Test
+    void loginAndProfileReadsAreKeptApart() throws Exception {
+        assertThat(groupServing("POST", "/api/auth/login")).isEqualTo("expensive");
+        assertThat(groupServing("GET", "/api/users/me")).isEqualTo("cheap");
+        assertThat(groupServing("POST", "/api/auth/introspect")).isEqualTo(ConcurrencyLimiter.DEFAULT_GROUP);
+    }
+
+    private String groupServing(String method, String path) throws Exception {
+        String[] seen = new String[1];
+        endpointContextFilter.doFilter(new MockHttpServletRequest(method, path), new MockHttpServletResponse(),
+                (request, response) -> seen[0] = EndpointContext.current());
+        AdaptiveLimit group = limiter.groupFor(seen[0], path);
+        return group != null ? group.getName() : null;
+    }
+}
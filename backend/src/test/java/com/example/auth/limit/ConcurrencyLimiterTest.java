@@ -0,0 +1,86 @@
+package com.example.auth.limit;
+
+import com.example.auth.config.ConcurrencyLimitProperties;
+import com.example.auth.metrics.EndpointContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimiterTest {
+    private final ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+
+    @Test
+    void endpointsAreServedByTheirGroup() {
+        group("expensive", "POST /api/auth/login", " POST /api/auth/register");
+        group("cheap", "GET /api/users/me");
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties);
+
+        assertThat(groupOf(limiter, "POST /api/auth/login", "/api/auth/login")).isEqualTo("expensive");
+        assertThat(groupOf(limiter, "POST /api/auth/register", "/api/auth/register")).isEqualTo("expensive");
+        assertThat(groupOf(limiter, "GET /api/users/me", "/api/users/me")).isEqualTo("cheap");
+    }
+
+    @Test
+    void otherEndpointsShareTheDefaultGroup() {
+        group("expensive", "POST /api/auth/login");
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties);
+
+        assertThat(groupOf(limiter, "GET /api/auth/login", "/api/auth/login")).isEqualTo("default");
+        assertThat(groupOf(limiter, "unmatched", "/wp-login.php")).isEqualTo("default");
+        assertThat(limiter.snapshot()).containsOnlyKeys("expensive", "default");
+    }
+
+    @Test
+    void configuredDefaultGroupIsUsed() {
+        group("default").setMaxLimit(7);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties);
+
+        assertThat(limiter.groupFor("GET /api/users/me", "/api/users/me").snapshot().maxLimit()).isEqualTo(7);
+    }
+
+    @Test
+    void exemptPathsAreNotLimited() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties);
+
+        assertThat(limiter.groupFor("GET /api/health/ready", "/api/health/ready")).isNull();
+    }
+
+    @Test
+    void warmUpRequestsAreNotLimited() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties);
+
+        assertThat(limiter.groupFor(EndpointContext.WARM_UP, "/api/auth/login")).isNull();
+    }
+
+    @Test
+    void nothingIsLimitedWhenDisabled() {
+        group("expensive", "POST /api/auth/login");
+        properties.setEnabled(false);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties);
+
+        assertThat(limiter.groupFor("POST /api/auth/login", "/api/auth/login")).isNull();
+    }
+
+    @Test
+    void endpointInTwoGroupsFailsStartUp() {
+        group("expensive", "POST /api/auth/login");
+        group("cheap", "POST /api/auth/login ");
+
+        assertThatThrownBy(() -> new ConcurrencyLimiter(properties)).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("POST /api/auth/login");
+    }
+
+    private static String groupOf(ConcurrencyLimiter limiter, String endpoint, String path) {
+        return limiter.groupFor(endpoint, path).getName();
+    }
+
+    private ConcurrencyLimitProperties.Group group(String name, String... endpoints) {
+        ConcurrencyLimitProperties.Group group = new ConcurrencyLimitProperties.Group();
+        group.setEndpoints(List.of(endpoints));
+        properties.getGroups().put(name, group);
+        return group;
+    }
+}
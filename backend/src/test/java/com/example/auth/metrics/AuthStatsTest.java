@@ -0,0 +1,231 @@
+package com.example.auth.metrics;
+
+import com.example.auth.metrics.AuthStats.Event;
+import com.example.auth.metrics.AuthStats.EventSnapshot;
+import com.example.auth.metrics.AuthStats.Gauge;
+import com.example.auth.metrics.AuthStats.GaugeSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class AuthStatsTest {
+    private static final long MINUTE = 60_000;
+
+    // Well past the epoch, and not on a 60-minute boundary
+    private final AtomicLong now = new AtomicLong(1_000_000 * MINUTE + 17 * MINUTE + 5_000);
+    private final AuthStats stats = new AuthStats(now::get);
+
+    @Test
+    void eventsCountInEveryWindowCoveringTheirMinute() {
+        stats.record(Event.LOGIN_SUCCESS, 3);
+        advanceMinutes(2);
+        stats.record(Event.LOGIN_SUCCESS, 4);
+
+        EventSnapshot snapshot = event(Event.LOGIN_SUCCESS);
+        assertThat(snapshot.total()).isEqualTo(7);
+        assertThat(snapshot.windows()).containsExactly(
+                entry("1m", 4L), entry("5m", 7L), entry("15m", 7L), entry("60m", 7L));
+    }
+
+    @Test
+    void minuteBoundaryStartsANewBucket() {
+        now.set(now.get() / MINUTE * MINUTE + MINUTE - 1);
+        stats.record(Event.LOGIN_FAILURE);
+        now.incrementAndGet();
+        stats.record(Event.LOGIN_FAILURE);
+
+        assertThat(event(Event.LOGIN_FAILURE).windows()).containsEntry("1m", 1L).containsEntry("5m", 2L);
+    }
+
+    @Test
+    void windowsDropEventsOnceTheyAgeOut() {
+        stats.record(Event.OTP_ISSUED, 5);
+
+        advanceMinutes(4);
+        assertThat(event(Event.OTP_ISSUED).windows()).containsEntry("5m", 5L);
+        advanceMinutes(1);
+        assertThat(event(Event.OTP_ISSUED).windows()).containsEntry("5m", 0L).containsEntry("15m", 5L);
+        advanceMinutes(55);
+        assertThat(event(Event.OTP_ISSUED).windows()).containsEntry("60m", 0L);
+        assertThat(event(Event.OTP_ISSUED).total()).isEqualTo(5);
+    }
+
+    @Test
+    void reusedBucketIsResetBeforeCountingTheNewMinute() {
+        stats.record(Event.OTP_CONSUMED, 5);
+        // Same slot an hour later
+        advanceMinutes(60);
+        stats.record(Event.OTP_CONSUMED, 2);
+
+        EventSnapshot snapshot = event(Event.OTP_CONSUMED);
+        assertThat(snapshot.windows()).containsEntry("1m", 2L).containsEntry("60m", 2L);
+        assertThat(snapshot.total()).isEqualTo(7);
+    }
+
+    @Test
+    void staleBucketIsNotCountedForTheMinuteThatWouldReuseIt() {
+        stats.record(Event.PENDING_EXPIRED, 9);
+        // The slot now stands for a minute an hour ago; nothing has rolled it over yet
+        advanceMinutes(60);
+
+        assertThat(event(Event.PENDING_EXPIRED).windows()).containsEntry("1m", 0L).containsEntry("60m", 0L);
+    }
+
+    @Test
+    void nonPositiveCountsAreIgnored() {
+        stats.record(Event.LOGIN_SUCCESS, 0);
+        stats.record(Event.LOGIN_SUCCESS, -3);
+
+        assertThat(event(Event.LOGIN_SUCCESS).total()).isZero();
+    }
+
+    @Test
+    void concurrentIncrementsAreAllCounted() throws Exception {
+        int threads = 8;
+        int perThread = 20_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    stats.record(Event.REGISTRATION_REQUESTED);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        EventSnapshot snapshot = event(Event.REGISTRATION_REQUESTED);
+        assertThat(snapshot.total()).isEqualTo((long) threads * perThread);
+        assertThat(snapshot.windows()).containsEntry("1m", (long) threads * perThread);
+        assertThat(gauge(Gauge.PENDING_REGISTRATIONS).sinceReconcile()).isEqualTo((long) threads * perThread);
+    }
+
+    @Test
+    void concurrentIncrementsAcrossARolloverAreAllCounted() throws Exception {
+        int threads = 4;
+        int perThread = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    stats.record(Event.LOGIN_FAILURE);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        advanceMinutes(1);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        // Each increment lands in one of the two minutes, never in neither
+        assertThat(event(Event.LOGIN_FAILURE).windows()).containsEntry("5m", (long) threads * perThread);
+    }
+
+    @Test
+    void gaugeHasNoValueUntilTheFirstReconciliation() {
+        stats.record(Event.REGISTRATION_VERIFIED, 2);
+
+        GaugeSnapshot users = gauge(Gauge.USERS);
+        assertThat(users.value()).isNull();
+        assertThat(users.sinceReconcile()).isEqualTo(2);
+    }
+
+    @Test
+    void firstReconciliationSetsTheBaseWithoutReportingDrift() {
+        stats.record(Event.REGISTRATION_VERIFIED, 2);
+
+        long drift = stats.reconcile(Gauge.USERS, 40, stats.deltaSinceReconcile(Gauge.USERS));
+
+        assertThat(drift).isZero();
+        GaugeSnapshot users = gauge(Gauge.USERS);
+        assertThat(users.value()).isEqualTo(40);
+        assertThat(users.sinceReconcile()).isZero();
+        assertThat(users.reconciledAt()).isNotNull();
+    }
+
+    @Test
+    void reconciliationCorrectsDriftAndReportsIt() {
+        stats.reconcile(Gauge.OUTSTANDING_OTPS, 10, 0);
+        stats.record(Event.OTP_ISSUED, 5);
+        stats.record(Event.OTP_CONSUMED, 1);
+        assertThat(gauge(Gauge.OUTSTANDING_OTPS).value()).isEqualTo(14);
+
+        // Three expired and another instance issued one: the database holds 12
+        long drift = stats.reconcile(Gauge.OUTSTANDING_OTPS, 12, stats.deltaSinceReconcile(Gauge.OUTSTANDING_OTPS));
+
+        assertThat(drift).isEqualTo(2);
+        GaugeSnapshot otps = gauge(Gauge.OUTSTANDING_OTPS);
+        assertThat(otps.value()).isEqualTo(12);
+        assertThat(otps.lastDrift()).isEqualTo(2);
+    }
+
+    @Test
+    void eventsRecordedWhileCountingSurviveTheReconciliation() {
+        stats.reconcile(Gauge.PENDING_REGISTRATIONS, 0, 0);
+        stats.record(Event.REGISTRATION_REQUESTED, 3);
+        long deltaAtStart = stats.deltaSinceReconcile(Gauge.PENDING_REGISTRATIONS);
+        // Lands after the count started, so the count below does not include it
+        stats.record(Event.REGISTRATION_REQUESTED);
+
+        long drift = stats.reconcile(Gauge.PENDING_REGISTRATIONS, 3, deltaAtStart);
+
+        assertThat(drift).isZero();
+        GaugeSnapshot pending = gauge(Gauge.PENDING_REGISTRATIONS);
+        assertThat(pending.reconciled()).isEqualTo(3);
+        assertThat(pending.sinceReconcile()).isEqualTo(1);
+        assertThat(pending.value()).isEqualTo(4);
+    }
+
+    @Test
+    void eventsMoveTheirGauges() {
+        stats.record(Event.REGISTRATION_REQUESTED, 4);
+        stats.record(Event.REGISTRATION_VERIFIED, 1);
+        stats.record(Event.PENDING_EXPIRED, 1);
+        stats.record(Event.OTP_ISSUED, 3);
+        stats.record(Event.OTP_DISCARDED, 1);
+        stats.record(Event.OTP_EXPIRED, 1);
+
+        assertThat(gauge(Gauge.PENDING_REGISTRATIONS).sinceReconcile()).isEqualTo(2);
+        assertThat(gauge(Gauge.USERS).sinceReconcile()).isEqualTo(1);
+        assertThat(gauge(Gauge.OUTSTANDING_OTPS).sinceReconcile()).isEqualTo(2);
+    }
+
+    private void advanceMinutes(int minutes) {
+        now.addAndGet(minutes * MINUTE);
+    }
+
+    private EventSnapshot event(Event event) {
+        return stats.snapshot().events().get(event.name().toLowerCase());
+    }
+
+    private GaugeSnapshot gauge(Gauge gauge) {
+        return stats.snapshot().gauges().get(gauge.name().toLowerCase());
+    }
+}
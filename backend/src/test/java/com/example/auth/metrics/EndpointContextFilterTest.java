@@ -0,0 +1,37 @@
+package com.example.auth.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EndpointContextFilterTest {
+    @Autowired
+    private EndpointContextFilter filter;
+
+    @Test
+    void keysRequestsByTheirMappingPattern() throws Exception {
+        assertThat(endpointOf("POST", "/api/admin/reset-campaigns/42/pause"))
+                .isEqualTo("POST /api/admin/reset-campaigns/{id}/pause");
+        assertThat(endpointOf("POST", "/api/auth/login")).isEqualTo("POST /api/auth/login");
+    }
+
+    @Test
+    void collapsesRequestsNoControllerHandles() throws Exception {
+        assertThat(endpointOf("GET", "/wp-login.php")).isEqualTo(EndpointContextFilter.UNMATCHED);
+        assertThat(endpointOf("GET", "/api/auth/login")).isEqualTo(EndpointContextFilter.UNMATCHED);
+    }
+
+    private String endpointOf(String method, String uri) throws Exception {
+        String[] seen = new String[1];
+        filter.doFilter(new MockHttpServletRequest(method, uri), new MockHttpServletResponse(),
+                (request, response) -> seen[0] = EndpointContext.current());
+        return seen[0];
+    }
+}
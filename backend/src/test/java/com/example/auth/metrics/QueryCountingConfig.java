@@ -0,0 +1,33 @@
+package com.example.auth.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the primary datasource in a {@link QueryCountingDataSource} and
+ * exposes its {@link QueryRecorder}. Import it into tests that count SQL;
+ * it is not annotated so that nothing picks it up by scanning.
+ */
+public class QueryCountingConfig {
+
+    @Bean
+    QueryRecorder queryRecorder() {
+        return new QueryRecorder();
+    }
+
+    @Bean
+    static BeanPostProcessor queryCountingPostProcessor(ObjectProvider<QueryRecorder> recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+                    return new QueryCountingDataSource(dataSource, recorder.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.auth.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the SQL that {@link QueryCountingDataSource} sees on the current
+ * thread between {@link #start()} and closing the returned recording.
+ * MockMvc runs the whole filter chain on the calling thread, so a recording
+ * around {@code perform} covers everything a request runs, including the
+ * security chain's user lookups.
+ */
+public class QueryRecorder {
+    private final ThreadLocal<Recording> current = new ThreadLocal<>();
+
+    public Recording start() {
+        Recording recording = new Recording();
+        current.set(recording);
+        return recording;
+    }
+
+    void beforeRoundTrip(String sql, int statements) {
+        Recording recording = current.get();
+        if (recording != null) {
+            recording.roundTrips++;
+            recording.statements += statements;
+            recording.sql.add(statements > 1 ? sql + " [batch of " + statements + "]" : sql);
+        }
+    }
+
+    void rowFetched() {
+        Recording recording = current.get();
+        if (recording != null) {
+            recording.rows++;
+        }
+    }
+
+    public final class Recording implements AutoCloseable {
+        private final List<String> sql = new ArrayList<>();
+        private int statements;
+        private int roundTrips;
+        private long rows;
+
+        /**
+         * Statements executed, counting each entry of a JDBC batch.
+         */
+        public int statements() {
+            return statements;
+        }
+
+        /**
+         * Calls to the database: one per execute, one per executeBatch.
+         */
+        public int roundTrips() {
+            return roundTrips;
+        }
+
+        /**
+         * Rows read from result sets.
+         */
+        public long rows() {
+            return rows;
+        }
+
+        public List<String> sql() {
+            return List.copyOf(sql);
+        }
+
+        /**
+         * The counts followed by every statement run, one per line, for
+         * assertion messages.
+         */
+        public String describe() {
+            StringBuilder description = new StringBuilder()
+                    .append("statements=").append(statements)
+                    .append(" round_trips=").append(roundTrips)
+                    .append(" rows=").append(rows);
+            sql.forEach(statement -> description.append("\n    sql: ").append(statement));
+            return description.toString();
+        }
+
+        @Override
+        public void close() {
+            current.remove();
+        }
+    }
+}
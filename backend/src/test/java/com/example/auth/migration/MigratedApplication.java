@@ -0,0 +1,59 @@
+package com.example.auth.migration;
+
+import com.example.auth.AuthApplication;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfoService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Starts the service against a real database with the production Flyway
+ * and JPA settings: migrations from {@code db/migration/{vendor}},
+ * baseline-on-migrate, then Hibernate's {@code ddl-auto=validate}. A
+ * migration that fails on the vendor, or leaves a schema the entities
+ * don't match, fails the start.
+ */
+final class MigratedApplication {
+    private MigratedApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String url, String username, String password,
+                                                String driver, String dialect) {
+        return new SpringApplicationBuilder(AuthApplication.class).run(
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + username,
+                "--spring.datasource.password=" + password,
+                "--spring.datasource.driver-class-name=" + driver,
+                "--spring.jpa.properties.hibernate.dialect=" + dialect,
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--jwt.expiration=86400000",
+                "--jwt.refresh-expiration=604800000",
+                "--audit.enabled=false",
+                "--warmup.enabled=false",
+                "--reset-campaign.dispatcher-enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.auth=WARN",
+                "--logging.level.org.flywaydb=INFO");
+    }
+
+    static MigrationInfoService migrations(ConfigurableApplicationContext context) {
+        return context.getBean(Flyway.class).info();
+    }
+
+    /**
+     * Runs a classpath SQL script, such as a pre-Flyway schema, before the
+     * service starts.
+     */
+    static void runScript(String url, String username, String password, String script) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, username, password)) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource(script));
+        }
+    }
+}
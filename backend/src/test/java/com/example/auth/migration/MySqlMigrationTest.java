@@ -0,0 +1,59 @@
+package com.example.auth.migration;
+
+import org.flywaydb.core.api.MigrationInfoService;
+import org.flywaydb.core.api.MigrationState;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The db/migration/mysql scripts against MySQL 8 in a container: the
+ * DELIMITER blocks, the ENUM to VARCHAR rewrite and the index drops behind
+ * foreign keys only run on the real server. Skipped where Docker is not
+ * available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MySqlMigrationTest {
+    private static final String USER = "root";
+    private static final String PASSWORD = "migration-test";
+    private static final String DRIVER = "com.mysql.cj.jdbc.Driver";
+    private static final String DIALECT = "org.hibernate.dialect.MySQLDialect";
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withUsername(USER)
+            .withPassword(PASSWORD);
+
+    @Test
+    void migratesAnEmptyDatabase() {
+        try (ConfigurableApplicationContext context = start(url("fresh"))) {
+            MigrationInfoService migrations = MigratedApplication.migrations(context);
+            assertThat(migrations.pending()).isEmpty();
+            assertThat(migrations.applied()).allMatch(migration -> migration.getState() == MigrationState.SUCCESS);
+        }
+    }
+
+    @Test
+    void bringsAPreFlywayDatabaseInLine() throws Exception {
+        String url = url("legacy");
+        MigratedApplication.runScript(url, USER, PASSWORD, "db/legacy/mysql.sql");
+        try (ConfigurableApplicationContext context = start(url)) {
+            MigrationInfoService migrations = MigratedApplication.migrations(context);
+            assertThat(migrations.applied()[0].getState()).isEqualTo(MigrationState.BASELINE);
+            assertThat(migrations.pending()).isEmpty();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String url) {
+        return MigratedApplication.start(url, USER, PASSWORD, DRIVER, DIALECT);
+    }
+
+    private static String url(String database) {
+        return "jdbc:mysql://" + MYSQL.getHost() + ":" + MYSQL.getMappedPort(MySQLContainer.MYSQL_PORT) + "/"
+                + database + "?createDatabaseIfNotExist=true&useSSL=false&allowPublicKeyRetrieval=true";
+    }
+}
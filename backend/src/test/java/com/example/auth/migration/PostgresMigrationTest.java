@@ -0,0 +1,74 @@
+package com.example.auth.migration;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.api.MigrationInfoService;
+import org.flywaydb.core.api.MigrationState;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The db/migration/postgresql scripts against a real PostgreSQL server,
+ * started from the embedded binaries for the duration of the class.
+ */
+class PostgresMigrationTest {
+    private static final String USER = "postgres";
+    private static final String DRIVER = "org.postgresql.Driver";
+    private static final String DIALECT = "org.hibernate.dialect.PostgreSQLDialect";
+
+    private static EmbeddedPostgres postgres;
+
+    @BeforeAll
+    static void startPostgres() throws Exception {
+        postgres = EmbeddedPostgres.start();
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        postgres.close();
+    }
+
+    @Test
+    void migratesAnEmptyDatabase() throws Exception {
+        String url = createDatabase("fresh");
+        try (ConfigurableApplicationContext context = MigratedApplication.start(url, USER, "", DRIVER, DIALECT)) {
+            MigrationInfoService migrations = MigratedApplication.migrations(context);
+            assertThat(migrations.pending()).isEmpty();
+            assertThat(migrations.applied()).allMatch(migration -> migration.getState() == MigrationState.SUCCESS);
+
+            // Built CONCURRENTLY by V4_1; a failed concurrent build would leave them invalid
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            assertThat(jdbc.queryForList("SELECT indexrelid::regclass::text FROM pg_index"
+                            + " WHERE indisunique AND indisvalid AND indexrelid::regclass::text LIKE 'uk\\_%email\\_lookup'",
+                    String.class))
+                    .containsExactlyInAnyOrder("uk_users_email_lookup", "uk_pending_registrations_email_lookup");
+        }
+    }
+
+    @Test
+    void bringsAPreFlywayDatabaseInLine() throws Exception {
+        String url = createDatabase("legacy");
+        MigratedApplication.runScript(url, USER, "", "db/legacy/postgresql.sql");
+        try (ConfigurableApplicationContext context = MigratedApplication.start(url, USER, "", DRIVER, DIALECT)) {
+            MigrationInfoService migrations = MigratedApplication.migrations(context);
+            assertThat(migrations.applied()[0].getState()).isEqualTo(MigrationState.BASELINE);
+            assertThat(migrations.pending()).isEmpty();
+        }
+    }
+
+    private static String createDatabase(String name) throws SQLException {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + name);
+        }
+        return postgres.getJdbcUrl(USER, name);
+    }
+}
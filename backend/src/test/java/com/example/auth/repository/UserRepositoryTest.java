@@ -0,0 +1,78 @@
+package com.example.auth.repository;
+
+import com.example.auth.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.sql.init.schema-locations=classpath:db/sharding/h2-shard-schema.sql",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+})
+class UserRepositoryTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Long id;
+
+    @BeforeEach
+    void createUser() {
+        User user = new User();
+        user.setUsername("alice");
+        user.setEmail("alice@example.com");
+        user.setPassword("hash");
+        id = userRepository.saveAndFlush(user).getId();
+    }
+
+    @Test
+    void acceptsEachTotpStepOnce() {
+        assertThat(userRepository.acceptTotpStep(id, 100, NOW)).isEqualTo(1);
+        assertThat(userRepository.acceptTotpStep(id, 100, NOW)).isZero();
+        assertThat(userRepository.acceptTotpStep(id, 99, NOW)).isZero();
+        assertThat(userRepository.acceptTotpStep(id, 101, NOW)).isEqualTo(1);
+    }
+
+    @Test
+    void locksTotpAfterTheLastAllowedFailure() {
+        LocalDateTime lockedUntil = NOW.plusMinutes(15);
+        for (int i = 1; i < 3; i++) {
+            userRepository.countTotpFailure(id);
+            assertThat(userRepository.lockTotpIfExhausted(id, 3, lockedUntil)).isZero();
+        }
+        userRepository.countTotpFailure(id);
+        assertThat(userRepository.lockTotpIfExhausted(id, 3, lockedUntil)).isEqualTo(1);
+
+        assertThat(userRepository.acceptTotpStep(id, 100, NOW)).isZero();
+        assertThat(userRepository.acceptTotpStep(id, 100, lockedUntil)).isEqualTo(1);
+        entityManager.clear();
+        User user = userRepository.findById(id).orElseThrow();
+        assertThat(user.getTotpLastStep()).isEqualTo(100);
+        assertThat(user.getTotpFailedAttempts()).isZero();
+    }
+
+    @Test
+    void savingTheEntityKeepsTheTotpState() {
+        userRepository.acceptTotpStep(id, 100, NOW);
+        entityManager.clear();
+        User user = userRepository.findById(id).orElseThrow();
+        user.setTotpLastStep(null);
+        user.setTotpEnabled(true);
+        userRepository.saveAndFlush(user);
+
+        assertThat(userRepository.acceptTotpStep(id, 100, NOW)).isZero();
+    }
+}
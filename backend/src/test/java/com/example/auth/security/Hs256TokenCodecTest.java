@@ -0,0 +1,93 @@
+package com.example.auth.security;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Hs256TokenCodecTest {
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final long NOW = 1_700_000_000_000L;
+    private static final String LONG_PAYLOAD =
+            "{\"role\":\"USER\",\"sub\":\"someone-with-a-long-address@example.com\",\"iat\":1700000000,\"exp\":1900000000}";
+
+    private final Hs256TokenCodec codec = new Hs256TokenCodec(KEY);
+
+    @Test
+    void verifiesItsOwnTokens() {
+        String token = codec.sign("alice@example.com", "USER", 1_700_000_000L, 1_900_000_000L);
+
+        TokenClaims claims = codec.verify(token, NOW);
+
+        assertThat(claims).isEqualTo(new TokenClaims("alice@example.com", "USER", 1_700_000_000L, 1_900_000_000L));
+    }
+
+    /**
+     * The decode buffer is reused per thread, so a truncated payload sits in
+     * front of the bytes of the previous, longer one.
+     */
+    @Test
+    void rejectsTruncatedPayloadsAfterALongerOne() {
+        String[] truncated = {
+                LONG_PAYLOAD.substring(0, LONG_PAYLOAD.length() - 1),
+                LONG_PAYLOAD.substring(0, LONG_PAYLOAD.indexOf("example")),
+                LONG_PAYLOAD.substring(0, LONG_PAYLOAD.indexOf("\"sub\"") + 3),
+                "{\"role\":\"USER\",\"x\":{\"a\":[1,2",
+                "{\"role\":\"USER\",\"sub\":\"a\\u00",
+        };
+        for (String payload : truncated) {
+            assertThat(codec.verify(token(LONG_PAYLOAD), NOW)).isNotNull();
+            assertThat(codec.verify(token(payload), NOW)).as(payload).isNull();
+        }
+    }
+
+    @Test
+    void rejectsSignaturesWithNonZeroTrailingBits() {
+        String token = codec.sign("alice@example.com", "USER", 1_700_000_000L, 1_900_000_000L);
+
+        // 32 bytes take 43 characters, the last carrying 2 unused bits
+        String altered = token.substring(0, token.length() - 1) + flipLowBit(token.charAt(token.length() - 1));
+
+        assertThat(codec.verify(altered, NOW)).isNull();
+    }
+
+    @Test
+    void rejectsPayloadsWithNonZeroTrailingBits() {
+        String payload = "{\"sub\":\"alice@example.com\",\"iat\":1700000000,\"exp\":1900000000}";
+        String segment = base64Url(payload);
+        assertThat(segment.length() % 4).isNotZero();
+        String altered = segment.substring(0, segment.length() - 1) + flipLowBit(segment.charAt(segment.length() - 1));
+
+        assertThat(codec.verify(signed(segment), NOW)).isNotNull();
+        assertThat(codec.verify(signed(altered), NOW)).isNull();
+    }
+
+    private static char flipLowBit(char c) {
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        return alphabet.charAt(alphabet.indexOf(c) ^ 1);
+    }
+
+    private static String token(String payload) {
+        return signed(base64Url(payload));
+    }
+
+    private static String signed(String payloadSegment) {
+        String signingInput = Hs256TokenCodec.HEADER_SEGMENT + '.' + payloadSegment;
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(KEY, "HmacSHA256"));
+            byte[] signature = mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + '.' + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String base64Url(String s) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
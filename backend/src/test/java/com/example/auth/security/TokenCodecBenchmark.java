@@ -0,0 +1,60 @@
+package com.example.auth.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access-token verification with jjwt and with {@link Hs256TokenCodec}, on
+ * the same token. Run with the allocation profiler to see bytes per verify:
+ *
+ * <pre>
+ * scripts/jmh.sh TokenCodecBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenCodecBenchmark {
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private Hs256TokenCodec codec;
+    private io.jsonwebtoken.JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        SecretKey key = Keys.hmacShaKeyFor(KEY);
+        codec = new Hs256TokenCodec(KEY);
+        parser = Jwts.parser().verifyWith(key).build();
+        long now = System.currentTimeMillis() / 1000;
+        token = codec.sign("someone@example.com", "USER", now, now + 86_400);
+    }
+
+    @Benchmark
+    public Claims jjwt() {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public TokenClaims hs256() {
+        return codec.verify(token, System.currentTimeMillis());
+    }
+}
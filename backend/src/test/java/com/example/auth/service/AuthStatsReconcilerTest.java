@@ -0,0 +1,144 @@
+package com.example.auth.service;
+
+import com.example.auth.metrics.AuthStats;
+import com.example.auth.metrics.AuthStats.Event;
+import com.example.auth.metrics.AuthStats.Gauge;
+import com.example.auth.metrics.AuthStats.GaugeSnapshot;
+import com.example.auth.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthStatsReconcilerTest {
+    private final AuthStats authStats = new AuthStats();
+    private final UserService userService = mock(UserService.class);
+    private final PendingRegistrationService pendingRegistrationService = mock(PendingRegistrationService.class);
+    private final OtpService otpService = mock(OtpService.class);
+    private final ShardRouter shardRouter = mock(ShardRouter.class);
+    private final AuthStatsReconciler reconciler = new AuthStatsReconciler(authStats, userService,
+            pendingRegistrationService, otpService, shardRouter);
+
+    @BeforeEach
+    void singleShard() {
+        shardsCounted(1);
+        when(pendingRegistrationService.countPendingRegistrations()).thenReturn(OptionalLong.of(0));
+        when(otpService.countOutstandingOtps()).thenReturn(OptionalLong.of(0));
+    }
+
+    @Test
+    void firstReconciliationLoadsTheDatabaseCounts() {
+        when(userService.countUsers()).thenReturn(12L);
+        when(pendingRegistrationService.countPendingRegistrations()).thenReturn(OptionalLong.of(3));
+        when(otpService.countOutstandingOtps()).thenReturn(OptionalLong.of(5));
+
+        reconciler.reconcile();
+
+        assertThat(gauge(Gauge.USERS).value()).isEqualTo(12);
+        assertThat(gauge(Gauge.PENDING_REGISTRATIONS).value()).isEqualTo(3);
+        assertThat(gauge(Gauge.OUTSTANDING_OTPS).value()).isEqualTo(5);
+    }
+
+    @Test
+    void laterReconciliationCorrectsDrift() {
+        when(userService.countUsers()).thenReturn(10L);
+        reconciler.reconcile();
+        // This instance saw two sign-ups; another instance saw three more
+        authStats.record(Event.REGISTRATION_VERIFIED, 2);
+        when(userService.countUsers()).thenReturn(15L);
+
+        reconciler.reconcile();
+
+        GaugeSnapshot users = gauge(Gauge.USERS);
+        assertThat(users.value()).isEqualTo(15);
+        assertThat(users.sinceReconcile()).isZero();
+        assertThat(users.lastDrift()).isEqualTo(-3);
+    }
+
+    @Test
+    void eventsRecordedWhileCountingAreKept() {
+        when(userService.countUsers()).thenReturn(10L);
+        reconciler.reconcile();
+        authStats.record(Event.REGISTRATION_VERIFIED);
+        when(userService.countUsers()).thenAnswer(invocation -> {
+            // Commits after the count's snapshot: not in the 11 below
+            authStats.record(Event.REGISTRATION_VERIFIED);
+            return 11L;
+        });
+
+        reconciler.reconcile();
+
+        GaugeSnapshot users = gauge(Gauge.USERS);
+        assertThat(users.reconciled()).isEqualTo(11);
+        assertThat(users.sinceReconcile()).isEqualTo(1);
+        assertThat(users.value()).isEqualTo(12);
+        assertThat(users.lastDrift()).isZero();
+    }
+
+    @Test
+    void uncountableGaugeIsLeftAlone() {
+        when(userService.countUsers()).thenReturn(1L);
+        when(otpService.countOutstandingOtps()).thenReturn(OptionalLong.empty());
+        authStats.record(Event.OTP_ISSUED, 4);
+
+        reconciler.reconcile();
+
+        GaugeSnapshot otps = gauge(Gauge.OUTSTANDING_OTPS);
+        assertThat(otps.value()).isNull();
+        assertThat(otps.reconciledAt()).isNull();
+        assertThat(otps.sinceReconcile()).isEqualTo(4);
+        assertThat(gauge(Gauge.USERS).value()).isEqualTo(1);
+    }
+
+    @Test
+    void shardCountsAreSummed() {
+        shardsCounted(3);
+        when(userService.countUsers()).thenReturn(4L, 5L, 6L);
+
+        reconciler.reconcile();
+
+        assertThat(gauge(Gauge.USERS).value()).isEqualTo(15);
+    }
+
+    @Test
+    void oneUncountableShardSkipsTheGauge() {
+        shardsCounted(2);
+        when(userService.countUsers()).thenReturn(4L);
+        when(pendingRegistrationService.countPendingRegistrations())
+                .thenReturn(OptionalLong.of(2), OptionalLong.empty());
+
+        reconciler.reconcile();
+
+        assertThat(gauge(Gauge.PENDING_REGISTRATIONS).value()).isNull();
+        assertThat(gauge(Gauge.USERS).value()).isEqualTo(8);
+    }
+
+    @Test
+    void scheduledRunSurvivesAFailedCount() {
+        when(userService.countUsers()).thenThrow(new IllegalStateException("database down"));
+
+        reconciler.scheduledReconcile();
+
+        assertThat(gauge(Gauge.USERS).value()).isNull();
+    }
+
+    private void shardsCounted(int shards) {
+        doAnswer(invocation -> {
+            Runnable task = invocation.getArgument(0);
+            for (int i = 0; i < shards; i++) {
+                task.run();
+            }
+            return null;
+        }).when(shardRouter).forEachShard(any());
+    }
+
+    private GaugeSnapshot gauge(Gauge gauge) {
+        return authStats.snapshot().gauges().get(gauge.name().toLowerCase());
+    }
+}
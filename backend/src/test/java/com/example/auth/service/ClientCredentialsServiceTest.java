@@ -0,0 +1,170 @@
+package com.example.auth.service;
+
+import com.example.auth.config.ClientCredentialsProperties;
+import com.example.auth.dto.ClientTokenResponse;
+import com.example.auth.exception.AuthException;
+import com.example.auth.exception.ErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ClientCredentialsServiceTest {
+    private static final String HASH_KEY = "test-hash-key";
+
+    private final JwtService jwtService = mock(JwtService.class);
+    private final ClientCredentialsProperties properties = new ClientCredentialsProperties();
+    private ClientCredentialsService service;
+
+    @BeforeEach
+    void createService() throws Exception {
+        properties.setHashKey(HASH_KEY);
+        properties.setTokenTtlSeconds(600);
+        register("export", "export-secret", "users:read", "users:export");
+        when(jwtService.generateServiceToken(anyString(), anyString(), anyString(), anyLong())).thenReturn("jwt");
+        service = newService();
+    }
+
+    @Test
+    void issuesAllScopesWhenNoneAreRequested() {
+        ClientTokenResponse response = service.issueToken(basic("export", "export-secret"),
+                "client_credentials", null, null, null);
+
+        assertThat(response.getAccessToken()).isEqualTo("jwt");
+        assertThat(response.getTokenType()).isEqualTo("Bearer");
+        assertThat(response.getExpiresIn()).isEqualTo(600);
+        assertThat(response.getScope()).isEqualTo("users:read users:export");
+        verify(jwtService).generateServiceToken("export", "SERVICE", "users:read users:export", 600_000);
+    }
+
+    @Test
+    void issuesTheRequestedSubsetOnce() {
+        ClientTokenResponse response = service.issueToken(basic("export", "export-secret"),
+                "client_credentials", " users:export  users:export ", null, null);
+
+        assertThat(response.getScope()).isEqualTo("users:export");
+    }
+
+    @Test
+    void scopeOutsideTheRegistrationIsRejected() {
+        assertThatThrownBy(() -> service.issueToken(basic("export", "export-secret"),
+                "client_credentials", "users:read users:delete", null, null))
+                .isInstanceOfSatisfying(AuthException.class,
+                        e -> assertThat(e.getCode()).isEqualTo(ErrorCode.INVALID_SCOPE));
+        verify(jwtService, never()).generateServiceToken(any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void wrongSecretIsRejected() {
+        assertInvalidClient(basic("export", "other-secret"), null, null);
+    }
+
+    @Test
+    void unknownClientIsRejected() {
+        assertInvalidClient(basic("nobody", "export-secret"), null, null);
+    }
+
+    @Test
+    void malformedBasicHeaderIsRejected() {
+        assertInvalidClient("Basic not-base64!", null, null);
+        assertInvalidClient("Basic " + Base64.getEncoder().encodeToString("no-colon".getBytes(StandardCharsets.UTF_8)),
+                null, null);
+    }
+
+    @Test
+    void missingCredentialsAreRejected() {
+        assertInvalidClient(null, "export", null);
+    }
+
+    @Test
+    void formCredentialsAreAccepted() {
+        ClientTokenResponse response = service.issueToken(null, "client_credentials", "users:read",
+                "export", "export-secret");
+
+        assertThat(response.getScope()).isEqualTo("users:read");
+    }
+
+    @Test
+    void basicCredentialsTakePrecedenceOverTheForm() {
+        assertInvalidClient(basic("export", "other-secret"), "export", "export-secret");
+    }
+
+    @Test
+    void otherGrantTypesAreRejected() {
+        assertThatThrownBy(() -> service.issueToken(basic("export", "export-secret"), "password", null, null, null))
+                .isInstanceOfSatisfying(AuthException.class,
+                        e -> assertThat(e.getCode()).isEqualTo(ErrorCode.UNSUPPORTED_GRANT_TYPE));
+    }
+
+    @Test
+    void hashKeyDefaultsToTheJwtSecret() throws Exception {
+        properties.setHashKey("");
+        properties.getClients().clear();
+        register("export", "export-secret", "users:read");
+        // Hashed under the key above, so only the fallback makes it match
+        properties.getClients().get("export").setSecretHash(hash("jwt-secret", "export-secret"));
+
+        ClientCredentialsService fallback = newService();
+
+        assertThat(fallback.authenticateForScope(basic("export", "export-secret"), "users:read")).isEqualTo("export");
+    }
+
+    @Test
+    void malformedRegistrationFailsStartUp() throws Exception {
+        register("broken", "secret", "users:read");
+        properties.getClients().get("broken").setSecretHash("too-short");
+        assertThatThrownBy(this::newService).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("broken.secret-hash");
+
+        register("broken", "secret");
+        assertThatThrownBy(this::newService).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("broken.scopes");
+    }
+
+    private void assertInvalidClient(String authorization, String formClientId, String formClientSecret) {
+        assertThatThrownBy(() -> service.issueToken(authorization, "client_credentials", null,
+                formClientId, formClientSecret))
+                .isInstanceOfSatisfying(AuthException.class,
+                        e -> assertThat(e.getCode()).isEqualTo(ErrorCode.INVALID_CLIENT));
+    }
+
+    private ClientCredentialsService newService() {
+        ClientCredentialsService created = new ClientCredentialsService(jwtService, properties);
+        ReflectionTestUtils.setField(created, "jwtSecret", "jwt-secret");
+        created.init();
+        return created;
+    }
+
+    private void register(String id, String secret, String... scopes) throws Exception {
+        ClientCredentialsProperties.Client client = new ClientCredentialsProperties.Client();
+        client.setSecretHash(hash(HASH_KEY, secret));
+        client.setScopes(List.of(scopes));
+        properties.getClients().put(id, client);
+    }
+
+    private static String hash(String key, String secret) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(mac.doFinal(secret.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String basic(String clientId, String secret) {
+        return "Basic " + Base64.getEncoder().encodeToString((clientId + ":" + secret).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.auth.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiringLruCacheTest {
+    private static final long NOW = 1_000_000L;
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntryWhenFull() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(2);
+        cache.put("a", "A", NOW, NOW + 60_000);
+        cache.put("b", "B", NOW, NOW + 60_000);
+        cache.get("a", NOW);
+
+        cache.put("c", "C", NOW, NOW + 60_000);
+
+        assertThat(cache.get("a", NOW)).isEqualTo("A");
+        assertThat(cache.get("b", NOW)).isNull();
+        assertThat(cache.get("c", NOW)).isEqualTo("C");
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void stopsServingEntriesAtTheirExpiry() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10);
+        cache.put("a", "A", NOW, NOW + 1_000);
+
+        assertThat(cache.get("a", NOW + 999)).isEqualTo("A");
+        assertThat(cache.get("a", NOW + 1_000)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void dropsExpiredEntriesFromTheColdEndOnInsert() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10);
+        cache.put("old", "O", NOW, NOW + 1_000);
+
+        cache.put("new", "N", NOW + 2_000, NOW + 60_000);
+
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void staysBoundedAcrossSegments() {
+        ExpiringLruCache<Integer, Integer> cache = new ExpiringLruCache<>(1_000);
+        for (int i = 0; i < 100_000; i++) {
+            cache.put(i, i, NOW, NOW + 60_000);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(1_000);
+        assertThat(cache.get(99_999, NOW)).isEqualTo(99_999);
+    }
+
+    @Test
+    void computeKeepsTheCurrentValueAndItsExpiry() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10);
+        cache.put("a", "A", NOW, NOW + 1_000);
+
+        String kept = cache.compute("a", NOW, NOW + 60_000, current -> current != null ? current : "B");
+
+        assertThat(kept).isEqualTo("A");
+        assertThat(cache.get("a", NOW + 1_000)).isNull();
+        assertThat(cache.compute("a", NOW + 1_000, NOW + 60_000, current -> current != null ? current : "B"))
+                .isEqualTo("B");
+    }
+
+    @Test
+    void expireAtAndRemoveOnlyTouchTheExpectedValue() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10);
+        String first = new String("A");
+        cache.put("a", first, NOW, Long.MAX_VALUE);
+        cache.expireAt("a", new String("A"), NOW);
+        assertThat(cache.get("a", NOW)).isSameAs(first);
+
+        cache.expireAt("a", first, NOW + 1_000);
+        assertThat(cache.get("a", NOW + 1_000)).isNull();
+
+        cache.put("a", first, NOW, Long.MAX_VALUE);
+        cache.remove("a", new String("A"));
+        assertThat(cache.get("a", NOW)).isSameAs(first);
+        cache.remove("a", first);
+        assertThat(cache.get("a", NOW)).isNull();
+    }
+}
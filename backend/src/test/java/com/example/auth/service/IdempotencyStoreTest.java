@@ -0,0 +1,94 @@
+package com.example.auth.service;
+
+import com.example.auth.dto.ForgotPasswordRequest;
+import com.example.auth.dto.ResetPasswordRequest;
+import com.example.auth.exception.AuthException;
+import com.example.auth.exception.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyStoreTest {
+    private IdempotencyStore store;
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void createStore() {
+        store = new IdempotencyStore(new ObjectMapper());
+        ReflectionTestUtils.setField(store, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(store, "maxEntries", 2);
+        ReflectionTestUtils.setField(store, "waitTimeoutMs", 1000L);
+        store.init();
+    }
+
+    @Test
+    void retryReplaysTheFirstResponse() {
+        ResponseEntity<String> first = store.execute("forgot", "key-1", request("a@example.com"), this::action);
+        ResponseEntity<String> retry = store.execute("forgot", "key-1", request("a@example.com"), this::action);
+
+        assertThat(runs).hasValue(1);
+        assertThat(retry.getBody()).isEqualTo(first.getBody());
+        assertThat(retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void keyReusedForADifferentBodyIsRejected() {
+        store.execute("reset", "key-1", reset("a@example.com", "Password-1"), this::action);
+
+        assertThatThrownBy(() -> store.execute("reset", "key-1", reset("a@example.com", "Password-2"), this::action))
+                .isInstanceOfSatisfying(AuthException.class,
+                        e -> assertThat(e.getCode()).isEqualTo(ErrorCode.IDEMPOTENCY_KEY_REUSED));
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void serverErrorIsNotKept() {
+        assertThatThrownBy(() -> store.execute("forgot", "key-1", request("a@example.com"),
+                () -> {
+                    throw new IllegalStateException("mail server down");
+                }))
+                .isInstanceOf(IllegalStateException.class);
+
+        store.execute("forgot", "key-1", request("a@example.com"), this::action);
+
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void fullStoreForgetsTheLeastRecentlyUsedKey() {
+        store.execute("forgot", "key-1", request("a@example.com"), this::action);
+        store.execute("forgot", "key-2", request("b@example.com"), this::action);
+        store.execute("forgot", "key-1", request("a@example.com"), this::action);
+
+        store.execute("forgot", "key-3", request("c@example.com"), this::action);
+        store.execute("forgot", "key-1", request("a@example.com"), this::action);
+        store.execute("forgot", "key-2", request("b@example.com"), this::action);
+
+        assertThat(runs).hasValue(4);
+    }
+
+    private ResponseEntity<String> action() {
+        return ResponseEntity.ok("run " + runs.incrementAndGet());
+    }
+
+    private static ForgotPasswordRequest request(String email) {
+        ForgotPasswordRequest request = new ForgotPasswordRequest();
+        request.setEmail(email);
+        return request;
+    }
+
+    private static ResetPasswordRequest reset(String email, String newPassword) {
+        ResetPasswordRequest request = new ResetPasswordRequest();
+        request.setEmail(email);
+        request.setOtpCode("123456");
+        request.setNewPassword(newPassword);
+        return request;
+    }
+}
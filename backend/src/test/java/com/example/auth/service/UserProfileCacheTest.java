@@ -0,0 +1,53 @@
+package com.example.auth.service;
+
+import com.example.auth.dto.UserResponse;
+import com.example.auth.entity.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserProfileCacheTest {
+    private UserProfileCache cache;
+
+    @BeforeEach
+    void createCache() {
+        cache = new UserProfileCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 30L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+        cache.init();
+    }
+
+    @Test
+    void loadCarryingAnOldVersionCannotUndoAnInvalidation() {
+        cache.put("alice@example.com", profile("alice@example.com", 1));
+
+        cache.invalidate("alice@example.com", 2);
+        cache.put("alice@example.com", profile("alice@example.com", 1));
+
+        assertThat(cache.get("alice@example.com")).isNull();
+        cache.put("alice@example.com", profile("alice@example.com", 2));
+        assertThat(cache.get("alice@example.com").version()).isEqualTo(2);
+    }
+
+    @Test
+    void fullCacheMakesRoomForNewUsers() {
+        cache.put("a@example.com", profile("a@example.com", 1));
+        cache.put("b@example.com", profile("b@example.com", 1));
+        cache.get("a@example.com");
+
+        cache.put("c@example.com", profile("c@example.com", 1));
+
+        assertThat(cache.get("c@example.com")).isNotNull();
+        assertThat(cache.get("a@example.com")).isNotNull();
+        assertThat(cache.get("b@example.com")).isNull();
+    }
+
+    private static UserProfileCache.VersionedProfile profile(String email, long version) {
+        UserResponse response = new UserResponse(1L, email, email, Role.USER, true, LocalDateTime.now(), false);
+        return new UserProfileCache.VersionedProfile(response, version);
+    }
+}
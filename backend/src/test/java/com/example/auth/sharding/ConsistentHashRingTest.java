@@ -0,0 +1,26 @@
+package com.example.auth.sharding;
+
+import com.example.auth.entity.EmailLookup;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+    private static final List<String> SHARDS = IntStream.range(0, 16).mapToObj(i -> "shard" + i).toList();
+
+    @Test
+    void routesEverySpellingOfAnAccountToTheSameShard() {
+        ConsistentHashRing ring = new ConsistentHashRing(SHARDS, 64);
+        // Full-width letters, a Unicode space and a dotted capital I: EmailLookup folds all of them
+        List<String> spellings = List.of("Ｊｏｈｎ@Example.com", " john@example.com", "JOHN@EXAMPLE.COM ");
+        List<String> dotted = List.of("İnes@example.com", "i̇nes@example.com");
+
+        for (String spelling : spellings) {
+            assertThat(EmailLookup.of(spelling)).isEqualTo("john@example.com");
+            assertThat(ring.shardFor(spelling)).as(spelling).isEqualTo(ring.shardFor("john@example.com"));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.auth.sharding;
+
+import com.example.auth.service.ShardRebalanceService;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two routers over the same embedded shards stand for two instances: one
+ * runs the rebalance, the other only sees what the global shard records.
+ */
+class ShardRouterTest {
+    private static final List<String> TWO_SHARDS = List.of("shard0", "shard1");
+    private static final List<String> THREE_SHARDS = List.of("shard0", "shard1", "shard2");
+
+    private ShardingProperties properties;
+    private ShardDataSources dataSources;
+
+    @BeforeEach
+    void createShards() {
+        properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.setGlobalShard("shard0");
+        properties.setActiveShards(TWO_SHARDS);
+        properties.setRebalanceStatePollMs(1);
+        Map<String, DataSource> byName = new LinkedHashMap<>();
+        String run = UUID.randomUUID().toString();
+        for (String shard : THREE_SHARDS) {
+            properties.getShards().put(shard, new ShardingProperties.Shard());
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:" + shard + "-" + run + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+            new ResourceDatabasePopulator(new ClassPathResource("db/sharding/h2-shard-schema.sql")).execute(dataSource);
+            byName.put(shard, dataSource);
+        }
+        dataSources = new ShardDataSources(byName);
+    }
+
+    @Test
+    void anotherInstanceRoutesMovedEmailsToTheTarget() {
+        ShardRouter rebalancer = router();
+        ShardRouter other = router();
+        String moved = emailMovingTo("shard2");
+        String staying = emailStayingOn(rebalancer);
+
+        rebalancer.beginMigration(THREE_SHARDS);
+        rebalancer.markMoved(moved);
+        other.refresh();
+
+        assertThat(other.shardFor(moved)).isEqualTo("shard2");
+        assertThat(other.shardFor(staying)).isEqualTo(rebalancer.currentRing().shardFor(staying));
+        assertThat(other.isMigrating()).isTrue();
+    }
+
+    @Test
+    void completedLayoutSurvivesARestart() {
+        ShardRouter rebalancer = router();
+        String moved = emailMovingTo("shard2");
+        insertUser(rebalancer.shardFor(moved), moved);
+
+        new ShardRebalanceService(rebalancer, dataSources, properties).rebalance(THREE_SHARDS);
+        ShardRouter restarted = router();
+        restarted.refresh();
+
+        assertThat(restarted.currentRing().getShards()).isEqualTo(THREE_SHARDS);
+        assertThat(restarted.shardFor(moved)).isEqualTo("shard2");
+        assertThat(countUsers("shard2", moved)).isEqualTo(1);
+        assertThat(countUsers("shard0", moved) + countUsers("shard1", moved)).isZero();
+    }
+
+    private ShardRouter router() {
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("shardDataSources", dataSources);
+        return new ShardRouter(properties, beans.getBeanProvider(ShardDataSources.class));
+    }
+
+    private String emailMovingTo(String shard) {
+        ConsistentHashRing target = new ConsistentHashRing(THREE_SHARDS, properties.getVirtualNodes());
+        for (int i = 0; ; i++) {
+            String email = "user" + i + "@example.com";
+            if (target.shardFor(email).equals(shard)) {
+                return email;
+            }
+        }
+    }
+
+    private String emailStayingOn(ShardRouter router) {
+        ConsistentHashRing target = new ConsistentHashRing(THREE_SHARDS, properties.getVirtualNodes());
+        for (int i = 0; ; i++) {
+            String email = "stay" + i + "@example.com";
+            if (target.shardFor(email).equals(router.currentRing().shardFor(email))) {
+                return email;
+            }
+        }
+    }
+
+    private void insertUser(String shard, String email) {
+        new JdbcTemplate(dataSources.get(shard)).update(
+                "INSERT INTO users (username, email, password, role, is_verified) VALUES (?, ?, 'x', 'USER', TRUE)",
+                email.substring(0, email.indexOf('@')), email);
+    }
+
+    private int countUsers(String shard, String email) {
+        Integer count = new JdbcTemplate(dataSources.get(shard)).queryForObject(
+                "SELECT COUNT(*) FROM users WHERE email = ?", Integer.class, email);
+        return count == null ? 0 : count;
+    }
+}
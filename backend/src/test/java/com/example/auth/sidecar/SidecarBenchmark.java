@@ -0,0 +1,101 @@
+package com.example.auth.sidecar;
+
+import com.example.auth.security.TokenClaims;
+import com.example.auth.service.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-token verification over the sidecar socket against the same
+ * verification in process, which is the floor the socket adds to, plus
+ * pipelined sidecar batches. The sidecar runs in the benchmark JVM on a
+ * temporary socket; sample mode reports the p50, p99 and p99.9 latencies:
+ *
+ * <pre>
+ * scripts/jmh.sh SidecarBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SidecarBenchmark {
+    private static final int BATCH = 256;
+
+    private Path directory;
+    private JwtService jwtService;
+    private VerificationSidecar sidecar;
+    private SidecarClient client;
+    private String token;
+    private List<String> batch;
+
+    @Setup
+    public void setUp() throws Exception {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", "benchmark-secret-0123456789abcdef0123456789");
+        ReflectionTestUtils.setField(jwtService, "expiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(jwtService, "codec", "hs256");
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        token = jwtService.generateToken(
+                User.withUsername("someone@example.com").password("").authorities("ROLE_USER").build(), "USER");
+        batch = Collections.nCopies(BATCH, token);
+
+        directory = Files.createTempDirectory("sidecar-benchmark");
+        Path socket = directory.resolve("verify.sock");
+        sidecar = new VerificationSidecar(jwtService);
+        ReflectionTestUtils.setField(sidecar, "enabled", true);
+        ReflectionTestUtils.setField(sidecar, "socketPath", socket.toString());
+        ReflectionTestUtils.setField(sidecar, "maxTokenBytes", 8192);
+        ReflectionTestUtils.invokeMethod(sidecar, "start");
+        client = new SidecarClient(socket);
+        if (!client.verify(token).active()) {
+            throw new IllegalStateException("Token is not active; the benchmark would only measure rejections");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        client.close();
+        ReflectionTestUtils.invokeMethod(sidecar, "stop");
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public TokenClaims inProcess() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public SidecarClient.Result roundTrip() throws Exception {
+        return client.verify(token);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OperationsPerInvocation(BATCH)
+    public List<SidecarClient.Result> pipelined() throws Exception {
+        return client.verifyAll(batch);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.auth.state;
+
+import com.example.auth.entity.OtpCode;
+import com.example.auth.entity.OtpType;
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisOtpStoreTest {
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+
+    private RedisServer server;
+    private RespClient redis;
+    private RedisOtpStore store;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = RedisServer.newRedisServer().start();
+        redis = new RespClient(server.getHost(), server.getBindPort(), "", 0, 2, 2000);
+        store = new RedisOtpStore(redis);
+        ReflectionTestUtils.setField(store, "keyPrefix", "test:");
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        redis.close();
+        server.stop();
+    }
+
+    @Test
+    void issuedCodeIsConsumedOnce() {
+        assertThat(store.issue(otp("alice@example.com", "123456"), WINDOW)).isNotNull();
+
+        assertThat(store.consume(null, "Alice@Example.com", "123456", OtpType.REGISTRATION)).isTrue();
+        assertThat(store.consume(null, "alice@example.com", "123456", OtpType.REGISTRATION)).isFalse();
+    }
+
+    @Test
+    void wrongCodeLeavesTheRealOneUsable() {
+        store.issue(otp("alice@example.com", "123456"), WINDOW);
+
+        assertThat(store.consume(null, "alice@example.com", "654321", OtpType.REGISTRATION)).isFalse();
+        assertThat(store.consume(null, "alice@example.com", "123456", OtpType.RESET_PASSWORD)).isFalse();
+        assertThat(store.consume(null, "alice@example.com", "123456", OtpType.REGISTRATION)).isTrue();
+    }
+
+    @Test
+    void secondIssueWithinTheWindowIsRateLimited() {
+        assertThat(store.issue(otp("alice@example.com", "111111"), WINDOW)).isNotNull();
+        assertThat(store.issue(otp("alice@example.com", "222222"), WINDOW)).isNull();
+
+        // The first code is still the live one
+        assertThat(store.consume(null, "alice@example.com", "222222", OtpType.REGISTRATION)).isFalse();
+        assertThat(store.consume(null, "alice@example.com", "111111", OtpType.REGISTRATION)).isTrue();
+    }
+
+    @Test
+    void discardLiftsTheRateLimit() {
+        OtpCode undelivered = store.issue(otp("alice@example.com", "111111"), WINDOW);
+
+        store.discard(undelivered);
+
+        assertThat(store.consume(null, "alice@example.com", "111111", OtpType.REGISTRATION)).isFalse();
+        assertThat(store.issue(otp("alice@example.com", "222222"), WINDOW)).isNotNull();
+    }
+
+    @Test
+    void discardAllSparesCodesReplacedSince() {
+        List<OtpCode> batch = List.of(
+                otp("a@example.com", "100001"), otp("b@example.com", "100002"), otp("c@example.com", "100003"));
+        store.issueAll(batch);
+        // b asked for a new code before the batch was discarded
+        store.issue(otp("b@example.com", "200002"), WINDOW);
+
+        store.discardAll(batch);
+
+        assertThat(store.consume(null, "a@example.com", "100001", OtpType.REGISTRATION)).isFalse();
+        assertThat(store.consume(null, "c@example.com", "100003", OtpType.REGISTRATION)).isFalse();
+        assertThat(store.consume(null, "b@example.com", "200002", OtpType.REGISTRATION)).isTrue();
+    }
+
+    private static OtpCode otp(String email, String code) {
+        return new OtpCode(null, null, email, null, code, LocalDateTime.now().plusMinutes(5),
+                OtpType.REGISTRATION, false);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.auth.state;
+
+import com.example.auth.entity.PendingRegistration;
+import com.example.auth.entity.Role;
+import com.example.auth.exception.AuthException;
+import com.example.auth.exception.ErrorCode;
+import com.example.auth.service.UserService;
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class RedisPendingRegistrationStoreTest {
+    private RedisServer server;
+    private RespClient redis;
+    private UserService userService;
+    private RedisPendingRegistrationStore store;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = RedisServer.newRedisServer().start();
+        redis = new RespClient(server.getHost(), server.getBindPort(), "", 0, 2, 2000);
+        userService = mock(UserService.class);
+        store = new RedisPendingRegistrationStore(redis, userService);
+        ReflectionTestUtils.setField(store, "keyPrefix", "test:");
+        ReflectionTestUtils.setField(store, "pendingTtlHours", 24L);
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        redis.close();
+        server.stop();
+    }
+
+    @Test
+    void createdRegistrationIsFoundUnderAnySpelling() {
+        store.create(pending("alice", "alice@example.com"));
+
+        PendingRegistration found = store.findByEmail("Alice@Example.com").orElseThrow();
+
+        assertThat(found.getUsername()).isEqualTo("alice");
+        assertThat(found.getPassword()).isEqualTo("hash");
+        assertThat(found.getRole()).isEqualTo(Role.USER);
+        assertThat((Long) redis.execute("PTTL", "test:pending:alice@example.com")).isPositive();
+    }
+
+    @Test
+    void pendingEmailOrUsernameCannotBeRegisteredAgain() {
+        store.create(pending("alice", "alice@example.com"));
+
+        assertThatThrownBy(() -> store.create(pending("alice2", "ALICE@example.com")))
+                .isInstanceOfSatisfying(AuthException.class,
+                        e -> assertThat(e.getCode()).isEqualTo(ErrorCode.EMAIL_ALREADY_EXISTS));
+        assertThatThrownBy(() -> store.create(pending("Alice", "other@example.com")))
+                .isInstanceOfSatisfying(AuthException.class,
+                        e -> assertThat(e.getCode()).isEqualTo(ErrorCode.USERNAME_ALREADY_EXISTS));
+        // The failed attempt claimed nothing
+        assertThat(store.findByEmail("other@example.com")).isEmpty();
+    }
+
+    @Test
+    void promoteCreatesTheUserAndFreesTheKeys() {
+        store.create(pending("alice", "alice@example.com"));
+
+        store.promote("alice@example.com");
+
+        verify(userService).createVerifiedUser("alice", "alice@example.com", "hash", Role.USER);
+        assertThat(store.findByEmail("alice@example.com")).isEmpty();
+        store.create(pending("alice", "new@example.com"));
+    }
+
+    @Test
+    void promoteWithoutAPendingRegistrationFails() {
+        assertThatThrownBy(() -> store.promote("nobody@example.com"))
+                .isInstanceOfSatisfying(AuthException.class,
+                        e -> assertThat(e.getCode()).isEqualTo(ErrorCode.PENDING_REGISTRATION_NOT_FOUND));
+    }
+
+    @Test
+    void deleteRemovesTheRegistrationAndItsUsername() {
+        store.create(pending("alice", "alice@example.com"));
+
+        store.deleteByEmail("alice@example.com");
+
+        assertThat(store.findByEmail("alice@example.com")).isEmpty();
+        store.create(pending("alice", "alice@example.com"));
+    }
+
+    private static PendingRegistration pending(String username, String email) {
+        PendingRegistration pending = new PendingRegistration();
+        pending.setUsername(username);
+        pending.setEmail(email);
+        pending.setPassword("hash");
+        pending.setRole(Role.USER);
+        return pending;
+    }
+}
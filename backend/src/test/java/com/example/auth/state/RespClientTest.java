@@ -0,0 +1,72 @@
+package com.example.auth.state;
+
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RespClientTest {
+    private RedisServer server;
+    private RespClient redis;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = RedisServer.newRedisServer().start();
+        redis = new RespClient(server.getHost(), server.getBindPort(), "", 0, 2, 2000);
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        redis.close();
+        server.stop();
+    }
+
+    @Test
+    void mapsRepliesToJavaTypes() {
+        assertThat(redis.execute("SET", "k", "v")).isEqualTo("OK");
+        assertThat(redis.execute("GET", "k")).isEqualTo("v");
+        assertThat(redis.execute("GET", "missing")).isNull();
+        assertThat(redis.execute("INCR", "n")).isEqualTo(1L);
+        assertThat(redis.execute("MGET", "k", "missing")).isEqualTo(Arrays.asList("v", null));
+    }
+
+    @Test
+    void pipelineReturnsRepliesInOrder() {
+        List<Object> replies = redis.pipeline(List.of(
+                new String[]{"SET", "a", "1"},
+                new String[]{"INCR", "a"},
+                new String[]{"GET", "a"}));
+
+        assertThat(replies).containsExactly("OK", 2L, "2");
+    }
+
+    @Test
+    void errorReplyIsThrownAfterTheWholePipelineWasRead() {
+        redis.execute("SET", "text", "not a number");
+
+        assertThatThrownBy(() -> redis.pipeline(List.of(
+                new String[]{"INCR", "text"},
+                new String[]{"SET", "after", "yes"})))
+                .isInstanceOf(RespClient.RespException.class);
+
+        // The reply to the second command was consumed, so the pooled connection is in step
+        assertThat(redis.execute("GET", "after")).isEqualTo("yes");
+        assertThat(redis.execute("PING")).isEqualTo("PONG");
+    }
+
+    @Test
+    void selectsTheConfiguredDatabase() {
+        try (RespClient other = new RespClient(server.getHost(), server.getBindPort(), "", 3, 1, 2000)) {
+            other.execute("SET", "k", "db3");
+            assertThat(other.execute("GET", "k")).isEqualTo("db3");
+        }
+        assertThat(redis.execute("GET", "k")).isNull();
+    }
+}
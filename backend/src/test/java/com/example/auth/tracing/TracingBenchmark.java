@@ -0,0 +1,108 @@
+package com.example.auth.tracing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what tracing adds to a request shaped like a login: one root
+ * span around a handful of instrumented component calls. Runs the same
+ * work with no tracer, with tracing disabled (no proxies, as deployed),
+ * and proxied with tracing disabled, with nothing sampled and with every
+ * trace recorded and exported:
+ *
+ * <pre>
+ * scripts/jmh.sh TracingBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TracingBenchmark {
+    private static final int CALLS_PER_REQUEST = 8;
+
+    public interface Component {
+        long work(long seed);
+    }
+
+    /**
+     * "disabled" is what a disabled deployment runs: no proxies, only the
+     * filter's root span. "proxy-disabled" separates the proxy's cost from
+     * the tracer's.
+     */
+    @Param({"none", "disabled", "proxy-disabled", "proxy-sample-0", "proxy-sample-1"})
+    public String setup;
+
+    private Tracer tracer;
+    private Component component;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        Component plain = value -> value * 31 + 7;
+        component = plain;
+        switch (setup) {
+            case "none" -> tracer = null;
+            case "disabled", "proxy-disabled" -> tracer = tracer(false, 0);
+            case "proxy-sample-0" -> tracer = tracer(true, 0);
+            case "proxy-sample-1" -> tracer = tracer(true, 1);
+            default -> throw new IllegalArgumentException("Unknown setup " + setup);
+        }
+        if (setup.startsWith("proxy")) {
+            ProxyFactory factory = new ProxyFactory(plain);
+            factory.addInterface(Component.class);
+            factory.addAdvice(new TracingInterceptor(() -> tracer, "Component"));
+            component = (Component) factory.getProxy();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        if (tracer != null) {
+            if (tracer.getDroppedCount() > 0) {
+                System.out.println("Dropped traces: " + tracer.getDroppedCount());
+            }
+            tracer.close();
+        }
+    }
+
+    @Benchmark
+    public long request() {
+        Span root = tracer == null ? Span.NOOP : tracer.startRootSpan("POST /api/auth/login", null);
+        try {
+            long result = seed++;
+            for (int call = 0; call < CALLS_PER_REQUEST; call++) {
+                result = component.work(result);
+            }
+            return result;
+        } finally {
+            root.end();
+        }
+    }
+
+    private static Tracer tracer(boolean enabled, double sampleRate) {
+        TracingProperties properties = new TracingProperties();
+        properties.setEnabled(enabled);
+        properties.setSampleRate(sampleRate);
+        properties.setExportQueueSize(1 << 16);
+        Tracer tracer = new Tracer(properties, (List<SpanData> trace) -> { });
+        tracer.start();
+        return tracer;
+    }
+}
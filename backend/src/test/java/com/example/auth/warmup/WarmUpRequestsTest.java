@@ -0,0 +1,62 @@
+package com.example.auth.warmup;
+
+import com.example.auth.limit.ConcurrencyLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Only loopback requests carrying this process's token skip the limiter.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WarmUpRequestsTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WarmUpRequests warmUpRequests;
+
+    @Autowired
+    private ConcurrencyLimiter limiter;
+
+    @Test
+    void warmUpRequestsAreNotCountedByTheLimiter() throws Exception {
+        assertThat(acceptedAfter(me().header(WarmUpRequests.HEADER, warmUpRequests.token()))).isZero();
+    }
+
+    @Test
+    void requestsWithAnyOtherTokenAreCounted() throws Exception {
+        assertThat(acceptedAfter(me().header(WarmUpRequests.HEADER, "guessed"))).isEqualTo(1);
+        assertThat(acceptedAfter(me().header(WarmUpRequests.HEADER, ""))).isEqualTo(1);
+        assertThat(acceptedAfter(me())).isEqualTo(1);
+    }
+
+    @Test
+    void theTokenOnlyCountsOverLoopback() throws Exception {
+        assertThat(acceptedAfter(me()
+                .header(WarmUpRequests.HEADER, warmUpRequests.token())
+                .with(request -> {
+                    request.setRemoteAddr("203.0.113.7");
+                    return request;
+                }))).isEqualTo(1);
+    }
+
+    private long acceptedAfter(MockHttpServletRequestBuilder request) throws Exception {
+        long before = limiter.snapshot().get("cheap").accepted();
+        mockMvc.perform(request);
+        return limiter.snapshot().get("cheap").accepted() - before;
+    }
+
+    private static MockHttpServletRequestBuilder me() {
+        return get("/api/users/me").header("Authorization", "Bearer not-a-token");
+    }
+}
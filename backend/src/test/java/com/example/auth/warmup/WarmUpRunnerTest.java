@@ -0,0 +1,68 @@
+package com.example.auth.warmup;
+
+import com.example.auth.limit.AdaptiveLimit;
+import com.example.auth.limit.ConcurrencyLimiter;
+import com.example.auth.metrics.AuthStats;
+import com.example.auth.metrics.ConnectionMetrics;
+import com.example.auth.metrics.EndpointContext;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A real warm-up at start-up, over loopback to the running server, leaves
+ * no trace in the limits, auth stats or pool metrics.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "warmup.enabled=true",
+        "warmup.iterations=50",
+        "warmup.http-requests=20",
+        "warmup.password-checks=2",
+})
+@ActiveProfiles("test")
+@ExtendWith(OutputCaptureExtension.class)
+class WarmUpRunnerTest {
+    @Autowired
+    private ConcurrencyLimiter limiter;
+
+    @Autowired
+    private ConnectionMetrics connectionMetrics;
+
+    @Autowired
+    private AuthStats authStats;
+
+    @Test
+    void warmUpTrafficIsKeptOutOfTheLimitsAndStats(CapturedOutput output) {
+        assertThat(output).contains("2 password checks", "20 http requests");
+        assertThat(limiter.snapshot().values()).extracting(AdaptiveLimit.Snapshot::accepted).containsOnly(0L);
+        assertThat(connectionMetrics.snapshot()).doesNotContainKey(EndpointContext.WARM_UP);
+    }
+
+    @Test
+    void workBoundToTheWarmUpIsNotCounted() {
+        IMetricsTracker tracker = connectionMetrics.create("warm-up-test", new PoolStats(0) {
+            @Override
+            protected void update() {
+            }
+        });
+        long logins = authStats.snapshot().events().get("login_failure").total();
+
+        try (var endpoint = EndpointContext.bind(EndpointContext.WARM_UP)) {
+            authStats.record(AuthStats.Event.LOGIN_FAILURE);
+            tracker.recordConnectionAcquiredNanos(1_000);
+            tracker.recordConnectionUsageMillis(1);
+            tracker.recordConnectionTimeout();
+        }
+
+        assertThat(authStats.snapshot().events().get("login_failure").total()).isEqualTo(logins);
+        assertThat(connectionMetrics.snapshot()).doesNotContainKey(EndpointContext.WARM_UP);
+    }
+}
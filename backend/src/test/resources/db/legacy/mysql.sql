@@ -0,0 +1,54 @@
+-- A database created by the old database/mysql_schema.sql and extended
+-- by ddl-auto=update, before Flyway: no history table, the old index
+-- names (idx_user_id backing the otp_codes foreign key), no TOTP columns,
+-- no username_index, and role and type as the ENUM columns Hibernate
+-- generated. The migration tests baseline it at V1 and migrate it.
+
+CREATE TABLE users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) UNIQUE NOT NULL,
+    email VARCHAR(255) UNIQUE NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role ENUM('ADMIN','USER') NOT NULL DEFAULT 'USER',
+    is_verified BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_email (email),
+    INDEX idx_username (username),
+    INDEX idx_role (role),
+    INDEX idx_is_verified (is_verified)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE pending_registrations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) UNIQUE NOT NULL,
+    email VARCHAR(255) UNIQUE NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role ENUM('ADMIN','USER') NOT NULL DEFAULT 'USER',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_email (email),
+    INDEX idx_username (username)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE otp_codes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NULL,
+    email VARCHAR(255) NULL,
+    otp_code VARCHAR(6) NOT NULL,
+    expiry_time TIMESTAMP NOT NULL,
+    type ENUM('REGISTRATION','RESET_PASSWORD') NOT NULL,
+    used BOOLEAN NOT NULL DEFAULT FALSE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_user_id (user_id),
+    INDEX idx_email (email),
+    INDEX idx_otp_code (otp_code),
+    INDEX idx_expiry_time (expiry_time),
+    INDEX idx_type (type),
+    INDEX idx_used (used),
+    INDEX idx_user_otp_type (user_id, otp_code, type, used),
+    INDEX idx_email_otp_type (email, otp_code, type, used)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO users (username, email, password, role, is_verified)
+VALUES ('alice', 'Alice@Example.com', '$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy', 'USER', TRUE);
+INSERT INTO otp_codes (user_id, email, otp_code, expiry_time, type, used)
+VALUES (1, 'Alice@Example.com', '123456', CURRENT_TIMESTAMP, 'RESET_PASSWORD', FALSE);
@@ -0,0 +1,52 @@
+-- A database created by the old database/postgresql_schema.sql, before
+-- Flyway: no history table, single-column indexes, no TOTP columns and no
+-- username_index. The migration tests baseline it at V1 and migrate it.
+
+CREATE TABLE users (
+    id BIGSERIAL PRIMARY KEY,
+    username VARCHAR(50) UNIQUE NOT NULL,
+    email VARCHAR(255) UNIQUE NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(20) NOT NULL DEFAULT 'USER',
+    is_verified BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_users_email ON users(email);
+CREATE INDEX idx_users_username ON users(username);
+CREATE INDEX idx_users_role ON users(role);
+CREATE INDEX idx_users_is_verified ON users(is_verified);
+
+CREATE TABLE pending_registrations (
+    id BIGSERIAL PRIMARY KEY,
+    username VARCHAR(50) UNIQUE NOT NULL,
+    email VARCHAR(255) UNIQUE NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(20) NOT NULL DEFAULT 'USER',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_pending_registrations_email ON pending_registrations(email);
+CREATE INDEX idx_pending_registrations_username ON pending_registrations(username);
+
+CREATE TABLE otp_codes (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NULL,
+    email VARCHAR(255) NULL,
+    otp_code VARCHAR(6) NOT NULL,
+    expiry_time TIMESTAMP NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    used BOOLEAN NOT NULL DEFAULT FALSE,
+    CONSTRAINT fk_otp_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+CREATE INDEX idx_otp_codes_user_id ON otp_codes(user_id);
+CREATE INDEX idx_otp_codes_email ON otp_codes(email);
+CREATE INDEX idx_otp_codes_otp_code ON otp_codes(otp_code);
+CREATE INDEX idx_otp_codes_expiry_time ON otp_codes(expiry_time);
+CREATE INDEX idx_otp_codes_type ON otp_codes(type);
+CREATE INDEX idx_otp_codes_used ON otp_codes(used);
+CREATE INDEX idx_otp_codes_user_otp_type ON otp_codes(user_id, otp_code, type, used);
+CREATE INDEX idx_otp_codes_email_otp_type ON otp_codes(email, otp_code, type, used);
+
+INSERT INTO users (username, email, password, role, is_verified)
+VALUES ('alice', 'Alice@Example.com', '$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy', 'USER', TRUE);
+INSERT INTO otp_codes (user_id, email, otp_code, expiry_time, type, used)
+VALUES (1, 'Alice@Example.com', '123456', CURRENT_TIMESTAMP, 'RESET_PASSWORD', FALSE);